@@ -31,6 +31,7 @@ import com.oracle.truffle.r.ffi.impl.nodes.DuplicateNodesFactory.DuplicateNodeGe
 import com.oracle.truffle.r.ffi.impl.nodes.DuplicateNodesFactory.RfAnyDuplicated3NodeGen;
 import com.oracle.truffle.r.ffi.impl.nodes.DuplicateNodesFactory.RfAnyDuplicatedNodeGen;
 import com.oracle.truffle.r.nodes.function.RMissingHelper;
+import com.oracle.truffle.r.runtime.data.RCompactVector;
 import com.oracle.truffle.r.runtime.data.RExternalPtr;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RSequence;
@@ -56,6 +57,11 @@ public final class DuplicateNodes {
             return x.materialize();
         }
 
+        @Specialization
+        public Object duplicateCompact(RCompactVector x, @SuppressWarnings("unused") int deep) {
+            return x.materialize();
+        }
+
         @Specialization
         public Object duplicateExternalPtr(RExternalPtr x, @SuppressWarnings("unused") int deep) {
             return x.copy();
@@ -22,10 +22,18 @@
  */
 package com.oracle.truffle.r.library.parallel;
 
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.integerValue;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
+import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.rng.lecuyer.LEcuyerCMRG;
 
 /**
  * The .Call support for the parallel package.
@@ -37,4 +45,49 @@ public class ParallelFunctions {
             return RRuntime.asLogical(RContext.getInstance().getParent() != null);
         }
     }
+
+    private static int[] getLEcuyerSeed(RAbstractIntVector seed, RExternalBuiltinNode node) {
+        if (seed.getLength() < 7) {
+            throw node.error(RError.Message.INVALID_ARGUMENT, "seed");
+        }
+        int[] result = new int[7];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = seed.getDataAt(i);
+        }
+        return result;
+    }
+
+    /**
+     * Advances a "L'Ecuyer-CMRG" seed to the next stream, used by {@code nextRNGStream}.
+     */
+    public abstract static class NextStream extends RExternalBuiltinNode.Arg1 {
+
+        static {
+            Casts casts = new Casts(NextStream.class);
+            casts.arg(0).mustBe(integerValue());
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected RIntVector nextStream(RAbstractIntVector seed) {
+            return RDataFactory.createIntVector(LEcuyerCMRG.nextStream(getLEcuyerSeed(seed, this)), RDataFactory.COMPLETE_VECTOR);
+        }
+    }
+
+    /**
+     * Advances a "L'Ecuyer-CMRG" seed to the next sub-stream, used by {@code nextRNGSubStream}.
+     */
+    public abstract static class NextSubStream extends RExternalBuiltinNode.Arg1 {
+
+        static {
+            Casts casts = new Casts(NextSubStream.class);
+            casts.arg(0).mustBe(integerValue());
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected RIntVector nextSubStream(RAbstractIntVector seed) {
+            return RDataFactory.createIntVector(LEcuyerCMRG.nextSubStream(getLEcuyerSeed(seed, this)), RDataFactory.COMPLETE_VECTOR);
+        }
+    }
 }
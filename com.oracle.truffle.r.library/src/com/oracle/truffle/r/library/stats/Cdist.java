@@ -25,14 +25,19 @@ import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.missingValue
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.nullValue;
 import static com.oracle.truffle.r.runtime.nmath.MathConstants.DBL_MIN;
 
+import java.util.stream.IntStream;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.nodes.attributes.GetFixedAttributeNode;
 import com.oracle.truffle.r.nodes.attributes.SetAttributeNode;
 import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.GetDimAttributeNode;
 import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.SetClassAttributeNode;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
+import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RRuntime;
@@ -49,6 +54,10 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
 
     private static final NACheck naCheck = NACheck.create();
 
+    private static final long PARALLEL_THRESHOLD = FastROptions.PairwiseParallelThreshold.getNonNegativeIntValue();
+
+    private final ConditionProfile parallelProfile = ConditionProfile.createBinaryProfile();
+
     @Child private GetFixedAttributeNode getNamesAttrNode = GetFixedAttributeNode.createNames();
 
     static {
@@ -132,6 +141,12 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
         int dc = diag ? 0 : 1; /* diag=1: we do the diagonal */
         ij = 0;
         naCheck.enable(true);
+        if (parallelProfile.profile(PARALLEL_THRESHOLD != 0 && (long) d.length * nc >= PARALLEL_THRESHOLD) && rdistanceParallel(xAccess, xIter, nr, nc, d, dc, method, p)) {
+            for (int i = 0; i < d.length; i++) {
+                naCheck.check(d[i]);
+            }
+            return;
+        }
         for (int j = 0; j <= nr; j++) {
             for (int i = j + dc; i < nr; i++) {
                 double r = method.dist(xAccess, xIter, nr, nc, i, j, p);
@@ -141,6 +156,45 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
         }
     }
 
+    /**
+     * Computes the distances in parallel, each task handling one short and one long column of the
+     * lower triangle. The rows of {@code x} are first copied into contiguous memory, so that each
+     * distance is computed with unit stride. Returns {@code false} if the method could produce
+     * warnings, which must not be reported from the worker threads.
+     */
+    @TruffleBoundary
+    private static boolean rdistanceParallel(VectorAccess xAccess, RandomIterator xIter, int nr, int nc, double[] d, int dc, Method method, double p) {
+        double[] rows = new double[nr * nc];
+        for (int i = 0; i < nr; i++) {
+            for (int j = 0; j < nc; j++) {
+                double value = xAccess.getDouble(xIter, j * nr + i);
+                if (method == Method.BINARY && !RRuntime.isNAorNaN(value) && !RRuntime.isFinite(value)) {
+                    return false;
+                }
+                rows[i * nc + j] = value;
+            }
+        }
+        RDoubleVector rowsVector = RDataFactory.createDoubleVector(rows, false);
+        VectorAccess rowsAccess = rowsVector.slowPathAccess();
+        try (RandomIterator rowsIter = rowsAccess.randomAccess(rowsVector)) {
+            IntStream.range(0, (nr + 1) / 2).parallel().forEach(column -> {
+                rdistanceColumn(rowsAccess, rowsIter, nr, nc, d, dc, method, p, column);
+                if (nr - 1 - column != column) {
+                    rdistanceColumn(rowsAccess, rowsIter, nr, nc, d, dc, method, p, nr - 1 - column);
+                }
+            });
+        }
+        return true;
+    }
+
+    private static void rdistanceColumn(VectorAccess rowsAccess, RandomIterator rowsIter, int nr, int nc, double[] d, int dc, Method method, double p, int j) {
+        // number of elements in the columns before j
+        int ij = (int) ((long) j * (nr - dc) - (long) j * (j - 1) / 2);
+        for (int i = j + dc; i < nr; i++) {
+            d[ij++] = method.dist(rowsAccess, rowsIter, 1, nc, i * nc, j * nc, p);
+        }
+    }
+
     public enum Method {
         EUCLIDEAN {
             @Override
@@ -22,6 +22,9 @@ package com.oracle.truffle.r.library.stats;
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.nullValue;
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
 
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -34,6 +37,7 @@ import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.SetDimNa
 import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctionsFactory.SetDimNamesAttributeNodeGen;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
 import com.oracle.truffle.r.nodes.unary.IsFactorNode;
+import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RRuntime;
@@ -73,6 +77,110 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
         return Double.isNaN(v);
     }
 
+    private static final long PARALLEL_THRESHOLD = FastROptions.PairwiseParallelThreshold.getNonNegativeIntValue();
+
+    /**
+     * Estimates the number of element operations needed for {@code pairs} pairs of columns with
+     * {@code n} observations each.
+     */
+    private static long work(int n, long pairs, boolean kendall) {
+        return pairs * n * (kendall ? n : 1);
+    }
+
+    /**
+     * Calls {@code action} for the columns {@code 0..count-1}, in parallel if the amount of
+     * {@code work} is large enough. The actions must write disjoint parts of the result.
+     */
+    private static void forEachColumn(int count, long work, IntConsumer action) {
+        if (PARALLEL_THRESHOLD != 0 && work >= PARALLEL_THRESHOLD) {
+            IntStream.range(0, count).parallel().forEach(action);
+        } else {
+            for (int i = 0; i < count; i++) {
+                action.accept(i);
+            }
+        }
+    }
+
+    /**
+     * Like {@link #forEachColumn}, but for the lower triangle of a symmetric result, where the work
+     * for column {@code i} grows with {@code i}. Each parallel task takes one short and one long
+     * column, so that the tasks are of similar size.
+     */
+    private static void forEachTriangleColumn(int count, long work, IntConsumer action) {
+        if (PARALLEL_THRESHOLD != 0 && work >= PARALLEL_THRESHOLD) {
+            IntStream.range(0, (count + 1) / 2).parallel().forEach(i -> {
+                action.accept(i);
+                if (count - 1 - i != i) {
+                    action.accept(count - 1 - i);
+                }
+            });
+        } else {
+            for (int i = 0; i < count; i++) {
+                action.accept(i);
+            }
+        }
+    }
+
+    /**
+     * Returns the observations selected by {@code ind} (all of them if {@code ind} is
+     * {@code null}) with the column means subtracted, packed so that each of the {@code nc}
+     * columns occupies {@code nobs} consecutive elements.
+     */
+    private static double[] center(int n, int nc, double[] x, double[] m, boolean[] ind, int nobs) {
+        double[] result = new double[nc * nobs];
+        for (int i = 0; i < nc; i++) {
+            int xx = i * n;
+            int index = i * nobs;
+            double mean = m[i];
+            for (int k = 0; k < n; k++) {
+                if (ind == null || ind[k]) {
+                    result[index++] = x[xx + k] - mean;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the dot products of the column of {@code a} starting at {@code aOffset} with the
+     * first {@code count} columns of {@code b}, all of length {@code n}. Four columns of {@code b}
+     * are processed at once, so that the column of {@code a} is loaded only once for each of them.
+     * Every dot product is still summed in the order of the observations, so the results are
+     * identical to those of a simple loop.
+     */
+    private static void crossprod(double[] a, int aOffset, double[] b, int n, int count, double[] result) {
+        int j = 0;
+        for (; j + 4 <= count; j += 4) {
+            int b0 = j * n;
+            int b1 = b0 + n;
+            int b2 = b1 + n;
+            int b3 = b2 + n;
+            double sum0 = 0;
+            double sum1 = 0;
+            double sum2 = 0;
+            double sum3 = 0;
+            for (int k = 0; k < n; k++) {
+                double value = a[aOffset + k];
+                sum0 += value * b[b0 + k];
+                sum1 += value * b[b1 + k];
+                sum2 += value * b[b2 + k];
+                sum3 += value * b[b3 + k];
+            }
+            result[j] = sum0;
+            result[j + 1] = sum1;
+            result[j + 2] = sum2;
+            result[j + 3] = sum3;
+        }
+        for (; j < count; j++) {
+            int bb = j * n;
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += a[aOffset + k] * b[bb + k];
+            }
+            result[j] = sum;
+        }
+    }
+
     /*
      * Note that "if (kendall)" and "if (cor)" are used inside a double for() loop; which makes the
      * code better readable -- and is hopefully dealt with by a smartly optimizing compiler
@@ -161,7 +269,7 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
 
     @TruffleBoundary
     private static void cov_pairwise1(int n, int ncx, double[] x, double[] ans, boolean[] sd_0, boolean cor, boolean kendall) {
-        for (int i = 0; i < ncx; i++) {
+        forEachTriangleColumn(ncx, work(n, (long) ncx * (ncx + 1) / 2, kendall), i -> {
             int xx = i * n;
             for (int j = 0; j <= i; j++) {
                 int yy = j * n;
@@ -170,19 +278,19 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
 
                 ANS(ans, ncx, j, i, ANS(ans, ncx, i, j));
             }
-        }
+        });
     }
 
     @TruffleBoundary
     private static void cov_pairwise2(int n, int ncx, int ncy, double[] x, double[] y, double[] ans, boolean[] sd_0, boolean cor, boolean kendall) {
-        for (int i = 0; i < ncx; i++) {
+        forEachColumn(ncx, work(n, (long) ncx * ncy, kendall), i -> {
             int xx = i * n;
             for (int j = 0; j < ncy; j++) {
                 int yy = j * n;
 
                 COV_PAIRWISE_BODY(ans, n, ncx, i, j, x, y, xx, yy, sd_0, cor, kendall);
             }
-        }
+        });
     }
 
     /*
@@ -241,8 +349,6 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
     }
 
     private static void cov_complete1(int n, int ncx, double[] x, double[] xm, boolean[] ind, double[] ans, boolean[] sd_0, boolean cor, boolean kendall) {
-        int n1 = -1;
-
         /* total number of complete observations */
         int nobs = 0;
         for (int k = 0; k < n; k++) {
@@ -261,33 +367,27 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
 
         if (!kendall) {
             MEAN(n, ncx, x, xm, ind, nobs); /* -> xm[] */
-            n1 = nobs - 1;
-        }
-        for (int i = 0; i < ncx; i++) {
-            int xx = i * n;
-
-            if (!kendall) {
-                double xxm = xm[i];
+            int n1 = nobs - 1;
+            int m = nobs;
+            double[] centered = center(n, ncx, x, xm, ind, m);
+            forEachTriangleColumn(ncx, work(m, (long) ncx * (ncx + 1) / 2, false), i -> {
+                double[] sums = new double[i + 1];
+                crossprod(centered, i * m, centered, m, i + 1, sums);
                 for (int j = 0; j <= i; j++) {
-                    int yy = j * n;
-                    double yym = xm[j];
-                    double sum = 0;
-                    for (int k = 0; k < n; k++) {
-                        if (ind[k]) {
-                            sum += (x[xx + k] - xxm) * (x[yy + k] - yym);
-                        }
-                    }
-                    double result = sum / n1;
+                    double result = sums[j] / n1;
                     ANS(ans, ncx, j, i, result);
                     ANS(ans, ncx, i, j, result);
                 }
-            } else { /* Kendall's tau */
+            });
+        } else { /* Kendall's tau */
+            forEachTriangleColumn(ncx, work(n, (long) ncx * (ncx + 1) / 2, true), i -> {
+                int xx = i * n;
                 for (int j = 0; j <= i; j++) {
                     int yy = j * n;
                     double sum = 0;
                     for (int k = 0; k < n; k++) {
                         if (ind[k]) {
-                            for (n1 = 0; n1 < n; n1++) {
+                            for (int n1 = 0; n1 < n; n1++) {
                                 if (ind[n1]) {
                                     sum += RMath.sign(x[xx + k] - x[xx + n1]) * RMath.sign(x[yy + k] - x[yy + n1]);
                                 }
@@ -297,7 +397,7 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
                     ANS(ans, ncx, j, i, sum);
                     ANS(ans, ncx, i, j, sum);
                 }
-            }
+            });
         }
 
         if (cor) {
@@ -327,7 +427,6 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
     }
 
     private static void cov_na_1(int n, int ncx, double[] x, double[] xm, boolean[] has_na, double[] ans, boolean[] sd_0, boolean cor, boolean kendall) {
-        int n1 = -1;
         if (n <= 1) { /* too many missing */
             for (int i = 0; i < ncx; i++) {
                 for (int j = 0; j < ncx; j++) {
@@ -337,11 +436,14 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
             return;
         }
 
+        double[] centered;
         if (!kendall) {
             MEAN_(n, ncx, x, xm, has_na);/* -> xm[] */
-            n1 = n - 1;
+            centered = center(n, ncx, x, xm, null, n);
+        } else {
+            centered = null;
         }
-        for (int i = 0; i < ncx; i++) {
+        forEachTriangleColumn(ncx, work(n, (long) ncx * (ncx + 1) / 2, kendall), i -> {
             if (has_na[i]) {
                 for (int j = 0; j <= i; j++) {
                     ANS(ans, ncx, j, i, RRuntime.DOUBLE_NA);
@@ -351,19 +453,15 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
                 int xx = i * n;
 
                 if (!kendall) {
-                    double xxm = xm[i];
+                    int n1 = n - 1;
+                    double[] sums = new double[i + 1];
+                    crossprod(centered, xx, centered, n, i + 1, sums);
                     for (int j = 0; j <= i; j++) {
                         if (has_na[j]) {
                             ANS(ans, ncx, j, i, RRuntime.DOUBLE_NA);
                             ANS(ans, ncx, i, j, RRuntime.DOUBLE_NA);
                         } else {
-                            int yy = j * n;
-                            double yym = xm[j];
-                            double sum = 0;
-                            for (int k = 0; k < n; k++) {
-                                sum += (x[xx + k] - xxm) * (x[yy + k] - yym);
-                            }
-                            double result = sum / n1;
+                            double result = sums[j] / n1;
                             ANS(ans, ncx, j, i, result);
                             ANS(ans, ncx, i, j, result);
                         }
@@ -377,7 +475,7 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
                             int yy = j * n;
                             double sum = 0;
                             for (int k = 0; k < n; k++) {
-                                for (n1 = 0; n1 < n; n1++) {
+                                for (int n1 = 0; n1 < n; n1++) {
                                     sum += RMath.sign(x[xx + k] - x[xx + n1]) * RMath.sign(x[yy + k] - x[yy + n1]);
                                 }
                             }
@@ -387,7 +485,7 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
                     }
                 }
             }
-        }
+        });
 
         if (cor) {
             for (int i = 0; i < ncx; i++) {
@@ -469,38 +567,35 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
             MEAN(n, ncx, x, xm, ind, nobs);/* -> xm[] */
             MEAN(n, ncy, y, ym, ind, nobs);/* -> ym[] */
             n1 = nobs - 1;
-        }
-        for (int i = 0; i < ncx; i++) {
-            int xx = i * n;
-            if (!kendall) {
-                double xxm = xm[i];
+            int div = n1;
+            int m = nobs;
+            double[] xCentered = center(n, ncx, x, xm, ind, m);
+            double[] yCentered = center(n, ncy, y, ym, ind, m);
+            forEachColumn(ncx, work(m, (long) ncx * ncy, false), i -> {
+                double[] sums = new double[ncy];
+                crossprod(xCentered, i * m, yCentered, m, ncy, sums);
                 for (int j = 0; j < ncy; j++) {
-                    int yy = j * n;
-                    double yym = ym[j];
-                    double sum = 0;
-                    for (int k = 0; k < n; k++) {
-                        if (ind[k]) {
-                            sum += (x[xx + k] - xxm) * (y[yy + k] - yym);
-                        }
-                    }
-                    ANS(ans, ncx, i, j, sum / n1);
+                    ANS(ans, ncx, i, j, sums[j] / div);
                 }
-            } else { /* Kendall's tau */
+            });
+        } else { /* Kendall's tau */
+            forEachColumn(ncx, work(n, (long) ncx * ncy, true), i -> {
+                int xx = i * n;
                 for (int j = 0; j < ncy; j++) {
                     int yy = j * n;
                     double sum = 0;
                     for (int k = 0; k < n; k++) {
                         if (ind[k]) {
-                            for (n1 = 0; n1 < n; n1++) {
-                                if (ind[n1]) {
-                                    sum += RMath.sign(x[xx + k] - x[xx + n1]) * RMath.sign(y[yy + k] - y[yy + n1]);
+                            for (int l = 0; l < n; l++) {
+                                if (ind[l]) {
+                                    sum += RMath.sign(x[xx + k] - x[xx + l]) * RMath.sign(y[yy + k] - y[yy + l]);
                                 }
                             }
                         }
                     }
                     ANS(ans, ncx, i, j, sum);
                 }
-            }
+            });
         }
 
         if (cor) {
@@ -565,12 +660,20 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
             return;
         }
 
+        double[] xCentered;
+        double[] yCentered;
         if (!kendall) {
             MEAN_(n, ncx, x, xm, has_na_x);/* -> xm[] */
             MEAN_(n, ncy, y, ym, has_na_y);/* -> ym[] */
             n1 = n - 1;
+            xCentered = center(n, ncx, x, xm, null, n);
+            yCentered = center(n, ncy, y, ym, null, n);
+        } else {
+            xCentered = null;
+            yCentered = null;
         }
-        for (int i = 0; i < ncx; i++) {
+        int div = n1;
+        forEachColumn(ncx, work(n, (long) ncx * ncy, kendall), i -> {
             if (has_na_x[i]) {
                 for (int j = 0; j < ncy; j++) {
                     ANS(ans, ncx, i, j, RRuntime.DOUBLE_NA);
@@ -578,18 +681,13 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
             } else {
                 int xx = i * n;
                 if (!kendall) {
-                    double xxm = xm[i];
+                    double[] sums = new double[ncy];
+                    crossprod(xCentered, xx, yCentered, n, ncy, sums);
                     for (int j = 0; j < ncy; j++) {
                         if (has_na_y[j]) {
                             ANS(ans, ncx, i, j, RRuntime.DOUBLE_NA);
                         } else {
-                            int yy = j * n;
-                            double yym = ym[j];
-                            double sum = 0;
-                            for (int k = 0; k < n; k++) {
-                                sum += (x[xx + k] - xxm) * (y[yy + k] - yym);
-                            }
-                            ANS(ans, ncx, i, j, sum / n1);
+                            ANS(ans, ncx, i, j, sums[j] / div);
                         }
                     }
                 } else { /* Kendall's tau */
@@ -600,8 +698,8 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
                             int yy = j * n;
                             double sum = 0;
                             for (int k = 0; k < n; k++) {
-                                for (n1 = 0; n1 < n; n1++) {
-                                    sum += RMath.sign(x[xx + k] - x[xx + n1]) * RMath.sign(y[yy + k] - y[yy + n1]);
+                                for (int l = 0; l < n; l++) {
+                                    sum += RMath.sign(x[xx + k] - x[xx + l]) * RMath.sign(y[yy + k] - y[yy + l]);
                                 }
                             }
                             ANS(ans, ncx, i, j, sum);
@@ -609,7 +707,7 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
                     }
                 }
             }
-        }
+        });
 
         if (cor) {
 
@@ -35,6 +35,7 @@ import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.LoopConditionProfile;
 import com.oracle.truffle.r.library.stats.RandFunctionsNodesFactory.ConvertToLengthNodeGen;
 import com.oracle.truffle.r.library.stats.RandFunctionsNodesFactory.RandFunction1NodeGen;
@@ -70,6 +71,7 @@ import com.oracle.truffle.r.runtime.rng.RRNG;
  */
 public final class RandFunctionsNodes {
     private static final RDouble DUMMY_VECTOR = RDouble.valueOf(1);
+    private static final int BULK_SIZE = 4096;
 
     private RandFunctionsNodes() {
         // static class
@@ -161,6 +163,7 @@ public final class RandFunctionsNodes {
         protected final BranchProfile nanResult = BranchProfile.create();
         protected final BranchProfile nan = BranchProfile.create();
         protected final LoopConditionProfile loopConditionProfile = LoopConditionProfile.createCountingProfile();
+        protected final ConditionProfile scalarParamsProfile = ConditionProfile.createBinaryProfile();
 
         protected RandFunctionIterator(Supplier<? extends RandFunction3_Double> functionFactory) {
             this.functionFactory = functionFactory;
@@ -182,6 +185,14 @@ public final class RandFunctionsNodes {
         void showNAWarning() {
             warning(RError.Message.NA_PRODUCED);
         }
+
+        /**
+         * If all the parameters are scalars, the random function can produce the whole result (or a
+         * block of it) in one call, which lets it draw the uniform values in bulk.
+         */
+        protected final boolean isScalarParams(VectorAccess aAccess, SequentialIterator aIter, VectorAccess bAccess, SequentialIterator bIter, VectorAccess cAccess, SequentialIterator cIter) {
+            return scalarParamsProfile.profile(aAccess.getLength(aIter) == 1 && bAccess.getLength(bIter) == 1 && cAccess.getLength(cIter) == 1);
+        }
     }
 
     protected abstract static class RandFunctionIntExecutorNode extends RandFunctionIterator {
@@ -207,18 +218,26 @@ public final class RandFunctionsNodes {
 
                 boolean nans = false;
                 int[] result = new int[length];
-                loopConditionProfile.profileCounted(length);
-                for (int i = 0; loopConditionProfile.inject(i < length); i++) {
-                    aAccess.nextWithWrap(aIter);
-                    bAccess.nextWithWrap(bIter);
-                    cAccess.nextWithWrap(cIter);
-                    double value = function.execute(aAccess.getDouble(aIter), bAccess.getDouble(bIter), cAccess.getDouble(cIter), randProvider);
-                    if (Double.isNaN(value) || value <= Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
-                        nan.enter();
-                        nans = true;
-                        result[i] = RRuntime.INT_NA;
-                    } else {
-                        result[i] = (int) value;
+                if (isScalarParams(aAccess, aIter, bAccess, bIter, cAccess, cIter)) {
+                    aAccess.next(aIter);
+                    bAccess.next(bIter);
+                    cAccess.next(cIter);
+                    double[] values = new double[Math.min(length, BULK_SIZE)];
+                    for (int start = 0; start < length; start += values.length) {
+                        int count = Math.min(length - start, values.length);
+                        function.execute(aAccess.getDouble(aIter), bAccess.getDouble(bIter), cAccess.getDouble(cIter), randProvider, values, 0, count);
+                        for (int i = 0; i < count; i++) {
+                            nans |= setIntValue(result, start + i, values[i]);
+                        }
+                    }
+                } else {
+                    loopConditionProfile.profileCounted(length);
+                    for (int i = 0; loopConditionProfile.inject(i < length); i++) {
+                        aAccess.nextWithWrap(aIter);
+                        bAccess.nextWithWrap(bIter);
+                        cAccess.nextWithWrap(cIter);
+                        double value = function.execute(aAccess.getDouble(aIter), bAccess.getDouble(bIter), cAccess.getDouble(cIter), randProvider);
+                        nans |= setIntValue(result, i, value);
                     }
                 }
                 putRNGState();
@@ -229,6 +248,17 @@ public final class RandFunctionsNodes {
             }
         }
 
+        private boolean setIntValue(int[] result, int index, double value) {
+            if (Double.isNaN(value) || value <= Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                nan.enter();
+                result[index] = RRuntime.INT_NA;
+                return true;
+            } else {
+                result[index] = (int) value;
+                return false;
+            }
+        }
+
         @Specialization(replaces = "cached")
         protected RAbstractIntVector generic(int length, RAbstractDoubleVector a, RAbstractDoubleVector b, RAbstractDoubleVector c, RandomNumberProvider randProvider,
                         @Cached("createFunction()") RandFunction3_Double function) {
@@ -259,17 +289,31 @@ public final class RandFunctionsNodes {
 
                 boolean nans = false;
                 double[] result = new double[length];
-                loopConditionProfile.profileCounted(length);
-                for (int i = 0; loopConditionProfile.inject(i < length); i++) {
-                    aAccess.nextWithWrap(aIter);
-                    bAccess.nextWithWrap(bIter);
-                    cAccess.nextWithWrap(cIter);
-                    double value = function.execute(aAccess.getDouble(aIter), bAccess.getDouble(bIter), cAccess.getDouble(cIter), randProvider);
-                    if (Double.isNaN(value) || RRuntime.isNA(value)) {
-                        nan.enter();
-                        nans = true;
+                if (isScalarParams(aAccess, aIter, bAccess, bIter, cAccess, cIter)) {
+                    aAccess.next(aIter);
+                    bAccess.next(bIter);
+                    cAccess.next(cIter);
+                    function.execute(aAccess.getDouble(aIter), bAccess.getDouble(bIter), cAccess.getDouble(cIter), randProvider, result, 0, length);
+                    for (int i = 0; i < length; i++) {
+                        if (Double.isNaN(result[i])) {
+                            nan.enter();
+                            nans = true;
+                            break;
+                        }
+                    }
+                } else {
+                    loopConditionProfile.profileCounted(length);
+                    for (int i = 0; loopConditionProfile.inject(i < length); i++) {
+                        aAccess.nextWithWrap(aIter);
+                        bAccess.nextWithWrap(bIter);
+                        cAccess.nextWithWrap(cIter);
+                        double value = function.execute(aAccess.getDouble(aIter), bAccess.getDouble(bIter), cAccess.getDouble(cIter), randProvider);
+                        if (Double.isNaN(value) || RRuntime.isNA(value)) {
+                            nan.enter();
+                            nans = true;
+                        }
+                        result[i] = value;
                     }
-                    result[i] = value;
                 }
                 putRNGState();
                 if (nans) {
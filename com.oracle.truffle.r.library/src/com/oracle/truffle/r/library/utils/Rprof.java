@@ -31,16 +31,20 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.function.Function;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
-import com.oracle.truffle.api.frame.Frame;
-import com.oracle.truffle.api.frame.FrameInstance.FrameAccess;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventBinding;
 import com.oracle.truffle.api.instrumentation.EventContext;
-import com.oracle.truffle.api.instrumentation.ExecutionEventListener;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNode;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNodeFactory;
 import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
 import com.oracle.truffle.api.instrumentation.StandardTags;
 import com.oracle.truffle.api.nodes.RootNode;
@@ -48,12 +52,9 @@ import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
 import com.oracle.truffle.r.nodes.function.FunctionDefinitionNode;
 import com.oracle.truffle.r.nodes.instrumentation.RInstrumentation;
-import com.oracle.truffle.r.runtime.RArguments;
-import com.oracle.truffle.r.runtime.RCaller;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RSource;
-import com.oracle.truffle.r.runtime.Utils;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.MemoryCopyTracer;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
@@ -63,7 +64,6 @@ import com.oracle.truffle.r.runtime.data.RTypedValue;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.instrument.InstrumentationState;
 import com.oracle.truffle.r.runtime.nodes.RSyntaxElement;
-import com.oracle.truffle.r.runtime.nodes.RSyntaxNode;
 
 /**
  * Implements the {@code Rprof} external.
@@ -80,8 +80,18 @@ import com.oracle.truffle.r.runtime.nodes.RSyntaxNode;
  * and then the {@code N} is used in line number references of the form {@code N#L},which precede
  * the function name.
  *
+ * If the file name ends with {@code .collapsed}, the samples are instead aggregated into the
+ * collapsed stack format read by flame graph tools, i.e. one line per distinct stack listing the
+ * semicolon separated functions from the outermost one and the number of samples.
+ *
+ * The stacks are sampled by a separate thread from a {@link ShadowStack} maintained by nodes
+ * attached to the function bodies, so that the profiled code is neither interrupted nor
+ * invalidated when a sample is taken. Only line profiling additionally instruments statements,
+ * which just record the current statement of the innermost function.
  */
-public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements MemoryCopyTracer.Listener {
+public abstract class Rprof extends RExternalBuiltinNode.Arg8 {
+
+    private static final String COLLAPSED_SUFFIX = ".collapsed";
 
     static {
         Casts casts = new Casts(Rprof.class);
@@ -115,16 +125,13 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements MemoryC
                 }
                 if (memProfiling) {
                     RDataFactory.addListener(LISTENER);
-                    MemoryCopyTracer.addListener(this);
-                    MemoryCopyTracer.setTracingState(true);
+                    MemoryCopyTracer.addListener(COPY_LISTENER);
                 }
                 // interval is in seconds, we convert to millis
                 long intervalInMillis = (long) (1E3 * intervalD);
-                StatementListener statementListener = new StatementListener();
-                ProfileThread profileThread = new ProfileThread(intervalInMillis, statementListener);
-                profileThread.setDaemon(true);
-                profState.initialize(out, profileThread, statementListener, intervalInMillis, lineProfiling, memProfiling);
-                profileThread.start();
+                ShadowStack stack = new ShadowStack(Thread.currentThread());
+                profState.initialize(out, stack, intervalInMillis, lineProfiling, memProfiling, filename.endsWith(COLLAPSED_SUFFIX));
+                profState.profileThread.start();
             } catch (IOException ex) {
                 throw error(RError.Message.GENERIC, String.format("Rprof: cannot open profile file '%s'", filename));
             }
@@ -153,12 +160,16 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements MemoryC
         }
     };
 
-    @Override
-    @TruffleBoundary
-    public void reportCopying(RAbstractVector source, RAbstractVector dest) {
-        RprofState profState = RprofState.get();
-        profState.memoryQuad.copied += RObjectSize.getObjectSize(source);
-    }
+    private static final MemoryCopyTracer.Listener COPY_LISTENER = new MemoryCopyTracer.Listener() {
+        @Override
+        @TruffleBoundary
+        public void reportCopying(RAbstractVector source, RAbstractVector dest) {
+            RprofState profState = RprofState.get();
+            if (profState.memoryQuad != null) {
+                profState.memoryQuad.copied += RObjectSize.getObjectSize(source);
+            }
+        }
+    };
 
     private static void endProfiling() {
         RprofState profState = RprofState.get();
@@ -172,95 +183,173 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements MemoryC
         return RSource.getPath(source);
     }
 
-    private static final class ProfileThread extends Thread {
-        private final long interval;
-        private final StatementListener statementListener;
-        private volatile boolean running = true;
+    /**
+     * The functions currently executing on the profiled thread, innermost last, together with the
+     * statement each of them is executing if line profiling. Written only by the profiled thread
+     * and read without synchronization by the sampling thread, so that a sample may occasionally
+     * mix two consecutive states of the stack.
+     */
+    private static final class ShadowStack {
+        private final Thread owner;
+        private volatile RootNode[] roots = new RootNode[64];
+        private volatile RSyntaxElement[] statements = new RSyntaxElement[64];
+        private volatile int depth;
 
-        private ProfileThread(long interval, StatementListener statementListener) {
-            this.interval = interval;
-            this.statementListener = statementListener;
+        private ShadowStack(Thread owner) {
+            this.owner = owner;
         }
 
-        @Override
-        public void run() {
-            while (running) {
-                try {
-                    Thread.sleep(interval);
-                    statementListener.intervalElapsed();
-                } catch (InterruptedException ex) {
+        void push(RootNode root) {
+            if (Thread.currentThread() != owner) {
+                return;
+            }
+            int d = depth;
+            if (d == roots.length) {
+                grow();
+            }
+            roots[d] = root;
+            statements[d] = null;
+            depth = d + 1;
+        }
+
+        void pop() {
+            if (Thread.currentThread() != owner) {
+                return;
+            }
+            int d = depth;
+            if (d > 0) {
+                depth = d - 1;
+            }
+        }
+
+        void setStatement(RSyntaxElement statement) {
+            if (Thread.currentThread() != owner) {
+                return;
+            }
+            int d = depth;
+            if (d > 0) {
+                statements[d - 1] = statement;
+            }
+        }
+
+        @TruffleBoundary
+        private void grow() {
+            statements = Arrays.copyOf(statements, statements.length * 2);
+            roots = Arrays.copyOf(roots, roots.length * 2);
+        }
 
+        /**
+         * Returns the current functions, innermost first, or {@code null} if none is executing.
+         */
+        Sample sample(boolean withStatements) {
+            int d = depth;
+            RootNode[] r = roots;
+            RSyntaxElement[] st = statements;
+            d = Math.min(d, Math.min(r.length, st.length));
+            if (d == 0) {
+                return null;
+            }
+            Sample sample = new Sample(d, withStatements);
+            for (int i = 0; i < d; i++) {
+                sample.roots[i] = r[d - 1 - i];
+                if (withStatements) {
+                    sample.statements[i] = st[d - 1 - i];
                 }
             }
+            return sample;
+        }
+    }
+
+    private static final class Sample {
+        private final RootNode[] roots;
+        private final RSyntaxElement[] statements;
+        private RprofState.MemoryQuad memory;
+
+        private Sample(int depth, boolean withStatements) {
+            this.roots = new RootNode[depth];
+            this.statements = withStatements ? new RSyntaxElement[depth] : null;
         }
     }
 
     /**
-     * Emulates a sampling timer by checking when the sample interval rolls over and at that point
-     * collects the stack of functions.
+     * Pushes and pops the functions on the {@link ShadowStack}.
      */
-    private final class StatementListener implements ExecutionEventListener {
-        private final ArrayList<ArrayList<RSyntaxElement>> intervalStacks = new ArrayList<>();
-        private final ArrayList<RprofState.MemoryQuad> intervalMemory = new ArrayList<>();
-        private volatile boolean newInterval;
-
-        private StatementListener() {
-            SourceSectionFilter.Builder builder = SourceSectionFilter.newBuilder();
-            builder.tagIs(StandardTags.StatementTag.class);
-            SourceSectionFilter filter = builder.build();
-            RInstrumentation.getInstrumenter().attachExecutionEventListener(filter, this);
-        }
+    private static final class FunctionNode extends ExecutionEventNode {
+        private final ShadowStack stack;
+        private final EventContext context;
+        @CompilationFinal private RootNode root;
 
-        private void intervalElapsed() {
-            newInterval = true;
+        private FunctionNode(ShadowStack stack, EventContext context) {
+            this.stack = stack;
+            this.context = context;
         }
 
         @Override
-        public void onEnter(EventContext context, VirtualFrame frame) {
-            if (newInterval) {
-                onEnter(context);
-                newInterval = false;
+        protected void onEnter(VirtualFrame frame) {
+            if (root == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                root = context.getInstrumentedNode().getRootNode();
             }
+            stack.push(root);
         }
 
-        @TruffleBoundary
-        private void onEnter(EventContext context) {
-            /* context tells here we are now, frame provides callers. */
-            ArrayList<RSyntaxElement> stack = new ArrayList<>();
-            stack.add((RSyntaxElement) context.getInstrumentedNode());
-            collectStack(stack);
-            intervalStacks.add(stack);
-            RprofState profState = RprofState.get();
-            if (profState.memoryProfiling) {
-                intervalMemory.add(profState.memoryQuad.copyAndClear());
-            }
+        @Override
+        protected void onReturnValue(VirtualFrame frame, Object result) {
+            stack.pop();
         }
 
-        @TruffleBoundary
-        private void collectStack(final ArrayList<RSyntaxElement> stack) {
-            Utils.iterateRFrames(FrameAccess.READ_ONLY, new Function<Frame, Object>() {
-
-                @Override
-                public Object apply(Frame f) {
-                    RCaller call = RArguments.getCall(f);
-                    if (call != null && call.isValidCaller()) {
-                        while (call.isPromise()) {
-                            call = call.getParent();
-                        }
-                        RSyntaxElement syntaxNode = call.getSyntaxNode();
-                        stack.add(syntaxNode);
-                    }
-                    return null;
-                }
-            });
+        @Override
+        protected void onReturnExceptional(VirtualFrame frame, Throwable exception) {
+            stack.pop();
+        }
+    }
+
+    /**
+     * Records the current statement of the innermost function on the {@link ShadowStack}.
+     */
+    private static final class StatementNode extends ExecutionEventNode {
+        private final ShadowStack stack;
+        private final RSyntaxElement statement;
+
+        private StatementNode(ShadowStack stack, EventContext context) {
+            this.stack = stack;
+            this.statement = (RSyntaxElement) context.getInstrumentedNode();
         }
 
         @Override
-        public void onReturnValue(EventContext context, VirtualFrame frame, Object result) {
+        protected void onEnter(VirtualFrame frame) {
+            stack.setStatement(statement);
+        }
+    }
+
+    private static final class ProfileThread extends Thread {
+        private final RprofState state;
+        private volatile boolean running = true;
+
+        private ProfileThread(RprofState state) {
+            this.state = state;
         }
 
         @Override
-        public void onReturnExceptional(EventContext context, VirtualFrame frame, Throwable exception) {
+        public void run() {
+            while (running) {
+                try {
+                    Thread.sleep(state.intervalInMillis);
+                } catch (InterruptedException ex) {
+                    continue;
+                }
+                state.takeSample();
+            }
+        }
+
+        private void finish() {
+            running = false;
+            interrupt();
+            try {
+                join();
+            } catch (InterruptedException ex) {
+                // the samples taken so far are still consistent
+            }
         }
     }
 
@@ -270,28 +359,42 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements MemoryC
      */
     private static final class RprofState extends InstrumentationState.RprofState {
         private ProfileThread profileThread;
-        private StatementListener statementListener;
+        private ShadowStack stack;
+        private EventBinding<?> functionBinding;
+        private EventBinding<?> statementBinding;
+        private final ArrayList<Sample> samples = new ArrayList<>();
         private long intervalInMillis;
         private boolean lineProfiling;
         private boolean memoryProfiling;
+        private boolean collapsed;
         private MemoryQuad memoryQuad;
+        private MemoryQuad sampledMemoryQuad;
 
+        /**
+         * Memory allocated since profiling started, updated by the profiled thread. The sampling
+         * thread only reads it to compute the allocations of each interval.
+         */
         public static final class MemoryQuad {
             public long smallV;
             public long largeV;
             public long nodes;
             public long copied;
 
-            public MemoryQuad copyAndClear() {
+            public MemoryQuad copy() {
                 MemoryQuad result = new MemoryQuad();
                 result.copied = copied;
                 result.largeV = largeV;
                 result.smallV = smallV;
                 result.nodes = nodes;
-                copied = 0;
-                largeV = 0;
-                smallV = 0;
-                nodes = 0;
+                return result;
+            }
+
+            public MemoryQuad subtract(MemoryQuad other) {
+                MemoryQuad result = new MemoryQuad();
+                result.copied = copied - other.copied;
+                result.largeV = largeV - other.largeV;
+                result.smallV = smallV - other.smallV;
+                result.nodes = nodes - other.nodes;
                 return result;
             }
         }
@@ -305,22 +408,81 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements MemoryC
             return state;
         }
 
-        public void initialize(PrintStream outA, ProfileThread profileThreadA, StatementListener statementListenerA, long intervalInMillisA,
-                        boolean lineProfilingA, boolean memoryProfilingA) {
+        public void initialize(PrintStream outA, ShadowStack stackA, long intervalInMillisA, boolean lineProfilingA, boolean memoryProfilingA, boolean collapsedA) {
             setOut(outA);
-            this.profileThread = profileThreadA;
-            this.statementListener = statementListenerA;
+            this.stack = stackA;
             this.intervalInMillis = intervalInMillisA;
             this.lineProfiling = lineProfilingA;
             this.memoryProfiling = memoryProfilingA;
+            this.collapsed = collapsedA;
             this.memoryQuad = memoryProfilingA ? new MemoryQuad() : null;
+            this.sampledMemoryQuad = memoryProfilingA ? new MemoryQuad() : null;
+            this.samples.clear();
+            this.functionBinding = RInstrumentation.getInstrumenter().attachExecutionEventFactory(SourceSectionFilter.newBuilder().tagIs(StandardTags.RootTag.class).build(),
+                            new ExecutionEventNodeFactory() {
+                                @Override
+                                public ExecutionEventNode create(EventContext context) {
+                                    return new FunctionNode(stackA, context);
+                                }
+                            });
+            if (lineProfilingA) {
+                this.statementBinding = RInstrumentation.getInstrumenter().attachExecutionEventFactory(SourceSectionFilter.newBuilder().tagIs(StandardTags.StatementTag.class).build(),
+                                new ExecutionEventNodeFactory() {
+                                    @Override
+                                    public ExecutionEventNode create(EventContext context) {
+                                        return new StatementNode(stackA, context);
+                                    }
+                                });
+            }
+            this.profileThread = new ProfileThread(this);
+            this.profileThread.setDaemon(true);
+        }
+
+        /**
+         * Called by the sampling thread at each interval.
+         */
+        private void takeSample() {
+            Sample sample = stack.sample(lineProfiling);
+            if (sample == null) {
+                return;
+            }
+            if (memoryProfiling) {
+                MemoryQuad current = memoryQuad.copy();
+                sample.memory = current.subtract(sampledMemoryQuad);
+                sampledMemoryQuad = current;
+            }
+            samples.add(sample);
         }
 
         @Override
         public void cleanup(int status) {
-            profileThread.running = false;
-            HashMap<String, Integer> fileMap = null;
+            if (this.out() == null) {
+                return;
+            }
+            profileThread.finish();
+            functionBinding.dispose();
+            if (statementBinding != null) {
+                statementBinding.dispose();
+                statementBinding = null;
+            }
             PrintStream out = this.out();
+            if (collapsed) {
+                printCollapsed(out);
+            } else {
+                print(out);
+            }
+            samples.clear();
+            out.close();
+            this.setOut(null);
+            if (this.memoryProfiling) {
+                RDataFactory.removeListener(LISTENER);
+                MemoryCopyTracer.removeListener(COPY_LISTENER);
+                this.memoryQuad = null;
+            }
+        }
+
+        private void print(PrintStream out) {
+            HashMap<String, Integer> fileMap = null;
             if (this.memoryProfiling) {
                 out.print("memory profiling: ");
             }
@@ -332,9 +494,9 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements MemoryC
                 // scan stacks to find files
                 fileMap = new HashMap<>();
                 int fileIndex = 0;
-                for (ArrayList<RSyntaxElement> intervalStack : statementListener.intervalStacks) {
-                    for (RSyntaxElement node : intervalStack) {
-                        String path = getPath(node);
+                for (Sample sample : samples) {
+                    for (RSyntaxElement node : sample.statements) {
+                        String path = node == null ? null : getPath(node);
                         if (path != null && fileMap.get(path) == null) {
                             fileMap.put(path, ++fileIndex);
                             out.printf("#File %d: %s\n", fileIndex, path);
@@ -342,33 +504,51 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements MemoryC
                     }
                 }
             }
-            int index = 0;
-            for (ArrayList<RSyntaxElement> intervalStack : statementListener.intervalStacks) {
+            for (Sample sample : samples) {
                 if (this.memoryProfiling) {
-                    RprofState.MemoryQuad mq = statementListener.intervalMemory.get(index);
+                    MemoryQuad mq = sample.memory;
                     out.printf(":%d:%d:%d:%d:", mq.largeV, mq.smallV, mq.nodes, mq.copied);
                 }
-                for (RSyntaxElement node : intervalStack) {
-                    RootNode rootNode = ((RSyntaxNode) node).asRNode().getRootNode();
+                for (int i = 0; i < sample.roots.length; i++) {
+                    RootNode rootNode = sample.roots[i];
                     if (rootNode instanceof FunctionDefinitionNode) {
-                        String name = rootNode.getName();
-                        if (this.lineProfiling) {
+                        RSyntaxElement node = this.lineProfiling ? sample.statements[i] : null;
+                        if (node != null) {
                             Integer fileIndex = fileMap.get(getPath(node));
                             if (fileIndex != null) {
                                 out.printf("%d#%d ", fileIndex, node.getSourceSection().getStartLine());
                             }
                         }
-                        out.printf("\"%s\" ", name);
+                        out.printf("\"%s\" ", rootNode.getName());
                     }
                 }
                 out.println();
-                index++;
             }
-            out.close();
-            this.setOut(null);
-            if (this.memoryProfiling) {
-                RDataFactory.removeListener(LISTENER);
-                MemoryCopyTracer.setTracingState(false);
+        }
+
+        private void printCollapsed(PrintStream out) {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (Sample sample : samples) {
+                StringBuilder key = new StringBuilder();
+                for (int i = sample.roots.length - 1; i >= 0; i--) {
+                    RootNode rootNode = sample.roots[i];
+                    if (rootNode instanceof FunctionDefinitionNode) {
+                        if (key.length() > 0) {
+                            key.append(';');
+                        }
+                        key.append(rootNode.getName());
+                        RSyntaxElement node = this.lineProfiling ? sample.statements[i] : null;
+                        if (node != null) {
+                            key.append(':').append(node.getSourceSection().getStartLine());
+                        }
+                    }
+                }
+                if (key.length() > 0) {
+                    counts.merge(key.toString(), 1, Integer::sum);
+                }
+            }
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                out.printf("%s %d\n", entry.getKey(), entry.getValue());
             }
         }
     }
@@ -182,3 +182,14 @@ void call_lapack_dtrsm(const char *side, const char *uplo, const char *transa, c
     dtrsm_(side, uplo, transa, diag, &m, &n, &alpha, a, &lda, b, &ldb);
 }
 
+extern void dgemm_(const char *transa, const char *transb,
+		const int *m, const int *n, const int *k, const double *alpha,
+		const double *a, const int *lda,
+		const double *b, const int *ldb,
+		const double *beta, double *c, const int *ldc);
+
+void call_lapack_dgemm(const char *transa, const char *transb, int m, int n, int k,
+		double alpha, double *a, int lda, double *b, int ldb, double beta, double *c, int ldc) {
+    dgemm_(transa, transb, &m, &n, &k, &alpha, a, &lda, b, &ldb, &beta, c, &ldc);
+}
+
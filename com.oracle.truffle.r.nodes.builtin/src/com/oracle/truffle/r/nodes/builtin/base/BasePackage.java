@@ -124,11 +124,17 @@ import com.oracle.truffle.r.nodes.builtin.fastr.FastRInteropFactory.FastRInterop
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRInteropFactory.FastRInteropTryNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRLibPaths;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRLibPathsNodeGen;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRMmap;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRMmapNodeGen;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRNativeLock;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRNativeLockNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastROptionBuiltin;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRPkgSource;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRPkgSourceNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRRefCountInfo;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRRefCountInfoNodeGen;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRRegExpCache;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRRegExpCacheNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRRegisterFunctions;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRRegisterFunctionsNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRSetConsoleHandler;
@@ -139,6 +145,8 @@ import com.oracle.truffle.r.nodes.builtin.fastr.FastRSourceInfo;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRSourceInfoNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRStackTrace;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRStackTraceNodeGen;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRStringCompact;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRStringCompactNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRSyntaxTree;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRSyntaxTreeNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRTestsTry;
@@ -154,6 +162,8 @@ import com.oracle.truffle.r.nodes.builtin.fastr.FastRTreeStatsNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastrDqrls;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastrDqrlsNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.memprof.FastRprofmem;
+import com.oracle.truffle.r.nodes.builtin.fastr.memprof.FastRprofmemHistogram;
+import com.oracle.truffle.r.nodes.builtin.fastr.memprof.FastRprofmemHistogramNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.memprof.FastRprofmemNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.memprof.FastRprofmemShow;
 import com.oracle.truffle.r.nodes.builtin.fastr.memprof.FastRprofmemShowNodeGen;
@@ -452,8 +462,10 @@ public class BasePackage extends RBuiltinPackage {
         add(FastRContext.GetChannel.class, FastRContextFactory.GetChannelNodeGen::create);
         add(FastRContext.ChannelPoll.class, FastRContextFactory.ChannelPollNodeGen::create);
         add(FastRContext.ChannelReceive.class, FastRContextFactory.ChannelReceiveNodeGen::create);
+        add(FastRContext.ChannelReceiveBatch.class, FastRContextFactory.ChannelReceiveBatchNodeGen::create);
         add(FastRContext.ChannelSelect.class, FastRContextFactory.ChannelSelectNodeGen::create);
         add(FastRContext.ChannelSend.class, FastRContextFactory.ChannelSendNodeGen::create);
+        add(FastRContext.ChannelSendBatch.class, FastRContextFactory.ChannelSendBatchNodeGen::create);
         add(FastRContext.Spawn.class, FastRContextFactory.SpawnNodeGen::create);
         add(FastRContext.Interrupt.class, FastRContextFactory.InterruptNodeGen::create);
         add(FastRContext.Join.class, FastRContextFactory.JoinNodeGen::create);
@@ -493,10 +505,14 @@ public class BasePackage extends RBuiltinPackage {
         add(FastRInterop.ToLong.class, FastRInteropFactory.ToLongNodeGen::create);
         add(FastRInterop.ToShort.class, FastRInteropFactory.ToShortNodeGen::create);
         add(FastRRefCountInfo.class, FastRRefCountInfoNodeGen::create);
+        add(FastRRegExpCache.class, FastRRegExpCacheNodeGen::create);
+        add(FastRNativeLock.class, FastRNativeLockNodeGen::create);
         add(FastRPkgSource.class, FastRPkgSourceNodeGen::create);
         add(FastRSourceInfo.class, FastRSourceInfoNodeGen::create);
         add(FastRSetConsoleHandler.class, FastRSetConsoleHandlerNodeGen::create);
         add(FastRStackTrace.class, FastRStackTraceNodeGen::create);
+        add(FastRStringCompact.class, FastRStringCompactNodeGen::create);
+        add(FastRMmap.class, FastRMmapNodeGen::create);
         add(FastRSlotAssign.class, FastRSlotAssignNodeGen::create);
         add(FastRSyntaxTree.class, FastRSyntaxTreeNodeGen::create);
         add(FastRThrowIt.class, FastRThrowItNodeGen::create);
@@ -505,6 +521,7 @@ public class BasePackage extends RBuiltinPackage {
         add(FastRTree.class, FastRTreeNodeGen::create);
         add(FastRTreeStats.class, FastRTreeStatsNodeGen::create);
         add(FastRprofmem.class, FastRprofmemNodeGen::create);
+        add(FastRprofmemHistogram.class, FastRprofmemHistogramNodeGen::create);
         add(FastRprofmemShow.class, FastRprofmemShowNodeGen::create);
         add(FastRprofmemSource.class, FastRprofmemSourceNodeGen::create);
         add(FastRprofmemSnapshot.class, FastRprofmemSnapshotNodeGen::create);
@@ -23,6 +23,8 @@ package com.oracle.truffle.r.nodes.builtin.base;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
+import java.util.function.IntToDoubleFunction;
+
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
@@ -44,8 +46,12 @@ public abstract class ColMeans extends ColSumsBase {
     }
 
     @Specialization(guards = "!naRm")
-    protected RDoubleVector colMeansNaRmFalse(RAbstractDoubleVector x, int rowNum, int colNum, @SuppressWarnings("unused") boolean naRm) {
+    protected RDoubleVector colMeansNaRmFalse(RAbstractDoubleVector x, int rowNum, int colNum, boolean naRm) {
         checkVectorLength(x, rowNum, colNum);
+        IntToDoubleFunction parallelData = getParallelData(x, rowNum, colNum);
+        if (parallelProfile.profile(parallelData != null)) {
+            return accumulateColumnsParallel(parallelData, rowNum, colNum, naRm, ColMeans::getMean);
+        }
 
         double[] result = new double[colNum];
         boolean isComplete = true;
@@ -71,8 +77,12 @@ public abstract class ColMeans extends ColSumsBase {
     }
 
     @Specialization(guards = "naRm")
-    protected RDoubleVector colMeansNaRmTrue(RAbstractDoubleVector x, int rowNum, int colNum, @SuppressWarnings("unused") boolean naRm) {
+    protected RDoubleVector colMeansNaRmTrue(RAbstractDoubleVector x, int rowNum, int colNum, boolean naRm) {
         checkVectorLength(x, rowNum, colNum);
+        IntToDoubleFunction parallelData = getParallelData(x, rowNum, colNum);
+        if (parallelProfile.profile(parallelData != null)) {
+            return accumulateColumnsParallel(parallelData, rowNum, colNum, naRm, ColMeans::getMean);
+        }
 
         double[] result = new double[colNum];
         boolean isComplete = true;
@@ -192,4 +202,8 @@ public abstract class ColMeans extends ColSumsBase {
         }
         return RDataFactory.createDoubleVector(result, isComplete);
     }
+
+    private static double getMean(double sum, int count) {
+        return count == 0 ? Double.NaN : sum / count;
+    }
 }
@@ -25,6 +25,8 @@ package com.oracle.truffle.r.nodes.builtin.base;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
+import java.util.function.IntToDoubleFunction;
+
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.ValueProfile;
@@ -52,6 +54,10 @@ public abstract class ColSums extends ColSumsBase {
     @Specialization
     protected RDoubleVector colSums(RAbstractDoubleVector x, int rowNum, int colNum, boolean rnaParam) {
         checkVectorLength(x, rowNum, colNum);
+        IntToDoubleFunction parallelData = getParallelData(x, rowNum, colNum);
+        if (parallelProfile.profile(parallelData != null)) {
+            return accumulateColumnsParallel(parallelData, rowNum, colNum, rnaParam, (sum, count) -> sum);
+        }
 
         double[] result = new double[colNum];
         boolean isComplete = true;
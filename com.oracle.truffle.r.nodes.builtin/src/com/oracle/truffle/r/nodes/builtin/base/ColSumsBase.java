@@ -26,13 +26,20 @@ import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.numericValue
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
 import static com.oracle.truffle.r.runtime.RError.Message.INVALID_ARGUMENT;
 
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.nodes.unary.ParallelReduction;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.NativeDataAccess;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
@@ -43,8 +50,20 @@ import com.oracle.truffle.r.runtime.ops.na.NACheck;
  */
 public abstract class ColSumsBase extends RBuiltinNode.Arg4 {
 
+    /**
+     * Number of rows that are accumulated together while traversing the columns of a matrix in
+     * {@link #accumulateRowsParallel}, the partial sums of a block fit into the L1 cache.
+     */
+    private static final int ROW_BLOCK = 1024;
+
     protected final NACheck na = NACheck.create();
     private final ConditionProfile vectorLengthProfile = ConditionProfile.createBinaryProfile();
+    protected final ConditionProfile parallelProfile = ConditionProfile.createBinaryProfile();
+
+    @FunctionalInterface
+    protected interface FinalTransform {
+        double get(double sum, int notNACount);
+    }
 
     protected static Casts createCasts(Class<? extends ColSumsBase> extCls) {
         Casts casts = new Casts(extCls);
@@ -128,6 +147,100 @@ public abstract class ColSumsBase extends RBuiltinNode.Arg4 {
         }
     }
 
+    /**
+     * Returns the accessor for the data of a double matrix that is large enough to be processed in
+     * parallel, or {@code null}. Native data is read in place instead of being copied.
+     */
+    protected static IntToDoubleFunction getParallelData(RAbstractDoubleVector x, int rowNum, int colNum) {
+        if (!ParallelReduction.isParallel((long) rowNum * colNum) || !(x instanceof RDoubleVector)) {
+            return null;
+        }
+        RDoubleVector vector = (RDoubleVector) x;
+        if (vector.hasNativeMemoryData()) {
+            Object mirror = vector.getNativeMirror();
+            return index -> NativeDataAccess.getDoubleNativeMirrorData(mirror, index);
+        }
+        double[] data = vector.getInternalManagedData();
+        return index -> data[index];
+    }
+
+    /**
+     * Accumulates the columns of a matrix in parallel. Every column is summed in order, so the
+     * results are the same as with the sequential loops.
+     */
+    @TruffleBoundary
+    protected static RDoubleVector accumulateColumnsParallel(IntToDoubleFunction data, int rowNum, int colNum, boolean naRm, FinalTransform finalTransform) {
+        double[] result = new double[colNum];
+        IntStream.range(0, colNum).parallel().forEach(c -> {
+            int pos = c * rowNum;
+            double sum = 0;
+            int count = 0;
+            for (int i = 0; i < rowNum; i++) {
+                double el = data.applyAsDouble(pos + i);
+                if (Double.isNaN(el)) {
+                    if (!naRm) {
+                        result[c] = RRuntime.isNA(el) ? RRuntime.DOUBLE_NA : Double.NaN;
+                        return;
+                    }
+                } else {
+                    sum += el;
+                    count++;
+                }
+            }
+            result[c] = finalTransform.get(sum, count);
+        });
+        return RDataFactory.createDoubleVector(result, isComplete(result));
+    }
+
+    /**
+     * Accumulates the rows of a matrix. The rows are split into blocks that are processed in
+     * parallel, each block traverses the columns sequentially, so that the data is read in memory
+     * order. Every row is still summed in column order.
+     */
+    @TruffleBoundary
+    protected static RDoubleVector accumulateRowsParallel(IntToDoubleFunction data, int rowNum, int colNum, boolean naRm, FinalTransform finalTransform) {
+        double[] result = new double[rowNum];
+        int blocks = (rowNum + ROW_BLOCK - 1) / ROW_BLOCK;
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            int start = block * ROW_BLOCK;
+            int n = Math.min(ROW_BLOCK, rowNum - start);
+            double[] sums = new double[n];
+            int[] counts = new int[n];
+            boolean[] done = new boolean[n];
+            for (int c = 0; c < colNum; c++) {
+                int pos = c * rowNum + start;
+                for (int i = 0; i < n; i++) {
+                    if (done[i]) {
+                        continue;
+                    }
+                    double el = data.applyAsDouble(pos + i);
+                    if (Double.isNaN(el)) {
+                        if (!naRm) {
+                            sums[i] = RRuntime.isNA(el) ? RRuntime.DOUBLE_NA : Double.NaN;
+                            done[i] = true;
+                        }
+                    } else {
+                        sums[i] += el;
+                        counts[i]++;
+                    }
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                result[start + i] = finalTransform.get(sums[i], counts[i]);
+            }
+        });
+        return RDataFactory.createDoubleVector(result, isComplete(result));
+    }
+
+    private static boolean isComplete(double[] result) {
+        for (double value : result) {
+            if (Double.isNaN(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void checkLengthOne(int rowNum, int colNum) {
         if (vectorLengthProfile.profile(rowNum * colNum > 1)) {
             throw error(RError.Message.TOO_SHORT, "X");
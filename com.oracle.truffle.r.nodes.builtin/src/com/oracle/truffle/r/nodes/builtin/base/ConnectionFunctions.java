@@ -77,6 +77,7 @@ import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.StringCache;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.builtins.RBuiltinKind;
 import com.oracle.truffle.r.runtime.conn.ChannelConnections.ChannelRConnection;
@@ -621,7 +622,7 @@ public abstract class ConnectionFunctions {
                 if (n > 0 && lines.length < n && !ok) {
                     throw error(RError.Message.TOO_FEW_LINES_READ_LINES);
                 }
-                return RDataFactory.createStringVector(lines, RDataFactory.COMPLETE_VECTOR);
+                return RDataFactory.createStringVector(StringCache.cache(lines), RDataFactory.COMPLETE_VECTOR);
             } catch (IOException x) {
                 throw error(RError.Message.ERROR_READING_CONNECTION, x.getMessage());
             }
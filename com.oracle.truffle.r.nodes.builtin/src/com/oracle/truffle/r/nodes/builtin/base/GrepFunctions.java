@@ -51,6 +51,7 @@ import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RegExp;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RList;
@@ -218,11 +219,16 @@ public class GrepFunctions {
 
         protected PCRERFFI.Result compilePerlPattern(String pattern, boolean ignoreCase) {
             int cflags = ignoreCase ? PCRERFFI.CASELESS : 0;
-            long tables = maketablesNode.execute();
-            PCRERFFI.Result pcre = compileNode.execute(pattern, cflags, tables);
-            if (pcre.result == 0) {
-                // TODO output warning if pcre.errorMessage not NULL
-                throw error(RError.Message.INVALID_REGEXP, pattern);
+            RegExp.ContextStateImpl cache = RContext.getInstance().stateRegExp;
+            PCRERFFI.Result pcre = (PCRERFFI.Result) cache.get(pattern, cflags, RegExp.Engine.PCRE);
+            if (pcre == null) {
+                long tables = maketablesNode.execute();
+                pcre = compileNode.execute(pattern, cflags, tables);
+                if (pcre.result == 0) {
+                    // TODO output warning if pcre.errorMessage not NULL
+                    throw error(RError.Message.INVALID_REGEXP, pattern);
+                }
+                cache.put(pattern, cflags, RegExp.Engine.PCRE, pcre);
             }
             return pcre;
         }
@@ -247,7 +253,7 @@ public class GrepFunctions {
                 if (!perl) {
                     // TODO case
                     if (!fixed) {
-                        pattern = RegExp.checkPreDefinedClasses(pattern);
+                        pattern = RegExp.translatePattern(pattern);
                     }
                     findAllMatches(matches, pattern, vector, fixed, ignoreCase);
                 } else {
@@ -480,7 +486,7 @@ public class GrepFunctions {
                 } else if (perl) {
                     pcre = compilePerlPattern(pattern, ignoreCase);
                 } else {
-                    pattern = RegExp.checkPreDefinedClasses(pattern);
+                    pattern = RegExp.translatePattern(pattern);
                 }
                 String[] result = new String[len];
                 for (int i = 0; i < len; i++) {
@@ -495,7 +501,7 @@ public class GrepFunctions {
                         if (gsub) {
                             replacement = replacement.replace("$", "\\$");
                             replacement = convertGroups(replacement, 0);
-                            value = Pattern.compile(pattern, Pattern.LITERAL).matcher(input).replaceAll(replacement);
+                            value = RegExp.compilePattern(pattern, Pattern.LITERAL).matcher(input).replaceAll(replacement);
                         } else {
                             int ix = input.indexOf(pattern);
                             replacement = replacement.replace("\\\\", "\\");
@@ -561,7 +567,7 @@ public class GrepFunctions {
                             value = sb.toString();
                         }
                     } else {
-                        Matcher matcher = Pattern.compile(pattern, Pattern.DOTALL).matcher(input);
+                        Matcher matcher = RegExp.compilePattern(pattern, Pattern.DOTALL).matcher(input);
                         replacement = convertGroups(replacement, matcher.groupCount());
 
                         if (gsub) {
@@ -852,7 +858,7 @@ public class GrepFunctions {
                 }
                 String pattern = patternArg.getDataAt(0);
                 if (!perl && !fixed) {
-                    pattern = RegExp.checkPreDefinedClasses(pattern);
+                    pattern = RegExp.translatePattern(pattern);
                 }
                 // TODO: useBytes normally depends on the value of the parameter and (if false) on
                 // whether the string is ASCII
@@ -1014,7 +1020,7 @@ public class GrepFunctions {
             if (pattern.length() > 0 && pattern.charAt(0) == '*') {
                 actualPattern = pattern.substring(1);
             }
-            return Pattern.compile(actualPattern, Pattern.DOTALL | (ignoreCase ? Pattern.CASE_INSENSITIVE : 0)).matcher(text);
+            return RegExp.compilePattern(actualPattern, Pattern.DOTALL | (ignoreCase ? Pattern.CASE_INSENSITIVE : 0)).matcher(text);
         }
     }
 
@@ -1063,7 +1069,7 @@ public class GrepFunctions {
                 }
                 RList ret = RDataFactory.createList(vector.getLength());
                 String pattern = patternArg.getDataAt(0);
-                pattern = RegExp.checkPreDefinedClasses(pattern);
+                pattern = RegExp.translatePattern(pattern);
                 // TODO: useBytes normally depends on the value of the parameter and (if false) on
                 // whether the string is ASCII
                 for (int i = 0; i < vector.getLength(); i++) {
@@ -1124,7 +1130,7 @@ public class GrepFunctions {
 
         @TruffleBoundary
         private static Matcher getPatternMatcher(String pattern, String text, boolean ignoreCase) {
-            return Pattern.compile(pattern, Pattern.DOTALL | (ignoreCase ? Pattern.CASE_INSENSITIVE : 0)).matcher(text);
+            return RegExp.compilePattern(pattern, Pattern.DOTALL | (ignoreCase ? Pattern.CASE_INSENSITIVE : 0)).matcher(text);
         }
     }
 
@@ -1179,7 +1185,7 @@ public class GrepFunctions {
                 }
                 String pattern = patternArg.getDataAt(0);
                 if (!perl && !fixed) {
-                    pattern = RegExp.checkPreDefinedClasses(pattern);
+                    pattern = RegExp.translatePattern(pattern);
                 }
                 // TODO: useBytes normally depends on the value of the parameter and (if false) on
                 // whether the string is ASCII
@@ -1459,20 +1465,15 @@ public class GrepFunctions {
             // treat split = NULL as split = ""
             RAbstractStringVector split = splitArg.getLength() == 0 ? RDataFactory.createStringVectorFromScalar("") : splitArg;
             String[] splits = new String[split.getLength()];
-            long pcreTables = perl ? common.maketablesNode.execute() : 0;
             PCRERFFI.Result[] pcreSplits = perl ? new PCRERFFI.Result[splits.length] : null;
 
             na.enable(x);
             for (int i = 0; i < splits.length; i++) {
                 String currentSplit = split.getDataAt(i);
-                splits[i] = fixed || perl ? split.getDataAt(i) : RegExp.checkPreDefinedClasses(split.getDataAt(i));
+                splits[i] = fixed || perl ? split.getDataAt(i) : RegExp.translatePattern(split.getDataAt(i));
                 if (perl) {
                     if (!currentSplit.isEmpty()) {
-                        pcreSplits[i] = common.compileNode.execute(currentSplit, 0, pcreTables);
-                        if (pcreSplits[i].result == 0) {
-                            // TODO output warning if pcre.errorMessage not NULL
-                            throw error(RError.Message.INVALID_REGEXP, currentSplit);
-                        }
+                        pcreSplits[i] = common.compilePerlPattern(currentSplit, false);
                         // TODO pcre_study for vectors > 10 ? (cf GnuR)
                     }
                 }
@@ -1560,7 +1561,7 @@ public class GrepFunctions {
                 if (input.equals(separator)) {
                     return RDataFactory.createStringVector("");
                 } else {
-                    return RDataFactory.createStringVector(input.split(separator), true);
+                    return RDataFactory.createStringVector(RegExp.compilePattern(separator, 0).split(input), true);
                 }
             }
         }
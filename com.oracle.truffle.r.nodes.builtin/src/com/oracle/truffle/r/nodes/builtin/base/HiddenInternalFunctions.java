@@ -53,6 +53,7 @@ import com.oracle.truffle.r.nodes.function.call.CallRFunctionCachedNode;
 import com.oracle.truffle.r.nodes.function.call.CallRFunctionCachedNodeGen;
 import com.oracle.truffle.r.nodes.function.opt.ShareObjectNode;
 import com.oracle.truffle.r.runtime.ArgumentsSignature;
+import com.oracle.truffle.r.runtime.LazyDBCache;
 import com.oracle.truffle.r.runtime.RCaller;
 import com.oracle.truffle.r.runtime.RCompression;
 import com.oracle.truffle.r.runtime.RError;
@@ -243,14 +244,15 @@ public class HiddenInternalFunctions {
             }
             String dbPath = datafile.getDataAt(0);
             String packageName = new File(dbPath).getName();
-            byte[] dbData = RContext.getInstance().stateLazyDBCache.getData(dbPath);
+            ByteBuffer dbData = RContext.getInstance().stateLazyDBCache.getData(dbPath);
             int dotIndex;
             if ((dotIndex = packageName.lastIndexOf('.')) > 0) {
                 packageName = packageName.substring(0, dotIndex);
             }
             int offset = key.getDataAt(0);
             int length = key.getDataAt(1);
-            int outlen = getOutlen(dbData, offset); // length of uncompressed data
+            // only the bytes of the requested entry are copied out of the shared mapping
+            ByteBuffer entry = LazyDBCache.getEntry(dbData, offset, length);
             byte[] udata = null;
             boolean rc = true;
             /*
@@ -262,22 +264,23 @@ public class HiddenInternalFunctions {
              */
             if (compression == 0) {
                 udata = new byte[length];
-                System.arraycopy(dbData, offset, udata, 0, length);
+                entry.get(udata);
             } else {
+                int outlen = entry.getInt(); // length of uncompressed data
                 udata = new byte[outlen];
                 if (compression == 2 || compression == 3) {
-                    RCompression.Type type = RCompression.Type.fromTypeChar(dbData[4]);
+                    RCompression.Type type = RCompression.Type.fromTypeChar(entry.get());
                     if (type == null) {
                         warning(RError.Message.GENERIC, "unknown compression type");
                         return RNull.instance;
                     }
                     byte[] data = new byte[length - 5];
-                    System.arraycopy(dbData, offset + 5, data, 0, data.length);
+                    entry.get(data);
                     rc = RCompression.uncompress(type, udata, data);
                 } else {
                     // GnuR treats any other value as 1
                     byte[] data = new byte[length - 4];
-                    System.arraycopy(dbData, offset + 4, data, 0, data.length);
+                    entry.get(data);
                     rc = RCompression.uncompress(RCompression.Type.GZIP, udata, data);
                 }
             }
@@ -310,13 +313,6 @@ public class HiddenInternalFunctions {
             }
         }
 
-        private static int getOutlen(byte[] dbData, int offset) {
-            ByteBuffer dataLengthBuf = ByteBuffer.allocate(4);
-            dataLengthBuf.put(dbData, offset, 4);
-            dataLengthBuf.position(0);
-            return dataLengthBuf.getInt();
-        }
-
         private static final class EvaluateAndSharePromiseNode extends Node {
             @Child private PromiseHelperNode promiseHelperNode;
             @Child private ShareObjectNode shareObjectNode;
@@ -43,6 +43,7 @@ import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RLocale;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.RegExp;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
@@ -118,6 +119,10 @@ public class LocaleFunctions {
             } else {
                 context.stateRLocale.setLocale(MAPPING[category - MAPPING_START], value);
             }
+            if (category == LC_ALL || MAPPING[category - MAPPING_START] == RLocale.CTYPE) {
+                // the character tables of compiled PCRE patterns depend on LC_CTYPE
+                context.stateRegExp.invalidate(RegExp.Engine.PCRE);
+            }
             return GetLocale.getLocale(category);
         }
     }
@@ -28,6 +28,7 @@ import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
 
 import java.util.Arrays;
+import java.util.stream.IntStream;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -44,6 +45,8 @@ import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.SetDimAt
 import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.SetDimNamesAttributeNode;
 import com.oracle.truffle.r.nodes.binary.BinaryMapArithmeticFunctionNode;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.FastRConfig;
+import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RType;
@@ -63,6 +66,7 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.data.nodes.GetReadonlyData;
+import com.oracle.truffle.r.runtime.ffi.LapackRFFI;
 import com.oracle.truffle.r.runtime.ops.BinaryArithmetic;
 import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
@@ -71,6 +75,13 @@ public abstract class MatMult extends RBuiltinNode.Arg2 {
 
     private static final int BLOCK_SIZE = 64;
 
+    /**
+     * Number of multiply-add operations above which a double matrix product is computed in
+     * parallel, or by the native BLAS if {@link #USE_BLAS} is set.
+     */
+    private static final long PARALLEL_THRESHOLD = FastROptions.MatMultParallelThreshold.getNonNegativeIntValue();
+    private static final boolean USE_BLAS = FastROptions.MatMultUseBLAS.getBooleanValue() && !FastRConfig.ManagedMode;
+
     @Child private BinaryMapArithmeticFunctionNode mult = new BinaryMapArithmeticFunctionNode(BinaryArithmetic.MULTIPLY.createOperation());
     @Child private BinaryMapArithmeticFunctionNode add = new BinaryMapArithmeticFunctionNode(BinaryArithmetic.ADD.createOperation());
     private final boolean promoteDimNames;
@@ -151,6 +162,94 @@ public abstract class MatMult extends RBuiltinNode.Arg2 {
         }
     }
 
+    /**
+     * Packs a matrix so that the {@code k} elements of each of its {@code n} rows (or columns) are
+     * stored contiguously, i.e., element {@code (i, j)} ends up at index {@code i * k + j}.
+     */
+    private static double[] pack(double[] data, int n, int k, int stride, int kStride) {
+        double[] packed = new double[n * k];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            int index = i * stride;
+            for (int j = 0; j < k; j++) {
+                packed[i * k + j] = data[index];
+                index += kStride;
+            }
+        });
+        return packed;
+    }
+
+    /**
+     * Computes the columns {@code col} to {@code col + cols - 1} of the result from packed
+     * operands. The blocks are visited in the same order as by the sequential algorithm, so the
+     * results are identical.
+     */
+    private static void multiplyStripe(double[] a, double[] b, int aRows, int aCols, double[] result, int col, int cols, boolean mirrored) {
+        int rowLimit = mirrored ? Math.min(aRows, col + 1) : aRows;
+        for (int row = 0; row < rowLimit; row += BLOCK_SIZE) {
+            int rows = Math.min(BLOCK_SIZE, aRows - row);
+            for (int k = 0; k < aCols; k += BLOCK_SIZE) {
+                int remainingK = Math.min(BLOCK_SIZE, aCols - k);
+                for (int innerCol = 0; innerCol < cols; innerCol++) {
+                    int bIndex = (col + innerCol) * aCols + k;
+                    int resultIndex = (col + innerCol) * aRows + row;
+                    for (int innerRow = 0; innerRow < rows; innerRow++) {
+                        int aIndex = (row + innerRow) * aCols + k;
+                        double x = 0.0;
+                        for (int innerK = 0; innerK < remainingK; innerK++) {
+                            x += a[aIndex + innerK] * b[bIndex + innerK];
+                        }
+                        result[resultIndex + innerRow] += x;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Multiplies large matrices using the common fork/join pool. The rows of {@code a} and the
+     * columns of {@code b} are packed into contiguous panels (unless they already are), so that the
+     * innermost loop runs with unit stride over both operands. Each task computes a stripe of
+     * {@link #BLOCK_SIZE} result columns, therefore no two tasks write to the same elements.
+     */
+    @TruffleBoundary
+    private static void multiplyParallel(double[] a, double[] b, int aRows, int aCols, int bCols, int aRowStride, int aColStride, int bRowStride, int bColStride, double[] result,
+                    boolean mirrored) {
+        double[] packedA = aColStride == 1 && aRowStride == aCols ? a : pack(a, aRows, aCols, aRowStride, aColStride);
+        double[] packedB = bRowStride == 1 && bColStride == aCols ? b : pack(b, bCols, aCols, bColStride, bRowStride);
+        int stripes = (bCols + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream.range(0, stripes).parallel().forEach(stripe -> {
+            int col = stripe * BLOCK_SIZE;
+            multiplyStripe(packedA, packedB, aRows, aCols, result, col, Math.min(BLOCK_SIZE, bCols - col), mirrored);
+        });
+    }
+
+    /**
+     * Checks whether the operands are laid out so that they can be passed to {@code dgemm}, i.e.,
+     * whether each of them is a column-major matrix or a transposed one.
+     */
+    private static boolean isBLASCompatible(int rows, int cols, int rowStride, int colStride) {
+        if (rowStride == 1) {
+            return colStride >= Math.max(1, rows);
+        } else {
+            return colStride == 1 && rowStride >= Math.max(1, cols);
+        }
+    }
+
+    @Child private LapackRFFI.DgemmNode dgemmNode;
+
+    private void multiplyBLAS(double[] a, double[] b, int aRows, int aCols, int bCols, int aRowStride, int aColStride, int bRowStride, int bColStride, double[] result) {
+        if (dgemmNode == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            dgemmNode = insert(LapackRFFI.DgemmNode.create());
+        }
+        String transA = aRowStride == 1 ? "N" : "T";
+        int lda = aRowStride == 1 ? aColStride : aRowStride;
+        String transB = bRowStride == 1 ? "N" : "T";
+        int ldb = bRowStride == 1 ? bColStride : bRowStride;
+        dgemmNode.execute(transA, transB, aRows, bCols, aCols, 1.0, a, lda, b, ldb, 0.0, result, Math.max(1, aRows));
+    }
+
+    private final ConditionProfile parallelProfile = ConditionProfile.createBinaryProfile();
     private final ConditionProfile bigProfile = ConditionProfile.createBinaryProfile();
     private final BranchProfile incompleteProfile = BranchProfile.create();
     @CompilationFinal private boolean seenLargeMatrix;
@@ -192,7 +291,13 @@ public abstract class MatMult extends RBuiltinNode.Arg2 {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             seenLargeMatrix = true;
         }
-        if (seenLargeMatrix) {
+        if (seenLargeMatrix && parallelProfile.profile(PARALLEL_THRESHOLD > 0 && (long) aRows * aCols * bCols >= PARALLEL_THRESHOLD)) {
+            if (USE_BLAS && isBLASCompatible(aRows, aCols, aRowStride, aColStride) && isBLASCompatible(bRows, bCols, bRowStride, bColStride)) {
+                multiplyBLAS(dataA, dataB, aRows, aCols, bCols, aRowStride, aColStride, bRowStride, bColStride, result);
+            } else {
+                multiplyParallel(dataA, dataB, aRows, aCols, bCols, aRowStride, aColStride, bRowStride, bColStride, result, mirrored);
+            }
+        } else if (seenLargeMatrix) {
             for (int row = 0; row < aRows; row += BLOCK_SIZE) {
                 for (int col = mirrored ? row : 0; col < bCols; col += BLOCK_SIZE) {
                     for (int k = 0; k < aCols; k += BLOCK_SIZE) {
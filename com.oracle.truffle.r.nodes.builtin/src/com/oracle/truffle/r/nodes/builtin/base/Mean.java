@@ -31,6 +31,7 @@ import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.nodes.unary.ParallelReduction;
 import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.data.RComplex;
@@ -42,6 +43,8 @@ import com.oracle.truffle.r.runtime.data.nodes.VectorAccess.SequentialIterator;
 @RBuiltin(name = "mean", kind = INTERNAL, parameterNames = {"x"}, dispatch = INTERNAL_GENERIC, behavior = PURE_SUMMARY)
 public abstract class Mean extends RBuiltinNode.Arg1 {
 
+    private final ConditionProfile parallelProfile = ConditionProfile.createBinaryProfile();
+
     static {
         Casts.noCasts(Mean.class);
     }
@@ -50,6 +53,10 @@ public abstract class Mean extends RBuiltinNode.Arg1 {
     protected double meanDoubleCached(RAbstractVector x,
                     @Cached("x.access()") VectorAccess access,
                     @Cached("createBinaryProfile()") ConditionProfile emptyProfile) {
+        double[] data = ParallelReduction.getData(x);
+        if (parallelProfile.profile(data != null)) {
+            return ParallelReduction.mean(data, x.getLength());
+        }
         try (SequentialIterator iter = access.access(x)) {
             if (emptyProfile.profile(!access.next(iter))) {
                 return Double.NaN;
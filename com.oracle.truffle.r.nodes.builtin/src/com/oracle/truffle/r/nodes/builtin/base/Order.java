@@ -269,7 +269,11 @@ public abstract class Order extends RPrecedenceBuiltinNode {
         for (int i = 0; i < indx.length; i++) {
             indx[i] = i;
         }
-        orderVector(indx, args.getArguments(), RRuntime.fromLogical(naLast), decreasing);
+        if (n >= StableSort.MIN_LENGTH) {
+            orderVectorStable(indx, args.getArguments(), RRuntime.fromLogical(naLast), decreasing);
+        } else {
+            orderVector(indx, args.getArguments(), RRuntime.fromLogical(naLast), decreasing);
+        }
         for (int i = 0; i < indx.length; i++) {
             indx[i] = indx[i] + 1;
         }
@@ -295,6 +299,15 @@ public abstract class Order extends RPrecedenceBuiltinNode {
         return (c == 0 && i < j) ? false : true;
     }
 
+    @TruffleBoundary
+    private static void orderVectorStable(int[] indx, Object[] vectors, boolean naLast, boolean dec) {
+        StableSort.IndexComparator[] keys = new StableSort.IndexComparator[vectors.length];
+        for (int k = 0; k < vectors.length; k++) {
+            keys[k] = StableSort.createComparator((RAbstractVector) vectors[k], naLast, dec);
+        }
+        StableSort.sort(indx, 0, indx.length - 1, StableSort.combine(keys));
+    }
+
     private void orderVector(int[] indx, Object[] vectors, boolean naLast, boolean dec) {
         if (indx.length > 1) {
 
@@ -483,6 +496,9 @@ public abstract class Order extends RPrecedenceBuiltinNode {
         }
 
         private void sort(int[] indx, RAbstractDoubleVector dv, int lo, int hi, boolean dec) {
+            if (hi - lo + 1 >= StableSort.MIN_LENGTH && StableSort.sort(indx, dv, lo, hi, dec)) {
+                return;
+            }
             int t = 0;
             for (; SINCS[t] > hi - lo + 1; t++) {
             }
@@ -511,6 +527,10 @@ public abstract class Order extends RPrecedenceBuiltinNode {
         }
 
         private void sort(int[] indx, RAbstractIntVector dv, int lo, int hi, boolean dec) {
+            if (hi - lo + 1 >= StableSort.MIN_LENGTH) {
+                StableSort.sort(indx, dv, lo, hi, dec);
+                return;
+            }
             int t = 0;
             for (; SINCS[t] > hi - lo + 1; t++) {
             }
@@ -545,7 +565,22 @@ public abstract class Order extends RPrecedenceBuiltinNode {
             }
 
             Locale locale = RContext.getInstance().stateRLocale.getLocale(RLocale.COLLATE);
-            if (locale == Locale.ROOT) {
+            if (hi - lo + 1 >= StableSort.MIN_LENGTH) {
+                StableSort.IndexComparator cmp;
+                if (locale == Locale.ROOT) {
+                    RAbstractStringVector values = dv.materialize();
+                    cmp = (a, b) -> values.getDataAt(a).compareTo(values.getDataAt(b));
+                } else {
+                    int length = dv.getLength();
+                    Collator collator = RLocale.getOrderCollator(locale);
+                    CollationKey[] entries = new CollationKey[length];
+                    for (int i = 0; i < length; i++) {
+                        entries[i] = collator.getCollationKey(dv.getDataAt(i));
+                    }
+                    cmp = (a, b) -> entries[a].compareTo(entries[b]);
+                }
+                StableSort.sort(indx, lo, hi, dec ? (a, b) -> -Integer.signum(cmp.compare(a, b)) : cmp);
+            } else if (locale == Locale.ROOT) {
                 // simple comparison based on numeric value of characters
                 for (int h = SINCS[t]; t < 16; h = SINCS[++t]) {
                     for (int i = lo + h; i <= hi; i++) {
@@ -31,12 +31,14 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.nodes.unary.ParallelReduction;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
 import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.data.nodes.VectorAccess;
 import com.oracle.truffle.r.runtime.data.nodes.VectorAccess.SequentialIterator;
 import com.oracle.truffle.r.runtime.ops.BinaryArithmetic;
@@ -168,6 +170,10 @@ public abstract class Prod extends RBuiltinNode.Arg2 {
     }
 
     protected static double prodDouble(Object v, VectorAccess access, boolean naRm) {
+        double[] data = v instanceof RAbstractVector ? ParallelReduction.getData((RAbstractVector) v) : null;
+        if (data != null) {
+            return ParallelReduction.prod(data, ((RAbstractVector) v).getLength(), naRm);
+        }
         try (SequentialIterator iter = access.access(v)) {
             double value = 1;
             while (access.next(iter)) {
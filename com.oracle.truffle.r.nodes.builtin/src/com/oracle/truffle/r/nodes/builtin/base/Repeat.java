@@ -35,6 +35,7 @@ import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.dsl.TypeSystemReference;
@@ -51,6 +52,7 @@ import com.oracle.truffle.r.nodes.function.call.PrepareMatchInternalArguments;
 import com.oracle.truffle.r.nodes.function.call.PrepareMatchInternalArgumentsNodeGen;
 import com.oracle.truffle.r.nodes.unary.CastNode;
 import com.oracle.truffle.r.runtime.ArgumentsSignature;
+import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
@@ -64,6 +66,8 @@ import com.oracle.truffle.r.runtime.data.RTypes;
 import com.oracle.truffle.r.runtime.data.RVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
 
@@ -86,6 +90,10 @@ import com.oracle.truffle.r.runtime.nodes.RBaseNode;
  * issued.
  * </ul>
  * </ol>
+ * If the result is long enough (see {@link FastROptions#CompactRepThreshold}) and consists of
+ * {@code x} recycled as a whole, i.e., {@code each} is one and {@code times} has one element, it is
+ * not materialized, but represented by a compact vector that only holds the elements of {@code x}
+ * (see {@code RCompactVector}).
  */
 @RBuiltin(name = "rep", kind = PRIMITIVE, parameterNames = {"x", "..."}, dispatch = INTERNAL_GENERIC, behavior = PURE)
 public abstract class Repeat extends RBuiltinNode.Arg2 {
@@ -160,9 +168,12 @@ public abstract class Repeat extends RBuiltinNode.Arg2 {
 
         private final ConditionProfile lengthOutOrTimes = ConditionProfile.createBinaryProfile();
         private final ConditionProfile oneTimeGiven = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile compactProfile = ConditionProfile.createBinaryProfile();
 
         @Child private GetNamesAttributeNode getNames = GetNamesAttributeNode.create();
 
+        private static final int COMPACT_THRESHOLD = FastROptions.CompactRepThreshold.getNonNegativeIntValue();
+
         @CompilationFinal private boolean trySimple = true;
 
         public abstract RAbstractVector execute(VirtualFrame frame, Object... args);
@@ -188,6 +199,9 @@ public abstract class Repeat extends RBuiltinNode.Arg2 {
                         throw error(RError.Message.INVALID_ARGUMENT, "times");
                     }
                     int length = lengthOutOrTimes.profile(!RRuntime.isNA(lengthOut)) ? lengthOut : t;
+                    if (compactProfile.profile(isCompact(length, 1))) {
+                        return RDataFactory.createRepeatedDoubleVector(new double[]{doubleVector.getDataAt(0)}, length);
+                    }
                     double[] data = new double[length];
                     Arrays.fill(data, doubleVector.getDataAt(0));
                     return RDataFactory.createDoubleVector(data, !RRuntime.isNA(doubleVector.getDataAt(0)));
@@ -210,6 +224,12 @@ public abstract class Repeat extends RBuiltinNode.Arg2 {
                 }
                 input = handleEach(input, each);
             }
+            if (each == 1 && hasNamesProfile != null && (times.getLength() == 1 || !RRuntime.isNA(lengthOut))) {
+                RAbstractVector compact = repCompact(x, times, lengthOut);
+                if (compact != null) {
+                    return compact;
+                }
+            }
             RVector<?> r;
             if (lengthOutOrTimes.profile(RRuntime.isNA(lengthOut))) {
                 r = handleTimes(input, times);
@@ -227,6 +247,71 @@ public abstract class Repeat extends RBuiltinNode.Arg2 {
             return r;
         }
 
+        private static boolean isCompact(int length, int patternLength) {
+            return COMPACT_THRESHOLD > 0 && length >= COMPACT_THRESHOLD && patternLength > 0 && patternLength <= length / 2;
+        }
+
+        /**
+         * Creates a compact representation of {@code x} recycled to the result length if
+         * {@code x} is of a supported type, has no names and the result is long enough, otherwise
+         * returns {@code null}.
+         */
+        private RAbstractVector repCompact(RAbstractVector x, RAbstractIntVector times, int lengthOut) {
+            int length;
+            if (RRuntime.isNA(lengthOut)) {
+                int howManyTimes = times.getDataAt(0);
+                if (howManyTimes < 0) {
+                    throw error(RError.Message.INVALID_ARGUMENT, "times");
+                }
+                long resultLength = (long) x.getLength() * howManyTimes;
+                if (resultLength > Integer.MAX_VALUE) {
+                    return null;
+                }
+                length = (int) resultLength;
+            } else {
+                length = lengthOut;
+            }
+            if (!compactProfile.profile(isCompact(length, x.getLength())) || getNames.getNames(x) != null) {
+                return null;
+            }
+            return createRepeated(x, length);
+        }
+
+        @TruffleBoundary
+        private static RAbstractVector createRepeated(RAbstractVector x, int length) {
+            int patternLength = x.getLength();
+            if (x instanceof RAbstractLogicalVector) {
+                RAbstractLogicalVector v = (RAbstractLogicalVector) x;
+                byte[] pattern = new byte[patternLength];
+                for (int i = 0; i < patternLength; i++) {
+                    pattern[i] = v.getDataAt(i);
+                }
+                return RDataFactory.createRepeatedLogicalVector(pattern, length);
+            } else if (x instanceof RAbstractIntVector) {
+                RAbstractIntVector v = (RAbstractIntVector) x;
+                int[] pattern = new int[patternLength];
+                for (int i = 0; i < patternLength; i++) {
+                    pattern[i] = v.getDataAt(i);
+                }
+                return RDataFactory.createRepeatedIntVector(pattern, length);
+            } else if (x instanceof RAbstractDoubleVector) {
+                RAbstractDoubleVector v = (RAbstractDoubleVector) x;
+                double[] pattern = new double[patternLength];
+                for (int i = 0; i < patternLength; i++) {
+                    pattern[i] = v.getDataAt(i);
+                }
+                return RDataFactory.createRepeatedDoubleVector(pattern, length);
+            } else if (x instanceof RAbstractStringVector) {
+                RAbstractStringVector v = (RAbstractStringVector) x;
+                String[] pattern = new String[patternLength];
+                for (int i = 0; i < patternLength; i++) {
+                    pattern[i] = v.getDataAt(i);
+                }
+                return RDataFactory.createRepeatedStringVector(pattern, length);
+            }
+            return null;
+        }
+
         /**
          * Prepare the input vector by replicating its elements.
          */
@@ -22,11 +22,14 @@
  */
 package com.oracle.truffle.r.nodes.builtin.base;
 
+import java.util.function.IntToDoubleFunction;
+
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.LoopConditionProfile;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.ops.BinaryArithmetic;
 import com.oracle.truffle.r.runtime.ops.na.NACheck;
@@ -53,13 +56,12 @@ public abstract class RowSumsBase extends ColSumsBase {
         double get(T vector, NACheck na, int index);
     }
 
-    @FunctionalInterface
-    protected interface FinalTransform {
-        double get(double sum, int notNACount);
-    }
-
     protected final <T extends RAbstractVector> RDoubleVector accumulateRows(T x, int rowNum, int colNum, boolean naRm, FinalTransform finalTransform, RowSumsBase.GetFunction<T> get) {
         reportWork(x.getLength());
+        IntToDoubleFunction parallelData = x instanceof RAbstractDoubleVector ? getParallelData((RAbstractDoubleVector) x, rowNum, colNum) : null;
+        if (parallelProfile.profile(parallelData != null)) {
+            return accumulateRowsParallel(parallelData, rowNum, colNum, naRm, finalTransform);
+        }
         double[] result = new double[rowNum];
         na.enable(x);
         outerProfile.profileCounted(rowNum / 4);
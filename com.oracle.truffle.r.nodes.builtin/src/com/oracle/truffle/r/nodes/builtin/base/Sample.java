@@ -59,6 +59,12 @@ import com.oracle.truffle.r.runtime.rng.RRNG;
 
 @RBuiltin(name = "sample", kind = INTERNAL, parameterNames = {"x", "size", "replace", "prob"}, behavior = MODIFIES_STATE)
 public abstract class Sample extends RBuiltinNode.Arg4 {
+    /**
+     * Every draw below consumes exactly one uniform value, so they are taken from the generator in
+     * blocks of this size.
+     */
+    private static final int UNIF_BLOCK = 4096;
+
     private final ConditionProfile sampleSizeProfile = ConditionProfile.createBinaryProfile();
 
     static {
@@ -142,10 +148,15 @@ public abstract class Sample extends RBuiltinNode.Arg4 {
         // The following code is transcribed from GNU R src/main/random.c lines 533-545 in
         // function do_sample.
         int[] result = new int[size];
+        double[] u = new double[Math.min(size, UNIF_BLOCK)];
         /* avoid allocation for a single sample */
         if (sampleSizeProfile.profile(isRepeatable || size < 2)) {
-            for (int i = 0; i < size; i++) {
-                result[i] = (int) (x * RRNG.unifRand() + 1);
+            for (int start = 0; start < size; start += u.length) {
+                int count = Math.min(size - start, u.length);
+                RRNG.unifRand(u, 0, count);
+                for (int i = 0; i < count; i++) {
+                    result[start + i] = (int) (x * u[i] + 1);
+                }
             }
         } else {
             int n = x;
@@ -153,10 +164,14 @@ public abstract class Sample extends RBuiltinNode.Arg4 {
             for (int i = 0; i < n; i++) {
                 ix[i] = i;
             }
-            for (int i = 0; i < size; i++) {
-                int j = (int) (n * RRNG.unifRand());
-                result[i] = ix[j] + 1;
-                ix[j] = ix[--n];
+            for (int start = 0; start < size; start += u.length) {
+                int count = Math.min(size - start, u.length);
+                RRNG.unifRand(u, 0, count);
+                for (int i = 0; i < count; i++) {
+                    int j = (int) (n * u[i]);
+                    result[start + i] = ix[j] + 1;
+                    ix[j] = ix[--n];
+                }
             }
         }
         return RDataFactory.createIntVector(result, true);
@@ -200,15 +215,20 @@ public abstract class Sample extends RBuiltinNode.Arg4 {
         for (int i = 1; i < n; i++) {
             probArray[i] += probArray[i - 1];
         }
-        for (int i = 0; i < resultSize; i++) {
-            int j = 0;
-            double rU = RRNG.unifRand();
-            for (j = 0; j < n - 1; j++) {
-                if (rU <= probArray[j]) {
-                    break;
+        double[] u = new double[Math.min(resultSize, UNIF_BLOCK)];
+        for (int start = 0; start < resultSize; start += u.length) {
+            int count = Math.min(resultSize - start, u.length);
+            RRNG.unifRand(u, 0, count);
+            for (int i = 0; i < count; i++) {
+                int j = 0;
+                double rU = u[i];
+                for (j = 0; j < n - 1; j++) {
+                    if (rU <= probArray[j]) {
+                        break;
+                    }
                 }
+                result[start + i] = perm[j];
             }
-            result[i] = perm[j];
         }
         return result;
     }
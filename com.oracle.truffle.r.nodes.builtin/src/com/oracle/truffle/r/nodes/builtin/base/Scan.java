@@ -37,8 +37,10 @@ import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -51,7 +53,9 @@ import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.StringCache;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.conn.ConnectionSupport;
 import com.oracle.truffle.r.runtime.conn.RConnection;
 import com.oracle.truffle.r.runtime.conn.RConnection.ReadLineWarning;
 import com.oracle.truffle.r.runtime.conn.StdConnections;
@@ -73,6 +77,17 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
     private static final int SCAN_BLOCKSIZE = 1000;
     private static final int NO_COMCHAR = 100000; /* won't occur even in Unicode */
 
+    /*
+     * Lines are read from connections that allow it in blocks of LINE_BLOCKSIZE lines, which are
+     * tokenized in parallel in chunks of PARALLEL_LINES lines. The items of a frame are converted
+     * column by column in parallel in blocks of up to CONVERT_BLOCKSIZE records (and at most
+     * CONVERT_ITEMS items).
+     */
+    private static final int LINE_BLOCKSIZE = 64 * 1024;
+    private static final int PARALLEL_LINES = 4 * 1024;
+    private static final int CONVERT_BLOCKSIZE = 64 * 1024;
+    private static final int CONVERT_ITEMS = 256 * 1024;
+
     private final NACheck naCheck = NACheck.create();
     @Child private ExtractNamesAttributeNode extractNames = ExtractNamesAttributeNode.create();
 
@@ -88,7 +103,7 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
 
     @SuppressWarnings("unused")
     private static class LocalData {
-        final HashMap<String, String> stringTable = new HashMap<>();
+        final ConcurrentHashMap<String, String> stringTable = new ConcurrentHashMap<>();
         RAbstractStringVector naStrings = null;
         boolean quiet = false;
         char sepchar = 0; // 0 means any whitespace
@@ -107,6 +122,11 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
         boolean atStart = false;
         boolean embedWarn = false;
         boolean skipNull = false;
+        boolean readAhead = false;
+        // the current block of lines and their items
+        String[] lines = null;
+        String[][] lineItems = null;
+        int linePos = 0;
     }
 
     static {
@@ -194,6 +214,8 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
 
         // TODO: quite a few more things happen in GNU R around connections
         data.con = RConnection.fromIndex(file);
+        // must be checked before the connection is opened
+        data.readAhead = ConnectionSupport.getBaseConnection(data.con).canReadAhead();
 
         data.save = 0;
 
@@ -201,11 +223,14 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
             if (nskip > 0) {
                 openConn.readLines(nskip, EnumSet.of(ReadLineWarning.EMBEDDED_NUL), skipNull);
             }
+            RVector<?> result;
             if (what instanceof RList) {
-                return scanFrame((RList) what, nmax, nlines, flush, fill, strip == RRuntime.LOGICAL_TRUE, blSkip, multiLine, data);
+                result = scanFrame((RList) what, nmax, nlines, flush, fill, strip == RRuntime.LOGICAL_TRUE, blSkip, multiLine, data);
             } else {
-                return scanVector(what, nmax, nlines, flush, strip == RRuntime.LOGICAL_TRUE, blSkip, data);
+                result = scanVector(what, nmax, nlines, flush, strip == RRuntime.LOGICAL_TRUE, blSkip, data);
             }
+            pushBackUnread(data);
+            return result;
         } catch (IOException x) {
             throw error(RError.Message.CANNOT_READ_CONNECTION);
         }
@@ -229,6 +254,18 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
     }
 
     private static String[] getQuotedItems(LocalData data, String s) {
+        String[] items = tokenize(data, s);
+        if (items == null) {
+            throw RError.error(RError.SHOW_CALLER, Message.INCOMPLETE_FINAL_LINE, s);
+        }
+        return items;
+    }
+
+    /**
+     * Splits a line into items, returns {@code null} if the line ends within a quoted item. This
+     * does not depend on any mutable state and is thus safe to call from multiple threads.
+     */
+    private static String[] tokenize(LocalData data, String s) {
         ArrayList<String> items = new ArrayList<>();
 
         char sepchar = data.sepchar;
@@ -260,7 +297,7 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
                 pos++;
                 while (true) {
                     if (pos == length) {
-                        throw RError.error(RError.SHOW_CALLER, Message.INCOMPLETE_FINAL_LINE, s);
+                        return null;
                     }
                     ch = s.charAt(pos++);
                     if (ch == quoteStart) {
@@ -286,17 +323,171 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
 
     private static String[] getItems(LocalData data, boolean blSkip) throws IOException {
         while (true) {
-            String[] str = data.con.readLines(1, EnumSet.of(ReadLineWarning.EMBEDDED_NUL), false);
-            if (str == null || str.length == 0) {
-                return null;
+            if (data.lineItems == null || data.linePos == data.lineItems.length) {
+                if (!readLineBlock(data)) {
+                    return null;
+                }
+            }
+            int pos = data.linePos++;
+            String[] items = data.lineItems[pos];
+            if (items == null) {
+                // reports the unterminated quote
+                items = getQuotedItems(data, data.lines[pos]);
+            }
+            if (blSkip && items.length == 0) {
+                continue;
             } else {
-                String[] items = getQuotedItems(data, str[0]);
-                if (blSkip && items.length == 0) {
-                    continue;
-                } else {
-                    return items.length == 0 ? new String[]{""} : items;
+                return items.length == 0 ? new String[]{""} : items;
+            }
+        }
+    }
+
+    /**
+     * Reads the next block of lines and tokenizes them. Connections that could block on reading
+     * ahead or whose later reads would miss the unread lines (or that have pushed back lines) are
+     * read one line at a time.
+     */
+    private static boolean readLineBlock(LocalData data) throws IOException {
+        int n = data.readAhead && ConnectionSupport.getBaseConnection(data.con).pushBackLength() == 0 ? LINE_BLOCKSIZE : 1;
+        String[] str = data.con.readLines(n, EnumSet.of(ReadLineWarning.EMBEDDED_NUL), false);
+        if (str == null || str.length == 0) {
+            data.lines = null;
+            data.lineItems = null;
+            return false;
+        }
+        String[][] items = new String[str.length][];
+        if (str.length >= 2 * PARALLEL_LINES) {
+            int chunks = (str.length + PARALLEL_LINES - 1) / PARALLEL_LINES;
+            IntStream.range(0, chunks).parallel().forEach(c -> tokenizeLines(data, str, items, c * PARALLEL_LINES, Math.min(str.length, (c + 1) * PARALLEL_LINES)));
+        } else {
+            tokenizeLines(data, str, items, 0, str.length);
+        }
+        data.lines = str;
+        data.lineItems = items;
+        data.linePos = 0;
+        return true;
+    }
+
+    private static void tokenizeLines(LocalData data, String[] lines, String[][] items, int from, int to) {
+        for (int i = from; i < to; i++) {
+            items[i] = tokenize(data, lines[i]);
+        }
+    }
+
+    /**
+     * Returns the lines that were read ahead but not consumed to the connection.
+     */
+    private static void pushBackUnread(LocalData data) {
+        if (data.lines != null && data.linePos < data.lines.length) {
+            String[] unread = Arrays.copyOfRange(data.lines, data.linePos, data.lines.length);
+            data.con.pushBack(RDataFactory.createStringVector(unread, RDataFactory.COMPLETE_VECTOR), true);
+        }
+        data.lines = null;
+        data.lineItems = null;
+    }
+
+    /**
+     * The items of a frame that have been read but not yet converted. Column {@code i} holds the
+     * items of records {@code start[i]} to {@code start[i] + count[i] - 1}.
+     */
+    private static final class PendingItems {
+        final String[][] items;
+        final int[] start;
+        final int[] count;
+
+        PendingItems(int nc) {
+            int size = Math.max(SCAN_BLOCKSIZE, Math.min(CONVERT_BLOCKSIZE, CONVERT_ITEMS / nc));
+            this.items = new String[nc][size];
+            this.start = new int[nc];
+            this.count = new int[nc];
+        }
+
+        void add(int column, String item, RList list, LocalData data) {
+            if (count[column] == items[column].length) {
+                convert(list, data);
+            }
+            items[column][count[column]++] = item;
+        }
+
+        /**
+         * Converts all pending items into the column vectors, the columns are converted in
+         * parallel. Conversion errors are reported for the first failing item in reading order.
+         */
+        void convert(RList list, LocalData data) {
+            int nc = items.length;
+            int[] failed = new int[nc];
+            Arrays.fill(failed, -1);
+            if (nc > 1) {
+                IntStream.range(0, nc).parallel().filter(i -> isThreadSafe(list, i)).forEach(i -> failed[i] = convertColumn(list, i, data));
+            }
+            for (int i = 0; i < nc; i++) {
+                if (nc == 1 || !isThreadSafe(list, i)) {
+                    failed[i] = convertColumn(list, i, data);
+                }
+            }
+            int column = -1;
+            int record = Integer.MAX_VALUE;
+            for (int i = 0; i < nc; i++) {
+                if (failed[i] >= 0 && start[i] + failed[i] < record) {
+                    record = start[i] + failed[i];
+                    column = i;
+                }
+            }
+            if (column >= 0) {
+                RAbstractVector vec = (RAbstractVector) list.getDataAt(column);
+                throw RError.error(RError.SHOW_CALLER, Message.SCAN_UNEXPECTED, vec.getRType().getName(), items[column][failed[column]]);
+            }
+            for (int i = 0; i < nc; i++) {
+                start[i] += count[i];
+                count[i] = 0;
+            }
+        }
+
+        private static boolean isThreadSafe(RList list, int column) {
+            switch (((RAbstractVector) list.getDataAt(column)).getRType()) {
+                case Logical:
+                case Integer:
+                case Double:
+                case Character:
+                    return true;
+                default:
+                    // raw and complex values are allocated via RDataFactory
+                    return false;
+            }
+        }
+
+        /**
+         * Converts the pending items of one column, returns the index of the first item that
+         * cannot be converted or {@code -1}.
+         */
+        private int convertColumn(RList list, int column, LocalData data) {
+            RVector<?> vec = (RVector<?>) list.getDataAt(column);
+            NACheck check = NACheck.create();
+            check.enable(true);
+            String[] columnItems = items[column];
+            for (int j = 0; j < count[column]; j++) {
+                Object item;
+                try {
+                    item = convertItem(vec, columnItems[j], data);
+                } catch (NumberFormatException e) {
+                    return j;
                 }
+                vec.updateDataAtAsObject(start[column] + j, item, check);
             }
+            return -1;
+        }
+    }
+
+    /**
+     * Like {@link #getItems(LocalData, boolean)}, but an error reading the next line, e.g. an
+     * unterminated quote, is reported only after the conversion errors of the preceding lines.
+     */
+    private static String[] getItems(LocalData data, boolean blSkip, PendingItems pending, RList list) throws IOException {
+        try {
+            return getItems(data, blSkip);
+        } catch (RError e) {
+            pending.convert(list, data);
+            throw e;
         }
     }
 
@@ -339,9 +530,10 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
         int n = 0;
         int lines = 0;
         int records = 0;
+        PendingItems pending = new PendingItems(nc);
         while (true) {
             // TODO: does not do any fancy stuff, like handling comments
-            String[] strItems = getItems(data, blSkip);
+            String[] strItems = getItems(data, blSkip, pending, list);
             if (strItems == null) {
                 break;
             }
@@ -351,14 +543,17 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
 
                 if (n == strItems.length) {
                     if (fill) {
-                        fillEmpty(n, nc, records, list, data);
+                        for (int j = n; j < nc; j++) {
+                            pending.add(j, "", list, data);
+                        }
                         records++;
                         n = 0;
                         break;
                     } else if (!multiLine) {
+                        pending.convert(list, data);
                         throw error(RError.Message.LINE_ELEMENTS, lines + 1, nc);
                     } else {
-                        strItems = getItems(data, blSkip);
+                        strItems = getItems(data, blSkip, pending, list);
                         // Checkstyle: stop modified control variable check
                         i = 0;
                         // Checkstyle: resume modified control variable check
@@ -368,8 +563,6 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
                         }
                     }
                 }
-                Object item = extractItem((RAbstractVector) list.getDataAt(n), strItems[i], data);
-
                 if (records == blockSize) {
                     // enlarge the vector
                     blockSize = blockSize * 2;
@@ -380,8 +573,7 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
                     }
                 }
 
-                RVector<?> vec = (RVector<?>) list.getDataAt(n);
-                vec.updateDataAtAsObject(records, item, naCheck);
+                pending.add(n, strItems[i], list, data);
                 n++;
                 if (n == nc) {
                     records++;
@@ -403,6 +595,7 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
                 break;
             }
         }
+        pending.convert(list, data);
 
         if (n > 0 && n < nc) {
             if (!fill) {
@@ -496,49 +689,56 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
 
     private static Object extractItem(RAbstractVector what, String buffer, LocalData data) {
         try {
-            switch (what.getRType()) {
-                case Logical:
-                    if (isNaString(buffer, 0, data)) {
-                        return RRuntime.LOGICAL_NA;
-                    } else {
-                        return RRuntime.string2logicalNoCheck(buffer);
-                    }
-                case Integer:
-                    if (isNaString(buffer, 0, data)) {
-                        return RRuntime.INT_NA;
-                    } else {
-                        return RRuntime.parseInt(buffer);
-                    }
-                case Double:
-                    if (isNaString(buffer, 0, data)) {
-                        return RRuntime.DOUBLE_NA;
-                    } else {
-                        return RRuntime.string2doubleNoCheck(buffer);
-                    }
-                case Complex:
-                    if (isNaString(buffer, 0, data)) {
-                        return RComplex.createNA();
-                    } else {
-                        return RRuntime.string2complexNoCheck(buffer);
-                    }
-                case Character:
-                    if (isNaString(buffer, 1, data)) {
-                        return RRuntime.STRING_NA;
-                    } else {
-                        String oldEntry = data.stringTable.putIfAbsent(buffer, buffer);
-                        return oldEntry == null ? buffer : oldEntry;
-                    }
-                case Raw:
-                    if (isNaString(buffer, 0, data)) {
-                        return RDataFactory.createRaw((byte) 0);
-                    } else {
-                        return RRuntime.string2raw(buffer);
-                    }
-                default:
-                    throw RInternalError.shouldNotReachHere();
-            }
+            return convertItem(what, buffer, data);
         } catch (NumberFormatException e) {
             throw RError.error(RError.SHOW_CALLER, Message.SCAN_UNEXPECTED, what.getRType().getName(), buffer);
         }
     }
+
+    private static Object convertItem(RAbstractVector what, String buffer, LocalData data) {
+        switch (what.getRType()) {
+            case Logical:
+                if (isNaString(buffer, 0, data)) {
+                    return RRuntime.LOGICAL_NA;
+                } else {
+                    return RRuntime.string2logicalNoCheck(buffer);
+                }
+            case Integer:
+                if (isNaString(buffer, 0, data)) {
+                    return RRuntime.INT_NA;
+                } else {
+                    return RRuntime.parseInt(buffer);
+                }
+            case Double:
+                if (isNaString(buffer, 0, data)) {
+                    return RRuntime.DOUBLE_NA;
+                } else {
+                    return RRuntime.string2doubleNoCheck(buffer);
+                }
+            case Complex:
+                if (isNaString(buffer, 0, data)) {
+                    return RComplex.createNA();
+                } else {
+                    return RRuntime.string2complexNoCheck(buffer);
+                }
+            case Character:
+                if (isNaString(buffer, 1, data)) {
+                    return RRuntime.STRING_NA;
+                } else {
+                    if (StringCache.isEnabled()) {
+                        return StringCache.intern(buffer);
+                    }
+                    String oldEntry = data.stringTable.putIfAbsent(buffer, buffer);
+                    return oldEntry == null ? buffer : oldEntry;
+                }
+            case Raw:
+                if (isNaString(buffer, 0, data)) {
+                    return RDataFactory.createRaw((byte) 0);
+                } else {
+                    return RRuntime.string2raw(buffer);
+                }
+            default:
+                throw RInternalError.shouldNotReachHere();
+        }
+    }
 }
@@ -36,6 +36,7 @@ import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RAttributable;
+import com.oracle.truffle.r.runtime.data.RCompactVector;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RSequence;
 
@@ -67,7 +68,7 @@ public abstract class SetS4Object extends RBuiltinNode.Arg3 {
         return object;
     }
 
-    @Specialization(guards = "!isSequence(object)")
+    @Specialization(guards = {"!isSequence(object)", "!isCompact(object)"})
     protected Object asS4(RAttributable object, boolean flag, int complete) {
         return asS4.executeObject(object, flag, complete);
     }
@@ -77,7 +78,16 @@ public abstract class SetS4Object extends RBuiltinNode.Arg3 {
         return asS4(seq.materialize(), flag, complete);
     }
 
+    @Specialization
+    protected Object asS4(RCompactVector vector, boolean flag, int complete) {
+        return asS4(vector.materialize(), flag, complete);
+    }
+
     protected boolean isSequence(Object o) {
         return o instanceof RSequence;
     }
+
+    protected boolean isCompact(Object o) {
+        return o instanceof RCompactVector;
+    }
 }
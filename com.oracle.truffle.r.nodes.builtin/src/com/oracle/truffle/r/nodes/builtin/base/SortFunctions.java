@@ -54,12 +54,15 @@ import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractAtomicVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractListVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractRawVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 
 /**
  * The internal functions mandated by {@code base/sort.R}. N.B. We use the standard JDK sorting
@@ -265,7 +268,9 @@ public class SortFunctions {
      * This a helper function for the code in sort.R. It does NOT return the input vectors sorted,
      * but returns an {@link RIntVector} of indices (positions) indicating the sort order (Or
      * {@link RNull#instance} if no vectors). In short it is a special variant of {@code order}. For
-     * now we delegate to {@code order} and do not implement the {@code retgrp} argument.
+     * now we delegate to {@code order}, unless the vectors have differing {@code decreasing} values
+     * (which {@code order} does not support) in which case {@link StableSort} is used directly, and
+     * do not implement the {@code retgrp} argument.
      */
     @RBuiltin(name = "radixsort", kind = INTERNAL, parameterNames = {"na.last", "decreasing", "retgrp", "sortstr", "..."}, behavior = PURE)
     public abstract static class RadixSort extends RBuiltinNode.Arg5 {
@@ -296,24 +301,50 @@ public class SortFunctions {
             }
             /*
              * Order takes a single decreasing argument that applies to all the vectors. We
-             * potentially have a different value for each vector, so we have to process one by one.
-             * However, OrderNode can't yet handle that, so we abort if nargs > 1 and the decreasing
-             * values don't match.
+             * potentially have a different value for each vector, which is handled separately.
              */
-            byte lastdb = RRuntime.LOGICAL_NA;
+            boolean sameDecreasing = true;
             for (int i = 0; i < nargs; i++) {
                 byte db = decreasingVec.getDataAt(i);
                 if (RRuntime.isNA(db)) {
                     throw error(RError.Message.RADIX_SORT_DEC_NOT_LOGICAL);
                 }
-                if (lastdb != RRuntime.LOGICAL_NA && db != lastdb) {
-                    throw RError.nyi(this, "radixsort: args > 1 with differing 'decreasing' values not implemented");
-                }
-                lastdb = db;
+                sameDecreasing &= db == decreasingVec.getDataAt(0);
+            }
+            if (!sameDecreasing) {
+                return orderMixed(naLast, decreasingVec, zz);
             }
             boolean decreasing = RRuntime.fromLogical(decreasingVec.getDataAt(0));
             Object result = orderNode.execute(naLast, decreasing, zz);
             return result;
         }
+
+        @TruffleBoundary
+        private Object orderMixed(byte naLast, RAbstractLogicalVector decreasingVec, RArgsValuesAndNames args) {
+            Object[] vectors = args.getArguments();
+            StableSort.IndexComparator[] keys = new StableSort.IndexComparator[vectors.length];
+            int n = -1;
+            for (int i = 0; i < vectors.length; i++) {
+                if (!(vectors[i] instanceof RAbstractAtomicVector) || vectors[i] instanceof RAbstractRawVector) {
+                    throw error(RError.Message.NOT_A_VECTOR, i + 1);
+                }
+                RAbstractVector v = (RAbstractVector) vectors[i];
+                if (n == -1) {
+                    n = v.getLength();
+                } else if (n != v.getLength()) {
+                    throw error(RError.Message.ARGUMENT_LENGTHS_DIFFER);
+                }
+                keys[i] = StableSort.createKeyComparator(v, RRuntime.fromLogical(naLast), RRuntime.fromLogical(decreasingVec.getDataAt(i)));
+            }
+            int[] indx = new int[n];
+            for (int i = 0; i < n; i++) {
+                indx[i] = i;
+            }
+            StableSort.sort(indx, 0, n - 1, StableSort.combine(keys));
+            for (int i = 0; i < n; i++) {
+                indx[i]++;
+            }
+            return RDataFactory.createIntVector(indx, RDataFactory.COMPLETE_VECTOR);
+        }
     }
 }
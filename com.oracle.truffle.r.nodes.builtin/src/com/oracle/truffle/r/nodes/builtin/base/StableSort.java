@@ -0,0 +1,506 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+/**
+ * The sorting engine behind {@link Order} and {@link SortFunctions.RadixSort}. All the methods
+ * reorder a range of an index vector stably, i.e., elements that compare equal keep their relative
+ * order. Since the index vectors handed in by the callers are in increasing order, ties end up
+ * sorted by their position, as required by {@code order}, irrespective of {@code decreasing}.
+ *
+ * Integer and double keys are sorted with an LSD radix sort on 8 bit digits (digits that are the
+ * same for all keys are skipped), other keys with a merge sort. Large inputs are split into chunks
+ * that are sorted in parallel and then merged pairwise, again in parallel.
+ */
+final class StableSort {
+
+    /**
+     * Ranges shorter than this are left to the shell sort in {@link Order}.
+     */
+    static final int MIN_LENGTH = 64;
+
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int INSERTION_THRESHOLD = 32;
+
+    private StableSort() {
+        // no instances
+    }
+
+    @FunctionalInterface
+    interface IndexComparator {
+        int compare(int a, int b);
+    }
+
+    /**
+     * Merges adjacent sorted runs of the data being sorted, either from the primary arrays into the
+     * temporary ones ({@code toTemp}), or back.
+     */
+    private interface RunMerger {
+        void merge(boolean toTemp, int lo, int mid, int hi);
+
+        void copy(boolean toTemp, int lo, int hi);
+    }
+
+    private static int[] chunkBounds(int length) {
+        int chunks = length < PARALLEL_THRESHOLD ? 1 : Math.min(length / (PARALLEL_THRESHOLD / 2), Runtime.getRuntime().availableProcessors() * 2);
+        int[] bounds = new int[chunks + 1];
+        for (int i = 0; i <= chunks; i++) {
+            bounds[i] = (int) ((long) length * i / chunks);
+        }
+        return bounds;
+    }
+
+    private static void mergeRuns(int[] bounds, RunMerger merger) {
+        int[] runs = bounds;
+        boolean toTemp = true;
+        while (runs.length > 2) {
+            int[] current = runs;
+            boolean direction = toTemp;
+            int pairs = (current.length) / 2;
+            IntStream.range(0, pairs).parallel().forEach(p -> {
+                if (2 * p + 2 < current.length) {
+                    merger.merge(direction, current[2 * p], current[2 * p + 1], current[2 * p + 2]);
+                } else {
+                    merger.copy(direction, current[2 * p], current[2 * p + 1]);
+                }
+            });
+            runs = new int[pairs + 1];
+            for (int p = 0; p < pairs; p++) {
+                runs[p] = current[2 * p];
+            }
+            runs[pairs] = current[current.length - 1];
+            toTemp = !toTemp;
+        }
+        if (!toTemp) {
+            // the last round left the data in the temporary arrays
+            merger.copy(false, runs[0], runs[runs.length - 1]);
+        }
+    }
+
+    // integer keys
+
+    /**
+     * Sorts {@code indx[lo..hi]} (inclusive) by the values of {@code data} at those indices.
+     */
+    @TruffleBoundary
+    static void sort(int[] indx, RAbstractIntVector data, int lo, int hi, boolean decreasing) {
+        int[] values = data.materialize().getReadonlyData();
+        int length = hi - lo + 1;
+        int[] keys = new int[length];
+        int[] idx = Arrays.copyOfRange(indx, lo, hi + 1);
+        for (int i = 0; i < length; i++) {
+            // flip the sign bit so that the keys are ordered as unsigned values
+            int key = values[idx[i]] ^ Integer.MIN_VALUE;
+            keys[i] = decreasing ? ~key : key;
+        }
+        sortIntKeys(keys, idx);
+        System.arraycopy(idx, 0, indx, lo, length);
+    }
+
+    private static void sortIntKeys(int[] keys, int[] idx) {
+        int[] tmpKeys = new int[keys.length];
+        int[] tmpIdx = new int[idx.length];
+        int[] bounds = chunkBounds(keys.length);
+        IntStream.range(0, bounds.length - 1).parallel().forEach(c -> radixSort(keys, idx, tmpKeys, tmpIdx, bounds[c], bounds[c + 1]));
+        mergeRuns(bounds, new RunMerger() {
+            @Override
+            public void merge(boolean toTemp, int lo, int mid, int hi) {
+                int[] srcKeys = toTemp ? keys : tmpKeys;
+                int[] srcIdx = toTemp ? idx : tmpIdx;
+                int[] dstKeys = toTemp ? tmpKeys : keys;
+                int[] dstIdx = toTemp ? tmpIdx : idx;
+                int i = lo;
+                int j = mid;
+                int k = lo;
+                while (i < mid && j < hi) {
+                    if (Integer.compareUnsigned(srcKeys[j], srcKeys[i]) < 0) {
+                        dstKeys[k] = srcKeys[j];
+                        dstIdx[k++] = srcIdx[j++];
+                    } else {
+                        dstKeys[k] = srcKeys[i];
+                        dstIdx[k++] = srcIdx[i++];
+                    }
+                }
+                System.arraycopy(srcKeys, i, dstKeys, k, mid - i);
+                System.arraycopy(srcIdx, i, dstIdx, k, mid - i);
+                k += mid - i;
+                System.arraycopy(srcKeys, j, dstKeys, k, hi - j);
+                System.arraycopy(srcIdx, j, dstIdx, k, hi - j);
+            }
+
+            @Override
+            public void copy(boolean toTemp, int lo, int hi) {
+                System.arraycopy(toTemp ? keys : tmpKeys, lo, toTemp ? tmpKeys : keys, lo, hi - lo);
+                System.arraycopy(toTemp ? idx : tmpIdx, lo, toTemp ? tmpIdx : idx, lo, hi - lo);
+            }
+        });
+    }
+
+    private static void radixSort(int[] keys, int[] idx, int[] tmpKeys, int[] tmpIdx, int lo, int hi) {
+        if (hi - lo <= INSERTION_THRESHOLD) {
+            for (int i = lo + 1; i < hi; i++) {
+                int key = keys[i];
+                int index = idx[i];
+                int j = i - 1;
+                while (j >= lo && Integer.compareUnsigned(keys[j], key) > 0) {
+                    keys[j + 1] = keys[j];
+                    idx[j + 1] = idx[j];
+                    j--;
+                }
+                keys[j + 1] = key;
+                idx[j + 1] = index;
+            }
+            return;
+        }
+        int[] count = new int[257];
+        int[] srcKeys = keys;
+        int[] srcIdx = idx;
+        int[] dstKeys = tmpKeys;
+        int[] dstIdx = tmpIdx;
+        for (int shift = 0; shift < 32; shift += 8) {
+            Arrays.fill(count, 0);
+            for (int i = lo; i < hi; i++) {
+                count[((srcKeys[i] >>> shift) & 0xFF) + 1]++;
+            }
+            if (count[((srcKeys[lo] >>> shift) & 0xFF) + 1] == hi - lo) {
+                // all keys have the same digit
+                continue;
+            }
+            for (int b = 0; b < 256; b++) {
+                count[b + 1] += count[b];
+            }
+            for (int i = lo; i < hi; i++) {
+                int pos = lo + count[(srcKeys[i] >>> shift) & 0xFF]++;
+                dstKeys[pos] = srcKeys[i];
+                dstIdx[pos] = srcIdx[i];
+            }
+            int[] t = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = t;
+            t = srcIdx;
+            srcIdx = dstIdx;
+            dstIdx = t;
+        }
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, lo, keys, lo, hi - lo);
+            System.arraycopy(srcIdx, lo, idx, lo, hi - lo);
+        }
+    }
+
+    // double keys
+
+    /**
+     * Sorts {@code indx[lo..hi]} (inclusive) by the values of {@code data} at those indices. Returns
+     * {@code false}, leaving {@code indx} unchanged, if any of the values is {@code NA} or
+     * {@code NaN}, which are not ordered.
+     */
+    @TruffleBoundary
+    static boolean sort(int[] indx, RAbstractDoubleVector data, int lo, int hi, boolean decreasing) {
+        double[] values = data.materialize().getReadonlyData();
+        int length = hi - lo + 1;
+        long[] keys = new long[length];
+        int[] idx = Arrays.copyOfRange(indx, lo, hi + 1);
+        for (int i = 0; i < length; i++) {
+            double value = values[idx[i]];
+            if (Double.isNaN(value)) {
+                return false;
+            }
+            // "+ 0.0" turns -0.0 into 0.0, they compare equal
+            long bits = Double.doubleToRawLongBits(value + 0.0);
+            long key = bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+            keys[i] = decreasing ? ~key : key;
+        }
+        sortLongKeys(keys, idx);
+        System.arraycopy(idx, 0, indx, lo, length);
+        return true;
+    }
+
+    private static void sortLongKeys(long[] keys, int[] idx) {
+        long[] tmpKeys = new long[keys.length];
+        int[] tmpIdx = new int[idx.length];
+        int[] bounds = chunkBounds(keys.length);
+        IntStream.range(0, bounds.length - 1).parallel().forEach(c -> radixSort(keys, idx, tmpKeys, tmpIdx, bounds[c], bounds[c + 1]));
+        mergeRuns(bounds, new RunMerger() {
+            @Override
+            public void merge(boolean toTemp, int lo, int mid, int hi) {
+                long[] srcKeys = toTemp ? keys : tmpKeys;
+                int[] srcIdx = toTemp ? idx : tmpIdx;
+                long[] dstKeys = toTemp ? tmpKeys : keys;
+                int[] dstIdx = toTemp ? tmpIdx : idx;
+                int i = lo;
+                int j = mid;
+                int k = lo;
+                while (i < mid && j < hi) {
+                    if (Long.compareUnsigned(srcKeys[j], srcKeys[i]) < 0) {
+                        dstKeys[k] = srcKeys[j];
+                        dstIdx[k++] = srcIdx[j++];
+                    } else {
+                        dstKeys[k] = srcKeys[i];
+                        dstIdx[k++] = srcIdx[i++];
+                    }
+                }
+                System.arraycopy(srcKeys, i, dstKeys, k, mid - i);
+                System.arraycopy(srcIdx, i, dstIdx, k, mid - i);
+                k += mid - i;
+                System.arraycopy(srcKeys, j, dstKeys, k, hi - j);
+                System.arraycopy(srcIdx, j, dstIdx, k, hi - j);
+            }
+
+            @Override
+            public void copy(boolean toTemp, int lo, int hi) {
+                System.arraycopy(toTemp ? keys : tmpKeys, lo, toTemp ? tmpKeys : keys, lo, hi - lo);
+                System.arraycopy(toTemp ? idx : tmpIdx, lo, toTemp ? tmpIdx : idx, lo, hi - lo);
+            }
+        });
+    }
+
+    private static void radixSort(long[] keys, int[] idx, long[] tmpKeys, int[] tmpIdx, int lo, int hi) {
+        if (hi - lo <= INSERTION_THRESHOLD) {
+            for (int i = lo + 1; i < hi; i++) {
+                long key = keys[i];
+                int index = idx[i];
+                int j = i - 1;
+                while (j >= lo && Long.compareUnsigned(keys[j], key) > 0) {
+                    keys[j + 1] = keys[j];
+                    idx[j + 1] = idx[j];
+                    j--;
+                }
+                keys[j + 1] = key;
+                idx[j + 1] = index;
+            }
+            return;
+        }
+        int[] count = new int[257];
+        long[] srcKeys = keys;
+        int[] srcIdx = idx;
+        long[] dstKeys = tmpKeys;
+        int[] dstIdx = tmpIdx;
+        for (int shift = 0; shift < 64; shift += 8) {
+            Arrays.fill(count, 0);
+            for (int i = lo; i < hi; i++) {
+                count[(int) ((srcKeys[i] >>> shift) & 0xFF) + 1]++;
+            }
+            if (count[(int) ((srcKeys[lo] >>> shift) & 0xFF) + 1] == hi - lo) {
+                // all keys have the same digit
+                continue;
+            }
+            for (int b = 0; b < 256; b++) {
+                count[b + 1] += count[b];
+            }
+            for (int i = lo; i < hi; i++) {
+                int pos = lo + count[(int) ((srcKeys[i] >>> shift) & 0xFF)]++;
+                dstKeys[pos] = srcKeys[i];
+                dstIdx[pos] = srcIdx[i];
+            }
+            long[] t = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = t;
+            int[] ti = srcIdx;
+            srcIdx = dstIdx;
+            dstIdx = ti;
+        }
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, lo, keys, lo, hi - lo);
+            System.arraycopy(srcIdx, lo, idx, lo, hi - lo);
+        }
+    }
+
+    // comparator based
+
+    /**
+     * Sorts {@code indx[lo..hi]} (inclusive) using a merge sort. The comparator must not access
+     * any Truffle nodes, it may be invoked from several threads.
+     */
+    @TruffleBoundary
+    static void sort(int[] indx, int lo, int hi, IndexComparator cmp) {
+        int length = hi - lo + 1;
+        int[] idx = Arrays.copyOfRange(indx, lo, hi + 1);
+        int[] tmp = new int[length];
+        int[] bounds = chunkBounds(length);
+        IntStream.range(0, bounds.length - 1).parallel().forEach(c -> mergeSort(idx, tmp, bounds[c], bounds[c + 1], cmp));
+        mergeRuns(bounds, new RunMerger() {
+            @Override
+            public void merge(boolean toTemp, int mergeLo, int mid, int mergeHi) {
+                StableSort.merge(toTemp ? idx : tmp, toTemp ? tmp : idx, mergeLo, mid, mergeHi, cmp);
+            }
+
+            @Override
+            public void copy(boolean toTemp, int copyLo, int copyHi) {
+                System.arraycopy(toTemp ? idx : tmp, copyLo, toTemp ? tmp : idx, copyLo, copyHi - copyLo);
+            }
+        });
+        System.arraycopy(idx, 0, indx, lo, length);
+    }
+
+    private static void merge(int[] src, int[] dst, int lo, int mid, int hi, IndexComparator cmp) {
+        int i = lo;
+        int j = mid;
+        int k = lo;
+        while (i < mid && j < hi) {
+            dst[k++] = cmp.compare(src[j], src[i]) < 0 ? src[j++] : src[i++];
+        }
+        System.arraycopy(src, i, dst, k, mid - i);
+        System.arraycopy(src, j, dst, k + mid - i, hi - j);
+    }
+
+    private static void mergeSort(int[] idx, int[] tmp, int lo, int hi, IndexComparator cmp) {
+        if (hi - lo <= INSERTION_THRESHOLD) {
+            for (int i = lo + 1; i < hi; i++) {
+                int index = idx[i];
+                int j = i - 1;
+                while (j >= lo && cmp.compare(idx[j], index) > 0) {
+                    idx[j + 1] = idx[j];
+                    j--;
+                }
+                idx[j + 1] = index;
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        mergeSort(idx, tmp, lo, mid, cmp);
+        mergeSort(idx, tmp, mid, hi, cmp);
+        if (cmp.compare(idx[mid - 1], idx[mid]) <= 0) {
+            // already in order
+            return;
+        }
+        System.arraycopy(idx, lo, tmp, lo, hi - lo);
+        merge(tmp, idx, lo, mid, hi, cmp);
+    }
+
+    /**
+     * Creates a comparator for the elements of {@code v} that orders {@code NA}s (and {@code NaN}s)
+     * according to {@code naLast} and reverses the result if {@code decreasing}, equivalent to
+     * {@link Order.CmpNode}.
+     */
+    @TruffleBoundary
+    static IndexComparator createComparator(RAbstractVector v, boolean naLast, boolean decreasing) {
+        IndexComparator cmp;
+        int naOrder = naLast ? 1 : -1;
+        if (v instanceof RAbstractIntVector) {
+            int[] values = ((RAbstractIntVector) v).materialize().getReadonlyData();
+            cmp = (i, j) -> {
+                boolean nax = RRuntime.isNA(values[i]);
+                boolean nay = RRuntime.isNA(values[j]);
+                if (nax || nay) {
+                    return nax == nay ? 0 : nax ? naOrder : -naOrder;
+                }
+                return Integer.compare(values[i], values[j]);
+            };
+        } else if (v instanceof RAbstractDoubleVector) {
+            double[] values = ((RAbstractDoubleVector) v).materialize().getReadonlyData();
+            cmp = (i, j) -> {
+                boolean nax = RRuntime.isNAorNaN(values[i]);
+                boolean nay = RRuntime.isNAorNaN(values[j]);
+                if (nax || nay) {
+                    return nax == nay ? 0 : nax ? naOrder : -naOrder;
+                }
+                return values[i] < values[j] ? -1 : values[i] > values[j] ? 1 : 0;
+            };
+        } else if (v instanceof RAbstractLogicalVector) {
+            byte[] values = ((RAbstractLogicalVector) v).materialize().getReadonlyData();
+            cmp = (i, j) -> {
+                boolean nax = RRuntime.isNA(values[i]);
+                boolean nay = RRuntime.isNA(values[j]);
+                if (nax || nay) {
+                    return nax == nay ? 0 : nax ? naOrder : -naOrder;
+                }
+                return Byte.compare(values[i], values[j]);
+            };
+        } else if (v instanceof RAbstractStringVector) {
+            RAbstractStringVector values = ((RAbstractStringVector) v).materialize();
+            cmp = (i, j) -> {
+                String x = values.getDataAt(i);
+                String y = values.getDataAt(j);
+                boolean nax = RRuntime.isNA(x);
+                boolean nay = RRuntime.isNA(y);
+                if (nax || nay) {
+                    return nax == nay ? 0 : nax ? naOrder : -naOrder;
+                }
+                return Integer.signum(x.compareTo(y));
+            };
+        } else if (v instanceof RAbstractComplexVector) {
+            RAbstractComplexVector values = ((RAbstractComplexVector) v).materialize();
+            cmp = (i, j) -> {
+                RComplex x = values.getDataAt(i);
+                RComplex y = values.getDataAt(j);
+                int c = compareWithNA(x.getRealPart(), y.getRealPart(), naOrder);
+                return c != 0 ? c : compareWithNA(x.getImaginaryPart(), y.getImaginaryPart(), naOrder);
+            };
+        } else {
+            throw RInternalError.shouldNotReachHere("unexpected vector type " + v.getClass().getSimpleName());
+        }
+        if (decreasing) {
+            IndexComparator ascending = cmp;
+            return (i, j) -> -ascending.compare(i, j);
+        }
+        return cmp;
+    }
+
+    /**
+     * Like {@link #createComparator}, but {@code decreasing} only reverses the order of the
+     * non-{@code NA} values, the {@code NA}s stay at the {@code naLast} end as in GNU R's radix
+     * {@code order} with a per-key {@code decreasing}.
+     */
+    static IndexComparator createKeyComparator(RAbstractVector v, boolean naLast, boolean decreasing) {
+        // the reversal of a decreasing comparator flips the NA order back
+        return createComparator(v, decreasing ? !naLast : naLast, decreasing);
+    }
+
+    private static int compareWithNA(double x, double y, int naOrder) {
+        boolean nax = RRuntime.isNA(x);
+        boolean nay = RRuntime.isNA(y);
+        if (nax || nay) {
+            return nax == nay ? 0 : nax ? naOrder : -naOrder;
+        }
+        return x < y ? -1 : x > y ? 1 : 0;
+    }
+
+    /**
+     * Combines the comparators of several keys, the first key being the most significant.
+     */
+    static IndexComparator combine(IndexComparator[] keys) {
+        return (i, j) -> {
+            for (IndexComparator key : keys) {
+                int c = key.compare(i, j);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return 0;
+        };
+    }
+}
@@ -35,6 +35,7 @@ import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.LoopConditionProfile;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.nodes.profile.VectorLengthProfile;
+import com.oracle.truffle.r.nodes.unary.ParallelReduction;
 import com.oracle.truffle.r.nodes.unary.UnaryArithmeticReduceNode;
 import com.oracle.truffle.r.nodes.unary.UnaryArithmeticReduceNode.ReduceSemantics;
 import com.oracle.truffle.r.nodes.unary.UnaryArithmeticReduceNodeGen;
@@ -89,6 +90,10 @@ public abstract class Sum extends RBuiltinNode.Arg2 {
         int length = lengthProfile.profile(vector.getLength());
 
         if (needsExactSumProfile.profile(length >= 3)) {
+            double[] data = ParallelReduction.getData(vector);
+            if (data != null) {
+                return ParallelReduction.exactSum(data, length, cachedNaRm);
+            }
             if (exactSumNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
                 exactSumNode = (MiscRFFI.ExactSumNode) insert((Node) MiscRFFI.ExactSumNode.create());
@@ -151,7 +151,11 @@ public class TraceFunctions {
             boolean newState = RRuntime.fromLogical(state);
             if (newState != prevState) {
                 RContext.getInstance().stateInstrumentation.setTracingState(newState);
-                MemoryCopyTracer.setTracingState(newState);
+                if (newState) {
+                    MemoryCopyTracer.addListener(TRACEMEM_LISTENER);
+                } else {
+                    MemoryCopyTracer.removeListener(TRACEMEM_LISTENER);
+                }
             }
             return RRuntime.asLogical(prevState);
         }
@@ -163,9 +167,7 @@ public class TraceFunctions {
         }
     }
 
-    static {
-        MemoryCopyTracer.addListener(new TracememListener());
-    }
+    private static final TracememListener TRACEMEM_LISTENER = new TracememListener();
 
     @TruffleBoundary
     protected static HashSet<Object> getTracedObjects() {
@@ -187,7 +189,7 @@ public class TraceFunctions {
         getTracedObjects().add(x);
         boolean tracingState = RContext.getInstance().stateInstrumentation.getTracingState();
         if (tracingState) {
-            MemoryCopyTracer.setTracingState(true);
+            MemoryCopyTracer.addListener(TRACEMEM_LISTENER);
         }
     }
 
@@ -38,8 +38,10 @@ import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
-import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashSet;
-import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashSetDouble;
+import com.oracle.truffle.r.runtime.Collections.HashIndexComplex;
+import com.oracle.truffle.r.runtime.Collections.HashIndexDouble;
+import com.oracle.truffle.r.runtime.Collections.HashIndexInt;
+import com.oracle.truffle.r.runtime.Collections.HashIndexString;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RRuntime;
@@ -62,9 +64,6 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractRawVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 
 @RBuiltin(name = "unique", kind = INTERNAL, parameterNames = {"x", "incomparables", "fromLast", "nmax"}, behavior = PURE)
-// TODO A more efficient implementation is in order; GNU R uses hash tables so perhaps we should
-// consider using one of the existing libraries that offer hash table implementations for primitive
-// types
 public abstract class Unique extends RBuiltinNode.Arg4 {
 
     private static final long BIG_THRESHOLD = 100;
@@ -99,13 +98,13 @@ public abstract class Unique extends RBuiltinNode.Arg4 {
         RAbstractStringVector vec = vecClass.cast(vecIn);
         reportWork(vec.getLength());
         if (bigProfile.profile(vec.getLength() * (long) vec.getLength() > BIG_THRESHOLD)) {
-            NonRecursiveHashSet<String> set = new NonRecursiveHashSet<>(vec.getLength());
-            String[] data = new String[vec.getLength()];
+            String[] values = vec.materialize().getReadonlyStringData();
+            HashIndexString index = new HashIndexString(values);
+            String[] data = new String[values.length];
             int ind = 0;
-            for (int i = 0; i < vec.getLength(); i++) {
-                String val = vec.getDataAt(i);
-                if (!set.add(val)) {
-                    data[ind++] = val;
+            for (int i = 0; i < values.length; i++) {
+                if (index.add(i) == -1) {
+                    data[ind++] = values[i];
                 }
             }
             return RDataFactory.createStringVector(Arrays.copyOf(data, ind), vec.isComplete());
@@ -189,7 +188,7 @@ public abstract class Unique extends RBuiltinNode.Arg4 {
         }
 
         private static boolean areEqual(double a, double b) {
-            return a == b || (RRuntime.isNA(a) && RRuntime.isNA(b));
+            return a == b || (Double.isNaN(a) && Double.isNaN(b) && RRuntime.isNA(a) == RRuntime.isNA(b));
         }
     }
 
@@ -225,7 +224,10 @@ public abstract class Unique extends RBuiltinNode.Arg4 {
         }
 
         private static boolean areEqual(double ar, double ai, double br, double bi) {
-            return (ar == br && ai == bi) || (RRuntime.isNA(ar, ai) && RRuntime.isNA(br, bi));
+            if (RRuntime.isNA(ar, ai) || RRuntime.isNA(br, bi)) {
+                return RRuntime.isNA(ar, ai) && RRuntime.isNA(br, bi);
+            }
+            return DoubleArray.areEqual(ar, br) && DoubleArray.areEqual(ai, bi);
         }
     }
 
@@ -265,16 +267,13 @@ public abstract class Unique extends RBuiltinNode.Arg4 {
         RAbstractIntVector vec = vecClass.cast(vecIn);
         reportWork(vec.getLength());
         if (bigProfile.profile(vec.getLength() * (long) vec.getLength() > BIG_THRESHOLD)) {
-            NonRecursiveHashSetInt set = new NonRecursiveHashSetInt();
-            int[] data = new int[16];
+            int[] values = vec.materialize().getReadonlyData();
+            HashIndexInt index = new HashIndexInt(values);
+            int[] data = new int[values.length];
             int ind = 0;
-            for (int i = 0; i < vec.getLength(); i++) {
-                int val = vec.getDataAt(i);
-                if (!set.add(val)) {
-                    if (ind == data.length) {
-                        data = Arrays.copyOf(data, data.length << 1);
-                    }
-                    data[ind++] = val;
+            for (int i = 0; i < values.length; i++) {
+                if (index.add(i) == -1) {
+                    data[ind++] = values[i];
                 }
             }
             return RDataFactory.createIntVector(Arrays.copyOf(data, ind), vec.isComplete());
@@ -343,67 +342,18 @@ public abstract class Unique extends RBuiltinNode.Arg4 {
         return list.getLength() == 1;
     }
 
-    private static final class NonRecursiveHashSetInt {
-
-        private int[] keys;
-        private int size;
-        private boolean containsZero;
-
-        NonRecursiveHashSetInt() {
-            keys = new int[64];
-        }
-
-        public boolean add(int key) {
-            if (key == 0) {
-                if (containsZero) {
-                    return true;
-                } else {
-                    containsZero = true;
-                    return false;
-                }
-            }
-            int ind = Math.abs(Integer.hashCode(key)) & (keys.length - 1);
-            while (true) {
-                if (keys[ind] == 0) {
-                    keys[ind] = key;
-                    size++;
-                    if (size << 1 == keys.length) {
-                        int[] newKeys = new int[keys.length << 1];
-                        for (int rehashKey : keys) {
-                            if (rehashKey != 0) {
-                                int tmpInd = Math.abs(Integer.hashCode(rehashKey)) & (newKeys.length - 1);
-                                while (newKeys[tmpInd] != 0) {
-                                    assert newKeys[tmpInd] != rehashKey;
-                                    tmpInd = (tmpInd + 1) & (newKeys.length - 1);
-                                }
-                                newKeys[tmpInd] = rehashKey;
-                            }
-                        }
-
-                        keys = newKeys;
-                    }
-                    return false;
-                } else if (key == keys[ind]) {
-                    return true;
-                } else {
-                    ind = (ind + 1) & (keys.length - 1);
-                }
-            }
-        }
-    }
-
     @SuppressWarnings("unused")
     @Specialization
     protected RDoubleVector doUnique(RAbstractDoubleVector vec, byte incomparables, byte fromLast, int nmax) {
         reportWork(vec.getLength());
         if (bigProfile.profile(vec.getLength() * (long) vec.getLength() > BIG_THRESHOLD)) {
-            NonRecursiveHashSetDouble set = new NonRecursiveHashSetDouble(vec.getLength());
-            double[] data = new double[vec.getLength()];
+            double[] values = vec.materialize().getReadonlyData();
+            HashIndexDouble index = new HashIndexDouble(values);
+            double[] data = new double[values.length];
             int ind = 0;
-            for (int i = 0; i < vec.getLength(); i++) {
-                double val = vec.getDataAt(i);
-                if (!set.add(val)) {
-                    data[ind++] = val;
+            for (int i = 0; i < values.length; i++) {
+                if (index.add(i) == -1) {
+                    data[ind++] = values[i];
                 }
             }
             return RDataFactory.createDoubleVector(Arrays.copyOf(data, ind), vec.isComplete());
@@ -438,14 +388,14 @@ public abstract class Unique extends RBuiltinNode.Arg4 {
     protected RComplexVector doUnique(RAbstractComplexVector vec, byte incomparables, byte fromLast, int nmax) {
         reportWork(vec.getLength());
         if (bigProfile.profile(vec.getLength() * (long) vec.getLength() > BIG_THRESHOLD)) {
-            NonRecursiveHashSet<RComplex> set = new NonRecursiveHashSet<>(vec.getLength());
-            double[] data = new double[vec.getLength() * 2];
+            double[] values = vec.materialize().getReadonlyData();
+            HashIndexComplex index = new HashIndexComplex(values);
+            double[] data = new double[values.length];
             int ind = 0;
-            for (int i = 0; i < vec.getLength(); i++) {
-                RComplex val = vec.getDataAt(i);
-                if (!set.add(val)) {
-                    data[ind++] = val.getRealPart();
-                    data[ind++] = val.getImaginaryPart();
+            for (int i = 0; i < index.getLength(); i++) {
+                if (index.add(i) == -1) {
+                    data[ind++] = values[i << 1];
+                    data[ind++] = values[(i << 1) + 1];
                 }
             }
             return RDataFactory.createComplexVector(Arrays.copyOf(data, ind), vec.isComplete());
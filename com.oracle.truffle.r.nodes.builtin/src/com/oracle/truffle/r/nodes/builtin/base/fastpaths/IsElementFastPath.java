@@ -22,21 +22,48 @@
  */
 package com.oracle.truffle.r.nodes.builtin.base.fastpaths;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.r.runtime.Collections.HashIndexCache;
+import com.oracle.truffle.r.runtime.Collections.HashIndexDouble;
+import com.oracle.truffle.r.runtime.Collections.HashIndexString;
+import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RIntSequence;
+import com.oracle.truffle.r.runtime.data.RVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.nodes.RFastPathNode;
 import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
 public abstract class IsElementFastPath extends RFastPathNode {
 
+    private static final int INDEX_CACHE_THRESHOLD = FastROptions.MatchIndexCacheThreshold.getNonNegativeIntValue();
+
+    protected static boolean isIndexCached(RAbstractVector set) {
+        return HashIndexCache.isCacheable(set, INDEX_CACHE_THRESHOLD);
+    }
+
+    @Specialization(guards = {"el.getLength() == 1", "isIndexCached(set)"})
+    @TruffleBoundary
+    protected Byte iselementIndexed(RAbstractStringVector el, RAbstractStringVector set) {
+        HashIndexString index = (HashIndexString) HashIndexCache.getOrCreate((RVector<?>) set);
+        return RRuntime.asLogical(index.get(el.getDataAt(0)) != -1);
+    }
+
+    @Specialization(guards = {"el.getLength() == 1", "isIndexCached(set)"})
+    @TruffleBoundary
+    protected Byte iselementIndexed(RAbstractDoubleVector el, RAbstractDoubleVector set) {
+        HashIndexDouble index = (HashIndexDouble) HashIndexCache.getOrCreate((RVector<?>) set);
+        return RRuntime.asLogical(index.get(el.getDataAt(0)) != -1);
+    }
+
     @Specialization(guards = {"elIn.getLength() == 1", "elIn.getClass() == elClass", "setIn.getClass() == setClass"})
     protected Byte iselementOneCachedString(RAbstractStringVector elIn, RAbstractStringVector setIn,
                     @Cached("elIn.getClass()") Class<? extends RAbstractStringVector> elClass,
@@ -23,6 +23,7 @@
 package com.oracle.truffle.r.nodes.builtin.fastr;
 
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.equalTo;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.gte1;
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.instanceOf;
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.notEmpty;
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.singleElement;
@@ -382,18 +383,28 @@ public class FastRContext {
         return ChildContextInfo.createNoRestore(Client.RSCRIPT, null, contextKind, context, console.getStdin(), console.getStdout(), console.getStderr());
     }
 
-    @RBuiltin(name = ".fastr.channel.create", kind = PRIMITIVE, parameterNames = {"key"}, behavior = COMPLEX)
-    public abstract static class CreateChannel extends RBuiltinNode.Arg1 {
+    /**
+     * Creates a channel, {@code capacity} gives the number of messages that can be sent in one
+     * direction before the sender blocks.
+     */
+    @RBuiltin(name = ".fastr.channel.create", kind = PRIMITIVE, parameterNames = {"key", "capacity"}, behavior = COMPLEX)
+    public abstract static class CreateChannel extends RBuiltinNode.Arg2 {
+
+        @Override
+        public Object[] getDefaultParameterValues() {
+            return new Object[]{RMissing.instance, RChannel.DEFAULT_QUEUE_CAPACITY};
+        }
 
         static {
             Casts casts = new Casts(CreateChannel.class);
             CastsHelper.key(casts);
+            casts.arg("capacity").asIntegerVector().mustBe(notEmpty()).findFirst().mustNotBeNA().mustBe(gte1());
         }
 
         @Specialization
         @TruffleBoundary
-        protected int createChannel(int key) {
-            return RChannel.createChannel(key);
+        protected int createChannel(int key, int capacity) {
+            return RChannel.createChannel(key, capacity);
         }
     }
 
@@ -444,6 +455,26 @@ public class FastRContext {
         }
     }
 
+    /**
+     * Sends all elements of a list as individual messages.
+     */
+    @RBuiltin(name = ".fastr.channel.send.batch", visibility = OFF, kind = PRIMITIVE, parameterNames = {"id", "data"}, behavior = COMPLEX)
+    public abstract static class ChannelSendBatch extends RBuiltinNode.Arg2 {
+
+        static {
+            Casts casts = new Casts(ChannelSendBatch.class);
+            CastsHelper.id(casts);
+            casts.arg("data").mustBe(instanceOf(RList.class));
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected RNull send(int id, RList data) {
+            RChannel.sendBatch(id, data);
+            return RNull.instance;
+        }
+    }
+
     @RBuiltin(name = ".fastr.channel.receive", kind = PRIMITIVE, parameterNames = {"id"}, behavior = COMPLEX)
     public abstract static class ChannelReceive extends RBuiltinNode.Arg1 {
 
@@ -459,6 +490,31 @@ public class FastRContext {
         }
     }
 
+    /**
+     * Waits for a message and returns a list of up to {@code max} messages available in the
+     * channel.
+     */
+    @RBuiltin(name = ".fastr.channel.receive.batch", kind = PRIMITIVE, parameterNames = {"id", "max"}, behavior = COMPLEX)
+    public abstract static class ChannelReceiveBatch extends RBuiltinNode.Arg2 {
+
+        @Override
+        public Object[] getDefaultParameterValues() {
+            return new Object[]{RMissing.instance, Integer.MAX_VALUE};
+        }
+
+        static {
+            Casts casts = new Casts(ChannelReceiveBatch.class);
+            CastsHelper.id(casts);
+            casts.arg("max").asIntegerVector().mustBe(notEmpty()).findFirst().mustNotBeNA().mustBe(gte1());
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected RList receive(int id, int max) {
+            return RChannel.receiveBatch(id, max);
+        }
+    }
+
     @RBuiltin(name = ".fastr.channel.poll", kind = PRIMITIVE, parameterNames = {"id"}, behavior = COMPLEX)
     public abstract static class ChannelPoll extends RBuiltinNode.Arg1 {
 
@@ -485,22 +541,16 @@ public class FastRContext {
         @Specialization
         @TruffleBoundary
         protected RList select(RList nodes) {
-            int ind = 0;
-            int length = nodes.getLength();
-            while (true) {
-                Object o = nodes.getDataAt(ind);
-                ind = (ind + 1) % length;
-                int id;
+            int[] ids = new int[nodes.getLength()];
+            for (int i = 0; i < ids.length; i++) {
+                Object o = nodes.getDataAt(i);
                 if (o instanceof Integer) {
-                    id = (int) o;
+                    ids[i] = (int) o;
                 } else {
-                    id = ((RIntVector) o).getDataAt(0);
-                }
-                Object res = RChannel.poll(id);
-                if (res != null) {
-                    return RDataFactory.createList(new Object[]{id, res});
+                    ids[i] = ((RIntVector) o).getDataAt(0);
                 }
             }
+            return RDataFactory.createList(RChannel.select(ids));
         }
     }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.equalTo;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.gte;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.intNA;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.singleElement;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.stringValue;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.IO;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.RType;
+import com.oracle.truffle.r.runtime.Utils;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.MappedVectors;
+import com.oracle.truffle.r.runtime.data.RMissing;
+import com.oracle.truffle.r.runtime.data.RVector;
+
+/**
+ * Creates a numeric or raw vector whose data are {@code n} elements of the binary file
+ * {@code file} starting at byte {@code offset}, memory-mapped instead of read onto the heap. By
+ * default all the elements from {@code offset} to the end of the file are mapped. With
+ * {@code mode = "readonly"} any update of the vector works on a copy, with
+ * {@code mode = "copyonwrite"} the vector can be updated in place, but the updates are never written
+ * to the file. See {@link MappedVectors}.
+ */
+@RBuiltin(name = ".fastr.mmap", kind = PRIMITIVE, parameterNames = {"file", "what", "mode", "offset", "n"}, behavior = IO)
+public abstract class FastRMmap extends RBuiltinNode.Arg5 {
+
+    @Override
+    public Object[] getDefaultParameterValues() {
+        return new Object[]{RMissing.instance, "double", "readonly", 0, RRuntime.INT_NA};
+    }
+
+    static {
+        Casts casts = new Casts(FastRMmap.class);
+        casts.arg("file").mustBe(stringValue()).asStringVector().mustBe(singleElement()).findFirst().mustNotBeNA();
+        casts.arg("what").mustBe(stringValue()).asStringVector().mustBe(singleElement()).findFirst().mustBe(equalTo("double").or(equalTo("integer")).or(equalTo("raw")));
+        casts.arg("mode").mustBe(stringValue()).asStringVector().mustBe(singleElement()).findFirst().mustBe(equalTo("readonly").or(equalTo("copyonwrite")));
+        casts.arg("offset").asDoubleVector().findFirst().mustNotBeNA().mustBe(gte(0.0));
+        casts.arg("n").asIntegerVector().findFirst(RRuntime.INT_NA).mustBe(intNA().or(gte(0)));
+    }
+
+    @Specialization
+    @TruffleBoundary
+    protected RVector<?> mmap(String file, String what, String mode, double offsetIn, int n) {
+        String path = Utils.tildeExpand(file);
+        RType type = what.equals("double") ? RType.Double : what.equals("integer") ? RType.Integer : RType.Raw;
+        int elementSize = MappedVectors.getElementSize(type);
+        long offset = (long) offsetIn;
+        try {
+            long fileSize = Files.size(FileSystems.getDefault().getPath(path));
+            long available = offset > fileSize ? 0 : (fileSize - offset) / elementSize;
+            long length = RRuntime.isNA(n) ? available : n;
+            if (length > available) {
+                throw error(RError.Message.GENERIC, "the file is too short to map " + n + " elements at offset " + offset);
+            }
+            if (length * elementSize > Integer.MAX_VALUE) {
+                throw error(RError.Message.GENERIC, "cannot map more than 2GB into a single vector, use 'offset' and 'n' to map a part of the file");
+            }
+            return MappedVectors.map(path, type, mode.equals("readonly") ? MappedVectors.Mode.READ_ONLY : MappedVectors.Mode.COPY_ON_WRITE, offset, (int) length);
+        } catch (IOException e) {
+            throw error(RError.Message.CANNOT_OPEN_FILE, file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.stringValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.COMPLEX;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import java.util.ArrayList;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+import com.oracle.truffle.r.runtime.ffi.NativeCallLock;
+
+/**
+ * Enables ({@code enable = TRUE}) or disables ({@code enable = FALSE}) the serialization of the
+ * native calls into the libraries of the packages given by {@code name}, see
+ * {@link NativeCallLock}. Returns, for every library loaded so far, whether its calls are
+ * serialized, the number of serialized calls, how many of them had to wait for another thread and
+ * the total waiting time in seconds. If {@code reset} is {@code TRUE}, the counters are reset after
+ * being read.
+ */
+@RBuiltin(name = ".fastr.native.lock", kind = PRIMITIVE, parameterNames = {"name", "enable", "reset"}, behavior = COMPLEX)
+public abstract class FastRNativeLock extends RBuiltinNode.Arg3 {
+
+    private static final String[] NAMES = new String[]{"name", "locked", "calls", "contended", "wait"};
+
+    @Override
+    public Object[] getDefaultParameterValues() {
+        return new Object[]{RNull.instance, RRuntime.LOGICAL_NA, RRuntime.LOGICAL_FALSE};
+    }
+
+    static {
+        Casts casts = new Casts(FastRNativeLock.class);
+        casts.arg("name").allowNull().mustBe(stringValue()).asStringVector();
+        casts.arg("enable").asLogicalVector().findFirst(RRuntime.LOGICAL_NA);
+        casts.arg("reset").asLogicalVector().findFirst(RRuntime.LOGICAL_FALSE).map(toBoolean());
+    }
+
+    @Specialization
+    @TruffleBoundary
+    protected RList lock(Object name, byte enable, boolean reset) {
+        if (name instanceof RAbstractStringVector && !RRuntime.isNA(enable)) {
+            RAbstractStringVector names = (RAbstractStringVector) name;
+            for (int i = 0; i < names.getLength(); i++) {
+                NativeCallLock.setEnabled(names.getDataAt(i), RRuntime.fromLogical(enable));
+            }
+        }
+        ArrayList<NativeCallLock> locks = NativeCallLock.getAll();
+        int length = locks.size();
+        String[] libraries = new String[length];
+        byte[] locked = new byte[length];
+        double[] calls = new double[length];
+        double[] contended = new double[length];
+        double[] wait = new double[length];
+        for (int i = 0; i < length; i++) {
+            NativeCallLock lock = locks.get(i);
+            libraries[i] = lock.name;
+            locked[i] = RRuntime.asLogical(lock.isEnabled());
+            calls[i] = lock.getCalls();
+            contended[i] = lock.getContendedCalls();
+            wait[i] = lock.getWaitNanos() / 1e9;
+            if (reset) {
+                lock.resetCounters();
+            }
+        }
+        Object[] data = new Object[]{RDataFactory.createStringVector(libraries, RDataFactory.COMPLETE_VECTOR), RDataFactory.createLogicalVector(locked, RDataFactory.COMPLETE_VECTOR),
+                        RDataFactory.createDoubleVector(calls, RDataFactory.COMPLETE_VECTOR), RDataFactory.createDoubleVector(contended, RDataFactory.COMPLETE_VECTOR),
+                        RDataFactory.createDoubleVector(wait, RDataFactory.COMPLETE_VECTOR)};
+        return RDataFactory.createList(data, RDataFactory.createStringVector(NAMES, RDataFactory.COMPLETE_VECTOR));
+    }
+}
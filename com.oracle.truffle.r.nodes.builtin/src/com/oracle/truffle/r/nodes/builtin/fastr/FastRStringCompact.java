@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.stringValue;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.StringCache;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+
+/**
+ * Returns a copy of the character vector {@code x} (with the same attributes) whose elements are
+ * shared through the global {@link StringCache}, i.e., equal elements of this and all other
+ * compacted vectors are the same string instance. This is useful for long categorical data
+ * created by means that do not use the cache.
+ */
+@RBuiltin(name = ".fastr.string.compact", kind = PRIMITIVE, parameterNames = {"x"}, behavior = PURE)
+public abstract class FastRStringCompact extends RBuiltinNode.Arg1 {
+
+    static {
+        Casts casts = new Casts(FastRStringCompact.class);
+        casts.arg("x").mustBe(stringValue());
+    }
+
+    @Specialization
+    @TruffleBoundary
+    protected RStringVector compact(RAbstractStringVector x) {
+        RStringVector result = (RStringVector) x.materialize().copy();
+        Object store = result.getInternalStore();
+        for (int i = 0; i < result.getLength(); i++) {
+            result.setDataAt(store, i, StringCache.intern(result.getDataAt(i)));
+        }
+        return result;
+    }
+}
@@ -23,6 +23,7 @@
 package com.oracle.truffle.r.nodes.builtin.fastr.memprof;
 
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.eq;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.gte;
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.singleElement;
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
 import static com.oracle.truffle.r.runtime.RVisibility.OFF;
@@ -33,18 +34,30 @@ import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
-import com.oracle.truffle.r.runtime.RError.Message;
+import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.instrument.memprof.MemAllocHistogram;
 
-@RBuiltin(name = ".fastr.profmem", visibility = OFF, kind = PRIMITIVE, parameterNames = {"on"}, behavior = IO)
-public abstract class FastRprofmem extends RBuiltinNode.Arg1 {
+/**
+ * Starts ({@code on = TRUE}) or stops ({@code on = FALSE}) the aggregated allocation histogram,
+ * which records one in {@code sample} allocations and copies, see {@link MemAllocHistogram}. The
+ * default rate of one in {@value #DEFAULT_SAMPLING} keeps the overhead low, as every recorded
+ * event walks the stack to find the allocating function; {@code sample = 1} records all of them.
+ * The histogram is read by {@code .fastr.profmem.histogram}.
+ */
+@RBuiltin(name = ".fastr.profmem", visibility = OFF, kind = PRIMITIVE, parameterNames = {"on", "sample"}, behavior = IO)
+public abstract class FastRprofmem extends RBuiltinNode.Arg2 {
 
     public static final String STACKS_VIEW = "stacks";
     public static final String HOTSPOTS_VIEW = "hotspots";
 
+    private static final int DEFAULT_SAMPLING = 100;
+
     static {
         Casts casts = new Casts(FastRprofmem.class);
         casts.arg("on").asLogicalVector().mustBe(singleElement()).findFirst().map(toBoolean());
+        casts.arg("sample").asIntegerVector().findFirst(DEFAULT_SAMPLING).mustBe(gte(1));
     }
 
     static void castViewArg(Casts casts) {
@@ -55,10 +68,19 @@ public abstract class FastRprofmem extends RBuiltinNode.Arg1 {
         casts.arg("snapshot").mustBe(TruffleObject.class);
     }
 
+    @Override
+    public Object[] getDefaultParameterValues() {
+        return new Object[]{RRuntime.LOGICAL_TRUE, DEFAULT_SAMPLING};
+    }
+
     @Specialization
     @TruffleBoundary
-    public Object doProfMem(@SuppressWarnings("unused") boolean on) {
-        // TODO: port to new instrumentation API, original code can be found in git history
-        throw error(Message.GENERIC, ".fastr.profmem is not available.");
+    public Object doProfMem(boolean on, int sample) {
+        if (on) {
+            MemAllocHistogram.getInstance().start(sample);
+        } else {
+            MemAllocHistogram.getInstance().stop();
+        }
+        return RNull.instance;
     }
 }
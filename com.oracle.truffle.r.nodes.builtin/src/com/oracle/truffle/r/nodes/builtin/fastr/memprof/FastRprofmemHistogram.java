@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr.memprof;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.singleElement;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.stringValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.IO;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.RError.Message;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.instrument.memprof.MemAllocHistogram;
+import com.oracle.truffle.r.runtime.instrument.memprof.MemAllocHistogram.Site;
+
+/**
+ * Returns the allocation histogram started by {@code .fastr.profmem}: for every function and type
+ * of value the estimated number and size in bytes of the allocations and copies, ordered by
+ * decreasing size. If {@code file} is given, the histogram is written to it as a tab separated
+ * table instead. If {@code reset} is {@code TRUE}, the histogram is cleared afterwards.
+ */
+@RBuiltin(name = ".fastr.profmem.histogram", kind = PRIMITIVE, parameterNames = {"reset", "file"}, behavior = IO)
+public abstract class FastRprofmemHistogram extends RBuiltinNode.Arg2 {
+
+    private static final String[] NAMES = new String[]{"fun", "type", "count", "bytes", "copies", "copied"};
+
+    @Override
+    public Object[] getDefaultParameterValues() {
+        return new Object[]{RRuntime.LOGICAL_FALSE, RNull.instance};
+    }
+
+    static {
+        Casts casts = new Casts(FastRprofmemHistogram.class);
+        casts.arg("reset").asLogicalVector().findFirst(RRuntime.LOGICAL_FALSE).map(toBoolean());
+        casts.arg("file").allowNull().mustBe(stringValue()).asStringVector().mustBe(singleElement()).findFirst();
+    }
+
+    @Specialization
+    @TruffleBoundary
+    protected Object histogram(boolean reset, @SuppressWarnings("unused") RNull file) {
+        MemAllocHistogram histogram = MemAllocHistogram.getInstance();
+        ArrayList<Site> sites = histogram.getSites();
+        int length = sites.size();
+        String[] functions = new String[length];
+        String[] types = new String[length];
+        double[] count = new double[length];
+        double[] bytes = new double[length];
+        double[] copies = new double[length];
+        double[] copied = new double[length];
+        for (int i = 0; i < length; i++) {
+            Site site = sites.get(i);
+            functions[i] = site.function;
+            types[i] = site.type;
+            count[i] = site.getCount();
+            bytes[i] = site.getBytes();
+            copies[i] = site.getCopies();
+            copied[i] = site.getCopiedBytes();
+        }
+        Object[] data = new Object[]{RDataFactory.createStringVector(functions, RDataFactory.COMPLETE_VECTOR), RDataFactory.createStringVector(types, RDataFactory.COMPLETE_VECTOR),
+                        RDataFactory.createDoubleVector(count, RDataFactory.COMPLETE_VECTOR), RDataFactory.createDoubleVector(bytes, RDataFactory.COMPLETE_VECTOR),
+                        RDataFactory.createDoubleVector(copies, RDataFactory.COMPLETE_VECTOR), RDataFactory.createDoubleVector(copied, RDataFactory.COMPLETE_VECTOR)};
+        RList result = RDataFactory.createList(data, RDataFactory.createStringVector(NAMES, RDataFactory.COMPLETE_VECTOR));
+        if (reset) {
+            histogram.reset();
+        }
+        return result;
+    }
+
+    @Specialization
+    @TruffleBoundary
+    protected Object histogram(boolean reset, String file) {
+        MemAllocHistogram histogram = MemAllocHistogram.getInstance();
+        try (PrintStream out = new PrintStream(new FileOutputStream(file))) {
+            histogram.print(out);
+        } catch (IOException ex) {
+            throw error(Message.CANNOT_OPEN_FILE, file, ex.getMessage());
+        }
+        if (reset) {
+            histogram.reset();
+        }
+        return RNull.instance;
+    }
+}
@@ -22,6 +22,8 @@
  */
 package com.oracle.truffle.r.nodes.builtin;
 
+import java.util.Arrays;
+
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -30,6 +32,13 @@ import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.nodes.unary.CastStringNode;
 import com.oracle.truffle.r.nodes.unary.CastStringNodeGen;
+import com.oracle.truffle.r.runtime.Collections.HashIndex;
+import com.oracle.truffle.r.runtime.Collections.HashIndexCache;
+import com.oracle.truffle.r.runtime.Collections.HashIndexComplex;
+import com.oracle.truffle.r.runtime.Collections.HashIndexDouble;
+import com.oracle.truffle.r.runtime.Collections.HashIndexInt;
+import com.oracle.truffle.r.runtime.Collections.HashIndexString;
+import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.data.RComplex;
@@ -38,6 +47,7 @@ import com.oracle.truffle.r.runtime.data.RIntSequence;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RSequence;
 import com.oracle.truffle.r.runtime.data.RStringSequence;
+import com.oracle.truffle.r.runtime.data.RVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
@@ -47,11 +57,11 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
 import com.oracle.truffle.r.runtime.ops.na.NAProfile;
-import java.util.Arrays;
 
 public abstract class MatchInternalNode extends RBaseNode {
 
     private static final int TABLE_SIZE_FACTOR = 10;
+    private static final int INDEX_CACHE_THRESHOLD = FastROptions.MatchIndexCacheThreshold.getNonNegativeIntValue();
 
     public abstract Object execute(RAbstractVector x, RAbstractVector table, int noMatch);
 
@@ -119,116 +129,20 @@ public abstract class MatchInternalNode extends RBaseNode {
     @Specialization(guards = {"x.getLength() != 1", "!isSequence(table)"})
     @CompilerDirectives.TruffleBoundary
     protected RIntVector match(RAbstractIntVector x, RAbstractIntVector table, int nomatch) {
-        int[] result = initResult(x.getLength(), nomatch);
-        boolean matchAll = true;
-        NonRecursiveHashMapInt hashTable;
-        if (bigTableProfile.profile(table.getLength() > (x.getLength() * TABLE_SIZE_FACTOR))) {
-            hashTable = new NonRecursiveHashMapInt(x.getLength());
-            NonRecursiveHashSetInt hashSet = new NonRecursiveHashSetInt(x.getLength());
-            for (int i = 0; i < result.length; i++) {
-                hashSet.add(x.getDataAt(i));
-            }
-            for (int i = table.getLength() - 1; i >= 0; i--) {
-                int val = table.getDataAt(i);
-                if (hashSet.contains(val)) {
-                    hashTable.put(val, i);
-                }
-            }
-        } else {
-            hashTable = new NonRecursiveHashMapInt(table.getLength());
-            for (int i = table.getLength() - 1; i >= 0; i--) {
-                hashTable.put(table.getDataAt(i), i);
-            }
-        }
-        for (int i = 0; i < result.length; i++) {
-            int xx = x.getDataAt(i);
-            int index = hashTable.get(xx);
-            if (index != -1) {
-                result[i] = index + 1;
-            } else {
-                matchAll = false;
-            }
-        }
-        return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
+        return matchInt(x.materialize().getReadonlyData(), table, nomatch);
     }
 
     @Specialization
     @CompilerDirectives.TruffleBoundary
     protected RIntVector match(RAbstractDoubleVector x, RAbstractIntVector table, int nomatch) {
-        int[] result = initResult(x.getLength(), nomatch);
-        boolean matchAll = true;
-        NonRecursiveHashMapDouble hashTable;
-        if (bigTableProfile.profile(table.getLength() > (x.getLength() * TABLE_SIZE_FACTOR))) {
-            hashTable = new NonRecursiveHashMapDouble(x.getLength());
-            NonRecursiveHashSetDouble hashSet = new NonRecursiveHashSetDouble(x.getLength());
-            for (int i = 0; i < result.length; i++) {
-                hashSet.add(x.getDataAt(i));
-            }
-            for (int i = table.getLength() - 1; i >= 0; i--) {
-                int val = table.getDataAt(i);
-                if (hashSet.contains(RRuntime.int2double(val))) {
-                    hashTable.put(RRuntime.int2double(val), i);
-                }
-            }
-        } else {
-            hashTable = new NonRecursiveHashMapDouble(table.getLength());
-            for (int i = table.getLength() - 1; i >= 0; i--) {
-                hashTable.put(RRuntime.int2double(table.getDataAt(i)), i);
-            }
-        }
-        for (int i = 0; i < result.length; i++) {
-            double xx = x.getDataAt(i);
-            int index = hashTable.get(xx);
-            if (index != -1) {
-                result[i] = index + 1;
-            } else {
-                matchAll = false;
-            }
-        }
-        return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
+        return matchDouble(x.materialize().getReadonlyData(), toDouble(table), null, nomatch);
     }
 
     @Specialization
     @CompilerDirectives.TruffleBoundary
     protected RIntVector match(RAbstractIntVector x, RAbstractDoubleVector table, int nomatch) {
-        int[] result = initResult(x.getLength(), nomatch);
-        boolean matchAll = true;
-        NonRecursiveHashMapInt hashTable;
-        if (bigTableProfile.profile(table.getLength() > (x.getLength() * TABLE_SIZE_FACTOR))) {
-            hashTable = new NonRecursiveHashMapInt(x.getLength());
-            NonRecursiveHashSetInt hashSet = new NonRecursiveHashSetInt(x.getLength());
-            for (int i = 0; i < result.length; i++) {
-                hashSet.add(x.getDataAt(i));
-            }
-            for (int i = table.getLength() - 1; i >= 0; i--) {
-                double val = table.getDataAt(i);
-                if (RRuntime.isNA(val) && hashSet.contains(RRuntime.INT_NA)) {
-                    hashTable.put(RRuntime.INT_NA, i);
-                } else if (val == (int) val && hashSet.contains((int) val)) {
-                    hashTable.put((int) val, i);
-                }
-            }
-        } else {
-            hashTable = new NonRecursiveHashMapInt(table.getLength());
-            for (int i = table.getLength() - 1; i >= 0; i--) {
-                double xx = table.getDataAt(i);
-                if (RRuntime.isNA(xx)) {
-                    hashTable.put(RRuntime.INT_NA, i);
-                } else if (xx == (int) xx) {
-                    hashTable.put((int) xx, i);
-                }
-            }
-        }
-        for (int i = 0; i < result.length; i++) {
-            int xx = x.getDataAt(i);
-            int index = hashTable.get(xx);
-            if (index != -1) {
-                result[i] = index + 1;
-            } else {
-                matchAll = false;
-            }
-        }
-        return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
+        // integer NA converts to double NA, which does not match NaN
+        return matchDouble(toDouble(x), table.materialize().getReadonlyData(), null, nomatch);
     }
 
     @Specialization(guards = "x.getLength() == 1")
@@ -261,37 +175,7 @@ public abstract class MatchInternalNode extends RBaseNode {
     @Specialization(guards = "x.getLength() != 1")
     @CompilerDirectives.TruffleBoundary
     protected RIntVector match(RAbstractDoubleVector x, RAbstractDoubleVector table, int nomatch) {
-        int[] result = initResult(x.getLength(), nomatch);
-        boolean matchAll = true;
-        NonRecursiveHashMapDouble hashTable;
-        if (bigTableProfile.profile(table.getLength() > (x.getLength() * TABLE_SIZE_FACTOR))) {
-            hashTable = new NonRecursiveHashMapDouble(x.getLength());
-            NonRecursiveHashSetDouble hashSet = new NonRecursiveHashSetDouble(x.getLength());
-            for (int i = 0; i < result.length; i++) {
-                hashSet.add(x.getDataAt(i));
-            }
-            for (int i = table.getLength() - 1; i >= 0; i--) {
-                double val = table.getDataAt(i);
-                if (hashSet.contains(val)) {
-                    hashTable.put(val, i);
-                }
-            }
-        } else {
-            hashTable = new NonRecursiveHashMapDouble(table.getLength());
-            for (int i = table.getLength() - 1; i >= 0; i--) {
-                hashTable.put(table.getDataAt(i), i);
-            }
-        }
-        for (int i = 0; i < result.length; i++) {
-            double xx = x.getDataAt(i);
-            int index = hashTable.get(xx);
-            if (index != -1) {
-                result[i] = index + 1;
-            } else {
-                matchAll = false;
-            }
-        }
-        return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
+        return matchDouble(x.materialize().getReadonlyData(), table.materialize().getReadonlyData(), table, nomatch);
     }
 
     @Specialization
@@ -406,37 +290,7 @@ public abstract class MatchInternalNode extends RBaseNode {
     @Specialization(guards = {"x.getLength() != 1", "!isSequence(table)"})
     @CompilerDirectives.TruffleBoundary
     protected RIntVector match(RAbstractStringVector x, RAbstractStringVector table, int nomatch) {
-        int[] result = initResult(x.getLength(), nomatch);
-        boolean matchAll = true;
-        NonRecursiveHashMapCharacter hashTable;
-        if (bigTableProfile.profile(table.getLength() > (x.getLength() * TABLE_SIZE_FACTOR))) {
-            hashTable = new NonRecursiveHashMapCharacter(x.getLength());
-            NonRecursiveHashSetCharacter hashSet = new NonRecursiveHashSetCharacter(x.getLength());
-            for (int i = 0; i < result.length; i++) {
-                hashSet.add(x.getDataAt(i));
-            }
-            for (int i = table.getLength() - 1; i >= 0; i--) {
-                String val = table.getDataAt(i);
-                if (hashSet.contains(val)) {
-                    hashTable.put(val, i);
-                }
-            }
-        } else {
-            hashTable = new NonRecursiveHashMapCharacter(table.getLength());
-            for (int i = table.getLength() - 1; i >= 0; i--) {
-                hashTable.put(table.getDataAt(i), i);
-            }
-        }
-        for (int i = 0; i < result.length; i++) {
-            String xx = x.getDataAt(i);
-            int index = hashTable.get(xx);
-            if (index != -1) {
-                result[i] = index + 1;
-            } else {
-                matchAll = false;
-            }
-        }
-        return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
+        return matchString(x.materialize().getReadonlyStringData(), table.materialize().getReadonlyStringData(), table, nomatch);
     }
 
     @Specialization
@@ -649,23 +503,7 @@ public abstract class MatchInternalNode extends RBaseNode {
     @Specialization(guards = "!isRAbstractStringVector(table)")
     @CompilerDirectives.TruffleBoundary
     protected RIntVector match(RAbstractStringVector x, RAbstractVector table, int nomatch) {
-        int[] result = initResult(x.getLength(), nomatch);
-        boolean matchAll = true;
-        RAbstractStringVector stringTable = castString(table);
-        NonRecursiveHashMapCharacter hashTable = new NonRecursiveHashMapCharacter(table.getLength());
-        for (int i = table.getLength() - 1; i >= 0; i--) {
-            hashTable.put(stringTable.getDataAt(i), i);
-        }
-        for (int i = 0; i < result.length; i++) {
-            String xx = x.getDataAt(i);
-            int index = hashTable.get(xx);
-            if (index != -1) {
-                result[i] = index + 1;
-            } else {
-                matchAll = false;
-            }
-        }
-        return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
+        return matchString(x.materialize().getReadonlyStringData(), castString(table).materialize().getReadonlyStringData(), null, nomatch);
     }
 
     @Specialization(guards = "x.getLength() == 1")
@@ -698,330 +536,196 @@ public abstract class MatchInternalNode extends RBaseNode {
     @Specialization
     @CompilerDirectives.TruffleBoundary
     protected RIntVector match(RAbstractComplexVector x, RAbstractComplexVector table, int nomatch) {
-        int[] result = initResult(x.getLength(), nomatch);
-        boolean matchAll = true;
-        NonRecursiveHashMapComplex hashTable;
-        if (bigTableProfile.profile(table.getLength() > (x.getLength() * TABLE_SIZE_FACTOR))) {
-            hashTable = new NonRecursiveHashMapComplex(x.getLength());
-            NonRecursiveHashSetComplex hashSet = new NonRecursiveHashSetComplex(x.getLength());
-            for (int i = 0; i < result.length; i++) {
-                hashSet.add(x.getDataAt(i));
-            }
-            for (int i = table.getLength() - 1; i >= 0; i--) {
-                RComplex val = table.getDataAt(i);
-                if (hashSet.contains(val)) {
-                    hashTable.put(val, i);
-                }
-            }
-        } else {
-            hashTable = new NonRecursiveHashMapComplex(table.getLength());
-            for (int i = table.getLength() - 1; i >= 0; i--) {
-                hashTable.put(table.getDataAt(i), i);
-            }
-        }
-        for (int i = 0; i < result.length; i++) {
-            RComplex xx = x.getDataAt(i);
-            int index = hashTable.get(xx);
-            if (index != -1) {
-                result[i] = index + 1;
-            } else {
-                matchAll = false;
-            }
-        }
-        return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
+        return matchComplex(x.materialize().getReadonlyData(), table.materialize().getReadonlyData(), table, nomatch);
     }
 
-    private static int[] initResult(int length, int nomatch) {
-        int[] result = new int[length];
-        Arrays.fill(result, nomatch);
+    private static double[] toDouble(RAbstractIntVector vector) {
+        double[] result = new double[vector.getLength()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = RRuntime.int2double(vector.getDataAt(i));
+        }
         return result;
     }
 
     /**
-     * Set the "complete" status. If {@code nomatch} is not NA (uncommon), then the result vector is
-     * always COMPLETE, otherwise it is INCOMPLETE unless everything matched.
+     * Returns the (cached) complete index of {@code table}, or {@code null} if the table is too
+     * small to be cached.
      */
-    private static boolean setCompleteState(boolean matchAll, int nomatch) {
-        return nomatch != RRuntime.INT_NA || matchAll ? RDataFactory.COMPLETE_VECTOR : RDataFactory.INCOMPLETE_VECTOR;
+    private static HashIndex getCachedIndex(RAbstractVector table) {
+        return HashIndexCache.isCacheable(table, INDEX_CACHE_THRESHOLD) ? HashIndexCache.getOrCreate((RVector<?>) table) : null;
     }
 
-    // simple implementations of non-recursive hash-maps to enable compilation
-    // TODO: consider replacing with a more efficient library implementation
-
-    private abstract static class NonRecursiveHashMap {
-
-        protected final int[] values;
-        protected int naValue;
-
-        protected NonRecursiveHashMap(int entryCount) {
-            int capacity = Math.max(entryCount * 3 / 2, 1);
-            values = new int[Integer.highestOneBit(capacity) << 2];
-        }
-
-        protected int index(int hash) {
-            // Multiply by -127
-            return ((hash << 1) - (hash << 8)) & (values.length - 1);
+    /**
+     * When the table is much longer than {@code x}, only {@code x} is indexed and the table is
+     * scanned once, this determines the index of the first occurrence of each element of {@code x}
+     * in {@code x}.
+     */
+    private static int[] firstOccurrences(HashIndex xIndex) {
+        int[] first = new int[xIndex.getLength()];
+        for (int i = 0; i < first.length; i++) {
+            int existing = xIndex.add(i);
+            first[i] = existing == -1 ? i : existing;
         }
+        return first;
     }
 
-    private static final class NonRecursiveHashMapCharacter extends NonRecursiveHashMap {
-
-        private final String[] keys;
-
-        NonRecursiveHashMapCharacter(int approxCapacity) {
-            super(approxCapacity);
-            keys = new String[values.length];
-        }
-
-        public boolean put(String key, int value) {
-            assert value >= 0;
-            if (RRuntime.isNA(key)) {
-                boolean ret = naValue == 0;
-                naValue = value + 1;
-                return ret;
+    private static RIntVector resolve(int[] xFirst, int[] firstInTable, int nomatch) {
+        int[] result = initResult(xFirst.length, nomatch);
+        boolean matchAll = true;
+        for (int i = 0; i < result.length; i++) {
+            int index = firstInTable[xFirst[i]];
+            if (index != 0) {
+                result[i] = index;
             } else {
-                int ind = index(key.hashCode());
-                while (true) {
-                    if (values[ind] == 0) {
-                        keys[ind] = key;
-                        values[ind] = value + 1;
-                        return false;
-                    } else if (key.equals(keys[ind])) {
-                        values[ind] = value + 1;
-                        return true;
-                    } else {
-                        ind++;
-                        if (ind == values.length) {
-                            ind = 0;
-                        }
-                    }
-                }
+                matchAll = false;
             }
         }
+        return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
+    }
 
-        public int get(String key) {
-            if (RRuntime.isNA(key)) {
-                return naValue - 1;
-            } else {
-                int ind = index(key.hashCode());
-                int firstInd = ind;
-                while (true) {
-                    if (key.equals(keys[ind])) {
-                        return values[ind] - 1;
-                    } else {
-                        ind++;
-                        if (ind == values.length) {
-                            ind = 0;
-                        }
-                        if (ind == firstInd || values[ind] == 0) {
-                            return -1;
-                        }
+    private RIntVector matchInt(int[] x, RAbstractIntVector tableVector, int nomatch) {
+        HashIndexInt index = (HashIndexInt) getCachedIndex(tableVector);
+        if (index == null) {
+            int[] table = tableVector.materialize().getReadonlyData();
+            if (bigTableProfile.profile(table.length > (x.length * TABLE_SIZE_FACTOR))) {
+                HashIndexInt xIndex = new HashIndexInt(x);
+                int[] xFirst = firstOccurrences(xIndex);
+                int[] firstInTable = new int[x.length];
+                for (int i = 0; i < table.length; i++) {
+                    int position = xIndex.get(table[i]);
+                    if (position != -1 && firstInTable[position] == 0) {
+                        firstInTable[position] = i + 1;
                     }
                 }
+                return resolve(xFirst, firstInTable, nomatch);
             }
+            index = new HashIndexInt(table);
+            index.addAll();
         }
-    }
-
-    private static final class NonRecursiveHashMapComplex extends NonRecursiveHashMap {
-
-        private final RComplex[] keys;
-        private final int m;
-        private final int k;
-
-        NonRecursiveHashMapComplex(int entryCount) {
-            super(entryCount);
-            keys = new RComplex[values.length];
-
-            int m1 = 2;
-            int k1 = 1;
-            int n = 2 * entryCount;
-            while (m1 < n) {
-                m1 *= 2;
-                k1++;
+        int[] result = initResult(x.length, nomatch);
+        boolean matchAll = true;
+        for (int i = 0; i < result.length; i++) {
+            int position = index.get(x[i]);
+            if (position != -1) {
+                result[i] = position + 1;
+            } else {
+                matchAll = false;
             }
-            m = m1;
-            k = k1;
         }
+        return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
+    }
 
-        public boolean put(RComplex key, int value) {
-            assert value >= 0;
-            if (RRuntime.isNA(key)) {
-                boolean ret = naValue == 0;
-                naValue = value + 1;
-                return ret;
-            } else {
-                int ind = index(key.hashCode());
-                while (true) {
-                    if (values[ind] == 0) {
-                        keys[ind] = key;
-                        values[ind] = value + 1;
-                        return false;
-                    } else if (key.equals(keys[ind])) {
-                        values[ind] = value + 1;
-                        return true;
-                    } else {
-                        ind = (ind + 1) % m;
-                        if (ind == values.length) {
-                            ind = 0;
-                        }
+    /**
+     * @param tableVector the vector holding {@code table} if its index may be cached, otherwise
+     *            {@code null}
+     */
+    private RIntVector matchDouble(double[] x, double[] table, RAbstractDoubleVector tableVector, int nomatch) {
+        HashIndexDouble index = (HashIndexDouble) getCachedIndex(tableVector);
+        if (index == null) {
+            if (bigTableProfile.profile(table.length > (x.length * TABLE_SIZE_FACTOR))) {
+                HashIndexDouble xIndex = new HashIndexDouble(x);
+                int[] xFirst = firstOccurrences(xIndex);
+                int[] firstInTable = new int[x.length];
+                for (int i = 0; i < table.length; i++) {
+                    int position = xIndex.get(table[i]);
+                    if (position != -1 && firstInTable[position] == 0) {
+                        firstInTable[position] = i + 1;
                     }
                 }
+                return resolve(xFirst, firstInTable, nomatch);
             }
+            index = new HashIndexDouble(table);
+            index.addAll();
         }
-
-        public int get(RComplex key) {
-            if (RRuntime.isNA(key)) {
-                return naValue - 1;
+        int[] result = initResult(x.length, nomatch);
+        boolean matchAll = true;
+        for (int i = 0; i < result.length; i++) {
+            int position = index.get(x[i]);
+            if (position != -1) {
+                result[i] = position + 1;
             } else {
-                int ind = index(key.hashCode());
-                int firstInd = ind;
-                while (true) {
-                    if (key.equals(keys[ind])) {
-                        return values[ind] - 1;
-                    } else {
-                        ind = (ind + 1) % m;
-                        if (ind == values.length) {
-                            ind = 0;
-                        }
-                        if (ind == firstInd || values[ind] == 0) {
-                            return -1;
-                        }
-                    }
-                }
+                matchAll = false;
             }
         }
-
-        private static final int u = new Long(3141592653L).intValue();
-
-        @Override
-        protected int index(int key) {
-            return u * key >>> (32 - k);
-        }
+        return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
     }
 
-    private static final class NonRecursiveHashMapDouble extends NonRecursiveHashMap {
-
-        private final double[] keys;
-        private int nanValue;
-
-        NonRecursiveHashMapDouble(int approxCapacity) {
-            super(approxCapacity);
-            keys = new double[values.length];
-            Arrays.fill(keys, RRuntime.DOUBLE_NA);
-        }
-
-        public boolean put(double key, int value) {
-            assert value >= 0;
-            if (RRuntime.isNA(key)) {
-                boolean ret = naValue == 0;
-                naValue = value + 1;
-                return ret;
-            } else if (Double.isNaN(key)) {
-                boolean ret = nanValue == 0;
-                nanValue = value + 1;
-                return ret;
-            } else {
-                int ind = index(Double.hashCode(key));
-                while (true) {
-                    if (values[ind] == 0) {
-                        keys[ind] = key;
-                        values[ind] = value + 1;
-                        return false;
-                    } else if (key == keys[ind]) {
-                        values[ind] = value + 1;
-                        return true;
-                    } else {
-                        ind++;
-                        if (ind == values.length) {
-                            ind = 0;
-                        }
+    private RIntVector matchString(String[] x, String[] table, RAbstractStringVector tableVector, int nomatch) {
+        HashIndexString index = (HashIndexString) getCachedIndex(tableVector);
+        if (index == null) {
+            if (bigTableProfile.profile(table.length > (x.length * TABLE_SIZE_FACTOR))) {
+                HashIndexString xIndex = new HashIndexString(x);
+                int[] xFirst = firstOccurrences(xIndex);
+                int[] firstInTable = new int[x.length];
+                for (int i = 0; i < table.length; i++) {
+                    int position = xIndex.get(table[i]);
+                    if (position != -1 && firstInTable[position] == 0) {
+                        firstInTable[position] = i + 1;
                     }
                 }
+                return resolve(xFirst, firstInTable, nomatch);
             }
+            index = new HashIndexString(table);
+            index.addAll();
         }
-
-        public int get(double key) {
-            if (RRuntime.isNA(key)) {
-                return naValue - 1;
-            } else if (Double.isNaN(key)) {
-                return nanValue - 1;
+        int[] result = initResult(x.length, nomatch);
+        boolean matchAll = true;
+        for (int i = 0; i < result.length; i++) {
+            int position = index.get(x[i]);
+            if (position != -1) {
+                result[i] = position + 1;
             } else {
-                int ind = index(Double.hashCode(key));
-                int firstInd = ind;
-                while (true) {
-                    if (key == keys[ind]) {
-                        return values[ind] - 1;
-                    } else {
-                        ind++;
-                        if (ind == values.length) {
-                            ind = 0;
-                        }
-                        if (ind == firstInd || values[ind] == 0) {
-                            return -1;
-                        }
-                    }
-                }
+                matchAll = false;
             }
         }
+        return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
     }
 
-    private static final class NonRecursiveHashMapInt extends NonRecursiveHashMap {
-
-        private final int[] keys;
-
-        NonRecursiveHashMapInt(int approxCapacity) {
-            super(approxCapacity);
-            keys = new int[values.length];
-            Arrays.fill(keys, RRuntime.INT_NA);
-        }
-
-        public boolean put(int key, int value) {
-            assert value >= 0;
-            if (RRuntime.isNA(key)) {
-                boolean ret = naValue == 0;
-                naValue = value + 1;
-                return ret;
-            } else {
-                int ind = index(Integer.hashCode(key));
-                while (true) {
-                    if (values[ind] == 0) {
-                        keys[ind] = key;
-                        values[ind] = value + 1;
-                        return false;
-                    } else if (key == keys[ind]) {
-                        values[ind] = value + 1;
-                        return true;
-                    } else {
-                        ind++;
-                        if (ind == values.length) {
-                            ind = 0;
-                        }
+    private RIntVector matchComplex(double[] x, double[] table, RAbstractComplexVector tableVector, int nomatch) {
+        int xLength = x.length >> 1;
+        HashIndexComplex index = (HashIndexComplex) getCachedIndex(tableVector);
+        if (index == null) {
+            int tableLength = table.length >> 1;
+            if (bigTableProfile.profile(tableLength > (xLength * TABLE_SIZE_FACTOR))) {
+                HashIndexComplex xIndex = new HashIndexComplex(x);
+                int[] xFirst = firstOccurrences(xIndex);
+                int[] firstInTable = new int[xLength];
+                for (int i = 0; i < tableLength; i++) {
+                    int position = xIndex.get(table[i << 1], table[(i << 1) + 1]);
+                    if (position != -1 && firstInTable[position] == 0) {
+                        firstInTable[position] = i + 1;
                     }
                 }
+                return resolve(xFirst, firstInTable, nomatch);
             }
+            index = new HashIndexComplex(table);
+            index.addAll();
         }
-
-        public int get(int key) {
-            if (RRuntime.isNA(key)) {
-                return naValue - 1;
+        int[] result = initResult(xLength, nomatch);
+        boolean matchAll = true;
+        for (int i = 0; i < result.length; i++) {
+            int position = index.get(x[i << 1], x[(i << 1) + 1]);
+            if (position != -1) {
+                result[i] = position + 1;
             } else {
-                int ind = index(Integer.hashCode(key));
-                int firstInd = ind;
-                while (true) {
-                    if (key == keys[ind]) {
-                        return values[ind] - 1;
-                    } else {
-                        ind++;
-                        if (ind == values.length) {
-                            ind = 0;
-                        }
-                        if (ind == firstInd || values[ind] == 0) {
-                            return -1;
-                        }
-                    }
-                }
+                matchAll = false;
             }
         }
+        return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
+    }
+
+    private static int[] initResult(int length, int nomatch) {
+        int[] result = new int[length];
+        Arrays.fill(result, nomatch);
+        return result;
+    }
+
+    /**
+     * Set the "complete" status. If {@code nomatch} is not NA (uncommon), then the result vector is
+     * always COMPLETE, otherwise it is INCOMPLETE unless everything matched.
+     */
+    private static boolean setCompleteState(boolean matchAll, int nomatch) {
+        return nomatch != RRuntime.INT_NA || matchAll ? RDataFactory.COMPLETE_VECTOR : RDataFactory.INCOMPLETE_VECTOR;
     }
 
     private static final class NonRecursiveHashMapRaw {
@@ -1064,22 +768,6 @@ public abstract class MatchInternalNode extends RBaseNode {
         }
     }
 
-    private static class NonRecursiveHashSetInt {
-        private final NonRecursiveHashMapInt map;
-
-        NonRecursiveHashSetInt(int approxCapacity) {
-            map = new NonRecursiveHashMapInt(approxCapacity);
-        }
-
-        public boolean add(int value) {
-            return map.put(value, 1);
-        }
-
-        public boolean contains(int value) {
-            return map.get(value) == 1;
-        }
-    }
-
     private static class NonRecursiveHashSetRaw {
         private final NonRecursiveHashMapRaw map;
 
@@ -1095,52 +783,4 @@ public abstract class MatchInternalNode extends RBaseNode {
             return map.get(value) == 1;
         }
     }
-
-    private static class NonRecursiveHashSetDouble {
-        private final NonRecursiveHashMapDouble map;
-
-        NonRecursiveHashSetDouble(int approxCapacity) {
-            map = new NonRecursiveHashMapDouble(approxCapacity);
-        }
-
-        public boolean add(double value) {
-            return map.put(value, 1);
-        }
-
-        public boolean contains(double value) {
-            return map.get(value) == 1;
-        }
-    }
-
-    private static class NonRecursiveHashSetCharacter {
-        private final NonRecursiveHashMapCharacter map;
-
-        NonRecursiveHashSetCharacter(int approxCapacity) {
-            map = new NonRecursiveHashMapCharacter(approxCapacity);
-        }
-
-        public boolean add(String value) {
-            return map.put(value, 1);
-        }
-
-        public boolean contains(String value) {
-            return map.get(value) == 1;
-        }
-    }
-
-    private static class NonRecursiveHashSetComplex {
-        private final NonRecursiveHashMapComplex map;
-
-        NonRecursiveHashSetComplex(int approxCapacity) {
-            map = new NonRecursiveHashMapComplex(approxCapacity);
-        }
-
-        public boolean add(RComplex value) {
-            return map.put(value, 1);
-        }
-
-        public boolean contains(RComplex value) {
-            return map.get(value) == 1;
-        }
-    }
 }
@@ -34,12 +34,16 @@ import com.oracle.truffle.r.runtime.RDeparse;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.ErrorContext;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RForeignBooleanWrapper;
 import com.oracle.truffle.r.runtime.data.RForeignDoubleWrapper;
 import com.oracle.truffle.r.runtime.data.RForeignIntWrapper;
 import com.oracle.truffle.r.runtime.data.RForeignWrapper;
 import com.oracle.truffle.r.runtime.data.RIntSequence;
 import com.oracle.truffle.r.runtime.data.RPairList;
+import com.oracle.truffle.r.runtime.data.RRepeatedDoubleVector;
+import com.oracle.truffle.r.runtime.data.RRepeatedIntVector;
+import com.oracle.truffle.r.runtime.data.RRepeatedLogicalVector;
 import com.oracle.truffle.r.runtime.data.RStringSequence;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RSymbol;
@@ -93,6 +97,33 @@ public abstract class CastStringNode extends CastStringBaseNode {
         return factory().createStringSequence("", "", vector.getStart(), vector.getStride(), vector.getLength());
     }
 
+    @Specialization
+    protected RAbstractStringVector doRepeated(RRepeatedLogicalVector vector) {
+        return castRepeated(vector.getPatternVector(), vector.getLength());
+    }
+
+    @Specialization
+    protected RAbstractStringVector doRepeated(RRepeatedIntVector vector) {
+        return castRepeated(vector.getPatternVector(), vector.getLength());
+    }
+
+    @Specialization
+    protected RAbstractStringVector doRepeated(RRepeatedDoubleVector vector) {
+        return castRepeated(vector.getPatternVector(), vector.getLength());
+    }
+
+    /**
+     * Only the elements of the repeated pattern are converted, the result is repeated as well.
+     */
+    private RAbstractStringVector castRepeated(RAbstractAtomicVector pattern, int length) {
+        RAbstractStringVector strings = (RAbstractStringVector) castStringRecursive(pattern);
+        String[] data = new String[strings.getLength()];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = strings.getDataAt(i);
+        }
+        return RDataFactory.createRepeatedStringVector(data, length);
+    }
+
     @Specialization(guards = {"uAccess.supports(operandIn)", "handleAsAtomic(operandIn)"}, limit = "getGenericVectorAccessCacheSize()")
     protected RStringVector doAbstractAtomicVector(RAbstractAtomicVector operandIn,
                     @Cached("createClassProfile()") ValueProfile operandProfile,
@@ -188,8 +219,12 @@ public abstract class CastStringNode extends CastStringBaseNode {
         return c instanceof RIntSequence;
     }
 
+    protected boolean isRepeated(RAbstractContainer x) {
+        return x instanceof RRepeatedLogicalVector || x instanceof RRepeatedIntVector || x instanceof RRepeatedDoubleVector;
+    }
+
     protected boolean handleAsAtomic(RAbstractAtomicVector x) {
-        return !isForeignWrapper(x) && !(x instanceof RIntSequence || x instanceof RAbstractStringVector);
+        return !isForeignWrapper(x) && !isRepeated(x) && !(x instanceof RIntSequence || x instanceof RAbstractStringVector);
     }
 
     protected boolean handleAsNonAtomic(RAbstractContainer x) {
@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.unary;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.stream.IntStream;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.FastROptions;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+import com.oracle.truffle.r.runtime.ops.BinaryArithmetic;
+import com.oracle.truffle.r.runtime.ops.BinaryArithmeticFactory;
+
+/**
+ * Reductions of large double vectors that are computed in parallel. The vector is split into
+ * chunks of a fixed size, the chunks are reduced in parallel and the partial results are combined
+ * pairwise in a fixed order. The chunk boundaries and the order of combination do not depend on the
+ * number of threads, so the results are reproducible, although they may differ in the last bits
+ * from a strictly sequential reduction.
+ */
+public final class ParallelReduction {
+
+    private static final int THRESHOLD = FastROptions.ReductionParallelThreshold.getNonNegativeIntValue();
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private ParallelReduction() {
+        // only static members
+    }
+
+    /**
+     * Result of {@link #reduce}, {@code empty} is set if all elements were skipped.
+     */
+    public static final class Result {
+        public final double value;
+        public final boolean empty;
+
+        Result(double value, boolean empty) {
+            this.value = value;
+            this.empty = empty;
+        }
+    }
+
+    /**
+     * Returns {@code true} if a reduction over {@code length} elements should run in parallel.
+     */
+    public static boolean isParallel(long length) {
+        return THRESHOLD != 0 && length >= THRESHOLD;
+    }
+
+    /**
+     * Returns the data of the vector if it is long enough to be reduced in parallel and backed by a
+     * Java array, {@code null} otherwise.
+     */
+    public static double[] getData(RAbstractVector vector) {
+        if (isParallel(vector.getLength()) && vector instanceof RDoubleVector && !((RDoubleVector) vector).hasNativeMemoryData()) {
+            return ((RDoubleVector) vector).getInternalManagedData();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the operator that {@link #reduce} uses for the double operation of the arithmetic
+     * created by {@code factory}, or {@code null} if the reduction is not supported in parallel.
+     * The operators do not depend on any node, they are executed on the threads of the common
+     * fork-join pool.
+     */
+    public static DoubleBinaryOperator getOperator(BinaryArithmeticFactory factory) {
+        if (factory == BinaryArithmetic.ADD) {
+            return Double::sum;
+        } else if (factory == BinaryArithmetic.MAX) {
+            return ParallelReduction::max;
+        } else if (factory == BinaryArithmetic.MIN) {
+            return ParallelReduction::min;
+        }
+        return null;
+    }
+
+    /**
+     * Same as {@code BinaryArithmetic.Max.op}: NaN on the left is kept and +0 wins over -0.
+     */
+    private static double max(double left, double right) {
+        if (left != left) {
+            return left;
+        } else if (left == 0.0d && right == 0.0d && Double.doubleToRawLongBits(left) == Double.doubleToRawLongBits(-0.0d)) {
+            return right;
+        }
+        return left >= right ? left : right;
+    }
+
+    /**
+     * Same as {@code BinaryArithmetic.Min.op}: NaN on the left is kept and -0 wins over +0.
+     */
+    private static double min(double left, double right) {
+        if (left != left) {
+            return left;
+        } else if (left == 0.0d && right == 0.0d && Double.doubleToRawLongBits(right) == Double.doubleToRawLongBits(-0.0d)) {
+            return right;
+        }
+        return left <= right ? left : right;
+    }
+
+    private static int chunks(int length) {
+        return (length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    private static int chunkEnd(int chunk, int length) {
+        return Math.min(length, (chunk + 1) * CHUNK_SIZE);
+    }
+
+    /**
+     * Combines the partial results pairwise: first neighbors, then the results of neighboring pairs
+     * and so on.
+     */
+    private static double combine(double[] partials, DoubleBinaryOperator op) {
+        int n = partials.length;
+        while (n > 1) {
+            int half = n / 2;
+            for (int i = 0; i < half; i++) {
+                partials[i] = op.applyAsDouble(partials[2 * i], partials[2 * i + 1]);
+            }
+            if (n % 2 != 0) {
+                partials[half] = partials[n - 1];
+            }
+            n = (n + 1) / 2;
+        }
+        return partials[0];
+    }
+
+    /**
+     * Parallel version of the double vector reduction in {@link UnaryArithmeticReduceNode}: NA and
+     * NaN are skipped if {@code naRm}, infinite values if {@code finite}, and an NA produces NA
+     * otherwise. {@code start} must be the neutral element of {@code op}.
+     */
+    @TruffleBoundary
+    public static Result reduce(double[] data, int length, double start, DoubleBinaryOperator op, boolean naRm, boolean finite) {
+        int chunks = chunks(length);
+        double[] partials = new double[chunks];
+        boolean[] used = new boolean[chunks];
+        boolean[] na = new boolean[chunks];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            double result = start;
+            for (int i = chunk * CHUNK_SIZE; i < chunkEnd(chunk, length); i++) {
+                double d = data[i];
+                if (Double.isNaN(d)) {
+                    if (naRm) {
+                        continue;
+                    } else if (RRuntime.isNA(d)) {
+                        na[chunk] = true;
+                        return;
+                    }
+                } else if (finite && Double.isInfinite(d)) {
+                    continue;
+                }
+                result = op.applyAsDouble(result, d);
+                used[chunk] = true;
+            }
+            partials[chunk] = result;
+        });
+        boolean empty = true;
+        for (int i = 0; i < chunks; i++) {
+            if (na[i]) {
+                return new Result(RRuntime.DOUBLE_NA, false);
+            }
+            empty &= !used[i];
+        }
+        return new Result(combine(partials, op), empty);
+    }
+
+    /**
+     * Parallel product, only NA (not NaN) values are skipped if {@code naRm}.
+     */
+    @TruffleBoundary
+    public static double prod(double[] data, int length, boolean naRm) {
+        int chunks = chunks(length);
+        double[] partials = new double[chunks];
+        boolean[] na = new boolean[chunks];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            double result = 1;
+            for (int i = chunk * CHUNK_SIZE; i < chunkEnd(chunk, length); i++) {
+                double d = data[i];
+                if (RRuntime.isNA(d)) {
+                    if (!naRm) {
+                        na[chunk] = true;
+                        return;
+                    }
+                } else {
+                    result *= d;
+                }
+            }
+            partials[chunk] = result;
+        });
+        for (int i = 0; i < chunks; i++) {
+            if (na[i]) {
+                return RRuntime.DOUBLE_NA;
+            }
+        }
+        return combine(partials, (a, b) -> a * b);
+    }
+
+    /**
+     * Parallel mean, returns the first NA or NaN value in the vector if there is any.
+     */
+    @TruffleBoundary
+    public static double mean(double[] data, int length) {
+        int chunks = chunks(length);
+        double[] partials = new double[chunks];
+        int[] firstNaN = new int[chunks];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            double sum = 0;
+            firstNaN[chunk] = -1;
+            for (int i = chunk * CHUNK_SIZE; i < chunkEnd(chunk, length); i++) {
+                double d = data[i];
+                if (Double.isNaN(d)) {
+                    firstNaN[chunk] = i;
+                    return;
+                }
+                sum += d;
+            }
+            partials[chunk] = sum;
+        });
+        for (int i = 0; i < chunks; i++) {
+            if (firstNaN[i] != -1) {
+                return data[firstNaN[i]];
+            }
+        }
+        return combine(partials, (a, b) -> a + b) / length;
+    }
+
+    /**
+     * Parallel version of the extended precision sum. Every chunk is summed with compensation into
+     * a double-double (a sum {@code hi + lo} of two non-overlapping doubles), which has at least the
+     * precision of the 80 bit long double used by the native implementation. NA values are skipped
+     * if {@code naRm}, otherwise they produce NA.
+     */
+    @TruffleBoundary
+    public static double exactSum(double[] data, int length, boolean naRm) {
+        int chunks = chunks(length);
+        double[] his = new double[chunks];
+        double[] los = new double[chunks];
+        boolean[] na = new boolean[chunks];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            double hi = 0;
+            double lo = 0;
+            for (int i = chunk * CHUNK_SIZE; i < chunkEnd(chunk, length); i++) {
+                double d = data[i];
+                if (RRuntime.isNA(d)) {
+                    if (!naRm) {
+                        na[chunk] = true;
+                        return;
+                    }
+                } else {
+                    double s = hi + d;
+                    double v = s - hi;
+                    lo += (hi - (s - v)) + (d - v);
+                    hi = s;
+                }
+            }
+            his[chunk] = hi;
+            los[chunk] = lo;
+        });
+        for (int i = 0; i < chunks; i++) {
+            if (na[i]) {
+                return RRuntime.DOUBLE_NA;
+            }
+        }
+        int n = chunks;
+        while (n > 1) {
+            int half = n / 2;
+            for (int i = 0; i < half; i++) {
+                double hi1 = his[2 * i];
+                double hi2 = his[2 * i + 1];
+                double s = hi1 + hi2;
+                double v = s - hi1;
+                his[i] = s;
+                los[i] = (hi1 - (s - v)) + (hi2 - v) + los[2 * i] + los[2 * i + 1];
+            }
+            if (n % 2 != 0) {
+                his[half] = his[n - 1];
+                los[half] = los[n - 1];
+            }
+            n = (n + 1) / 2;
+        }
+        // the high part is the plain sum, which also carries infinities and NaNs
+        return Double.isFinite(his[0]) ? his[0] + los[0] : his[0];
+    }
+}
@@ -22,6 +22,8 @@
  */
 package com.oracle.truffle.r.nodes.unary;
 
+import java.util.function.DoubleBinaryOperator;
+
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.ImportStatic;
@@ -72,11 +74,13 @@ public abstract class UnaryArithmeticReduceNode extends RBaseNode {
     protected final ReduceSemantics semantics;
     protected final boolean supportString;
     protected final boolean supportComplex;
+    private final DoubleBinaryOperator parallelOperator;
 
     private final NACheck na = NACheck.create();
     private final ConditionProfile naRmProfile = ConditionProfile.createBinaryProfile();
     private final BranchProfile emptyProfile = BranchProfile.create();
     private final BranchProfile naResultProfile = BranchProfile.create();
+    private final ConditionProfile parallelProfile = ConditionProfile.createBinaryProfile();
 
     protected UnaryArithmeticReduceNode(ReduceSemantics semantics, BinaryArithmeticFactory factory) {
         this.factory = factory;
@@ -84,6 +88,7 @@ public abstract class UnaryArithmeticReduceNode extends RBaseNode {
         this.arithmetic = factory.createOperation();
         this.supportString = semantics.supportString;
         this.supportComplex = semantics.supportComplex;
+        this.parallelOperator = ParallelReduction.getOperator(factory);
     }
 
     private void emptyWarning() {
@@ -273,6 +278,14 @@ public abstract class UnaryArithmeticReduceNode extends RBaseNode {
     private double doDouble(RAbstractDoubleVector vector, boolean naRm, boolean finite, ConditionProfile finiteProfile, ConditionProfile isInfiniteProfile, VectorAccess access) {
         boolean profiledNaRm = naRmProfile.profile(naRm);
         boolean profiledFinite = finiteProfile.profile(finite);
+        double[] data = parallelOperator == null ? null : ParallelReduction.getData(vector);
+        if (parallelProfile.profile(data != null)) {
+            ParallelReduction.Result parallelResult = ParallelReduction.reduce(data, vector.getLength(), semantics.getDoubleStart(), parallelOperator, profiledNaRm, profiledFinite);
+            if (parallelResult.empty) {
+                emptyWarning();
+            }
+            return parallelResult.value;
+        }
         double result = semantics.getDoubleStart();
         boolean empty = true;
         try (VectorAccess.SequentialIterator iter = access.access(vector)) {
@@ -23,8 +23,14 @@
 package com.oracle.truffle.r.runtime;
 
 import java.util.Arrays;
+import java.util.WeakHashMap;
 
 import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.data.RComplexVector;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.RIntVector;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.RVector;
 
 public final class Collections {
 
@@ -448,4 +454,340 @@ public final class Collections {
             }
         }
     }
+
+    /**
+     * An open-addressing hash index over the elements of a vector, used by {@code match},
+     * {@code unique}, {@code duplicated} and {@code anyDuplicated}. The table stores positions
+     * (plus one) into the indexed data, so keys are neither boxed nor copied. Equality follows R's
+     * semantics for these functions: {@code NA} only matches {@code NA}, {@code NaN} matches
+     * {@code NaN} and {@code -0} matches {@code 0}. The table has at least twice as many slots as
+     * the data has elements, so it is never resized and probing always terminates. Like in GNU R,
+     * vectors with more than 2^30 elements cannot be indexed.
+     */
+    public abstract static class HashIndex {
+
+        private static final int MAX_CAPACITY = 1 << 30;
+
+        protected final int[] slots;
+        protected final int mask;
+        private final int shift;
+        private final int length;
+
+        protected HashIndex(int length) {
+            if (length >= MAX_CAPACITY) {
+                // the table could not keep a free slot to terminate probing
+                throw RError.error(RError.NO_CALLER, RError.Message.TOO_LARGE_FOR_HASHING, length);
+            }
+            this.length = length;
+            int capacity = (int) Math.min(MAX_CAPACITY, Math.max(4L, Long.highestOneBit(2L * length - 1) << 1));
+            slots = new int[capacity];
+            mask = capacity - 1;
+            shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        }
+
+        protected final int slot(int hash) {
+            // Fibonacci hashing, spreads consecutive keys
+            return (hash * 0x9E3779B9) >>> shift;
+        }
+
+        public final int getLength() {
+            return length;
+        }
+
+        /**
+         * Adds the element at {@code position} unless an equal element is already indexed.
+         *
+         * @return the position of the equal element, or -1 if the element was added
+         */
+        public abstract int add(int position);
+
+        /**
+         * Adds all elements in order, i.e., the index refers to the first of equal elements.
+         */
+        public final HashIndex addAll() {
+            for (int i = 0; i < length; i++) {
+                add(i);
+            }
+            return this;
+        }
+    }
+
+    public static final class HashIndexInt extends HashIndex {
+
+        private final int[] data;
+
+        public HashIndexInt(int[] data) {
+            super(data.length);
+            this.data = data;
+        }
+
+        @Override
+        public int add(int position) {
+            int key = data[position];
+            int ind = slot(key);
+            while (true) {
+                int entry = slots[ind];
+                if (entry == 0) {
+                    slots[ind] = position + 1;
+                    return -1;
+                } else if (data[entry - 1] == key) {
+                    return entry - 1;
+                }
+                ind = (ind + 1) & mask;
+            }
+        }
+
+        /**
+         * Returns the position of the indexed element equal to {@code key}, or -1.
+         */
+        public int get(int key) {
+            int ind = slot(key);
+            while (true) {
+                int entry = slots[ind];
+                if (entry == 0) {
+                    return -1;
+                } else if (data[entry - 1] == key) {
+                    return entry - 1;
+                }
+                ind = (ind + 1) & mask;
+            }
+        }
+    }
+
+    public static final class HashIndexDouble extends HashIndex {
+
+        private final double[] data;
+
+        public HashIndexDouble(double[] data) {
+            super(data.length);
+            this.data = data;
+        }
+
+        static int hash(double value) {
+            if (Double.isNaN(value)) {
+                return RRuntime.isNA(value) ? 1 : 2;
+            }
+            // "+ 0.0" turns -0.0 into 0.0
+            long bits = Double.doubleToRawLongBits(value + 0.0);
+            return (int) (bits ^ (bits >>> 32));
+        }
+
+        static boolean equal(double a, double b) {
+            return a == b || (Double.isNaN(a) && Double.isNaN(b) && RRuntime.isNA(a) == RRuntime.isNA(b));
+        }
+
+        @Override
+        public int add(int position) {
+            double key = data[position];
+            int ind = slot(hash(key));
+            while (true) {
+                int entry = slots[ind];
+                if (entry == 0) {
+                    slots[ind] = position + 1;
+                    return -1;
+                } else if (equal(data[entry - 1], key)) {
+                    return entry - 1;
+                }
+                ind = (ind + 1) & mask;
+            }
+        }
+
+        /**
+         * Returns the position of the indexed element equal to {@code key}, or -1.
+         */
+        public int get(double key) {
+            int ind = slot(hash(key));
+            while (true) {
+                int entry = slots[ind];
+                if (entry == 0) {
+                    return -1;
+                } else if (equal(data[entry - 1], key)) {
+                    return entry - 1;
+                }
+                ind = (ind + 1) & mask;
+            }
+        }
+    }
+
+    public static final class HashIndexString extends HashIndex {
+
+        private final String[] data;
+
+        public HashIndexString(String[] data) {
+            super(data.length);
+            this.data = data;
+        }
+
+        private static boolean equal(String a, String b) {
+            // NA is compared by identity, a "NA" string is not NA
+            return a == b || (!RRuntime.isNA(a) && !RRuntime.isNA(b) && a.equals(b));
+        }
+
+        @Override
+        public int add(int position) {
+            String key = data[position];
+            int ind = slot(key.hashCode());
+            while (true) {
+                int entry = slots[ind];
+                if (entry == 0) {
+                    slots[ind] = position + 1;
+                    return -1;
+                } else if (equal(data[entry - 1], key)) {
+                    return entry - 1;
+                }
+                ind = (ind + 1) & mask;
+            }
+        }
+
+        /**
+         * Returns the position of the indexed element equal to {@code key}, or -1.
+         */
+        public int get(String key) {
+            int ind = slot(key.hashCode());
+            while (true) {
+                int entry = slots[ind];
+                if (entry == 0) {
+                    return -1;
+                } else if (equal(data[entry - 1], key)) {
+                    return entry - 1;
+                }
+                ind = (ind + 1) & mask;
+            }
+        }
+    }
+
+    /**
+     * Index over complex data stored as pairs of real and imaginary parts. All values with an
+     * {@code NA} part are equal.
+     */
+    public static final class HashIndexComplex extends HashIndex {
+
+        private final double[] data;
+
+        public HashIndexComplex(double[] data) {
+            super(data.length / 2);
+            this.data = data;
+        }
+
+        private static int hash(double re, double im) {
+            return RRuntime.isNA(re, im) ? 1 : 31 * HashIndexDouble.hash(re) + HashIndexDouble.hash(im);
+        }
+
+        private boolean equal(int position, double re, double im) {
+            double otherRe = data[position << 1];
+            double otherIm = data[(position << 1) + 1];
+            boolean na = RRuntime.isNA(re, im);
+            if (na || RRuntime.isNA(otherRe, otherIm)) {
+                return na && RRuntime.isNA(otherRe, otherIm);
+            }
+            return HashIndexDouble.equal(otherRe, re) && HashIndexDouble.equal(otherIm, im);
+        }
+
+        @Override
+        public int add(int position) {
+            double re = data[position << 1];
+            double im = data[(position << 1) + 1];
+            int ind = slot(hash(re, im));
+            while (true) {
+                int entry = slots[ind];
+                if (entry == 0) {
+                    slots[ind] = position + 1;
+                    return -1;
+                } else if (equal(entry - 1, re, im)) {
+                    return entry - 1;
+                }
+                ind = (ind + 1) & mask;
+            }
+        }
+
+        /**
+         * Returns the position of the indexed element equal to {@code re + im i}, or -1.
+         */
+        public int get(double re, double im) {
+            int ind = slot(hash(re, im));
+            while (true) {
+                int entry = slots[ind];
+                if (entry == 0) {
+                    return -1;
+                } else if (equal(entry - 1, re, im)) {
+                    return entry - 1;
+                }
+                ind = (ind + 1) & mask;
+            }
+        }
+    }
+
+    /**
+     * Process-wide cache of the (complete) hash indexes of large vectors, which saves rebuilding
+     * the index of the same table on repeated {@code match} calls. A vector whose index is cached
+     * is made permanently shared, so that it is never updated in place, and an entry is only used
+     * while the vector still holds the data array that was indexed. The vectors are referenced
+     * weakly.
+     */
+    public static final class HashIndexCache {
+
+        private static final class Entry {
+            private final Object store;
+            private final HashIndex index;
+
+            Entry(Object store, HashIndex index) {
+                this.store = store;
+                this.index = index;
+            }
+        }
+
+        private static final WeakHashMap<RVector<?>, Entry> entries = new WeakHashMap<>();
+
+        private HashIndexCache() {
+            // no instances
+        }
+
+        /**
+         * Only managed vectors are cached, native code could update the data of other vectors.
+         */
+        public static boolean isCacheable(Object vector, int threshold) {
+            if (threshold > 0 && vector instanceof RVector) {
+                RVector<?> v = (RVector<?>) vector;
+                return v.getLength() >= threshold && v.getInternalStore() != null;
+            }
+            return false;
+        }
+
+        /**
+         * Returns the cached index of an integer, double, character or complex vector, building
+         * and caching it first if necessary.
+         */
+        public static HashIndex getOrCreate(RVector<?> vector) {
+            HashIndex index = get(vector);
+            if (index == null) {
+                // concurrent builds of the same index are equivalent, the last one wins
+                index = create(vector).addAll();
+                put(vector, index);
+            }
+            return index;
+        }
+
+        private static HashIndex create(RVector<?> vector) {
+            if (vector instanceof RIntVector) {
+                return new HashIndexInt(((RIntVector) vector).getReadonlyData());
+            } else if (vector instanceof RDoubleVector) {
+                return new HashIndexDouble(((RDoubleVector) vector).getReadonlyData());
+            } else if (vector instanceof RStringVector) {
+                return new HashIndexString(((RStringVector) vector).getReadonlyStringData());
+            } else if (vector instanceof RComplexVector) {
+                return new HashIndexComplex(((RComplexVector) vector).getReadonlyData());
+            }
+            throw RInternalError.shouldNotReachHere("unexpected vector type");
+        }
+
+        private static synchronized HashIndex get(RVector<?> vector) {
+            Entry entry = entries.get(vector);
+            return entry != null && entry.store == vector.getInternalStore() ? entry.index : null;
+        }
+
+        private static synchronized void put(RVector<?> vector, HashIndex index) {
+            vector.makeSharedPermanent();
+            entries.put(vector, new Entry(vector.getInternalStore(), index));
+        }
+    }
 }
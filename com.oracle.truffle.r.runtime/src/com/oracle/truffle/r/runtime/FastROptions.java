@@ -49,6 +49,16 @@ public enum FastROptions {
     LoadProfiles("Load the system, site and user profile scripts.", !FastRConfig.ManagedMode),
     PrintComplexLookups("Print a message for each non-trivial variable lookup", false),
     FullPrecisionSum("Use 128 bit arithmetic in sum builtin", false),
+    MatMultParallelThreshold("Number of multiply-add operations of a double matrix product above which it is computed in parallel, 0 disables", "1000000", true),
+    MatMultUseBLAS("Compute large double matrix products using the native BLAS dgemm instead of the parallel Java implementation", false),
+    ReductionParallelThreshold("Minimal length of a double vector or matrix whose sum, prod, mean, min, max, range or row and column sums and means are computed in parallel, 0 disables", "1000000", true),
+    PairwiseParallelThreshold("Number of element operations of cov, cor or dist above which the pairs of columns or rows are processed in parallel, 0 disables", "1000000", true),
+    MatchIndexCacheThreshold("Minimal length of a match table whose hash index is cached and reused by subsequent calls, 0 disables", "0", true),
+    ReadAheadThreshold("Minimal size in bytes of a gzip or xz compressed file that is decompressed on a background thread ahead of the reads, 0 disables", "1048576", true),
+    CompressionThreads("Number of threads compressing the blocks of gzip and xz file connections in parallel, 0 uses up to 4 available processors, 1 compresses on the writing thread", "0", true),
+    ProfmemHistogram("Record one in N allocations and copies in the allocation histogram of .fastr.profmem from startup, 0 disables", "0", true),
+    ProfmemHistogramFile("File the allocation histogram of .fastr.profmem is written to at exit", "", true),
+    CompactRepThreshold("Minimal length of a rep result that is represented by the repeated pattern instead of materialized data, 0 disables", "1000000", true),
     InvisibleArgs("Argument writes do not trigger state transitions", true),
     RefCountIncrementOnly("Disable reference count decrements for experimental state transition implementation", false),
     UseInternalGridGraphics("Whether the internal (Java) grid graphics implementation should be used", true),
@@ -58,6 +68,7 @@ public enum FastROptions {
     SearchPathForcePromises("Whether all promises for frames on shared path are forced in presence of shared contexts", false),
     LoadPackagesNativeCode("Load native code of packages, including builtin packages.", !FastRConfig.ManagedMode),
     SynchronizeNativeCode("allow only one thread to enter packages' native code", false),
+    SynchronizedNativePackages("Comma-separated names of the packages whose native code may be entered by only one thread at a time, the native code of other packages runs concurrently", "", true),
     ForeignObjectWrappers("use wrappers for foreign objects (as opposed to full conversion)", true),
 
     // Promises optimizations
@@ -73,6 +84,8 @@ public enum FastROptions {
     // Miscellaneous
 
     IgnoreGraphicsCalls("Silently ignore unimplemented functions from graphics package", false),
+    RegExpCacheSize("Maximal number of translated and compiled regular expressions cached per context", "64", true),
+    StringCache("Share equal strings read by readLines, scan and unserialize through a global weak cache", false),
     AdditionalOptions("List of R level options default values. Syntax: 'optionName:value;optionName2:value;'. " +
                     "Value can be 'T' or 'F' in which case it is interpreted as boolean, otherwise as string", "", true),
     StartupTiming("Records and prints various timestamps during initialization", false);
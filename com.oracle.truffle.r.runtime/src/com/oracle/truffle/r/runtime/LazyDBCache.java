@@ -23,23 +23,96 @@
 package com.oracle.truffle.r.runtime;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.oracle.truffle.r.runtime.context.RContext;
 
+/**
+ * Caches the contents of lazy-load database ({@code .rdb}) files. The files are memory-mapped
+ * read-only once per process and the mappings are shared by all contexts, so that contexts
+ * (including child contexts) loading the same packages do not hold private heap copies of the
+ * databases. The individual entries are accessed via the absolute offsets stored in the
+ * corresponding {@code .rdx} index, see {@link #getEntry(ByteBuffer, int, int)}.
+ */
 public class LazyDBCache {
 
+    /**
+     * A process-wide mapping of a database file. The size and the modification time of the file at
+     * the time of mapping are recorded so that a file rewritten by a package (re)installation is
+     * detected and mapped again.
+     */
+    private static final class MappedDB {
+        private final ByteBuffer data;
+        private final long size;
+        private final long lastModified;
+
+        MappedDB(ByteBuffer data, long size, long lastModified) {
+            this.data = data;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        boolean isUpToDate(BasicFileAttributes attrs) {
+            return attrs.size() == size && attrs.lastModifiedTime().toMillis() == lastModified;
+        }
+    }
+
+    private static final ConcurrentHashMap<String, MappedDB> mappedDBs = new ConcurrentHashMap<>();
+
+    private static ByteBuffer getMapped(String dbPath) throws IOException {
+        Path path = FileSystems.getDefault().getPath(dbPath);
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        MappedDB db = mappedDBs.get(dbPath);
+        if (db == null || !db.isUpToDate(attrs)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                ByteBuffer data = channel.map(MapMode.READ_ONLY, 0, size).asReadOnlyBuffer();
+                db = new MappedDB(data, size, attrs.lastModifiedTime().toMillis());
+            }
+            // concurrent mappings of the same file are equivalent, the last one wins
+            mappedDBs.put(dbPath, db);
+        }
+        return db.data;
+    }
+
+    private static void invalidate(String dbPath) {
+        mappedDBs.remove(dbPath);
+    }
+
+    /**
+     * Returns a view of {@code length} bytes of the database {@code db} starting at {@code offset}.
+     * The view shares the underlying mapping and has its own position, so it can be consumed
+     * independently of other users of the same database.
+     */
+    public static ByteBuffer getEntry(ByteBuffer db, int offset, int length) {
+        ByteBuffer entry = db.duplicate();
+        entry.position(offset);
+        entry.limit(offset + length);
+        return entry.slice();
+    }
+
     public static final class ContextStateImpl implements RContext.ContextState {
-        private final Map<String, byte[]> dbCache = new HashMap<>();
+        /**
+         * Databases already accessed by this context. An entry is validated against the file only
+         * on the first access from the context, until it is flushed.
+         */
+        private final Map<String, ByteBuffer> dbCache = new HashMap<>();
 
-        public byte[] getData(String dbPath) {
-            byte[] dbData = dbCache.get(dbPath);
+        public ByteBuffer getData(String dbPath) {
+            ByteBuffer dbData = dbCache.get(dbPath);
             if (dbData == null) {
                 try {
-                    dbData = Files.readAllBytes(FileSystems.getDefault().getPath(dbPath));
+                    dbData = getMapped(dbPath);
                 } catch (IOException ex) {
                     // unexpected
                     throw RInternalError.shouldNotReachHere(ex);
@@ -52,6 +125,7 @@ public class LazyDBCache {
         public void remove(String dbPath) {
             // no an error if missing
             dbCache.remove(dbPath);
+            invalidate(dbPath);
         }
 
         public static ContextStateImpl newContextState() {
@@ -23,8 +23,11 @@
 package com.oracle.truffle.r.runtime;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.RootCallTarget;
@@ -47,6 +50,7 @@ import com.oracle.truffle.r.runtime.data.RPromise;
 import com.oracle.truffle.r.runtime.data.RPromise.PromiseState;
 import com.oracle.truffle.r.runtime.data.RShareable;
 import com.oracle.truffle.r.runtime.data.RUnboundValue;
+import com.oracle.truffle.r.runtime.data.model.RAbstractAtomicVector;
 import com.oracle.truffle.r.runtime.env.REnvironment;
 import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor;
 import com.oracle.truffle.r.runtime.env.frame.REnvTruffleFrameAccess;
@@ -58,123 +62,205 @@ import com.oracle.truffle.r.runtime.nodes.RSyntaxElement;
  */
 public class RChannel {
 
-    // TODO: cheaper way of serializing data (re-usable buffer?)
+    public static final int DEFAULT_QUEUE_CAPACITY = 1;
 
-    private static final int INITIAL_CHANNEL_NUM = 4;
-    private static final int CHANNEL_NUM_GROW_FACTOR = 2;
-    private static final int QUEUE_CAPACITY = 1;
-
-    private static int[] keys = new int[INITIAL_CHANNEL_NUM];
-    private static RChannel[] channels = new RChannel[INITIAL_CHANNEL_NUM];
+    /*
+     * Channel ids are positive and never reused, the master side of a channel uses the id and the
+     * client side its negative value. Lookups do not take any lock. As ids are not reused, a
+     * channel is closed if its id was handed out and has no channel anymore.
+     */
+    private static final AtomicInteger nextId = new AtomicInteger(1);
+    private static final ConcurrentHashMap<Integer, Integer> keyToId = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Integer, RChannel> idToChannel = new ConcurrentHashMap<>();
+    private static final AtomicInteger selectStart = new AtomicInteger();
 
-    private static final int CLOSED_CHANNEL_KEY = -1;
+    private final int key;
+    private final ArrayBlockingQueue<Object> masterToClient;
+    private final ArrayBlockingQueue<Object> clientToMaster;
 
-    /*
-     * Used to mediate access to the semaphore instances
+    /**
+     * Selectors currently waiting (in {@link #select(int[])}) for a message in this channel.
      */
-    private static final Semaphore create = new Semaphore(1, true);
+    private final Set<Selector> selectors = ConcurrentHashMap.newKeySet();
 
-    private final ArrayBlockingQueue<Object> masterToClient = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
-    private final ArrayBlockingQueue<Object> clientToMaster = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private RChannel(int key, int capacity) {
+        this.key = key;
+        this.masterToClient = new ArrayBlockingQueue<>(capacity);
+        this.clientToMaster = new ArrayBlockingQueue<>(capacity);
+    }
 
     public static int createChannel(int key) {
+        return createChannel(key, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates a channel whose queues (one per direction) can hold up to {@code capacity} messages
+     * before the sender blocks.
+     */
+    public static int createChannel(int key, int capacity) {
         if (key <= 0) {
             throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel's key must be positive");
         }
-        try {
-            create.acquire();
-            while (true) {
-                int freeSlot = -1;
-                // start from one as we need slots that have distinguishable positive and negative
-                // value
-                for (int i = 1; i < keys.length; i++) {
-                    if (keys[i] == key) {
-                        throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified key already exists");
-                    }
-                    if (keys[i] == 0 && freeSlot == -1) {
-                        freeSlot = i;
-                    }
-                }
-                if (freeSlot != -1) {
-                    keys[freeSlot] = key;
-                    channels[freeSlot] = new RChannel();
-                    return freeSlot;
-                } else {
-                    int[] keysTmp = new int[keys.length * CHANNEL_NUM_GROW_FACTOR];
-                    RChannel[] channelsTmp = new RChannel[channels.length * CHANNEL_NUM_GROW_FACTOR];
-                    for (int i = 1; i < keys.length; i++) {
-                        keysTmp[i] = keys[i];
-                        channelsTmp[i] = channels[i];
-                    }
-                    keys = keysTmp;
-                    channels = channelsTmp;
-                }
-            }
-        } catch (InterruptedException x) {
-            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error creating a channel");
-        } finally {
-            create.release();
+        if (capacity <= 0) {
+            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel's capacity must be positive");
+        }
+        int id = nextId.getAndIncrement();
+        // the channel must be reachable by id before its key is published
+        idToChannel.put(id, new RChannel(key, capacity));
+        if (keyToId.putIfAbsent(key, id) != null) {
+            idToChannel.remove(id);
+            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified key already exists");
         }
+        return id;
     }
 
     public static int getChannel(int key) {
-        try {
-            create.acquire();
-            for (int i = 1; i < keys.length; i++) {
-                if (keys[i] == key) {
-                    return -i;
-                }
-            }
-        } catch (InterruptedException x) {
-            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error accessing channel");
-        } finally {
-            create.release();
+        Integer id = keyToId.get(key);
+        if (id == null) {
+            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel does not exist");
         }
-        throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel does not exist");
+        return -id;
     }
 
     public static void closeChannel(int id) {
         int actualId = Math.abs(id);
-        try {
-            create.acquire();
-            if (actualId == 0 || actualId >= channels.length || channels[actualId] == null) {
-                // closing an already closed channel does not necessarily have to be an error (and
-                // makes parallell package's worker script work unchanged)
-                if (keys[actualId] != CLOSED_CHANNEL_KEY) {
-                    throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified id does not exist");
-                }
+        RChannel channel = idToChannel.remove(actualId);
+        if (channel == null) {
+            // closing an already closed channel does not necessarily have to be an error (and
+            // makes parallell package's worker script work unchanged)
+            if (actualId <= 0 || actualId >= nextId.get()) {
+                throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified id does not exist");
             }
-            keys[actualId] = CLOSED_CHANNEL_KEY;
-            channels[actualId] = null;
-        } catch (InterruptedException x) {
-            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error closing channel");
-        } finally {
-            create.release();
+            return;
         }
+        keyToId.remove(channel.key, actualId);
     }
 
     private static RChannel getChannelFromId(int id) {
-        int actualId = Math.abs(id);
+        RChannel channel = idToChannel.get(Math.abs(id));
+        if (channel == null) {
+            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified id does not exist");
+        }
+        return channel;
+    }
+
+    /**
+     * A thread waiting for a message in any of a set of channels.
+     */
+    private static final class Selector {
+        private boolean signaled;
+
+        synchronized void signal() {
+            signaled = true;
+            notifyAll();
+        }
+
+        synchronized void await() throws InterruptedException {
+            while (!signaled) {
+                wait();
+            }
+            signaled = false;
+        }
+    }
+
+    private void signalSelectors() {
+        if (!selectors.isEmpty()) {
+            for (Selector selector : selectors) {
+                selector.signal();
+            }
+        }
+    }
+
+    private static ArrayBlockingQueue<Object> getSendQueue(RChannel channel, int id) {
+        return id > 0 ? channel.masterToClient : channel.clientToMaster;
+    }
+
+    private static ArrayBlockingQueue<Object> getReceiveQueue(RChannel channel, int id) {
+        return id < 0 ? channel.masterToClient : channel.clientToMaster;
+    }
+
+    /**
+     * Waits until a message is available in any of the channels given by {@code ids} and returns
+     * the id of that channel and the received message. The waiting thread is woken up by senders,
+     * i.e., the channels are not polled repeatedly.
+     */
+    public static Object[] select(int[] ids) {
+        if (ids.length == 0) {
+            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "no channels to select from");
+        }
+        RChannel[] channels = new RChannel[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            channels[i] = getChannelFromId(ids[i]);
+        }
+        Object[] result = pollAny(ids, channels);
+        if (result != null) {
+            return result;
+        }
+        Selector selector = new Selector();
+        for (RChannel channel : channels) {
+            channel.selectors.add(selector);
+        }
         try {
-            create.acquire();
-            if (actualId == 0 || actualId >= channels.length || channels[actualId] == null) {
-                throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified id does not exist");
+            while (true) {
+                // poll after registration so that no message sent in the meantime is missed
+                result = pollAny(ids, channels);
+                if (result != null) {
+                    return result;
+                }
+                selector.await();
             }
-            RChannel channel = channels[actualId];
-            return channel;
         } catch (InterruptedException x) {
-            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error transmitting through channel");
+            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error receiving from the channel");
         } finally {
-            create.release();
+            for (RChannel channel : channels) {
+                channel.selectors.remove(selector);
+            }
         }
     }
 
+    /**
+     * Polls the channels starting at a rotating position, so that a busy channel does not starve
+     * the channels after it.
+     */
+    private static Object[] pollAny(int[] ids, RChannel[] channels) {
+        int first = Math.floorMod(selectStart.getAndIncrement(), ids.length);
+        for (int k = 0; k < ids.length; k++) {
+            int i = (first + k) % ids.length;
+            Object msg = getReceiveQueue(channels[i], ids[i]).poll();
+            if (msg != null) {
+                return new Object[]{ids[i], processReceivedMessage(msg)};
+            }
+        }
+        return null;
+    }
+
     public static void send(int id, Object data) {
-        Output out = new Output();
-        Object msg = out.processOutgoingMessage(data);
+        Object msg = processOutgoingMessage(data);
         RChannel channel = getChannelFromId(id);
         try {
-            (id > 0 ? channel.masterToClient : channel.clientToMaster).put(msg);
+            getSendQueue(channel, id).put(msg);
+            channel.signalSelectors();
+        } catch (InterruptedException x) {
+            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error sending through the channel");
+        }
+    }
+
+    /**
+     * Sends all elements of {@code data} as individual messages, in order. The channel is looked up
+     * only once for the whole batch.
+     */
+    public static void sendBatch(int id, RList data) {
+        Object[] msgs = new Object[data.getLength()];
+        for (int i = 0; i < msgs.length; i++) {
+            msgs[i] = processOutgoingMessage(data.getDataAt(i));
+        }
+        RChannel channel = getChannelFromId(id);
+        ArrayBlockingQueue<Object> queue = getSendQueue(channel, id);
+        try {
+            for (Object msg : msgs) {
+                queue.put(msg);
+                channel.signalSelectors();
+            }
         } catch (InterruptedException x) {
             throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error sending through the channel");
         }
@@ -183,24 +269,89 @@ public class RChannel {
     public static Object receive(int id) {
         RChannel channel = getChannelFromId(id);
         try {
-            Object msg = (id < 0 ? channel.masterToClient : channel.clientToMaster).take();
-            Input in = new Input();
-            return in.processedReceivedMessage(msg);
+            Object msg = getReceiveQueue(channel, id).take();
+            return processReceivedMessage(msg);
         } catch (InterruptedException x) {
             throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error receiving from the channel");
         }
     }
 
+    /**
+     * Waits for at least one message and returns a list of all the messages (but at most
+     * {@code max}) that are available in the channel at that point.
+     */
+    public static RList receiveBatch(int id, int max) {
+        RChannel channel = getChannelFromId(id);
+        ArrayBlockingQueue<Object> queue = getReceiveQueue(channel, id);
+        ArrayList<Object> msgs = new ArrayList<>();
+        try {
+            msgs.add(queue.take());
+        } catch (InterruptedException x) {
+            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error receiving from the channel");
+        }
+        queue.drainTo(msgs, max - 1);
+        Object[] data = new Object[msgs.size()];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = processReceivedMessage(msgs.get(i));
+        }
+        return RDataFactory.createList(data);
+    }
+
     public static Object poll(int id) {
         RChannel channel = getChannelFromId(id);
-        Object msg = (id < 0 ? channel.masterToClient : channel.clientToMaster).poll();
+        Object msg = getReceiveQueue(channel, id).poll();
         if (msg != null) {
-            Input in = new Input();
-            return in.processedReceivedMessage(msg);
+            return processReceivedMessage(msg);
         }
         return null;
     }
 
+    private static Object processOutgoingMessage(Object data) {
+        if (isImmutableValue(data)) {
+            // fast path: the value can be transferred as it is
+            return Output.makeSharedWithAttributes(data);
+        }
+        return new Output().processOutgoingMessage(data);
+    }
+
+    private static Object processReceivedMessage(Object msg) {
+        if (isImmutableValue(msg)) {
+            return msg;
+        }
+        return new Input().processedReceivedMessage(msg);
+    }
+
+    /**
+     * Determines if a value can be transferred between contexts without any conversion, which is
+     * the case for scalars and for atomic vectors whose attributes (if any) are atomic vectors
+     * without attributes. Such values only need to be made permanently shared, so that the
+     * reference count is not updated by different threads.
+     */
+    private static boolean isImmutableValue(Object o) {
+        if (o instanceof Integer || o instanceof Double || o instanceof Byte || o instanceof String || o == RNull.instance) {
+            return true;
+        }
+        if (!(o instanceof RAbstractAtomicVector) || !(o instanceof RShareable)) {
+            return false;
+        }
+        DynamicObject attributes = ((RAbstractAtomicVector) o).getAttributes();
+        if (attributes == null) {
+            return true;
+        }
+        return isImmutableAttributes(attributes);
+    }
+
+    @TruffleBoundary
+    private static boolean isImmutableAttributes(DynamicObject attributes) {
+        for (RAttributesLayout.RAttribute a : RAttributesLayout.asIterable(attributes)) {
+            Object val = a.getValue();
+            if (!(val instanceof RAbstractAtomicVector) || !(val instanceof RShareable) || ((RAbstractAtomicVector) val).getAttributes() != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static class TransmitterCommon extends RSerialize.RefCounter {
 
         protected static class SerializedRef {
@@ -377,6 +528,15 @@ public class RChannel {
             return o;
         }
 
+        private static Object makeSharedWithAttributes(Object o) {
+            if (o instanceof RAttributable && ((RAttributable) o).getAttributes() != null) {
+                for (RAttributesLayout.RAttribute a : RAttributesLayout.asIterable(((RAttributable) o).getAttributes())) {
+                    makeShared(a.getValue());
+                }
+            }
+            return makeShared(o);
+        }
+
         @TruffleBoundary
         private Object convertListAttributesToPrivate(RList l, Object shareableList) throws IOException {
             DynamicObject attr = l.getAttributes();
@@ -23,6 +23,7 @@
 package com.oracle.truffle.r.runtime;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -35,14 +36,17 @@ import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.zip.GZIPInputStream;
 
+import org.tukaani.xz.FinishableOutputStream;
+import org.tukaani.xz.FinishableWrapperOutputStream;
 import org.tukaani.xz.LZMA2InputStream;
+import org.tukaani.xz.LZMA2Options;
 
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.ffi.ZipRFFI;
 
 /**
- * Abstracts the implementation of the various forms of compression used in R. Since the C API for
- * LZMA is very complex (as used by GnuR), we use an 'xz' subprocess to do the work.
+ * Abstracts the implementation of the various forms of compression used in R. LZMA is handled by
+ * the bundled XZ library, for BZIP2 we use a 'bzip2' subprocess to do the work.
  */
 public class RCompression {
     public enum Type {
@@ -159,31 +163,26 @@ public class RCompression {
     }
 
     /**
-     * There is no obvious counterpart to {@link LZMA2InputStream} and according to the XZ forum it
-     * is not implemented for Java, so have to use sub-process.
+     * Compresses into a raw LZMA2 stream in-process, the counterpart of {@link LZMA2InputStream}.
+     * Fails if the compressed data do not fit into {@code cdata}. The dictionary is sized like in
+     * {@link #lzmaUncompress}, which is all the data.
      */
     private static boolean lzmaCompress(byte[] udata, byte[] cdata) {
-        int rc;
-        ProcessBuilder pb = new ProcessBuilder("xz", "--compress", "--format=raw", "--lzma2", "--stdout");
-        pb.redirectError(Redirect.INHERIT);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(cdata.length);
         try {
-            Process p = pb.start();
-            OutputStream os = p.getOutputStream();
-            InputStream is = p.getInputStream();
-            ProcessOutputManager.OutputThread readThread = new ProcessOutputManager.OutputThreadFixed("xz", is, cdata);
-            readThread.start();
-            os.write(udata);
-            os.close();
-            rc = p.waitFor();
-            if (rc == 0) {
-                readThread.join();
-                return true;
-            }
-        } catch (InterruptedException | IOException ex) {
+            LZMA2Options options = new LZMA2Options();
+            options.setDictSize(Math.min(Math.max(LZMA2Options.DICT_SIZE_MIN, udata.length), LZMA2Options.DICT_SIZE_MAX));
+            FinishableOutputStream lzmaStream = options.getOutputStream(new FinishableWrapperOutputStream(bos));
+            lzmaStream.write(udata);
+            lzmaStream.finish();
+        } catch (IOException ex) {
             return false;
         }
-        return rc == 0;
-
+        if (bos.size() > cdata.length) {
+            return false;
+        }
+        System.arraycopy(bos.toByteArray(), 0, cdata, 0, bos.size());
+        return true;
     }
 
     private static boolean lzmaUncompress(byte[] udata, byte[] data) {
@@ -931,6 +931,7 @@ public final class RError extends RuntimeException implements TruffleException {
         NOT_A_RAW_CONNECTION("'con' is not a rawConnection"),
         SEEK_OUTSITE_RAW_CONNECTION("attempt to seek outside the range of the raw connection"),
         VECTOR_IS_TOO_LARGE("vector is too large"),
+        TOO_LARGE_FOR_HASHING("length %d is too large for hashing"),
         SEEK_NOT_RELEVANT_FOR_TEXT_CON("seek is not relevant for text connection"),
         NOT_ENABLED_FOR_THIS_CONN("'%s' not enabled for this connection"),
         CANNOT_OPEN_FIFO("cannot open fifo '%s'"),
@@ -20,12 +20,13 @@
 package com.oracle.truffle.r.runtime;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.PrintStream;
 import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
@@ -64,15 +65,18 @@ import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
 import com.oracle.truffle.r.runtime.data.RAttributable;
 import com.oracle.truffle.r.runtime.data.RAttributesLayout;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.REmpty;
 import com.oracle.truffle.r.runtime.data.RExternalPtr;
 import com.oracle.truffle.r.runtime.data.RFunction;
+import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RPairList;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RMissing;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RPromise;
 import com.oracle.truffle.r.runtime.data.RPromise.PromiseState;
+import com.oracle.truffle.r.runtime.data.RRawVector;
 import com.oracle.truffle.r.runtime.data.RScalar;
 import com.oracle.truffle.r.runtime.data.RShareable;
 import com.oracle.truffle.r.runtime.data.RStringVector;
@@ -234,11 +238,36 @@ public class RSerialize {
             return dotDotFindNamespace;
         }
 
+        /**
+         * The output buffer kept for the next serialization, {@code null} while it is in use.
+         */
+        private ByteBuffer outputBuffer;
+
+        /**
+         * Returns the pooled output buffer, or a new one if it is already in use by an enclosing
+         * serialization (e.g., from a refhook).
+         */
+        ByteBuffer acquireOutputBuffer() {
+            ByteBuffer result = outputBuffer;
+            outputBuffer = null;
+            if (result == null) {
+                result = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+            }
+            result.clear();
+            return result;
+        }
+
+        void releaseOutputBuffer(ByteBuffer buffer) {
+            outputBuffer = buffer;
+        }
+
         public static ContextStateImpl newContextState() {
             return new ContextStateImpl();
         }
     }
 
+    private static final int OUTPUT_BUFFER_SIZE = 256 * 1024;
+
     private static final int MAX_PACKED_INDEX = Integer.MAX_VALUE >> 8;
 
     private static int packRefIndex(int i) {
@@ -720,13 +749,13 @@ public class RSerialize {
                 case INTSXP: {
                     int len = stream.readInt();
                     int[] data = new int[len];
+                    stream.readInts(data);
                     boolean complete = RDataFactory.COMPLETE_VECTOR;
                     for (int i = 0; i < len; i++) {
-                        int intVal = stream.readInt();
-                        if (intVal == RRuntime.INT_NA) {
+                        if (data[i] == RRuntime.INT_NA) {
                             complete = false;
+                            break;
                         }
-                        data[i] = intVal;
                     }
                     result = RDataFactory.createIntVector(data, complete);
                     break;
@@ -734,10 +763,12 @@ public class RSerialize {
 
                 case LGLSXP: {
                     int len = stream.readInt();
+                    int[] values = new int[len];
+                    stream.readInts(values);
                     byte[] data = new byte[len];
                     boolean complete = RDataFactory.COMPLETE_VECTOR;
                     for (int i = 0; i < len; i++) {
-                        int intVal = stream.readInt();
+                        int intVal = values[i];
                         if (intVal == RRuntime.INT_NA) {
                             complete = false;
                             data[i] = RRuntime.LOGICAL_NA;
@@ -752,13 +783,13 @@ public class RSerialize {
                 case REALSXP: {
                     int len = stream.readInt();
                     double[] data = new double[len];
+                    stream.readDoubles(data);
                     boolean complete = RDataFactory.COMPLETE_VECTOR;
                     for (int i = 0; i < len; i++) {
-                        double doubleVal = stream.readDouble();
-                        if (RRuntime.isNA(doubleVal)) {
+                        if (RRuntime.isNA(data[i])) {
                             complete = false;
+                            break;
                         }
-                        data[i] = doubleVal;
                     }
                     result = RDataFactory.createDoubleVector(data, complete);
                     break;
@@ -767,23 +798,18 @@ public class RSerialize {
                 case CPLXSXP: {
                     int len = stream.readInt();
                     double[] data = new double[2 * len];
+                    stream.readDoubles(data);
                     boolean complete = RDataFactory.COMPLETE_VECTOR;
                     for (int i = 0; i < len; i++) {
                         int ix = 2 * i;
-                        double reVal = stream.readDouble();
-                        if (RRuntime.isNA(reVal)) {
-                            complete = false;
-                        }
-                        double imVal = stream.readDouble();
-                        if (RRuntime.isNA(imVal)) {
+                        boolean reNA = RRuntime.isNA(data[ix]);
+                        boolean imNA = RRuntime.isNA(data[ix + 1]);
+                        if (reNA || imNA) {
                             complete = false;
                         }
-                        if (RRuntime.isNA(reVal) && RRuntime.isNA(imVal)) {
+                        if (reNA && imNA) {
                             data[ix] = RRuntime.COMPLEX_NA_REAL_PART;
                             data[ix + 1] = RRuntime.COMPLEX_NA_IMAGINARY_PART;
-                        } else {
-                            data[ix] = reVal;
-                            data[ix + 1] = imVal;
                         }
                     }
                     result = RDataFactory.createComplexVector(data, complete);
@@ -804,7 +830,7 @@ public class RSerialize {
                     if (len == -1) {
                         return RRuntime.STRING_NA;
                     } else {
-                        result = stream.readString(len);
+                        result = StringCache.cache(stream.readString(len));
                     }
                     break;
                 }
@@ -1058,6 +1084,16 @@ public class RSerialize {
 
         abstract void readRaw(byte[] data) throws IOException;
 
+        /**
+         * Reads {@code data.length} integers, decoding them block-wise instead of one by one.
+         */
+        abstract void readInts(int[] data) throws IOException;
+
+        /**
+         * Reads {@code data.length} doubles, decoding them block-wise instead of one by one.
+         */
+        abstract void readDoubles(double[] data) throws IOException;
+
     }
 
     @SuppressWarnings("unused")
@@ -1129,11 +1165,6 @@ public class RSerialize {
                 return result;
             }
 
-            void readRaw(byte[] data) {
-                System.arraycopy(buf, offset, data, 0, data.length);
-                offset += data.length;
-            }
-
             void readData(int n) throws IOException {
                 if (offset + n > size) {
                     if (offset != size) {
@@ -1195,7 +1226,44 @@ public class RSerialize {
 
         @Override
         void readRaw(byte[] data) throws IOException {
-            ensureData(data.length).readRaw(data);
+            int index = 0;
+            while (index < data.length) {
+                Buffer buffer = ensureData(1);
+                int count = Math.min(data.length - index, buffer.size - buffer.offset);
+                System.arraycopy(buffer.buf, buffer.offset, data, index, count);
+                buffer.offset += count;
+                index += count;
+            }
+        }
+
+        /*
+         * The bulk reads below consume whatever is available in the default buffer and refill it
+         * until the target array is full, so that large vectors are neither decoded element by
+         * element nor copied into a temporary buffer of their own size.
+         */
+
+        @Override
+        void readInts(int[] data) throws IOException {
+            int index = 0;
+            while (index < data.length) {
+                Buffer buffer = ensureData(Integer.BYTES);
+                int count = Math.min(data.length - index, (buffer.size - buffer.offset) / Integer.BYTES);
+                ByteBuffer.wrap(buffer.buf, buffer.offset, count * Integer.BYTES).asIntBuffer().get(data, index, count);
+                buffer.offset += count * Integer.BYTES;
+                index += count;
+            }
+        }
+
+        @Override
+        void readDoubles(double[] data) throws IOException {
+            int index = 0;
+            while (index < data.length) {
+                Buffer buffer = ensureData(Double.BYTES);
+                int count = Math.min(data.length - index, (buffer.size - buffer.offset) / Double.BYTES);
+                ByteBuffer.wrap(buffer.buf, buffer.offset, count * Double.BYTES).asDoubleBuffer().get(data, index, count);
+                buffer.offset += count * Double.BYTES;
+                index += count;
+            }
         }
 
         private Buffer ensureData(int n) throws IOException {
@@ -1270,10 +1338,10 @@ public class RSerialize {
 
     private abstract static class POutputStream {
 
-        protected OutputStream os;
+        protected final WritableByteChannel channel;
 
-        POutputStream(OutputStream os) {
-            this.os = os;
+        POutputStream(WritableByteChannel channel) {
+            this.channel = channel;
         }
 
         abstract void writeInt(int value) throws IOException;
@@ -1284,28 +1352,36 @@ public class RSerialize {
 
         abstract void writeRaw(byte value) throws IOException;
 
+        abstract void writeInts(int[] values, int from, int length) throws IOException;
+
+        abstract void writeDoubles(double[] values, int from, int length) throws IOException;
+
+        abstract void writeRaws(byte[] values, int from, int length) throws IOException;
+
         abstract void flush() throws IOException;
 
     }
 
+    /**
+     * Writes the XDR format through a big-endian buffer. Arrays of ints and doubles are copied into
+     * the buffer in blocks (which byte-swaps them where needed) and the full buffer is written
+     * directly to the channel.
+     */
     private static class XdrOutputFormat extends POutputStream {
-        private final byte[] buf;
-        private int offset;
+        private final ByteBuffer buf;
 
-        XdrOutputFormat(OutputStream os) {
-            super(os);
-            buf = new byte[8192];
-            buf[offset++] = 'X';
-            buf[offset++] = '\n';
+        XdrOutputFormat(WritableByteChannel channel, ByteBuffer buf) {
+            super(channel);
+            assert buf.order() == ByteOrder.BIG_ENDIAN && buf.hasArray();
+            this.buf = buf;
+            buf.put((byte) 'X');
+            buf.put((byte) '\n');
         }
 
         @Override
         void writeInt(int value) throws IOException {
             ensureSpace(4);
-            buf[offset++] = (byte) (value >>> 24);
-            buf[offset++] = (byte) (value >> 16);
-            buf[offset++] = (byte) (value >> 8);
-            buf[offset++] = (byte) value;
+            buf.putInt(value);
         }
 
         @Override
@@ -1317,68 +1393,145 @@ public class RSerialize {
                     break;
                 }
             }
-            if (simple && value.length() <= buf.length) {
+            if (simple && value.length() <= buf.capacity()) {
                 writeInt(value.length());
                 ensureSpace(value.length());
                 for (int i = 0; i < value.length(); i++) {
-                    buf[offset++] = (byte) value.charAt(i);
+                    buf.put((byte) value.charAt(i));
                 }
             } else {
                 byte[] bytes = value.getBytes();
-                int bytesLen = bytes.length;
-                int totalLen = bytesLen + 4;
-                if (totalLen > buf.length) {
-                    // too large to fit buffer
-                    ensureSpace(4);
-                    writeInt(bytesLen);
-                    flushBuffer();
-                    os.write(bytes);
-                } else {
-                    ensureSpace(totalLen);
-                    writeInt(bytesLen);
-                    System.arraycopy(bytes, 0, buf, offset, bytesLen);
-                    offset += bytesLen;
-                }
+                writeInt(bytes.length);
+                writeRaws(bytes, 0, bytes.length);
             }
         }
 
         @Override
         void writeRaw(byte value) throws IOException {
             ensureSpace(1);
-            buf[offset++] = value;
+            buf.put(value);
         }
 
         @Override
         void writeDouble(double value) throws IOException {
             ensureSpace(8);
-            long valueBits = Double.doubleToRawLongBits(value);
-            buf[offset++] = (byte) (valueBits >>> 56);
-            buf[offset++] = (byte) ((valueBits >> 48) & 0xff);
-            buf[offset++] = (byte) ((valueBits >> 40) & 0xff);
-            buf[offset++] = (byte) ((valueBits >> 32) & 0xff);
-            buf[offset++] = (byte) ((valueBits >> 24) & 0xff);
-            buf[offset++] = (byte) ((valueBits >> 16) & 0xff);
-            buf[offset++] = (byte) ((valueBits >> 8) & 0xff);
-            buf[offset++] = (byte) (valueBits & 0xff);
+            buf.putDouble(value);
+        }
+
+        @Override
+        void writeInts(int[] values, int from, int length) throws IOException {
+            int index = from;
+            int end = from + length;
+            while (index < end) {
+                ensureSpace(4);
+                int count = Math.min(end - index, buf.remaining() / 4);
+                buf.asIntBuffer().put(values, index, count);
+                buf.position(buf.position() + count * 4);
+                index += count;
+            }
+        }
+
+        @Override
+        void writeDoubles(double[] values, int from, int length) throws IOException {
+            int index = from;
+            int end = from + length;
+            while (index < end) {
+                ensureSpace(8);
+                int count = Math.min(end - index, buf.remaining() / 8);
+                buf.asDoubleBuffer().put(values, index, count);
+                buf.position(buf.position() + count * 8);
+                index += count;
+            }
+        }
+
+        @Override
+        void writeRaws(byte[] values, int from, int length) throws IOException {
+            ensureSpace(length);
+            if (length <= buf.remaining()) {
+                buf.put(values, from, length);
+            } else {
+                // too large to fit buffer
+                write(ByteBuffer.wrap(values, from, length));
+            }
         }
 
         private void ensureSpace(int n) throws IOException {
-            if (offset + n > buf.length) {
+            if (buf.remaining() < n) {
                 flushBuffer();
             }
         }
 
+        private void write(ByteBuffer src) throws IOException {
+            while (src.hasRemaining()) {
+                channel.write(src);
+            }
+        }
+
         void flushBuffer() throws IOException {
-            if (offset > 0) {
-                os.write(buf, 0, offset);
-                offset = 0;
+            if (buf.position() > 0) {
+                buf.flip();
+                write(buf);
+                buf.clear();
             }
         }
 
         @Override
         void flush() throws IOException {
             flushBuffer();
-            os.flush();
+        }
+    }
+
+    /**
+     * Collects the serialized data in chunks, so that the result array is the only copy of the
+     * complete data that has to be allocated.
+     */
+    private static final class ByteArrayChannel implements WritableByteChannel {
+        private static final int MAX_CHUNK_SIZE = 16 * 1024 * 1024;
+
+        private final ArrayList<byte[]> chunks = new ArrayList<>();
+        private byte[] chunk = new byte[OUTPUT_BUFFER_SIZE];
+        private int chunkOffset;
+        private long size;
+
+        @Override
+        public int write(ByteBuffer src) {
+            int length = src.remaining();
+            while (src.hasRemaining()) {
+                if (chunkOffset == chunk.length) {
+                    chunks.add(chunk);
+                    chunk = new byte[Math.min(MAX_CHUNK_SIZE, chunk.length * 2)];
+                    chunkOffset = 0;
+                }
+                int count = Math.min(src.remaining(), chunk.length - chunkOffset);
+                src.get(chunk, chunkOffset, count);
+                chunkOffset += count;
+            }
+            size += length;
+            return length;
+        }
+
+        byte[] toByteArray() {
+            if (size > Integer.MAX_VALUE) {
+                throw RError.error(RError.NO_CALLER, RError.Message.GENERIC, "serialization is too large to store in a raw vector");
+            }
+            byte[] result = new byte[(int) size];
+            int offset = 0;
+            for (byte[] c : chunks) {
+                System.arraycopy(c, 0, result, offset, c.length);
+                offset += c.length;
+            }
+            System.arraycopy(chunk, 0, result, offset, chunkOffset);
+            return result;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            // nothing to do
         }
     }
 
@@ -1393,7 +1546,7 @@ public class RSerialize {
         private final POutputStream stream;
         private final int version;
 
-        private Output(OutputStream os, int format, int version, CallHook hook) throws IOException {
+        private Output(WritableByteChannel channel, ByteBuffer buffer, int format, int version, CallHook hook) throws IOException {
             super(hook);
             this.state = new PLState(hook != null ? hook.getSessionRef() : null);
             this.version = version;
@@ -1403,7 +1556,7 @@ public class RSerialize {
                 case BINARY:
                     throw formatError((byte) format, true);
                 default:
-                    stream = new XdrOutputFormat(os);
+                    stream = new XdrOutputFormat(channel, buffer);
                     break;
             }
         }
@@ -1554,6 +1707,12 @@ public class RSerialize {
 
                             case INTSXP:
                             case LGLSXP: {
+                                if (obj instanceof RIntVector && ((RIntVector) obj).getInternalManagedData() != null) {
+                                    RIntVector vector = (RIntVector) obj;
+                                    stream.writeInt(vector.getLength());
+                                    stream.writeInts(vector.getInternalManagedData(), 0, vector.getLength());
+                                    break;
+                                }
                                 // logicals are written as ints
                                 RAbstractVector vector = (RAbstractVector) obj;
                                 VectorAccess access = vector.slowPathAccess();
@@ -1567,6 +1726,12 @@ public class RSerialize {
                             }
 
                             case REALSXP: {
+                                if (obj instanceof RDoubleVector && ((RDoubleVector) obj).getInternalManagedData() != null) {
+                                    RDoubleVector vector = (RDoubleVector) obj;
+                                    stream.writeInt(vector.getLength());
+                                    stream.writeDoubles(vector.getInternalManagedData(), 0, vector.getLength());
+                                    break;
+                                }
                                 RAbstractDoubleVector vector = (RAbstractDoubleVector) obj;
                                 VectorAccess access = vector.slowPathAccess();
                                 try (SequentialIterator iter = access.access(vector)) {
@@ -1610,6 +1775,12 @@ public class RSerialize {
                             }
 
                             case RAWSXP: {
+                                if (obj instanceof RRawVector && ((RRawVector) obj).getInternalManagedData() != null) {
+                                    RRawVector vector = (RRawVector) obj;
+                                    stream.writeInt(vector.getLength());
+                                    stream.writeRaws(vector.getInternalManagedData(), 0, vector.getLength());
+                                    break;
+                                }
                                 RAbstractRawVector vector = (RAbstractRawVector) obj;
                                 VectorAccess access = vector.slowPathAccess();
                                 try (SequentialIterator iter = access.access(vector)) {
@@ -2214,20 +2385,33 @@ public class RSerialize {
      */
     @TruffleBoundary
     public static byte[] serialize(Object obj, int type, int version, Object refhook) {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayChannel out = new ByteArrayChannel();
         try {
-            Output output = new Output(out, type, version, (CallHook) refhook);
-            output.serialize(obj);
+            serialize(out, obj, type, version, refhook);
             return out.toByteArray();
         } catch (IOException ex) {
             throw RInternalError.shouldNotReachHere();
         }
     }
 
+    /**
+     * Writes the serialized data directly to the connection's channel, without collecting it in
+     * memory first.
+     */
     @TruffleBoundary
     public static void serialize(RConnection conn, Object obj, int type, int version, Object refhook) throws IOException {
-        Output output = new Output(conn.getOutputStream(), type, version, (CallHook) refhook);
-        output.serialize(obj);
+        serialize(conn.getChannel(), obj, type, version, refhook);
+    }
+
+    private static void serialize(WritableByteChannel channel, Object obj, int type, int version, Object refhook) throws IOException {
+        ContextStateImpl contextState = getContextState();
+        ByteBuffer buffer = contextState.acquireOutputBuffer();
+        try {
+            Output output = new Output(channel, buffer, type, version, (CallHook) refhook);
+            output.serialize(obj);
+        } finally {
+            contextState.releaseOutputBuffer(buffer);
+        }
     }
 
     private static class Debug {
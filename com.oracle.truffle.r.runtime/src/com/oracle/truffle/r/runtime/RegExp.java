@@ -22,7 +22,13 @@
  */
 package com.oracle.truffle.r.runtime;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.ffi.PCRERFFI;
 
 /**
  * Support methods for regular expressions.
@@ -135,4 +141,157 @@ public class RegExp {
         }
         return result;
     }
+
+    /**
+     * The kinds of values kept in the {@link ContextStateImpl regular expression cache}.
+     */
+    public enum Engine {
+        /**
+         * R pattern translated to Java syntax by {@link RegExp#checkPreDefinedClasses(String)}.
+         */
+        TRANSLATED,
+        /**
+         * Compiled Java {@link Pattern}.
+         */
+        JAVA,
+        /**
+         * Compiled PCRE pattern ({@link PCRERFFI.Result}), invalidated when {@code LC_CTYPE}
+         * changes.
+         */
+        PCRE
+    }
+
+    private static final class CacheKey {
+        private final String pattern;
+        private final int flags;
+        private final Engine engine;
+
+        CacheKey(String pattern, int flags, Engine engine) {
+            this.pattern = pattern;
+            this.flags = flags;
+            this.engine = engine;
+        }
+
+        @Override
+        public int hashCode() {
+            return (pattern.hashCode() * 31 + flags) * 31 + engine.ordinal();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return flags == other.flags && engine == other.engine && pattern.equals(other.pattern);
+        }
+    }
+
+    /**
+     * Per-context LRU cache of translated and compiled regular expressions, shared by {@code grep},
+     * {@code sub}, {@code regexpr} and friends. The size is given by
+     * {@link FastROptions#RegExpCacheSize}, zero disables the cache. Note that compiled PCRE
+     * patterns are not freed on eviction, which is consistent with the uncached case.
+     */
+    public static final class ContextStateImpl implements RContext.ContextState {
+        private final int capacity;
+        private final LinkedHashMap<CacheKey, Object> cache;
+        private long hits;
+        private long misses;
+
+        private ContextStateImpl(int capacity) {
+            this.capacity = capacity;
+            this.cache = new LinkedHashMap<CacheKey, Object>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<CacheKey, Object> eldest) {
+                    return size() > ContextStateImpl.this.capacity;
+                }
+            };
+        }
+
+        @TruffleBoundary
+        public synchronized Object get(String pattern, int flags, Engine engine) {
+            Object result = cache.get(new CacheKey(pattern, flags, engine));
+            if (result == null) {
+                misses++;
+            } else {
+                hits++;
+            }
+            return result;
+        }
+
+        @TruffleBoundary
+        public synchronized void put(String pattern, int flags, Engine engine, Object value) {
+            if (capacity > 0) {
+                cache.put(new CacheKey(pattern, flags, engine), value);
+            }
+        }
+
+        public synchronized long getHits() {
+            return hits;
+        }
+
+        public synchronized long getMisses() {
+            return misses;
+        }
+
+        public synchronized int getSize() {
+            return cache.size();
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * Drops the cached values of the given kind, e.g. the PCRE patterns whose character tables
+         * depend on {@code LC_CTYPE}.
+         */
+        @TruffleBoundary
+        public synchronized void invalidate(Engine engine) {
+            cache.keySet().removeIf(key -> key.engine == engine);
+        }
+
+        /**
+         * Resets the counters, the cached patterns are kept.
+         */
+        public synchronized void resetCounters() {
+            hits = 0;
+            misses = 0;
+        }
+
+        public static ContextStateImpl newContextState() {
+            return new ContextStateImpl(FastROptions.RegExpCacheSize.getNonNegativeIntValue());
+        }
+    }
+
+    /**
+     * Cached variant of {@link #checkPreDefinedClasses(String)}.
+     */
+    @TruffleBoundary
+    public static String translatePattern(String pattern) {
+        ContextStateImpl state = RContext.getInstance().stateRegExp;
+        String result = (String) state.get(pattern, 0, Engine.TRANSLATED);
+        if (result == null) {
+            result = checkPreDefinedClasses(pattern);
+            state.put(pattern, 0, Engine.TRANSLATED, result);
+        }
+        return result;
+    }
+
+    /**
+     * Cached variant of {@link Pattern#compile(String, int)}.
+     */
+    @TruffleBoundary
+    public static Pattern compilePattern(String pattern, int flags) {
+        ContextStateImpl state = RContext.getInstance().stateRegExp;
+        Pattern result = (Pattern) state.get(pattern, flags, Engine.JAVA);
+        if (result == null) {
+            result = Pattern.compile(pattern, flags);
+            state.put(pattern, flags, Engine.JAVA, result);
+        }
+        return result;
+    }
 }
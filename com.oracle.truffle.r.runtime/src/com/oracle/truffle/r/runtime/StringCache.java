@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A process-wide cache of strings, the counterpart of GNU R's global {@code CHARSXP} cache. Equal
+ * strings put into character vectors through the cache share one {@link String} instance, so a
+ * character vector with few distinct values costs one reference per element, which is the same
+ * as a dictionary encoded representation with {@code int} codes (with compressed references), and
+ * equal elements compare by identity in {@code String.equals}.
+ *
+ * The cache holds the strings weakly and is split into independently locked segments, so that
+ * concurrent contexts rarely contend. The {@code NA} string is never cached, a cached
+ * {@code "NA"} string must not become {@code NA}.
+ *
+ * Strings read by {@code readLines}, {@code scan} and {@code unserialize} go through the cache if
+ * the {@link FastROptions#StringCache} option is set, {@link #intern(String)} can be used
+ * explicitly regardless of the option.
+ */
+public final class StringCache {
+
+    private static final boolean ENABLED = FastROptions.StringCache.getBooleanValue();
+
+    private static final int SEGMENT_BITS = 6;
+
+    @SuppressWarnings("unchecked") private static final WeakHashMap<String, WeakReference<String>>[] segments = new WeakHashMap[1 << SEGMENT_BITS];
+
+    static {
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new WeakHashMap<>();
+        }
+    }
+
+    private StringCache() {
+        // no instances
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Returns the cached instance equal to {@code value} if the cache is enabled, otherwise
+     * {@code value}.
+     */
+    public static String cache(String value) {
+        return ENABLED ? intern(value) : value;
+    }
+
+    /**
+     * Replaces the elements of {@code data} with the cached instances if the cache is enabled.
+     */
+    public static String[] cache(String[] data) {
+        return ENABLED ? intern(data) : data;
+    }
+
+    @TruffleBoundary
+    public static String intern(String value) {
+        if (value == null || RRuntime.isNA(value)) {
+            return value;
+        }
+        WeakHashMap<String, WeakReference<String>> segment = segments[(value.hashCode() * 0x9E3779B9) >>> (32 - SEGMENT_BITS)];
+        synchronized (segment) {
+            WeakReference<String> ref = segment.get(value);
+            String cached = ref == null ? null : ref.get();
+            if (cached == null) {
+                segment.put(value, new WeakReference<>(value));
+                cached = value;
+            }
+            return cached;
+        }
+    }
+
+    /**
+     * Replaces the elements of {@code data} in place with the cached instances.
+     */
+    @TruffleBoundary
+    public static String[] intern(String[] data) {
+        for (int i = 0; i < data.length; i++) {
+            data[i] = intern(data[i]);
+        }
+        return data;
+    }
+}
@@ -652,6 +652,28 @@ public class ConnectionSupport {
             this.conClass = newConClass;
         }
 
+        /**
+         * Returns {@code true} if lines can be read beyond the requested data and pushed back
+         * unnoticed: reading ahead cannot block waiting for input, i.e., the connection is backed
+         * by a file or an in-memory buffer, and all later reads see the pushed back lines. The
+         * latter only holds for text connections, as {@code readBin} and {@code seek} ignore the
+         * pushback, or for connections that are not open yet and so are closed after the read.
+         */
+        public final boolean canReadAhead() {
+            switch (conClass) {
+                case Text:
+                    return true;
+                case File:
+                case GZFile:
+                case BZFile:
+                case XZFile:
+                case RAW:
+                    return !isOpen();
+                default:
+                    return false;
+            }
+        }
+
         protected void openNonLazyConnection() throws IOException {
             if (openMode.abstractOpenMode != AbstractOpenMode.Lazy) {
                 createDelegateConnection();
@@ -37,6 +37,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CodingErrorAction;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.Objects;
 
@@ -138,6 +139,9 @@ abstract class DelegateRConnection extends RObject implements RConnection, ByteC
     @TruffleBoundary
     public String[] readLines(int n, EnumSet<ReadLineWarning> warn, boolean skipNul) throws IOException {
         base.setIncomplete(false);
+        if (readCache && cache != null) {
+            return readLinesCached(n, warn, skipNul);
+        }
         ArrayList<String> lines = new ArrayList<>();
         int totalRead = 0;
         int nBytesConsumed = 0;
@@ -213,6 +217,127 @@ abstract class DelegateRConnection extends RObject implements RConnection, ByteC
         return result;
     }
 
+    /**
+     * Variant of {@link #readLines} for connections with a read cache. The cached block is scanned
+     * for line terminators directly and a line that lies entirely within the block is decoded from
+     * the block without copying, only lines spanning several blocks are accumulated in a separate
+     * buffer. The semantics (including embedded NULs and the incomplete last line) are the same as
+     * in the byte-wise variant.
+     */
+    private String[] readLinesCached(int n, EnumSet<ReadLineWarning> warn, boolean skipNul) throws IOException {
+        ArrayList<String> lines = new ArrayList<>();
+        Charset encoding = base.getEncoding();
+        byte[] data = cache.array();
+        assert cache.arrayOffset() == 0;
+        // the part of the current line read from previous blocks or before a skipped NUL
+        byte[] buffer = null;
+        int totalRead = 0;
+        int nBytesConsumed = 0;
+        // a NUL truncates the rest of the line unless skipNul is set
+        boolean nullRead = false;
+        while (n <= 0 || lines.size() < n) {
+            if (!cache.hasRemaining() && !fillCache()) {
+                if (totalRead > 0) {
+                    /*
+                     * GnuR says if non-blocking and in text mode, silently push back incomplete
+                     * lines, otherwise keep data and output warning.
+                     */
+                    final String incompleteFinalLine = new String(buffer, 0, totalRead, encoding);
+                    nBytesConsumed += totalRead;
+                    if (!base.isBlocking() && base.isTextMode()) {
+                        base.pushBack(RDataFactory.createStringVector(incompleteFinalLine), false);
+                        base.setIncomplete(true);
+                    } else {
+                        lines.add(incompleteFinalLine);
+                        if (warn.contains(ReadLineWarning.INCOMPLETE_LAST_LINE)) {
+                            RError.warning(RError.SHOW_CALLER, RError.Message.INCOMPLETE_FINAL_LINE, base.getSummaryDescription());
+                        }
+                    }
+                }
+                break;
+            }
+            int limit = cache.limit();
+            int segmentStart = cache.position();
+            int pos = segmentStart;
+            byte terminator = 0;
+            for (; pos < limit; pos++) {
+                byte b = data[pos];
+                if (b == '\n' || b == '\r') {
+                    terminator = b;
+                    break;
+                } else if (b == 0) {
+                    if (!nullRead) {
+                        buffer = append(buffer, totalRead, data, segmentStart, pos);
+                        totalRead += pos - segmentStart;
+                    }
+                    if (warn.contains(ReadLineWarning.EMBEDDED_NUL) && !skipNul) {
+                        RError.warning(RError.SHOW_CALLER, RError.Message.LINE_CONTAINS_EMBEDDED_NULLS, lines.size() + 1);
+                    }
+                    nullRead = !skipNul;
+                    segmentStart = pos + 1;
+                }
+            }
+            int segmentEnd = nullRead ? segmentStart : pos;
+            if (terminator == 0) {
+                // the line continues in the next block
+                buffer = append(buffer, totalRead, data, segmentStart, segmentEnd);
+                totalRead += segmentEnd - segmentStart;
+                cache.position(limit);
+                continue;
+            }
+            String line;
+            if (totalRead == 0) {
+                line = new String(data, segmentStart, segmentEnd - segmentStart, encoding);
+                nBytesConsumed += segmentEnd - segmentStart;
+            } else {
+                buffer = append(buffer, totalRead, data, segmentStart, segmentEnd);
+                totalRead += segmentEnd - segmentStart;
+                line = new String(buffer, 0, totalRead, encoding);
+                nBytesConsumed += totalRead;
+            }
+            lines.add(line);
+            totalRead = 0;
+            nullRead = false;
+            cache.position(pos + 1);
+            if (terminator == '\r') {
+                // swallow the trailing lf
+                if ((cache.hasRemaining() || fillCache()) && data[cache.position()] == '\n') {
+                    cache.position(cache.position() + 1);
+                }
+            }
+        }
+        String[] result = new String[lines.size()];
+        lines.toArray(result);
+        updateReadOffset(nBytesConsumed);
+        return result;
+    }
+
+    private static byte[] append(byte[] buffer, int length, byte[] data, int start, int end) {
+        int count = end - start;
+        if (count == 0) {
+            return buffer;
+        }
+        byte[] result = buffer;
+        if (result == null) {
+            result = new byte[Math.max(64, count)];
+        } else if (length + count > result.length) {
+            result = Arrays.copyOf(result, Math.max(result.length * 2, length + count));
+        }
+        System.arraycopy(data, start, result, length, count);
+        return result;
+    }
+
+    /**
+     * Refills the empty read cache, returns {@code false} if no more data are available.
+     */
+    private boolean fillCache() throws IOException {
+        assert !cache.hasRemaining();
+        cache.clear();
+        getChannel().read(cache);
+        cache.flip();
+        return cache.hasRemaining();
+    }
+
     /**
      * Updates the read cursor.<br>
      * <p>
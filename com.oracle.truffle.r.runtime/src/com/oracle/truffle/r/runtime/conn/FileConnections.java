@@ -24,6 +24,7 @@ package com.oracle.truffle.r.runtime.conn;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -40,12 +41,8 @@ import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
-import org.tukaani.xz.LZMA2Options;
-import org.tukaani.xz.XZ;
 import org.tukaani.xz.XZInputStream;
-import org.tukaani.xz.XZOutputStream;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.r.runtime.RCompression;
@@ -172,13 +169,13 @@ public class FileConnections {
         switch (base.getOpenMode().abstractOpenMode) {
             case Read:
             case ReadBinary:
-                return new CompressedInputRConnection(base, new GZIPInputStream(new FileInputStream(base.path), GZIP_BUFFER_SIZE));
+                return new CompressedInputRConnection(base, ReadAheadInputStream.wrap(new GZIPInputStream(new FileInputStream(base.path), GZIP_BUFFER_SIZE), new File(base.path).length()));
             case Append:
             case AppendBinary:
-                return new CompressedOutputRConnection(base, new GZIPOutputStream(new FileOutputStream(base.path, true), GZIP_BUFFER_SIZE), true);
+                return new CompressedOutputRConnection(base, ParallelCompressedOutputStream.gzip(new FileOutputStream(base.path, true), GZIP_BUFFER_SIZE), true);
             case Write:
             case WriteBinary:
-                return new CompressedOutputRConnection(base, new GZIPOutputStream(new FileOutputStream(base.path, false), GZIP_BUFFER_SIZE), true);
+                return new CompressedOutputRConnection(base, ParallelCompressedOutputStream.gzip(new FileOutputStream(base.path, false), GZIP_BUFFER_SIZE), true);
             default:
                 throw RError.nyi(RError.SHOW_CALLER2, "open mode: " + base.getOpenMode());
         }
@@ -189,13 +186,13 @@ public class FileConnections {
         switch (base.getOpenMode().abstractOpenMode) {
             case Read:
             case ReadBinary:
-                return new CompressedInputRConnection(base, new XZInputStream(new FileInputStream(base.path)));
+                return new CompressedInputRConnection(base, ReadAheadInputStream.wrap(new XZInputStream(new FileInputStream(base.path)), new File(base.path).length()));
             case Append:
             case AppendBinary:
-                return new CompressedOutputRConnection(base, new XZOutputStream(new FileOutputStream(base.path, true), new LZMA2Options(), XZ.CHECK_CRC32), false);
+                return new CompressedOutputRConnection(base, ParallelCompressedOutputStream.xz(new FileOutputStream(base.path, true)), false);
             case Write:
             case WriteBinary:
-                return new CompressedOutputRConnection(base, new XZOutputStream(new FileOutputStream(base.path, false), new LZMA2Options(), XZ.CHECK_CRC32), false);
+                return new CompressedOutputRConnection(base, ParallelCompressedOutputStream.xz(new FileOutputStream(base.path, false)), false);
             default:
                 throw RError.nyi(RError.SHOW_CALLER2, "open mode: " + base.getOpenMode());
         }
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.conn;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZ;
+import org.tukaani.xz.XZOutputStream;
+
+import com.oracle.truffle.r.runtime.FastROptions;
+
+/**
+ * An output stream that cuts its input into blocks and compresses them concurrently on a shared
+ * pool of {@link FastROptions#CompressionThreads} threads, writing the compressed blocks in order.
+ * Only the last block is compressed on the writing thread if no other block is in flight, so small
+ * outputs do not pay for the hand-off.
+ *
+ * The gzip variant produces a single gzip member like pigz does: each block is a raw deflate
+ * stream primed with the last 32K of the previous block and ended by a sync flush, so that the
+ * concatenated blocks form one deflate stream. The xz variant writes each block as an independent
+ * xz stream, concatenated xz streams are a valid xz file.
+ */
+abstract class ParallelCompressedOutputStream extends OutputStream {
+
+    private static final int THREADS = threadCount();
+    private static ExecutorService executor;
+
+    private static int threadCount() {
+        int threads = FastROptions.CompressionThreads.getNonNegativeIntValue();
+        return threads == 0 ? Math.min(4, Runtime.getRuntime().availableProcessors()) : threads;
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            AtomicInteger index = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(THREADS, r -> {
+                Thread thread = new Thread(r, "FastR-Compression-" + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Creates a gzip compressing stream, which compresses in parallel unless there is only one
+     * compression thread.
+     */
+    static OutputStream gzip(OutputStream out, int bufferSize) throws IOException {
+        return THREADS <= 1 ? new GZIPOutputStream(out, bufferSize) : new ParallelGZIPOutputStream(out);
+    }
+
+    /**
+     * Creates an xz compressing stream, which compresses in parallel unless there is only one
+     * compression thread.
+     */
+    static OutputStream xz(OutputStream out) throws IOException {
+        return THREADS <= 1 ? new XZOutputStream(out, new LZMA2Options(), XZ.CHECK_CRC32) : new ParallelXZOutputStream(out);
+    }
+
+    protected final OutputStream out;
+    private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+    private final int maxPending;
+    private byte[] block;
+    private byte[] previous;
+    private int count;
+    private boolean closed;
+
+    /**
+     * @param maxPending the maximal number of blocks handed over for compression and not written
+     *            yet, at most {@link #THREADS}
+     */
+    protected ParallelCompressedOutputStream(OutputStream out, int blockSize, int maxPending) {
+        this.out = out;
+        this.block = new byte[blockSize];
+        this.maxPending = Math.max(1, Math.min(THREADS, maxPending));
+    }
+
+    /**
+     * Compresses {@code length} bytes of {@code data}. {@code previous} is the preceding block or
+     * {@code null}. Both arrays are not modified by the stream anymore once they are handed over.
+     */
+    protected abstract byte[] compress(byte[] data, int length, byte[] previous, boolean last) throws IOException;
+
+    protected void writeTrailer() throws IOException {
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            int n = Math.min(remaining, block.length - count);
+            System.arraycopy(b, offset, block, count, n);
+            update(b, offset, n);
+            count += n;
+            offset += n;
+            remaining -= n;
+            if (count == block.length) {
+                submit();
+            }
+        }
+    }
+
+    /**
+     * Called with all uncompressed data in order, e.g. to compute a checksum.
+     */
+    protected void update(byte[] b, int off, int len) {
+    }
+
+    private void submit() throws IOException {
+        while (pending.size() >= maxPending) {
+            writeNext();
+        }
+        byte[] data = block;
+        byte[] prev = previous;
+        int length = count;
+        pending.add(getExecutor().submit(() -> compress(data, length, prev, false)));
+        previous = block;
+        block = new byte[block.length];
+        count = 0;
+    }
+
+    private void writeNext() throws IOException {
+        try {
+            out.write(pending.removeFirst().get());
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        while (!pending.isEmpty()) {
+            writeNext();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            while (!pending.isEmpty()) {
+                writeNext();
+            }
+            out.write(compress(block, count, previous, true));
+            writeTrailer();
+        } finally {
+            for (Future<byte[]> future : pending) {
+                future.cancel(true);
+            }
+            block = previous = null;
+            out.close();
+        }
+    }
+
+    private static final class ParallelGZIPOutputStream extends ParallelCompressedOutputStream {
+        private static final int BLOCK_SIZE = 128 * 1024;
+        private static final int DICTIONARY_SIZE = 32 * 1024;
+        private static final byte[] HEADER = {(byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+        private final CRC32 crc = new CRC32();
+        private long size;
+
+        ParallelGZIPOutputStream(OutputStream out) throws IOException {
+            super(out, BLOCK_SIZE, THREADS);
+            out.write(HEADER);
+        }
+
+        @Override
+        protected void update(byte[] b, int off, int len) {
+            crc.update(b, off, len);
+            size += len;
+        }
+
+        @Override
+        protected byte[] compress(byte[] data, int length, byte[] prev, boolean last) {
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                if (prev != null) {
+                    deflater.setDictionary(prev, prev.length - DICTIONARY_SIZE, DICTIONARY_SIZE);
+                }
+                deflater.setInput(data, 0, length);
+                ByteArrayOutputStream result = new ByteArrayOutputStream(length / 2 + 64);
+                byte[] buf = new byte[16 * 1024];
+                if (last) {
+                    deflater.finish();
+                    while (!deflater.finished()) {
+                        int n = deflater.deflate(buf);
+                        result.write(buf, 0, n);
+                    }
+                } else {
+                    int n;
+                    do {
+                        n = deflater.deflate(buf, 0, buf.length, Deflater.SYNC_FLUSH);
+                        result.write(buf, 0, n);
+                    } while (n == buf.length);
+                }
+                return result.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        protected void writeTrailer() throws IOException {
+            writeIntLE((int) crc.getValue());
+            writeIntLE((int) size);
+        }
+
+        private void writeIntLE(int value) throws IOException {
+            out.write(new byte[]{(byte) value, (byte) (value >> 8), (byte) (value >> 16), (byte) (value >> 24)});
+        }
+    }
+
+    private static final class ParallelXZOutputStream extends ParallelCompressedOutputStream {
+        /**
+         * Like xz's own multi-threaded mode, the blocks are three times the dictionary size.
+         */
+        private static final int BLOCK_SIZE = 3 * LZMA2Options.DICT_SIZE_DEFAULT;
+
+        /**
+         * Each block in flight holds its 24MB of data and a preset 6 encoder of about 94MB, so the
+         * stream holds at most {@code MAX_PENDING} such blocks plus the block being filled, i.e.
+         * roughly 260MB of heap, regardless of the number of compression threads.
+         */
+        private static final int MAX_PENDING = 2;
+
+        ParallelXZOutputStream(OutputStream out) {
+            super(out, BLOCK_SIZE, MAX_PENDING);
+        }
+
+        @Override
+        protected byte[] compress(byte[] data, int length, byte[] prev, boolean last) throws IOException {
+            if (length == 0 && prev != null) {
+                // the preceding streams already cover all data
+                return new byte[0];
+            }
+            ByteArrayOutputStream result = new ByteArrayOutputStream(length / 4 + 64);
+            XZOutputStream xz = new XZOutputStream(result, new LZMA2Options(), XZ.CHECK_CRC32);
+            xz.write(data, 0, length);
+            xz.finish();
+            return result.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.conn;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import com.oracle.truffle.r.runtime.FastROptions;
+
+/**
+ * An input stream that reads its delegate, typically a decompressing stream, on a background
+ * thread into a small ring of chunks, so that the decompression of the next chunk overlaps with the
+ * consumption of the current one. Use {@link #wrap} to apply it only to inputs that are large
+ * enough (see {@link FastROptions#ReadAheadThreshold}).
+ */
+final class ReadAheadInputStream extends InputStream {
+
+    private static final long THRESHOLD = FastROptions.ReadAheadThreshold.getNonNegativeIntValue();
+    private static final int CHUNK_SIZE = 256 * 1024;
+    private static final int CHUNK_COUNT = 4;
+
+    /**
+     * A filled chunk. A chunk shorter than its buffer is the last one, a chunk with a
+     * {@code failure} reports an exception of the delegate.
+     */
+    private static final class Chunk {
+        private final byte[] data;
+        private final int length;
+        private final IOException failure;
+
+        Chunk(byte[] data, int length, IOException failure) {
+            this.data = data;
+            this.length = length;
+            this.failure = failure;
+        }
+
+        boolean isLast() {
+            return data == null || length < data.length;
+        }
+    }
+
+    private final InputStream in;
+    private final ArrayBlockingQueue<byte[]> free = new ArrayBlockingQueue<>(CHUNK_COUNT);
+    private final ArrayBlockingQueue<Chunk> filled = new ArrayBlockingQueue<>(CHUNK_COUNT);
+    private final Thread reader;
+    private volatile boolean closed;
+
+    private Chunk current;
+    private int position;
+
+    private ReadAheadInputStream(InputStream in) {
+        this.in = in;
+        for (int i = 0; i < CHUNK_COUNT; i++) {
+            free.add(new byte[CHUNK_SIZE]);
+        }
+        reader = new Thread(this::readAhead, "FastR-Read-Ahead");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Wraps {@code in} into a read-ahead stream if the size of the (compressed) source is at least
+     * the configured threshold, otherwise returns {@code in}.
+     */
+    static InputStream wrap(InputStream in, long sourceSize) {
+        if (THRESHOLD == 0 || sourceSize < THRESHOLD) {
+            return in;
+        }
+        return new ReadAheadInputStream(in);
+    }
+
+    private void readAhead() {
+        try {
+            while (!closed) {
+                byte[] data = free.take();
+                int length = 0;
+                int n;
+                while (length < data.length && (n = in.read(data, length, data.length - length)) > 0) {
+                    length += n;
+                }
+                filled.put(new Chunk(data, length, null));
+                if (length < data.length) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // closed
+        } catch (IOException e) {
+            // at most CHUNK_COUNT - 1 chunks can be in the queue at this point
+            filled.add(new Chunk(null, 0, e));
+        } catch (RuntimeException e) {
+            filled.add(new Chunk(null, 0, new IOException(e)));
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // nothing to report to
+            }
+        }
+    }
+
+    /**
+     * Makes sure that {@link #current} has unread data, returns {@code false} at the end of input.
+     */
+    private boolean fill() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (current == null || position == current.length) {
+            if (current != null) {
+                if (current.failure != null) {
+                    throw current.failure;
+                }
+                if (current.isLast()) {
+                    return false;
+                }
+                free.add(current.data);
+                current = null;
+            }
+            try {
+                current = filled.take();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            position = 0;
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return current.data[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min(len, current.length - position);
+        System.arraycopy(current.data, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current == null || current.failure != null ? 0 : current.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            reader.interrupt();
+            try {
+                // the reader closes the delegate
+                reader.join();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+        }
+    }
+}
@@ -81,6 +81,7 @@ import com.oracle.truffle.r.runtime.RProfile;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RRuntimeASTAccess;
 import com.oracle.truffle.r.runtime.RSerialize;
+import com.oracle.truffle.r.runtime.RegExp;
 import com.oracle.truffle.r.runtime.TempPathName;
 import com.oracle.truffle.r.runtime.Utils;
 import com.oracle.truffle.r.runtime.builtins.RBuiltinDescriptor;
@@ -345,6 +346,7 @@ public final class RContext {
     public final RRNG.ContextStateImpl stateRNG;
     public final RSerialize.ContextStateImpl stateRSerialize;
     public final LazyDBCache.ContextStateImpl stateLazyDBCache;
+    public final RegExp.ContextStateImpl stateRegExp;
     public final InstrumentationState stateInstrumentation;
     public final ContextStateImpl stateInternalCode;
     public final DLL.ContextStateImpl stateDLL;
@@ -370,7 +372,7 @@ public final class RContext {
     private ContextState[] contextStates() {
         return new ContextState[]{stateREnvVars, stateRLocale, stateRProfile, stateTempPath, stateROptions, stateREnvironment, stateRErrorHandling, stateRConnection, stateStdConnections, stateRNG,
                         stateRFFI,
-                        stateRSerialize, stateLazyDBCache, stateInstrumentation, stateDLL, stateRNullMR};
+                        stateRSerialize, stateLazyDBCache, stateRegExp, stateInstrumentation, stateDLL, stateRNullMR};
     }
 
     public static void setEmbedded() {
@@ -451,6 +453,7 @@ public final class RContext {
         this.stateRNG = RRNG.ContextStateImpl.newContextState();
         this.stateRSerialize = RSerialize.ContextStateImpl.newContextState();
         this.stateLazyDBCache = LazyDBCache.ContextStateImpl.newContextState();
+        this.stateRegExp = RegExp.ContextStateImpl.newContextState();
         this.stateInstrumentation = InstrumentationState.newContextState(instrumenter);
         this.stateInternalCode = ContextStateImpl.newContextState();
         this.stateDLL = DLL.ContextStateImpl.newContextState();
@@ -526,6 +529,7 @@ public final class RContext {
         stateRNG.initialize(this);
         stateRSerialize.initialize(this);
         stateLazyDBCache.initialize(this);
+        stateRegExp.initialize(this);
         stateInstrumentation.initialize(this);
         stateInternalCode.initialize(this);
         stateRNullMR.initialize(this);
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.FileSystems;
+import java.nio.file.StandardOpenOption;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RType;
+
+/**
+ * Creates vectors whose data are a memory-mapped region of a file. The vectors are ordinary
+ * {@link RDoubleVector}, {@link RIntVector} and {@link RRawVector} instances with native data (like
+ * vectors allocated by native code), so they are read through the native mirror by the vector
+ * access nodes and native code receives the address of the mapped region without any copying.
+ * The mapping is owned by the native mirror of the vector and it is released together with the
+ * vector.
+ *
+ * The file is expected to contain the elements in the native byte order, e.g., as written by
+ * {@code writeBin} with the default {@code endian}.
+ */
+public final class MappedVectors {
+
+    public enum Mode {
+        /**
+         * The vector is permanently shared, so it is never updated in place and any update of
+         * the vector works on a copy. Native code must not write into it.
+         */
+        READ_ONLY,
+        /**
+         * Updates of the vector (including those by native code) are private to the process and
+         * are never written to the file.
+         */
+        COPY_ON_WRITE
+    }
+
+    private static final long ADDRESS_OFFSET;
+
+    static {
+        try {
+            ADDRESS_OFFSET = UnsafeAdapter.UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+        } catch (NoSuchFieldException e) {
+            throw RInternalError.shouldNotReachHere(e);
+        }
+    }
+
+    private MappedVectors() {
+        // no instances
+    }
+
+    public static int getElementSize(RType type) {
+        switch (type) {
+            case Double:
+                return Double.BYTES;
+            case Integer:
+                return Integer.BYTES;
+            case Raw:
+                return Byte.BYTES;
+            default:
+                throw RInternalError.shouldNotReachHere();
+        }
+    }
+
+    private static RVector<?> createEmpty(RType type) {
+        switch (type) {
+            case Double:
+                return RDataFactory.createEmptyDoubleVector();
+            case Integer:
+                return RDataFactory.createEmptyIntVector();
+            case Raw:
+                return RDataFactory.createEmptyRawVector();
+            default:
+                throw RInternalError.shouldNotReachHere();
+        }
+    }
+
+    /**
+     * Maps {@code length} elements of the given {@code type} starting at byte {@code offset} of
+     * the file {@code path}. A single mapping is limited to {@link Integer#MAX_VALUE} bytes.
+     */
+    @TruffleBoundary
+    public static RVector<?> map(String path, RType type, Mode mode, long offset, int length) throws IOException {
+        if (length == 0) {
+            return createEmpty(type);
+        }
+        long size = (long) length * getElementSize(type);
+        assert size <= Integer.MAX_VALUE;
+        MappedByteBuffer buffer;
+        if (mode == Mode.READ_ONLY) {
+            try (FileChannel channel = FileChannel.open(FileSystems.getDefault().getPath(path), StandardOpenOption.READ)) {
+                buffer = channel.map(MapMode.READ_ONLY, offset, size);
+            }
+        } else {
+            // a private mapping requires a channel opened for writing
+            try (FileChannel channel = FileChannel.open(FileSystems.getDefault().getPath(path), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(MapMode.PRIVATE, offset, size);
+            }
+        }
+        long address = UnsafeAdapter.UNSAFE.getLong(buffer, ADDRESS_OFFSET);
+        RVector<?> result;
+        switch (type) {
+            case Double:
+                result = RDataFactory.createDoubleVectorFromNative(address, length);
+                break;
+            case Integer:
+                result = RDataFactory.createIntVectorFromNative(address, length);
+                break;
+            case Raw:
+                result = RDataFactory.createRawVectorFromNative(address, length);
+                break;
+            default:
+                throw RInternalError.shouldNotReachHere();
+        }
+        NativeDataAccess.setNativeDataOwner(result, buffer);
+        if (mode == Mode.READ_ONLY) {
+            result.makeSharedPermanent();
+        }
+        return result;
+    }
+}
@@ -35,8 +35,8 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 /**
  * Helper for tracing memory copying events, as used by the {@code tracemem} bultin. All
  * implementors of {@link RAbstractVector} are expected to report to {@link MemoryCopyTracer} and
- * others can listen to them through {@link Listener} interface. Use method
- * {@link #setTracingState(boolean)} to enable/disable the tracing.
+ * others can listen to them through {@link Listener} interface. The tracing is enabled while there is
+ * at least one listener registered.
  */
 public final class MemoryCopyTracer {
     private static Deque<Listener> listeners = new ConcurrentLinkedDeque<>();
@@ -49,23 +49,30 @@ public final class MemoryCopyTracer {
     }
 
     /**
-     * Adds a listener of memory copying events.
+     * Adds a listener of memory copying events, a listener that is already registered is not added
+     * again. The first listener invalidates global assumption, so this should be used with caution.
      */
-    public static void addListener(Listener listener) {
-        listeners.addLast(listener);
+    public static synchronized void addListener(Listener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.addLast(listener);
+        }
+        updateTracingState();
     }
 
     /**
-     * After calling this method memory related events will be reported to the listener. This
-     * invalidates global assumption and should be used with caution.
+     * Removes a listener of memory copying events, the tracing is disabled with the last listener.
      */
-    public static void setTracingState(boolean newState) {
-        if (enabled != newState) {
-            if (newState) {
-                noMemoryCopyTracingAssumption.invalidate();
-            }
-            enabled = newState;
+    public static synchronized void removeListener(Listener listener) {
+        listeners.remove(listener);
+        updateTracingState();
+    }
+
+    private static void updateTracingState() {
+        boolean newState = !listeners.isEmpty();
+        if (newState && !enabled) {
+            noMemoryCopyTracingAssumption.invalidate();
         }
+        enabled = newState;
     }
 
     /**
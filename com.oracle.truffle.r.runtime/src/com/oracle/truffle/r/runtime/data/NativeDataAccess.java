@@ -195,6 +195,12 @@ public final class NativeDataAccess {
          */
         private Reference<Object> nativeWrapperRef;
 
+        /**
+         * The owner of native data that were not allocated by FastR, e.g., a memory-mapped file
+         * buffer. Such data are not freed on release, they live as long as the owner is reachable.
+         */
+        private Object dataOwner;
+
         NativeMirror(RObject owner) {
             super(owner, nativeReferenceQueue());
             this.id = counter.addAndGet(2);
@@ -258,6 +264,8 @@ public final class NativeDataAccess {
                 Object element = elements[i];
                 if (element instanceof RSequence) {
                     element = ((RSequence) element).createVector();
+                } else if (element instanceof RCompactVector) {
+                    element = ((RCompactVector) element).createVector();
                 }
                 UnsafeAdapter.UNSAFE.putLong(addr + i * Long.BYTES, asPointer(element));
             }
@@ -273,7 +281,10 @@ public final class NativeDataAccess {
                 assert (dataAddress = 0xbadbad) != 0;
             } else if (dataAddress != 0) {
                 // System.out.println(String.format("freeing data at %16x", dataAddress));
-                freeNativeMemory(dataAddress);
+                if (dataOwner == null) {
+                    freeNativeMemory(dataAddress);
+                }
+                dataOwner = null;
                 assert (dataAddress = 0xbadbad) != 0;
             }
             if (nativeMirrorInfo != null) {
@@ -1017,6 +1028,17 @@ public final class NativeDataAccess {
 
     }
 
+    /**
+     * Declares that the native data of {@code obj}, set up by {@link #setNativeContents}, belong to
+     * {@code owner}. The data will not be freed when {@code obj} is collected and {@code owner} is
+     * kept reachable as long as {@code obj} is.
+     */
+    public static void setNativeDataOwner(RObject obj, Object owner) {
+        NativeMirror mirror = (NativeMirror) obj.getNativeMirror();
+        assert mirror != null && mirror.dataAddress != 0;
+        mirror.dataOwner = owner;
+    }
+
     public static void setNativeWrapper(RObject obj, Object wrapper) {
         NativeMirror mirror = (NativeMirror) obj.getNativeMirror();
         if (mirror == null) {
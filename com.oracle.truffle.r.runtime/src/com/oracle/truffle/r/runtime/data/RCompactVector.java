@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+/**
+ * Base class of vectors whose elements are not stored, but computed on access from a compact
+ * description, in the spirit of GNU R's ALTREP. Like an {@link RSequence}, a compact vector is a
+ * read-only {@link RComputedVector}. Native code also always receives the materialized vector.
+ *
+ * A new representation subclasses this class together with the corresponding
+ * {@code RAbstract*Vector} interface and provides the element access (including
+ * {@link #access()} and {@link #slowPathAccess()}), {@link #internalCreateVector()} and the resizing
+ * copies, everything else is shared. Unlike {@link RSequence}, which the arithmetic and lookup
+ * nodes treat specially, compact vectors are indistinguishable from ordinary vectors for the rest
+ * of the system, except for the few places that need materialized data.
+ */
+public abstract class RCompactVector extends RComputedVector {
+
+    private final boolean complete;
+
+    protected RCompactVector(int length, boolean complete) {
+        super(length);
+        assert length >= 0;
+        this.complete = complete;
+    }
+
+    @Override
+    public final boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public void setComplete(boolean complete) {
+        // the data never change, the flag was computed when the vector was created
+    }
+}
@@ -23,8 +23,6 @@
 package com.oracle.truffle.r.runtime.data;
 
 import java.util.Arrays;
-import java.util.Deque;
-import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
@@ -1038,6 +1036,38 @@ public final class RDataFactory {
         return traceDataCreated(new RStringSequence(prefix, suffix, start, stride, length));
     }
 
+    public static RRepeatedLogicalVector createRepeatedLogicalVector(byte[] pattern, int length) {
+        boolean complete = true;
+        for (byte value : pattern) {
+            complete &= !RRuntime.isNA(value);
+        }
+        return traceDataCreated(new RRepeatedLogicalVector(pattern, length, complete));
+    }
+
+    public static RRepeatedIntVector createRepeatedIntVector(int[] pattern, int length) {
+        boolean complete = true;
+        for (int value : pattern) {
+            complete &= !RRuntime.isNA(value);
+        }
+        return traceDataCreated(new RRepeatedIntVector(pattern, length, complete));
+    }
+
+    public static RRepeatedDoubleVector createRepeatedDoubleVector(double[] pattern, int length) {
+        boolean complete = true;
+        for (double value : pattern) {
+            complete &= !RRuntime.isNA(value);
+        }
+        return traceDataCreated(new RRepeatedDoubleVector(pattern, length, complete));
+    }
+
+    public static RRepeatedStringVector createRepeatedStringVector(String[] pattern, int length) {
+        boolean complete = true;
+        for (String value : pattern) {
+            complete &= !RRuntime.isNA(value);
+        }
+        return traceDataCreated(new RRepeatedStringVector(pattern, length, complete));
+    }
+
     public static RComplexVector createEmptyComplexVector() {
         return createComplexVector(new double[0], true);
     }
@@ -1321,7 +1351,11 @@ public final class RDataFactory {
      * allocated. Owing to the use of the Assumption, there should be no overhead when disabled.
      */
 
-    private static final Deque<Listener> listeners = new ConcurrentLinkedDeque<>();
+    /**
+     * Copied on every change, so that the listeners are iterated over without allocation or
+     * synchronization on every allocation.
+     */
+    private static volatile Listener[] listeners = new Listener[0];
     private static boolean allocationTracingEnabled = false;
 
     @CompilationFinal private static StateAssumption stateAssumption = new StateAssumption();
@@ -1359,7 +1393,7 @@ public final class RDataFactory {
     }
 
     private static synchronized void updateTracingState() {
-        boolean enabled = !listeners.isEmpty() || allocationTracingEnabled;
+        boolean enabled = listeners.length > 0 || allocationTracingEnabled;
         stateAssumption = stateAssumption.setState(enabled);
     }
 
@@ -1409,12 +1443,22 @@ public final class RDataFactory {
      * listener. This can be extended to an array should we need more listeners.
      */
     public static synchronized void addListener(Listener listener) {
-        listeners.addLast(listener);
+        Listener[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+        newListeners[listeners.length] = listener;
+        listeners = newListeners;
         updateTracingState();
     }
 
     public static synchronized void removeListener(Listener listener) {
-        listeners.remove(listener);
+        Listener[] oldListeners = listeners;
+        for (int i = 0; i < oldListeners.length; i++) {
+            if (oldListeners[i] == listener) {
+                Listener[] newListeners = Arrays.copyOf(oldListeners, oldListeners.length - 1);
+                System.arraycopy(oldListeners, i + 1, newListeners, i, oldListeners.length - i - 1);
+                listeners = newListeners;
+                break;
+            }
+        }
         updateTracingState();
     }
 
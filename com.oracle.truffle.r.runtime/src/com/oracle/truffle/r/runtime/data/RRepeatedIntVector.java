@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.RType;
+import com.oracle.truffle.r.runtime.data.closures.RClosures;
+import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+import com.oracle.truffle.r.runtime.data.nodes.FastPathVectorAccess.FastPathFromIntAccess;
+import com.oracle.truffle.r.runtime.data.nodes.SlowPathVectorAccess.SlowPathFromIntAccess;
+import com.oracle.truffle.r.runtime.data.nodes.VectorAccess;
+
+/**
+ * A vector that consists of its {@code pattern} repeated (and possibly truncated) up to the given
+ * length, e.g., the result of {@code rep(x, n)} for a short {@code x}.
+ */
+public final class RRepeatedIntVector extends RCompactVector implements RAbstractIntVector {
+
+    private final int[] pattern;
+
+    RRepeatedIntVector(int[] pattern, int length, boolean complete) {
+        super(length, complete);
+        assert pattern.length > 0 || length == 0;
+        this.pattern = pattern;
+    }
+
+    @Override
+    public int getDataAt(int index) {
+        assert index >= 0 && index < getLength();
+        return pattern[index % pattern.length];
+    }
+
+    /**
+     * Returns a new vector with the elements of the repeated pattern.
+     */
+    public RIntVector getPatternVector() {
+        return RDataFactory.createIntVector(Arrays.copyOf(pattern, pattern.length), isComplete());
+    }
+
+    @Override
+    public RAbstractVector castSafe(RType type, ConditionProfile isNAProfile, boolean keepAttributes) {
+        switch (type) {
+            case Integer:
+                return this;
+            case Double:
+                return RDataFactory.createRepeatedDoubleVector(toDoublePattern(), getLength());
+            case Complex:
+                return RClosures.createToComplexVector(this, keepAttributes);
+            case Character:
+                return RClosures.createToStringVector(this, keepAttributes);
+            case List:
+                return RClosures.createToListVector(this, keepAttributes);
+            default:
+                return null;
+        }
+    }
+
+    private double[] toDoublePattern() {
+        double[] result = new double[pattern.length];
+        for (int i = 0; i < pattern.length; i++) {
+            result[i] = RRuntime.isNA(pattern[i]) ? RRuntime.DOUBLE_NA : pattern[i];
+        }
+        return result;
+    }
+
+    private int[] populateData(int[] result, boolean fillNA) {
+        int length = getLength();
+        for (int i = 0; i < result.length; i++) {
+            if (i < length) {
+                result[i] = pattern[i % pattern.length];
+            } else {
+                result[i] = fillNA ? RRuntime.INT_NA : pattern[(i % length) % pattern.length];
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected RIntVector internalCreateVector() {
+        return RDataFactory.createIntVector(populateData(new int[getLength()], false), isComplete());
+    }
+
+    @Override
+    public RIntVector materialize() {
+        return (RIntVector) createVector();
+    }
+
+    @Override
+    public RIntVector copyResized(int size, boolean fillNA) {
+        return RDataFactory.createIntVector(populateData(new int[size], fillNA), isComplete() && !(fillNA && size > getLength()));
+    }
+
+    @Override
+    public RIntVector copyResizedWithDimensions(int[] newDimensions, boolean fillNA) {
+        int size = newDimensions[0] * newDimensions[1];
+        return RDataFactory.createIntVector(populateData(new int[size], fillNA), isComplete() && !(fillNA && size > getLength()), newDimensions);
+    }
+
+    @Override
+    public RIntVector createEmptySameType(int newLength, boolean newIsComplete) {
+        return RDataFactory.createIntVector(new int[newLength], newIsComplete);
+    }
+
+    @Override
+    public String toString() {
+        CompilerAsserts.neverPartOfCompilation();
+        return "rep(" + Arrays.toString(pattern) + ", length.out = " + getLength() + ")";
+    }
+
+    private static final class FastPathAccess extends FastPathFromIntAccess {
+
+        FastPathAccess(RAbstractContainer value) {
+            super(value);
+        }
+
+        @Override
+        protected int getIntImpl(AccessIterator accessIter, int index) {
+            RRepeatedIntVector vector = (RRepeatedIntVector) accessIter.getStore();
+            assert index >= 0 && index < vector.getLength();
+            return vector.pattern[index % vector.pattern.length];
+        }
+    }
+
+    @Override
+    public VectorAccess access() {
+        return new FastPathAccess(this);
+    }
+
+    private static final SlowPathFromIntAccess SLOW_PATH_ACCESS = new SlowPathFromIntAccess() {
+        @Override
+        protected int getIntImpl(AccessIterator accessIter, int index) {
+            RRepeatedIntVector vector = (RRepeatedIntVector) accessIter.getStore();
+            assert index >= 0 && index < vector.getLength();
+            return vector.pattern[index % vector.pattern.length];
+        }
+    };
+
+    @Override
+    public VectorAccess slowPathAccess() {
+        return SLOW_PATH_ACCESS;
+    }
+}
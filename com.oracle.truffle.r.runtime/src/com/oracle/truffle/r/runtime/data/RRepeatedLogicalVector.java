@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.RType;
+import com.oracle.truffle.r.runtime.data.closures.RClosures;
+import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
+import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+import com.oracle.truffle.r.runtime.data.nodes.FastPathVectorAccess.FastPathFromLogicalAccess;
+import com.oracle.truffle.r.runtime.data.nodes.SlowPathVectorAccess.SlowPathFromLogicalAccess;
+import com.oracle.truffle.r.runtime.data.nodes.VectorAccess;
+
+/**
+ * A vector that consists of its {@code pattern} repeated (and possibly truncated) up to the given
+ * length, e.g., the result of {@code rep(x, n)} for a short {@code x}.
+ */
+public final class RRepeatedLogicalVector extends RCompactVector implements RAbstractLogicalVector {
+
+    private final byte[] pattern;
+
+    RRepeatedLogicalVector(byte[] pattern, int length, boolean complete) {
+        super(length, complete);
+        assert pattern.length > 0 || length == 0;
+        this.pattern = pattern;
+    }
+
+    @Override
+    public byte getDataAt(int index) {
+        assert index >= 0 && index < getLength();
+        return pattern[index % pattern.length];
+    }
+
+    /**
+     * Returns a new vector with the elements of the repeated pattern.
+     */
+    public RLogicalVector getPatternVector() {
+        return RDataFactory.createLogicalVector(Arrays.copyOf(pattern, pattern.length), isComplete());
+    }
+
+    @Override
+    public RAbstractVector castSafe(RType type, ConditionProfile isNAProfile, boolean keepAttributes) {
+        switch (type) {
+            case Logical:
+                return this;
+            case Integer:
+                return RClosures.createToIntVector(this, keepAttributes);
+            case Double:
+                return RClosures.createToDoubleVector(this, keepAttributes);
+            case Complex:
+                return RClosures.createToComplexVector(this, keepAttributes);
+            case Character:
+                return RClosures.createToStringVector(this, keepAttributes);
+            case List:
+                return RClosures.createToListVector(this, keepAttributes);
+            default:
+                return null;
+        }
+    }
+
+    private byte[] populateData(byte[] result, boolean fillNA) {
+        int length = getLength();
+        for (int i = 0; i < result.length; i++) {
+            if (i < length) {
+                result[i] = pattern[i % pattern.length];
+            } else {
+                result[i] = fillNA ? RRuntime.LOGICAL_NA : pattern[(i % length) % pattern.length];
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected RLogicalVector internalCreateVector() {
+        return RDataFactory.createLogicalVector(populateData(new byte[getLength()], false), isComplete());
+    }
+
+    @Override
+    public RLogicalVector materialize() {
+        return (RLogicalVector) createVector();
+    }
+
+    @Override
+    public RLogicalVector copyResized(int size, boolean fillNA) {
+        return RDataFactory.createLogicalVector(populateData(new byte[size], fillNA), isComplete() && !(fillNA && size > getLength()));
+    }
+
+    @Override
+    public RLogicalVector copyResizedWithDimensions(int[] newDimensions, boolean fillNA) {
+        int size = newDimensions[0] * newDimensions[1];
+        return RDataFactory.createLogicalVector(populateData(new byte[size], fillNA), isComplete() && !(fillNA && size > getLength()), newDimensions);
+    }
+
+    @Override
+    public RLogicalVector createEmptySameType(int newLength, boolean newIsComplete) {
+        return RDataFactory.createLogicalVector(new byte[newLength], newIsComplete);
+    }
+
+    @Override
+    public String toString() {
+        CompilerAsserts.neverPartOfCompilation();
+        return "rep(" + Arrays.toString(pattern) + ", length.out = " + getLength() + ")";
+    }
+
+    private static final class FastPathAccess extends FastPathFromLogicalAccess {
+
+        FastPathAccess(RAbstractContainer value) {
+            super(value);
+        }
+
+        @Override
+        protected byte getLogicalImpl(AccessIterator accessIter, int index) {
+            RRepeatedLogicalVector vector = (RRepeatedLogicalVector) accessIter.getStore();
+            assert index >= 0 && index < vector.getLength();
+            return vector.pattern[index % vector.pattern.length];
+        }
+    }
+
+    @Override
+    public VectorAccess access() {
+        return new FastPathAccess(this);
+    }
+
+    private static final SlowPathFromLogicalAccess SLOW_PATH_ACCESS = new SlowPathFromLogicalAccess() {
+        @Override
+        protected byte getLogicalImpl(AccessIterator accessIter, int index) {
+            RRepeatedLogicalVector vector = (RRepeatedLogicalVector) accessIter.getStore();
+            assert index >= 0 && index < vector.getLength();
+            return vector.pattern[index % vector.pattern.length];
+        }
+    };
+
+    @Override
+    public VectorAccess slowPathAccess() {
+        return SLOW_PATH_ACCESS;
+    }
+}
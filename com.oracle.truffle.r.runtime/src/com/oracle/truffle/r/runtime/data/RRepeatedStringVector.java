@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.RType;
+import com.oracle.truffle.r.runtime.data.closures.RClosures;
+import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+import com.oracle.truffle.r.runtime.data.nodes.FastPathVectorAccess.FastPathFromStringAccess;
+import com.oracle.truffle.r.runtime.data.nodes.SlowPathVectorAccess.SlowPathFromStringAccess;
+import com.oracle.truffle.r.runtime.data.nodes.VectorAccess;
+
+/**
+ * A vector that consists of its {@code pattern} repeated (and possibly truncated) up to the given
+ * length, e.g., the result of {@code rep(x, n)} for a short {@code x}.
+ */
+public final class RRepeatedStringVector extends RCompactVector implements RAbstractStringVector {
+
+    private final String[] pattern;
+
+    RRepeatedStringVector(String[] pattern, int length, boolean complete) {
+        super(length, complete);
+        assert pattern.length > 0 || length == 0;
+        this.pattern = pattern;
+    }
+
+    @Override
+    public String getDataAt(int index) {
+        assert index >= 0 && index < getLength();
+        return pattern[index % pattern.length];
+    }
+
+    @Override
+    public RAbstractVector castSafe(RType type, ConditionProfile isNAProfile, boolean keepAttributes) {
+        switch (type) {
+            case Character:
+                return this;
+            case List:
+                return RClosures.createToListVector(this, keepAttributes);
+            default:
+                return null;
+        }
+    }
+
+    private String[] populateData(String[] result, boolean fillNA) {
+        int length = getLength();
+        for (int i = 0; i < result.length; i++) {
+            if (i < length) {
+                result[i] = pattern[i % pattern.length];
+            } else {
+                result[i] = fillNA ? RRuntime.STRING_NA : pattern[(i % length) % pattern.length];
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected RStringVector internalCreateVector() {
+        return RDataFactory.createStringVector(populateData(new String[getLength()], false), isComplete());
+    }
+
+    @Override
+    public RStringVector materialize() {
+        return (RStringVector) createVector();
+    }
+
+    @Override
+    public RStringVector copyResized(int size, boolean fillNA) {
+        return RDataFactory.createStringVector(populateData(new String[size], fillNA), isComplete() && !(fillNA && size > getLength()));
+    }
+
+    @Override
+    public RStringVector copyResizedWithDimensions(int[] newDimensions, boolean fillNA) {
+        int size = newDimensions[0] * newDimensions[1];
+        return RDataFactory.createStringVector(populateData(new String[size], fillNA), isComplete() && !(fillNA && size > getLength()), newDimensions);
+    }
+
+    @Override
+    public RStringVector createEmptySameType(int newLength, boolean newIsComplete) {
+        return RDataFactory.createStringVector(new String[newLength], newIsComplete);
+    }
+
+    @Override
+    public String toString() {
+        CompilerAsserts.neverPartOfCompilation();
+        return "rep(" + Arrays.toString(pattern) + ", length.out = " + getLength() + ")";
+    }
+
+    private static final class FastPathAccess extends FastPathFromStringAccess {
+
+        FastPathAccess(RAbstractContainer value) {
+            super(value);
+        }
+
+        @Override
+        protected String getStringImpl(AccessIterator accessIter, int index) {
+            RRepeatedStringVector vector = (RRepeatedStringVector) accessIter.getStore();
+            assert index >= 0 && index < vector.getLength();
+            return vector.pattern[index % vector.pattern.length];
+        }
+    }
+
+    @Override
+    public VectorAccess access() {
+        return new FastPathAccess(this);
+    }
+
+    private static final SlowPathFromStringAccess SLOW_PATH_ACCESS = new SlowPathFromStringAccess() {
+        @Override
+        protected String getStringImpl(AccessIterator accessIter, int index) {
+            RRepeatedStringVector vector = (RRepeatedStringVector) accessIter.getStore();
+            assert index >= 0 && index < vector.getLength();
+            return vector.pattern[index % vector.pattern.length];
+        }
+    };
+
+    @Override
+    public VectorAccess slowPathAccess() {
+        return SLOW_PATH_ACCESS;
+    }
+}
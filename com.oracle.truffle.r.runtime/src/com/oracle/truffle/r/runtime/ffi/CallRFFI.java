@@ -37,9 +37,13 @@ public interface CallRFFI {
         default Object dispatch(NativeCallInfo nativeCallInfo, Object[] args) {
             RFFIContext stateRFFI = RContext.getInstance().getStateRFFI();
             long before = stateRFFI.beforeDowncall();
+            NativeCallLock callLock = NativeCallLock.acquire(nativeCallInfo);
             try {
                 return execute(nativeCallInfo, args);
             } finally {
+                if (callLock != null) {
+                    callLock.release();
+                }
                 stateRFFI.afterDowncall(before);
             }
         }
@@ -56,9 +60,13 @@ public interface CallRFFI {
         default void dispatch(NativeCallInfo nativeCallInfo, Object[] args) {
             RFFIContext stateRFFI = RContext.getInstance().getStateRFFI();
             long before = stateRFFI.beforeDowncall();
+            NativeCallLock callLock = NativeCallLock.acquire(nativeCallInfo);
             try {
                 execute(nativeCallInfo, args);
             } finally {
+                if (callLock != null) {
+                    callLock.release();
+                }
                 stateRFFI.afterDowncall(before);
             }
         }
@@ -217,6 +217,10 @@ public class DLL {
         public final CharSXPWrapper pathSXP;
 
         public final Object handle;
+        /**
+         * Serializes the native calls into this library if its package is not thread-safe.
+         */
+        public final NativeCallLock callLock;
         private boolean dynamicLookup;
         private boolean forceSymbols;
         private final DotSymbol[][] nativeSymbols = new DotSymbol[NativeSymbolType.values().length][];
@@ -237,6 +241,7 @@ public class DLL {
             this.dynamicLookup = dynamicLookup;
             this.handle = handle;
             this.syntheticHandle = syntheticHandle;
+            this.callLock = NativeCallLock.get(name, path);
         }
 
         private static DLLInfo create(String name, String path, boolean dynamicLookup, Object handle, boolean addToList) {
@@ -27,6 +27,7 @@ import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.data.RCompactVector;
 import com.oracle.truffle.r.runtime.data.RComplex;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDouble;
@@ -117,6 +118,11 @@ public abstract class FFIWrapNode extends Node {
         return seq.createVector();
     }
 
+    @Specialization
+    protected static Object wrap(RCompactVector vector) {
+        return vector.createVector();
+    }
+
     @Fallback
     protected static Object wrap(Object value) {
         CompilerDirectives.transferToInterpreter();
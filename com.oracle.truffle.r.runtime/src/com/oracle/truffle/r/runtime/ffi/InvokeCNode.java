@@ -69,10 +69,14 @@ public abstract class InvokeCNode extends RBaseNode {
 
         RFFIContext stateRFFI = RContext.getInstance().getStateRFFI();
         long before = stateRFFI.beforeDowncall();
+        NativeCallLock callLock = NativeCallLock.acquire(nativeCallInfo);
         try {
             execute(nativeCallInfo, preparedArgs);
             return RDataFactory.createList(argsUnwrapperNode.execute(preparedArgs), validateArgNames(preparedArgs.length, args.getSignature()));
         } finally {
+            if (callLock != null) {
+                callLock.release();
+            }
             stateRFFI.afterDowncall(before);
         }
     }
@@ -294,6 +294,22 @@ public final class LapackRFFI {
 
     }
 
+    public static final class DgemmNode extends NativeCallNode {
+
+        public static DgemmNode create() {
+            return RFFIFactory.getLapackRFFI().createDgemmNode();
+        }
+
+        private DgemmNode(DownCallNodeFactory factory) {
+            super(factory.createDownCallNode(NativeFunction.dgemm));
+        }
+
+        public void execute(String transa, String transb, int m, int n, int k, double alpha, double[] a, int lda, double[] b, int ldb, double beta, double[] c, int ldc) {
+            call(transa, transb, m, n, k, alpha, a, lda, b, ldb, beta, c, ldc);
+        }
+
+    }
+
     public IlaverNode createIlaverNode() {
         return new IlaverNode(downCallNodeFactory);
     }
@@ -361,4 +377,8 @@ public final class LapackRFFI {
     public DtrsmNode createDtrsmNode() {
         return new DtrsmNode(downCallNodeFactory);
     }
+
+    public DgemmNode createDgemmNode() {
+        return new DgemmNode(downCallNodeFactory);
+    }
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.ffi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.FastROptions;
+
+/**
+ * Serializes the calls into the native code of one library whose package is not thread-safe.
+ * Unlike {@link FastROptions#SynchronizeNativeCode}, which makes every native call wait for all
+ * others, only the calls into the same library wait for each other and the native code of the
+ * remaining packages (including base, stats and BLAS) still runs concurrently.
+ *
+ * The locks are shared by all contexts, because all of them share the loaded library and its
+ * global state. The packages to lock are initially given by
+ * {@link FastROptions#SynchronizedNativePackages} and can be changed at runtime using
+ * {@code .fastr.native.lock}, which also reports how often the calls had to wait.
+ */
+public final class NativeCallLock {
+
+    private static final ConcurrentHashMap<String, NativeCallLock> LOCKS = new ConcurrentHashMap<>();
+    private static final Set<String> SYNCHRONIZED_PACKAGES = initSynchronizedPackages();
+
+    public final String name;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile boolean enabled;
+
+    // the statistics are updated only while holding the lock
+    private long calls;
+    private long contendedCalls;
+    private long waitNanos;
+
+    private NativeCallLock(String name) {
+        this.name = name;
+        this.enabled = SYNCHRONIZED_PACKAGES.contains(name);
+    }
+
+    private static Set<String> initSynchronizedPackages() {
+        Set<String> result = ConcurrentHashMap.newKeySet();
+        String value = FastROptions.SynchronizedNativePackages.getStringValue();
+        if (value != null) {
+            for (String name : value.split(",")) {
+                if (!name.trim().isEmpty()) {
+                    result.add(name.trim());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the lock of the library loaded from {@code path}.
+     */
+    @TruffleBoundary
+    public static NativeCallLock get(String name, String path) {
+        return LOCKS.computeIfAbsent(path, p -> new NativeCallLock(name));
+    }
+
+    /**
+     * Enables or disables the locking of the native calls into the libraries named {@code name},
+     * including those that are loaded later.
+     */
+    @TruffleBoundary
+    public static void setEnabled(String name, boolean enabled) {
+        if (enabled) {
+            SYNCHRONIZED_PACKAGES.add(name);
+        } else {
+            SYNCHRONIZED_PACKAGES.remove(name);
+        }
+        for (NativeCallLock lock : LOCKS.values()) {
+            if (lock.name.equals(name)) {
+                lock.enabled = enabled;
+            }
+        }
+    }
+
+    /**
+     * Returns the locks of all libraries loaded so far, sorted by name.
+     */
+    @TruffleBoundary
+    public static ArrayList<NativeCallLock> getAll() {
+        ArrayList<NativeCallLock> result = new ArrayList<>(LOCKS.values());
+        Collections.sort(result, (a, b) -> a.name.compareTo(b.name));
+        return result;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Acquires the lock of the library called by {@code nativeCallInfo} if it is to be locked.
+     * Returns the acquired lock, which the caller must {@link #release() release} after the call,
+     * or {@code null}.
+     */
+    public static NativeCallLock acquire(NativeCallInfo nativeCallInfo) {
+        NativeCallLock callLock = nativeCallInfo.dllInfo == null ? null : nativeCallInfo.dllInfo.callLock;
+        if (callLock == null || !callLock.enabled) {
+            return null;
+        }
+        callLock.lock();
+        return callLock;
+    }
+
+    @TruffleBoundary
+    private void lock() {
+        if (!lock.tryLock()) {
+            long start = System.nanoTime();
+            lock.lock();
+            contendedCalls++;
+            waitNanos += System.nanoTime() - start;
+        }
+        calls++;
+    }
+
+    @TruffleBoundary
+    public void release() {
+        lock.unlock();
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getContendedCalls() {
+        return contendedCalls;
+    }
+
+    public long getWaitNanos() {
+        return waitNanos;
+    }
+
+    @TruffleBoundary
+    public void resetCounters() {
+        lock.lock();
+        try {
+            calls = 0;
+            contendedCalls = 0;
+            waitNanos = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -40,6 +40,10 @@ import com.oracle.truffle.r.runtime.data.RPromise;
 import com.oracle.truffle.r.runtime.data.RPromise.EagerPromise;
 import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RRawVector;
+import com.oracle.truffle.r.runtime.data.RRepeatedDoubleVector;
+import com.oracle.truffle.r.runtime.data.RRepeatedIntVector;
+import com.oracle.truffle.r.runtime.data.RRepeatedLogicalVector;
+import com.oracle.truffle.r.runtime.data.RRepeatedStringVector;
 import com.oracle.truffle.r.runtime.data.RS4Object;
 import com.oracle.truffle.r.runtime.data.RStringSequence;
 import com.oracle.truffle.r.runtime.data.RStringVector;
@@ -61,11 +65,11 @@ public enum SEXPTYPE {
     SPECIALSXP(7), /* special forms */
     BUILTINSXP(8), /* builtin non-special forms */
     CHARSXP(9), /* "scalar" string type (GnuR internal only) */
-    LGLSXP(10, RLogicalVector.class, Byte.class), /* logical vectors */
-    INTSXP(13, RIntVector.class, RIntSequence.class, Integer.class), /* integer vectors */
-    REALSXP(14, RDoubleVector.class, RDoubleSequence.class, Double.class), /* real variables */
+    LGLSXP(10, RLogicalVector.class, RRepeatedLogicalVector.class, Byte.class), /* logical vectors */
+    INTSXP(13, RIntVector.class, RIntSequence.class, RRepeatedIntVector.class, Integer.class), /* integer vectors */
+    REALSXP(14, RDoubleVector.class, RDoubleSequence.class, RRepeatedDoubleVector.class, Double.class), /* real variables */
     CPLXSXP(15, RComplexVector.class, RComplex.class), /* complex variables */
-    STRSXP(16, RStringVector.class, RStringSequence.class, String.class), /* string vectors */
+    STRSXP(16, RStringVector.class, RStringSequence.class, RRepeatedStringVector.class, String.class), /* string vectors */
     DOTSXP(17, RArgsValuesAndNames.class), /* dot-dot-dot object */
     ANYSXP(18), /* make "any" args work */
     VECSXP(19, RList.class), /* generic vectors */
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.instrument.memprof;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.Frame;
+import com.oracle.truffle.api.frame.FrameInstance.FrameAccess;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.r.runtime.FastROptions;
+import com.oracle.truffle.r.runtime.RArguments;
+import com.oracle.truffle.r.runtime.RCaller;
+import com.oracle.truffle.r.runtime.RCleanUp;
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.data.MemoryCopyTracer;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RFunction;
+import com.oracle.truffle.r.runtime.data.RObjectSize;
+import com.oracle.truffle.r.runtime.data.RTypedValue;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+import com.oracle.truffle.r.runtime.instrument.InstrumentationState;
+
+/**
+ * The aggregated mode of the memory profiler: one in {@code sampling} allocations and copies is
+ * attributed to the R function executing it, identified by its name and the location of its call,
+ * and the type of the allocated value. Unlike {@link MemAllocProfilerStacks}, no stacks are
+ * maintained, so the cost of a non-sampled allocation is a random number, and the counters are
+ * {@link LongAdder}s, so threads allocating concurrently do not contend. The reported numbers are
+ * estimates, i.e. the sampled counts multiplied by {@code sampling}.
+ *
+ * The histogram can be started at startup with {@link FastROptions#ProfmemHistogram} and written to
+ * {@link FastROptions#ProfmemHistogramFile} at exit.
+ */
+public final class MemAllocHistogram implements RDataFactory.Listener, MemoryCopyTracer.Listener, InstrumentationState.CleanupHandler {
+
+    private static final MemAllocHistogram instance = new MemAllocHistogram();
+
+    private static final String TOP_LEVEL = "<top level>";
+
+    public static final class Site {
+        public final String function;
+        public final String type;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder copies = new LongAdder();
+        private final LongAdder copiedBytes = new LongAdder();
+
+        private Site(String function, String type) {
+            this.function = function;
+            this.type = type;
+        }
+
+        public long getCount() {
+            return count.sum() * instance.sampling;
+        }
+
+        public long getBytes() {
+            return bytes.sum() * instance.sampling;
+        }
+
+        public long getCopies() {
+            return copies.sum() * instance.sampling;
+        }
+
+        public long getCopiedBytes() {
+            return copiedBytes.sum() * instance.sampling;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Site> sites = new ConcurrentHashMap<>();
+    private volatile boolean active;
+    private volatile int sampling = 1;
+    private boolean cleanupRegistered;
+
+    private MemAllocHistogram() {
+    }
+
+    /**
+     * @return the single instance of the histogram
+     */
+    public static MemAllocHistogram getInstance() {
+        return instance;
+    }
+
+    /**
+     * Starts the histogram if requested by {@link FastROptions#ProfmemHistogram}.
+     */
+    public static void initialize() {
+        int n = FastROptions.ProfmemHistogram.getNonNegativeIntValue();
+        if (n > 0) {
+            instance.start(n);
+        }
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Starts recording one in {@code n} allocations and copies. The histogram is only cleared if
+     * the sampling changes.
+     */
+    public synchronized void start(int n) {
+        assert n > 0;
+        if (n != sampling) {
+            // the counts sampled so far would be scaled wrongly
+            sites.clear();
+            sampling = n;
+        }
+        if (!active) {
+            RDataFactory.addListener(this);
+            MemoryCopyTracer.addListener(this);
+            if (!cleanupRegistered) {
+                RCleanUp.registerCleanupHandler(this);
+                cleanupRegistered = true;
+            }
+            active = true;
+        }
+    }
+
+    public synchronized void stop() {
+        if (active) {
+            active = false;
+            RDataFactory.removeListener(this);
+            MemoryCopyTracer.removeListener(this);
+        }
+    }
+
+    public void reset() {
+        sites.clear();
+    }
+
+    /**
+     * @return the recorded sites ordered by decreasing allocated bytes
+     */
+    @TruffleBoundary
+    public ArrayList<Site> getSites() {
+        ArrayList<Site> result = new ArrayList<>(sites.values());
+        result.sort((s1, s2) -> Long.compare(s2.bytes.sum(), s1.bytes.sum()));
+        return result;
+    }
+
+    @TruffleBoundary
+    public void print(PrintStream out) {
+        out.printf("sampling=%d\n", sampling);
+        out.println("bytes\tcount\tcopied\tcopies\ttype\tfunction");
+        for (Site site : getSites()) {
+            out.printf("%d\t%d\t%d\t%d\t%s\t%s\n", site.getBytes(), site.getCount(), site.getCopiedBytes(), site.getCopies(), site.type, site.function);
+        }
+    }
+
+    @Override
+    @TruffleBoundary
+    public void reportAllocation(RTypedValue data) {
+        if (sample()) {
+            Site site = getSite(data);
+            site.count.increment();
+            site.bytes.add(RObjectSize.getObjectSize(data));
+        }
+    }
+
+    @Override
+    @TruffleBoundary
+    public void reportCopying(RAbstractVector source, RAbstractVector dest) {
+        if (sample()) {
+            Site site = getSite(source);
+            site.copies.increment();
+            site.copiedBytes.add(RObjectSize.getObjectSize(source));
+        }
+    }
+
+    @Override
+    public void cleanup(int status) {
+        String file = FastROptions.ProfmemHistogramFile.getStringValue();
+        if (isActive() && file != null && !file.isEmpty()) {
+            try (PrintStream out = new PrintStream(new FileOutputStream(file))) {
+                print(out);
+            } catch (IOException ex) {
+                throw new RInternalError(ex, "cannot write the allocation histogram to %s", file);
+            }
+        }
+    }
+
+    private boolean sample() {
+        int n = sampling;
+        return active && (n == 1 || ThreadLocalRandom.current().nextInt(n) == 0);
+    }
+
+    private Site getSite(RTypedValue data) {
+        String function = currentFunction();
+        String type = data.getRType().getName();
+        return sites.computeIfAbsent(function + '\t' + type, key -> new Site(function, type));
+    }
+
+    /**
+     * Describes the innermost R function on the stack by its name and the location of its call.
+     */
+    private static String currentFunction() {
+        String result = Truffle.getRuntime().iterateFrames(frameInstance -> {
+            Frame frame = RArguments.unwrap(frameInstance.getFrame(FrameAccess.READ_ONLY));
+            if (!RArguments.isRFrame(frame)) {
+                return null;
+            }
+            RFunction function = RArguments.getFunction(frame);
+            if (function == null) {
+                return TOP_LEVEL;
+            }
+            String name = function.getName() == null ? "<anonymous>" : function.getName();
+            RCaller call = RArguments.getCall(frame);
+            while (call != null && call.isPromise()) {
+                call = call.getParent();
+            }
+            SourceSection section = call != null && call.isValidCaller() ? call.getSyntaxNode().getSourceSection() : null;
+            if (section == null || !section.isAvailable()) {
+                return name;
+            }
+            return name + " (" + section.getSource().getName() + ":" + section.getStartLine() + ")";
+        });
+        return result == null ? TOP_LEVEL : result;
+    }
+}
@@ -36,6 +36,19 @@ import com.oracle.truffle.r.runtime.rng.RandomNumberGenerator;
 public class RandomFunctions {
     public abstract static class RandFunction3_Double extends RBaseNode {
         public abstract double execute(double a, double b, double c, RandomNumberProvider rand);
+
+        /**
+         * Fills {@code count} elements of {@code result} starting at {@code offset} with random
+         * values for the same parameters. The values and the state of the generator afterwards must
+         * be the same as if {@link #execute(double, double, double, RandomNumberProvider)} was
+         * invoked {@code count} times. Implementations that know how many uniform values they
+         * consume override this to draw them from the generator in bulk.
+         */
+        public void execute(double a, double b, double c, RandomNumberProvider rand, double[] result, int offset, int count) {
+            for (int i = 0; i < count; i++) {
+                result[offset + i] = execute(a, b, c, rand);
+            }
+        }
     }
 
     public abstract static class RandFunction2_Double extends RandFunction3_Double {
@@ -45,6 +58,29 @@ public class RandomFunctions {
         public final double execute(double a, double b, double c, RandomNumberProvider rand) {
             return execute(a, b, rand);
         }
+
+        @Override
+        public final void execute(double a, double b, double c, RandomNumberProvider rand, double[] result, int offset, int count) {
+            execute(a, b, rand, result, offset, count);
+        }
+
+        public void execute(double a, double b, RandomNumberProvider rand, double[] result, int offset, int count) {
+            for (int i = 0; i < count; i++) {
+                result[offset + i] = execute(a, b, rand);
+            }
+        }
+
+        /**
+         * Bulk execution for samplers that consume at least one uniform value per variate for the
+         * given parameters, see {@link RandomNumberProvider#prefetching()}.
+         */
+        protected final void executePrefetching(double a, double b, RandomNumberProvider rand, double[] result, int offset, int count) {
+            RandomNumberProvider prefetching = rand.prefetching();
+            for (int i = 0; i < count; i++) {
+                prefetching.prefetch(count - i);
+                result[offset + i] = execute(a, b, prefetching);
+            }
+        }
     }
 
     public abstract static class RandFunction1_Double extends RandFunction3_Double {
@@ -54,38 +90,124 @@ public class RandomFunctions {
         public final double execute(double a, double b, double c, RandomNumberProvider rand) {
             return execute(a, rand);
         }
+
+        @Override
+        public final void execute(double a, double b, double c, RandomNumberProvider rand, double[] result, int offset, int count) {
+            execute(a, rand, result, offset, count);
+        }
+
+        public void execute(double a, RandomNumberProvider rand, double[] result, int offset, int count) {
+            for (int i = 0; i < count; i++) {
+                result[offset + i] = execute(a, rand);
+            }
+        }
+
+        /**
+         * See {@link RandFunction2_Double#executePrefetching}.
+         */
+        protected final void executePrefetching(double a, RandomNumberProvider rand, double[] result, int offset, int count) {
+            RandomNumberProvider prefetching = rand.prefetching();
+            for (int i = 0; i < count; i++) {
+                prefetching.prefetch(count - i);
+                result[offset + i] = execute(a, prefetching);
+            }
+        }
     }
 
     /**
      * Convenient wrapper of the current random number generator and current "norm kind" value.
+     *
+     * Samplers that consume a variable number of uniform values per variate, but at least one, can
+     * use {@link #prefetching()} to obtain a provider that draws uniform values from the generator
+     * in bulk: before each variate the provider may draw ahead as many values as there are variates
+     * left, which are all guaranteed to be consumed, so the stream stays exactly the same.
      */
     public static final class RandomNumberProvider {
+        private static final int PREFETCH_SIZE = 1024;
+
         final RandomNumberGenerator generator;
         final NormKind normKind;
 
+        private final double[] prefetched;
+        private int prefetchedPos;
+        private int prefetchedEnd;
+
         public RandomNumberProvider(RandomNumberGenerator generator, NormKind normKind) {
+            this(generator, normKind, null);
+        }
+
+        private RandomNumberProvider(RandomNumberGenerator generator, NormKind normKind, double[] prefetched) {
             this.generator = generator;
             this.normKind = normKind;
+            this.prefetched = prefetched;
         }
 
         public static RandomNumberProvider fromCurrentRNG() {
             return new RandomNumberProvider(RRNG.currentGenerator(), RRNG.currentNormKind());
         }
 
+        /**
+         * Creates a provider for the same generator that supports {@link #prefetch(int)}.
+         */
+        public RandomNumberProvider prefetching() {
+            return new RandomNumberProvider(generator, normKind, new double[PREFETCH_SIZE]);
+        }
+
+        /**
+         * Draws up to {@code remaining} uniform values ahead if no prefetched values are left. The
+         * caller must guarantee that at least {@code remaining} uniform values are going to be
+         * consumed from this provider.
+         */
+        public void prefetch(int remaining) {
+            if (prefetchedPos == prefetchedEnd) {
+                int count = Math.min(remaining, prefetched.length);
+                generator.genrandDouble(prefetched, 0, count);
+                prefetchedPos = 0;
+                prefetchedEnd = count;
+            }
+        }
+
+        /**
+         * Returns {@code true} if every {@link #normRand()} consumes at least one uniform value.
+         * This is not the case for Box-Muller, which returns every second value without drawing.
+         */
+        public boolean normRandConsumesUnif() {
+            return normKind != NormKind.BOX_MULLER && normKind != NormKind.USER_NORM;
+        }
+
         public boolean isSame(RandomNumberProvider other) {
             return this.generator == other.generator && this.normKind == other.normKind;
         }
 
+        public NormKind getNormKind() {
+            return normKind;
+        }
+
         public double unifRand() {
+            if (prefetchedPos < prefetchedEnd) {
+                return prefetched[prefetchedPos++];
+            }
             return generator.genrandDouble();
         }
 
+        /**
+         * Fills {@code count} elements of {@code result} starting at {@code offset} with the same
+         * values {@code count} calls of {@link #unifRand()} would return.
+         */
+        public void unifRand(double[] result, int offset, int count) {
+            int pos = 0;
+            while (pos < count && prefetchedPos < prefetchedEnd) {
+                result[offset + pos++] = prefetched[prefetchedPos++];
+            }
+            generator.genrandDouble(result, offset + pos, count - pos);
+        }
+
         public double normRand() {
-            return SNorm.normRand(generator, normKind);
+            return SNorm.normRand(this, normKind);
         }
 
         public double expRand() {
-            return SExp.expRand(generator);
+            return SExp.expRand(this);
         }
     }
 }
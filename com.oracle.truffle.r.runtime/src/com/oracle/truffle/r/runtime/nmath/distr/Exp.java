@@ -60,6 +60,15 @@ public final class Exp {
             }
             return scale * rand.expRand();
         }
+
+        @Override
+        public void execute(double scale, RandomNumberProvider rand, double[] result, int offset, int count) {
+            if (!Double.isFinite(scale) || scale <= 0.0) {
+                super.execute(scale, rand, result, offset, count);
+            } else {
+                executePrefetching(scale, rand, result, offset, count);
+            }
+        }
     }
 
     public static final class PExp implements Function2_2 {
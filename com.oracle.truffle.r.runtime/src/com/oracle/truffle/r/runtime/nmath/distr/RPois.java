@@ -287,4 +287,14 @@ public final class RPois extends RandFunction1_Double {
     public double execute(double mu, RandomNumberProvider rand) {
         return rpois(mu, rand);
     }
+
+    @Override
+    public void execute(double mu, RandomNumberProvider rand, double[] result, int offset, int count) {
+        // the normal approximation for mu >= 10 starts with norm_rand()
+        if (Double.isFinite(mu) && mu > 0. && (mu < 10. || rand.normRandConsumesUnif())) {
+            executePrefetching(mu, rand, result, offset, count);
+        } else {
+            super.execute(mu, rand, result, offset, count);
+        }
+    }
 }
@@ -35,6 +35,16 @@ public final class Rbinom extends RandFunction2_Double {
     // TODO: some of the variables below are static in GnuR, because they cache intermediate results
     // that depend on paremeters that often do not change between calls.
 
+    @Override
+    public void execute(double nin, double pp, RandomNumberProvider rand, double[] result, int offset, int count) {
+        // every n > 0, 0 < p < 1 draws at least one uniform value
+        if (Double.isFinite(nin) && RMath.forceint(nin) == nin && nin > 0 && pp > 0. && pp < 1.) {
+            executePrefetching(nin, pp, rand, result, offset, count);
+        } else {
+            super.execute(nin, pp, rand, result, offset, count);
+        }
+    }
+
     @Override
     public double execute(double nin, double pp, RandomNumberProvider rand) {
         double psave = -1.0;
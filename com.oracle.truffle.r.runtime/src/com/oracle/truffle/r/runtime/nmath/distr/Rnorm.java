@@ -25,6 +25,7 @@ import com.oracle.truffle.api.profiles.ValueProfile;
 import com.oracle.truffle.r.runtime.nmath.RMathError;
 import com.oracle.truffle.r.runtime.nmath.RandomFunctions.RandFunction2_Double;
 import com.oracle.truffle.r.runtime.nmath.RandomFunctions.RandomNumberProvider;
+import com.oracle.truffle.r.runtime.rng.RRNG.NormKind;
 
 public final class Rnorm extends RandFunction2_Double {
     private final BranchProfile errorProfile = BranchProfile.create();
@@ -46,4 +47,20 @@ public final class Rnorm extends RandFunction2_Double {
             return mu + sigma * rand.normRand();
         }
     }
+
+    @Override
+    public void execute(double mu, double sigma, RandomNumberProvider rand, double[] result, int offset, int count) {
+        if (Double.isNaN(mu) || !Double.isFinite(sigma) || sigma <= 0. || !Double.isFinite(mu)) {
+            super.execute(mu, sigma, rand, result, offset, count);
+        } else if (rand.getNormKind() == NormKind.INVERSION) {
+            SNorm.normRandInversion(rand, result, offset, count);
+            for (int i = offset; i < offset + count; i++) {
+                result[i] = mu + sigma * result[i];
+            }
+        } else if (rand.normRandConsumesUnif()) {
+            executePrefetching(mu, sigma, rand, result, offset, count);
+        } else {
+            super.execute(mu, sigma, rand, result, offset, count);
+        }
+    }
 }
@@ -20,7 +20,7 @@
 package com.oracle.truffle.r.runtime.nmath.distr;
 
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
-import com.oracle.truffle.r.runtime.rng.RandomNumberGenerator;
+import com.oracle.truffle.r.runtime.nmath.RandomFunctions.RandomNumberProvider;
 
 /**
  * Generation of random value from standard exponential distribution. Corresponds to {@code sexp.c}
@@ -54,12 +54,12 @@ public final class SExp {
                     1.0000000000000000
     };
 
-    public static double expRand(RandomNumberGenerator generator) {
+    public static double expRand(RandomNumberProvider rand) {
         double a = 0.;
         // precaution if u = 0 is ever returned
-        double u = generator.genrandDouble();
+        double u = rand.unifRand();
         while (u <= 0. || u >= 1.) {
-            u = generator.genrandDouble();
+            u = rand.unifRand();
         }
 
         for (;;) {
@@ -76,10 +76,10 @@ public final class SExp {
         }
 
         int i = 0;
-        double ustar = generator.genrandDouble();
+        double ustar = rand.unifRand();
         double umin = ustar;
         do {
-            ustar = generator.genrandDouble();
+            ustar = rand.unifRand();
             if (umin > ustar) {
                 umin = ustar;
             }
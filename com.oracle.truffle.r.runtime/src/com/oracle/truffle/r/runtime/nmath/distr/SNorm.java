@@ -31,8 +31,8 @@ import static com.oracle.truffle.r.runtime.nmath.RMath.fmin2;
 import static com.oracle.truffle.r.runtime.nmath.RMath.fmax2;
 
 import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.nmath.RandomFunctions.RandomNumberProvider;
 import com.oracle.truffle.r.runtime.rng.RRNG.NormKind;
-import com.oracle.truffle.r.runtime.rng.RandomNumberGenerator;
 
 /**
  * Generation of random value from standard normal distribution N(0,1). Corresponds to
@@ -119,8 +119,28 @@ public final class SNorm {
         // only static members
     }
 
+    private static final int INVERSION_BLOCK = 1024;
+
+    /**
+     * Bulk version of {@link #normRand} for {@link NormKind#INVERSION}, which always consumes
+     * exactly two uniform values per variate.
+     */
+    public static void normRandInversion(RandomNumberProvider rand, double[] result, int offset, int count) {
+        double[] u = new double[2 * Math.min(count, INVERSION_BLOCK)];
+        int done = 0;
+        while (done < count) {
+            int n = Math.min(count - done, INVERSION_BLOCK);
+            rand.unifRand(u, 0, 2 * n);
+            for (int i = 0; i < n; i++) {
+                double u1 = (int) (BIG * u[2 * i]) + u[2 * i + 1];
+                result[offset + done + i] = Qnorm.qnorm(u1 / BIG, 0.0, 1.0, true, false);
+            }
+            done += n;
+        }
+    }
+
     @SuppressWarnings("unused")
-    public static double normRand(RandomNumberGenerator rand, NormKind normKind) {
+    public static double normRand(RandomNumberProvider rand, NormKind normKind) {
         double s;
         double u1;
         double w;
@@ -139,16 +159,16 @@ public final class SNorm {
                  * note: this has problems, but is retained for reproducibility of older codes.
                  */
                 /* unif_rand() alone is not of high enough precision */
-                u1 = rand.genrandDouble();
+                u1 = rand.unifRand();
                 if (u1 < 0.884070402298758) {
-                    u2 = rand.genrandDouble();
+                    u2 = rand.unifRand();
                     return A * (1.13113163544180 * u1 + u2 - 1);
                 }
 
                 if (u1 >= 0.973310954173898) { /* tail: */
                     while (true) {
-                        u2 = rand.genrandDouble();
-                        u3 = rand.genrandDouble();
+                        u2 = rand.unifRand();
+                        u3 = rand.unifRand();
                         tt = (A * A - 2 * log(u3));
                         if (u2 * u2 < (A * A) / tt) {
                             return (u1 < 0.986655477086949) ? sqrt(tt) : -sqrt(tt);
@@ -158,8 +178,8 @@ public final class SNorm {
 
                 if (u1 >= 0.958720824790463) { /* region3: */
                     while (true) {
-                        u2 = rand.genrandDouble();
-                        u3 = rand.genrandDouble();
+                        u2 = rand.unifRand();
+                        u3 = rand.unifRand();
                         tt = A - 0.630834801921960 * fmin2(u2, u3);
                         if (fmax2(u2, u3) <= 0.755591531667601) {
                             return (u2 < u3) ? tt : -tt;
@@ -172,8 +192,8 @@ public final class SNorm {
 
                 if (u1 >= 0.911312780288703) { /* region2: */
                     while (true) {
-                        u2 = rand.genrandDouble();
-                        u3 = rand.genrandDouble();
+                        u2 = rand.unifRand();
+                        u3 = rand.unifRand();
                         tt = 0.479727404222441 + 1.105473661022070 * fmin2(u2, u3);
                         if (fmax2(u2, u3) <= 0.872834976671790) {
                             return (u2 < u3) ? tt : -tt;
@@ -188,8 +208,8 @@ public final class SNorm {
                 if (true) { // Satisfy foolish style checker requiring "break"
                             // or "return" after infinite loops
                     while (true) {
-                        u2 = rand.genrandDouble();
-                        u3 = rand.genrandDouble();
+                        u2 = rand.unifRand();
+                        u3 = rand.unifRand();
                         tt = 0.479727404222441 - 0.595507138015940 * fmin2(u2, u3);
                         if (fmax2(u2, u3) <= 0.805577924423817) {
                             return (u2 < u3) ? tt : -tt;
@@ -200,7 +220,7 @@ public final class SNorm {
 
             case AHRENS_DIETER:
                 /* unif_rand() alone is not of high enough precision */
-                u1 = rand.genrandDouble();
+                u1 = rand.unifRand();
                 s = 0.0;
                 if (u1 > 0.5) {
                     s = 1.0;
@@ -215,7 +235,7 @@ public final class SNorm {
                     u2 = u1 - i;
                     aa = a[i - 1];
                     while (u2 <= t[i - 1]) {
-                        u1 = rand.genrandDouble();
+                        u1 = rand.unifRand();
                         w = u1 * (a[i] - aa);
                         tt = (w * 0.5 + aa) * w;
                         while (true) {
@@ -225,14 +245,14 @@ public final class SNorm {
                                 y = aa + w;
                                 return (s == 1.0) ? -y : y;
                             }
-                            u1 = rand.genrandDouble();
+                            u1 = rand.unifRand();
                             if (u2 < u1) {
                                 break;
                             }
                             tt = u1;
-                            u2 = rand.genrandDouble();
+                            u2 = rand.unifRand();
                         }
-                        u2 = rand.genrandDouble();
+                        u2 = rand.unifRand();
                     }
                     w = (u2 - t[i - 1]) * h[i - 1];
                 } else {
@@ -251,17 +271,17 @@ public final class SNorm {
                         w = u1 * d[i - 1];
                         tt = (w * 0.5 + aa) * w;
                         while (true) {
-                            u2 = rand.genrandDouble();
+                            u2 = rand.unifRand();
                             if (u2 > tt) {
                                 break jump;
                             }
-                            u1 = rand.genrandDouble();
+                            u1 = rand.unifRand();
                             if (u2 < u1) {
                                 break;
                             }
                             tt = u1;
                         }
-                        u1 = rand.genrandDouble();
+                        u1 = rand.unifRand();
                     }
                 }
                 // deliver:
@@ -274,8 +294,8 @@ public final class SNorm {
                     BMNormKeep = 0.0;
                     return s;
                 } else {
-                    theta = 2d * M_PI * rand.genrandDouble();
-                    r = sqrt(-2d * log(rand.genrandDouble())) + 10d * DBL_MIN; /* ensure non-zero */
+                    theta = 2d * M_PI * rand.unifRand();
+                    r = sqrt(-2d * log(rand.unifRand())) + 10d * DBL_MIN; /* ensure non-zero */
                     BMNormKeep = r * sin(theta);
                     return r * cos(theta);
                 }
@@ -286,24 +306,24 @@ public final class SNorm {
 
             case INVERSION:
                 /* unif_rand() alone is not of high enough precision */
-                u1 = rand.genrandDouble();
-                u1 = (int) (BIG * u1) + rand.genrandDouble();
+                u1 = rand.unifRand();
+                u1 = (int) (BIG * u1) + rand.unifRand();
                 return Qnorm.qnorm(u1 / BIG, 0.0, 1.0, true, false);
 
             case KINDERMAN_RAMAGE: /* see Reference above */
                 /*
                  * corrected version from Josef Leydold
                  */
-                u1 = rand.genrandDouble();
+                u1 = rand.unifRand();
                 if (u1 < 0.884070402298758) {
-                    u2 = rand.genrandDouble();
+                    u2 = rand.unifRand();
                     return A * (1.131131635444180 * u1 + u2 - 1);
                 }
 
                 if (u1 >= 0.973310954173898) { /* tail: */
                     while (true) {
-                        u2 = rand.genrandDouble();
-                        u3 = rand.genrandDouble();
+                        u2 = rand.unifRand();
+                        u3 = rand.unifRand();
                         tt = (A * A - 2 * log(u3));
                         if (u2 * u2 < (A * A) / tt) {
                             return (u1 < 0.986655477086949) ? sqrt(tt) : -sqrt(tt);
@@ -313,8 +333,8 @@ public final class SNorm {
 
                 if (u1 >= 0.958720824790463) { /* region3: */
                     while (true) {
-                        u2 = rand.genrandDouble();
-                        u3 = rand.genrandDouble();
+                        u2 = rand.unifRand();
+                        u3 = rand.unifRand();
                         tt = A - 0.630834801921960 * fmin2(u2, u3);
                         if (fmax2(u2, u3) <= 0.755591531667601) {
                             return (u2 < u3) ? tt : -tt;
@@ -327,8 +347,8 @@ public final class SNorm {
 
                 if (u1 >= 0.911312780288703) { /* region2: */
                     while (true) {
-                        u2 = rand.genrandDouble();
-                        u3 = rand.genrandDouble();
+                        u2 = rand.unifRand();
+                        u3 = rand.unifRand();
                         tt = 0.479727404222441 + 1.105473661022070 * fmin2(u2, u3);
                         if (fmax2(u2, u3) <= 0.872834976671790) {
                             return (u2 < u3) ? tt : -tt;
@@ -343,8 +363,8 @@ public final class SNorm {
                 if (true) { // Satisfy foolish style checker requiring "break"
                             // or "return" after infinite loops
                     while (true) {
-                        u2 = rand.genrandDouble();
-                        u3 = rand.genrandDouble();
+                        u2 = rand.unifRand();
+                        u3 = rand.unifRand();
                         tt = 0.479727404222441 - 0.595507138015940 * fmin2(u2, u3);
                         if (tt < 0.) {
                             continue;
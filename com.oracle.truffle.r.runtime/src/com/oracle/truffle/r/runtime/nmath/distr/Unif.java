@@ -55,6 +55,18 @@ public final class Unif {
             }
             return min + rand.unifRand() * (max - min);
         }
+
+        @Override
+        public void execute(double min, double max, RandomNumberProvider rand, double[] result, int offset, int count) {
+            if (!RRuntime.isFinite(min) || !RRuntime.isFinite(max) || max <= min) {
+                super.execute(min, max, rand, result, offset, count);
+                return;
+            }
+            rand.unifRand(result, offset, count);
+            for (int i = offset; i < offset + count; i++) {
+                result[i] = min + result[i] * (max - min);
+            }
+        }
     }
 
     public static final class PUnif implements Function3_2 {
@@ -23,24 +23,43 @@ package com.oracle.truffle.r.runtime.nodes;
 import java.util.HashSet;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.Collections.HashIndex;
+import com.oracle.truffle.r.runtime.Collections.HashIndexComplex;
+import com.oracle.truffle.r.runtime.Collections.HashIndexDouble;
+import com.oracle.truffle.r.runtime.Collections.HashIndexInt;
+import com.oracle.truffle.r.runtime.Collections.HashIndexString;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 
 /**
  * Code sharing vehicle for the slight differences in behavior between {@code duplicated} and
  * {@code anyDuplicated} (both internal and native versions) and whether {@code fromLast} is
- * {@code TRUE/FALSE}.
+ * {@code TRUE/FALSE}. Integer, double, character and complex vectors are indexed by a primitive
+ * {@link HashIndex}, other vectors use a set of their boxed elements.
  */
 public class DuplicationHelper {
     private final RAbstractContainer x;
-    private final HashSet<Object> vectorContents = new HashSet<>();
+    private final HashIndex hashIndex;
+    private final HashSet<Object> vectorContents;
     private final HashSet<Object> incompContents;
     private final byte[] dupVec;
     private int index;
 
     public DuplicationHelper(RAbstractContainer x, RAbstractContainer incomparables, boolean justIndex, boolean fromLast) {
         this.x = x;
-        vectorContents.add(x.getDataAtAsObject(fromLast ? x.getLength() - 1 : 0));
+        hashIndex = createIndex(x);
+        int first = fromLast ? x.getLength() - 1 : 0;
+        if (hashIndex != null) {
+            vectorContents = null;
+            hashIndex.add(first);
+        } else {
+            vectorContents = new HashSet<>();
+            vectorContents.add(x.getDataAtAsObject(first));
+        }
 
         if (incomparables != null) {
             incompContents = new HashSet<>();
@@ -55,15 +74,13 @@ public class DuplicationHelper {
 
     public boolean doIt(int i) {
         if (incompContents == null || !incompContents.contains(x.getDataAtAsObject(i))) {
-            if (vectorContents.contains(x.getDataAtAsObject(i))) {
+            if (hashIndex != null ? hashIndex.add(i) != -1 : !vectorContents.add(x.getDataAtAsObject(i))) {
                 if (dupVec == null) {
                     index = i + 1;
                     return true;
                 } else {
                     dupVec[i] = RRuntime.LOGICAL_TRUE;
                 }
-            } else {
-                vectorContents.add(x.getDataAtAsObject(i));
             }
         } else {
             if (dupVec != null) {
@@ -73,6 +90,19 @@ public class DuplicationHelper {
         return false;
     }
 
+    private static HashIndex createIndex(RAbstractContainer x) {
+        if (x instanceof RAbstractIntVector) {
+            return new HashIndexInt(((RAbstractIntVector) x).materialize().getReadonlyData());
+        } else if (x instanceof RAbstractDoubleVector) {
+            return new HashIndexDouble(((RAbstractDoubleVector) x).materialize().getReadonlyData());
+        } else if (x instanceof RAbstractStringVector) {
+            return new HashIndexString(((RAbstractStringVector) x).materialize().getReadonlyStringData());
+        } else if (x instanceof RAbstractComplexVector) {
+            return new HashIndexComplex(((RAbstractComplexVector) x).materialize().getReadonlyData());
+        }
+        return null;
+    }
+
     public int getIndex() {
         return index;
     }
@@ -40,14 +40,17 @@ import com.oracle.truffle.r.runtime.env.REnvironment;
 import com.oracle.truffle.r.runtime.env.frame.ActiveBinding;
 import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor;
 import com.oracle.truffle.r.runtime.ffi.BaseRFFI;
+import com.oracle.truffle.r.runtime.rng.kt.KnuthTAOCP;
+import com.oracle.truffle.r.runtime.rng.lecuyer.LEcuyerCMRG;
 import com.oracle.truffle.r.runtime.rng.mm.MarsagliaMulticarry;
 import com.oracle.truffle.r.runtime.rng.mt.MersenneTwister;
+import com.oracle.truffle.r.runtime.rng.sd.SuperDuper;
 import com.oracle.truffle.r.runtime.rng.user.UserRNG;
+import com.oracle.truffle.r.runtime.rng.wh.WichmannHill;
 
 /**
  * Facade class to the R random number generators, (see src/main/RNG.c in GnuR). The individual
- * generators are implemented in their own class. Currently there are only two implemented, the
- * default, {@link MersenneTwister} and {@link MarsagliaMulticarry}.
+ * generators are implemented in their own class, the default is {@link MersenneTwister}.
  *
  * The fact that the R programmer can set {@code .Random.seed} explicitly, as opposed to the
  * recommended approach of calling {@code set.seed}, is something of a pain as it changes the
@@ -63,14 +66,14 @@ public class RRNG {
      * {@link RRNG#doSetSeed}.
      */
     public enum Kind {
-        WICHMANN_HILL(),
+        WICHMANN_HILL(WichmannHill::new),
         MARSAGLIA_MULTICARRY(MarsagliaMulticarry::new),
-        SUPER_DUPER(),
+        SUPER_DUPER(SuperDuper::new),
         MERSENNE_TWISTER(MersenneTwister::new),
-        KNUTH_TAOCP(),
+        KNUTH_TAOCP(() -> new KnuthTAOCP(false)),
         USER_UNIF(UserRNG::new),
-        KNUTH_TAOCP2(),
-        LECUYER_CMRG();
+        KNUTH_TAOCP2(() -> new KnuthTAOCP(true)),
+        LECUYER_CMRG(LEcuyerCMRG::new);
 
         @CompilationFinal(dimensions = 1) static final Kind[] VALUES = values();
 
@@ -249,6 +252,14 @@ public class RRNG {
         return currentGenerator().genrandDouble();
     }
 
+    /**
+     * Fills {@code count} elements of {@code result} starting at {@code offset} with the values
+     * {@code count} calls of {@link #unifRand()} would return.
+     */
+    public static void unifRand(double[] result, int offset, int count) {
+        currentGenerator().genrandDouble(result, offset, count);
+    }
+
     /**
      * Set the seed and optionally the RNG kind and norm kind.
      *
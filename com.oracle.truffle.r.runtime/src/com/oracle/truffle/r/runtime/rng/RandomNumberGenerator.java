@@ -37,6 +37,17 @@ public interface RandomNumberGenerator {
 
     double genrandDouble();
 
+    /**
+     * Fills {@code count} elements of {@code result} starting at {@code offset} with the values that
+     * {@code count} successive calls of {@link #genrandDouble()} would return. Generators should
+     * override this if they can produce values in bulk more efficiently.
+     */
+    default void genrandDouble(double[] result, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            result[offset + i] = genrandDouble();
+        }
+    }
+
     Kind getKind();
 
     /**
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 1995-2012, The R Core Team
+ * Copyright (c) 2003, The R Foundation
+ * Copyright (c) 2018, Oracle and/or its affiliates
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, a copy is available at
+ * https://www.R-project.org/Licenses/
+ */
+package com.oracle.truffle.r.runtime.rng.kt;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.rng.RNGInitAdapter;
+import com.oracle.truffle.r.runtime.rng.RRNG;
+import com.oracle.truffle.r.runtime.rng.RRNG.Kind;
+
+/**
+ * "Knuth-TAOCP" and "Knuth-TAOCP-2002" RNGs, the lagged Fibonacci generator from Knuth's "The Art
+ * of Computer Programming", which differ only in the initialization. Transcribed from GnuR RNG.c
+ * and Knuth's ran_array code. The first 100 seeds are the generator state, the last one is the
+ * position of the next number in it.
+ */
+public final class KnuthTAOCP extends RNGInitAdapter {
+
+    private static final int KK = 100; /* the long lag */
+    private static final int LL = 37; /* the short lag */
+    private static final int MM = 1 << 30; /* the modulus */
+    private static final int TT = 70; /* guaranteed separation between streams */
+    private static final int QUALITY = 1009; /* recommended quality level for high-res use */
+    private static final double KT = 9.31322574615479e-10; /* = 2^-30 */
+
+    private final boolean version2002;
+    private final int[] buffer = new int[QUALITY];
+
+    public KnuthTAOCP(boolean version2002) {
+        this.version2002 = version2002;
+    }
+
+    private static int modDiff(int x, int y) {
+        return (x - y) & (MM - 1);
+    }
+
+    private static int evenize(int x) {
+        return x & (MM - 2);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void init(int seed) {
+        int s = Integer.remainderUnsigned(seed, 1073741821);
+        if (version2002) {
+            ranStart2002(s);
+        } else {
+            ranStart1997(s);
+        }
+        setISeedItem(KK, KK);
+    }
+
+    /**
+     * The initialization from the 1997 edition, the preparation buffer is not warmed up.
+     */
+    private void ranStart1997(int seed) {
+        int[] x = new int[KK + KK - 1];
+        int ss = evenize(seed + 2);
+        for (int j = 0; j < KK; j++) {
+            x[j] = ss; /* bootstrap the buffer */
+            ss <<= 1;
+            if (ss >= MM) {
+                ss -= MM - 2; /* cyclic shift 29 bits */
+            }
+        }
+        x[1]++; /* make x[1] (and only x[1]) odd */
+        ss = seed & (MM - 1);
+        int t = TT - 1;
+        while (t != 0) {
+            for (int j = KK - 1; j > 0; j--) {
+                x[j + j] = x[j]; /* "square" */
+            }
+            for (int j = KK + KK - 2; j > KK - LL; j -= 2) {
+                x[KK + KK - 1 - j] = evenize(x[j]);
+            }
+            for (int j = KK + KK - 2; j >= KK; j--) {
+                if ((x[j] & 1) != 0) {
+                    x[j - (KK - LL)] = modDiff(x[j - (KK - LL)], x[j]);
+                    x[j - KK] = modDiff(x[j - KK], x[j]);
+                }
+            }
+            if ((ss & 1) != 0) { /* "multiply by z" */
+                for (int j = KK; j > 0; j--) {
+                    x[j] = x[j - 1];
+                }
+                x[0] = x[KK]; /* shift the buffer cyclically */
+                if ((x[KK] & 1) != 0) {
+                    x[LL] = modDiff(x[LL], x[KK]);
+                }
+            }
+            if (ss != 0) {
+                ss >>= 1;
+            } else {
+                t--;
+            }
+        }
+        setState(x);
+    }
+
+    private void ranStart2002(int seed) {
+        int[] x = new int[KK + KK - 1];
+        int ss = (seed + 2) & (MM - 2);
+        for (int j = 0; j < KK; j++) {
+            x[j] = ss; /* bootstrap the buffer */
+            ss <<= 1;
+            if (ss >= MM) {
+                ss -= MM - 2; /* cyclic shift 29 bits */
+            }
+        }
+        x[1]++; /* make x[1] (and only x[1]) odd */
+        ss = seed & (MM - 1);
+        int t = TT - 1;
+        while (t != 0) {
+            for (int j = KK - 1; j > 0; j--) {
+                x[j + j] = x[j]; /* "square" */
+                x[j + j - 1] = 0;
+            }
+            for (int j = KK + KK - 2; j >= KK; j--) {
+                x[j - (KK - LL)] = modDiff(x[j - (KK - LL)], x[j]);
+                x[j - KK] = modDiff(x[j - KK], x[j]);
+            }
+            if ((ss & 1) != 0) { /* "multiply by z" */
+                for (int j = KK; j > 0; j--) {
+                    x[j] = x[j - 1];
+                }
+                x[0] = x[KK]; /* shift the buffer cyclically */
+                x[LL] = modDiff(x[LL], x[KK]);
+            }
+            if (ss != 0) {
+                ss >>= 1;
+            } else {
+                t--;
+            }
+        }
+        setState(x);
+        for (int j = 0; j < 10; j++) {
+            ranArray(x, KK + KK - 1); /* warm things up */
+        }
+    }
+
+    private void setState(int[] x) {
+        int j;
+        for (j = 0; j < LL; j++) {
+            setISeedItem(j + KK - LL, x[j]);
+        }
+        for (; j < KK; j++) {
+            setISeedItem(j - LL, x[j]);
+        }
+    }
+
+    /**
+     * Puts {@code n} new random numbers to {@code aa} and advances the state.
+     */
+    private void ranArray(int[] aa, int n) {
+        int i;
+        int j;
+        for (j = 0; j < KK; j++) {
+            aa[j] = getISeedItem(j);
+        }
+        for (; j < n; j++) {
+            aa[j] = modDiff(aa[j - KK], aa[j - LL]);
+        }
+        for (i = 0; i < LL; i++, j++) {
+            setISeedItem(i, modDiff(aa[j - KK], aa[j - LL]));
+        }
+        for (; i < KK; i++, j++) {
+            setISeedItem(i, modDiff(aa[j - KK], getISeedItem(i - LL)));
+        }
+    }
+
+    @Override
+    @TruffleBoundary
+    public void fixupSeeds(boolean initial) {
+        if (getISeedItem(KK) <= 0) {
+            setISeedItem(KK, KK);
+        }
+        for (int j = 0; j < KK; j++) {
+            if (getISeedItem(j) != 0) {
+                return;
+            }
+        }
+        // all zeroes
+        init(RRNG.timeToSeed());
+    }
+
+    @Override
+    public double genrandDouble() {
+        int pos = getISeedItem(KK);
+        if (pos >= KK) {
+            ranArray(buffer, QUALITY);
+            pos = 0;
+        }
+        setISeedItem(KK, pos + 1);
+        return fixup(getISeedItem(pos) * KT);
+    }
+
+    @Override
+    public Kind getKind() {
+        return version2002 ? Kind.KNUTH_TAOCP2 : Kind.KNUTH_TAOCP;
+    }
+
+    @Override
+    public int getNSeed() {
+        return KK + 1;
+    }
+}
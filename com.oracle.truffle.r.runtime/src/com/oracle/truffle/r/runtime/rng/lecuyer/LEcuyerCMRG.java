@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 1995-2012, The R Core Team
+ * Copyright (c) 2003, The R Foundation
+ * Copyright (c) 2018, Oracle and/or its affiliates
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, a copy is available at
+ * https://www.R-project.org/Licenses/
+ */
+package com.oracle.truffle.r.runtime.rng.lecuyer;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.rng.RNGInitAdapter;
+import com.oracle.truffle.r.runtime.rng.RRNG;
+import com.oracle.truffle.r.runtime.rng.RRNG.Kind;
+
+/**
+ * "L'Ecuyer-CMRG" RNG, the combined multiple-recursive generator MRG32k3a, with support for
+ * advancing a seed to the next stream or sub-stream as used by the parallel package. Transcribed
+ * from GnuR RNG.c and parallel/src/rngstream.c.
+ */
+public final class LEcuyerCMRG extends RNGInitAdapter {
+
+    private static final long M1 = 4294967087L;
+    private static final long M2 = 4294944443L;
+    private static final double NORMC = 2.328306549295727688e-10;
+    private static final long A12 = 1403580;
+    private static final long A13N = 810728;
+    private static final long A21 = 527612;
+    private static final long A23N = 1370589;
+
+    private static final long[][] A1P76 = {
+                    {82758667L, 1871391091L, 4127413238L},
+                    {3672831523L, 69195019L, 1871391091L},
+                    {3672091415L, 3528743235L, 69195019L}
+    };
+
+    private static final long[][] A2P76 = {
+                    {1511326704L, 3759209742L, 1610795712L},
+                    {4292754251L, 1511326704L, 3889917532L},
+                    {3859662829L, 4292754251L, 3708466080L}
+    };
+
+    private static final long[][] A1P127 = {
+                    {2427906178L, 3580155704L, 949770784L},
+                    {226153695L, 1230515664L, 3580155704L},
+                    {1988835001L, 986791581L, 1230515664L}
+    };
+
+    private static final long[][] A2P127 = {
+                    {1464411153L, 277697599L, 1610723613L},
+                    {32183930L, 1464411153L, 1022607788L},
+                    {2824425944L, 32183930L, 2093834863L}
+    };
+
+    @Override
+    @TruffleBoundary
+    public void init(int seedParam) {
+        int seed = seedParam;
+        for (int i = 0; i < getNSeed(); i++) {
+            seed = (69069 * seed + 1);
+            while (Integer.toUnsignedLong(seed) >= M2) {
+                seed = (69069 * seed + 1);
+            }
+            setISeedItem(i, seed);
+        }
+    }
+
+    @Override
+    @TruffleBoundary
+    public void fixupSeeds(boolean initial) {
+        // first set: not all zero, in [0, m1), second set: not all zero, in [0, m2)
+        if (!isValid(0, M1) || !isValid(3, M2)) {
+            init(RRNG.timeToSeed());
+        }
+    }
+
+    private boolean isValid(int from, long m) {
+        boolean notAllZero = false;
+        for (int i = from; i < from + 3; i++) {
+            long value = Integer.toUnsignedLong(getISeedItem(i));
+            if (value >= m) {
+                return false;
+            }
+            notAllZero |= value != 0;
+        }
+        return notAllZero;
+    }
+
+    @Override
+    public double genrandDouble() {
+        long p1 = A12 * Integer.toUnsignedLong(getISeedItem(1)) - A13N * Integer.toUnsignedLong(getISeedItem(0));
+        p1 %= M1;
+        if (p1 < 0) {
+            p1 += M1;
+        }
+        setISeedItem(0, getISeedItem(1));
+        setISeedItem(1, getISeedItem(2));
+        setISeedItem(2, (int) p1);
+
+        long p2 = A21 * Integer.toUnsignedLong(getISeedItem(5)) - A23N * Integer.toUnsignedLong(getISeedItem(3));
+        p2 %= M2;
+        if (p2 < 0) {
+            p2 += M2;
+        }
+        setISeedItem(3, getISeedItem(4));
+        setISeedItem(4, getISeedItem(5));
+        setISeedItem(5, (int) p2);
+
+        return ((p1 > p2) ? (p1 - p2) : (p1 - p2 + M1)) * NORMC;
+    }
+
+    @Override
+    public Kind getKind() {
+        return Kind.LECUYER_CMRG;
+    }
+
+    @Override
+    public int getNSeed() {
+        return 6;
+    }
+
+    /**
+     * Returns the seed of the stream following the one given by {@code seed} in the format of
+     * {@code .Random.seed}, i.e., the state advanced by 2^127 steps.
+     */
+    public static int[] nextStream(int[] seed) {
+        return advance(seed, A1P127, A2P127);
+    }
+
+    /**
+     * Returns the seed of the sub-stream following the one given by {@code seed} in the format of
+     * {@code .Random.seed}, i.e., the state advanced by 2^76 steps.
+     */
+    public static int[] nextSubStream(int[] seed) {
+        return advance(seed, A1P76, A2P76);
+    }
+
+    private static int[] advance(int[] seed, long[][] a1, long[][] a2) {
+        int[] result = new int[7];
+        result[0] = seed[0];
+        for (int i = 0; i < 3; i++) {
+            result[i + 1] = (int) multiplyRow(a1[i], seed, 1, M1);
+            result[i + 4] = (int) multiplyRow(a2[i], seed, 4, M2);
+        }
+        return result;
+    }
+
+    private static long multiplyRow(long[] row, int[] seed, int offset, long m) {
+        // the products do not fit into a signed long, but the sums fit into an unsigned one
+        long tmp = 0;
+        for (int j = 0; j < 3; j++) {
+            tmp = Long.remainderUnsigned(tmp + row[j] * Integer.toUnsignedLong(seed[offset + j]), m);
+        }
+        return tmp;
+    }
+}
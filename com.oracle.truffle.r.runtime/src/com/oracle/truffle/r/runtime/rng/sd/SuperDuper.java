@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 1995-2012, The R Core Team
+ * Copyright (c) 2003, The R Foundation
+ * Copyright (c) 2018, Oracle and/or its affiliates
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, a copy is available at
+ * https://www.R-project.org/Licenses/
+ */
+package com.oracle.truffle.r.runtime.rng.sd;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.rng.RNGInitAdapter;
+import com.oracle.truffle.r.runtime.rng.RRNG.Kind;
+
+/**
+ * "Super-Duper" RNG, the Reeds et al (1984) implementation with unsigned seeds. Transcribed from
+ * GnuR RNG.c.
+ */
+public final class SuperDuper extends RNGInitAdapter {
+
+    @Override
+    @TruffleBoundary
+    public void init(int seedParam) {
+        int seed = seedParam;
+        for (int i = 0; i < getNSeed(); i++) {
+            seed = (69069 * seed + 1);
+            setISeedItem(i, seed);
+        }
+        fixupSeeds(true);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void fixupSeeds(boolean initial) {
+        if (getISeedItem(0) == 0) {
+            setISeedItem(0, 1);
+        }
+        // I2 = Congruential: must be ODD
+        setISeedItem(1, getISeedItem(1) | 1);
+    }
+
+    @Override
+    public double genrandDouble() {
+        int i1 = getISeedItem(0);
+        i1 ^= (i1 >>> 15) & 0377777; /* Tausworthe */
+        i1 ^= i1 << 17;
+        int i2 = getISeedItem(1) * 69069; /* Congruential */
+        setISeedItem(0, i1);
+        setISeedItem(1, i2);
+        return fixup(((i1 ^ i2) & 0xffffffffL) * I2_32M1); /* in [0,1) */
+    }
+
+    @Override
+    public Kind getKind() {
+        return Kind.SUPER_DUPER;
+    }
+
+    @Override
+    public int getNSeed() {
+        return 2;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 1995-2012, The R Core Team
+ * Copyright (c) 2003, The R Foundation
+ * Copyright (c) 2018, Oracle and/or its affiliates
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, a copy is available at
+ * https://www.R-project.org/Licenses/
+ */
+package com.oracle.truffle.r.runtime.rng.wh;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.rng.RNGInitAdapter;
+import com.oracle.truffle.r.runtime.rng.RRNG.Kind;
+
+/**
+ * "Wichmann-Hill" RNG. Transcribed from GnuR RNG.c.
+ */
+public final class WichmannHill extends RNGInitAdapter {
+
+    @Override
+    @TruffleBoundary
+    public void init(int seedParam) {
+        int seed = seedParam;
+        for (int i = 0; i < getNSeed(); i++) {
+            seed = (69069 * seed + 1);
+            setISeedItem(i, seed);
+        }
+        fixupSeeds(true);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void fixupSeeds(boolean initial) {
+        setISeedItem(0, Integer.remainderUnsigned(getISeedItem(0), 30269));
+        setISeedItem(1, Integer.remainderUnsigned(getISeedItem(1), 30307));
+        setISeedItem(2, Integer.remainderUnsigned(getISeedItem(2), 30323));
+        for (int i = 0; i < getNSeed(); i++) {
+            if (getISeedItem(i) == 0) {
+                setISeedItem(i, 1);
+            }
+        }
+    }
+
+    @Override
+    public double genrandDouble() {
+        int i1 = getISeedItem(0) * 171 % 30269;
+        int i2 = getISeedItem(1) * 172 % 30307;
+        int i3 = getISeedItem(2) * 170 % 30323;
+        setISeedItem(0, i1);
+        setISeedItem(1, i2);
+        setISeedItem(2, i3);
+        double value = i1 / 30269.0 + i2 / 30307.0 + i3 / 30323.0;
+        return fixup(value - (int) value); /* in [0,1) */
+    }
+
+    @Override
+    public Kind getKind() {
+        return Kind.WICHMANN_HILL;
+    }
+
+    @Override
+    public int getNSeed() {
+        return 3;
+    }
+}
@@ -37,4 +37,12 @@ public class TestBuiltin_RNGkind extends TestBase {
         // Note: GnuR also prints warning about NAs
         assertEval(Output.IgnoreErrorMessage, ".Internal(RNGkind(NULL, 'abc'))");
     }
+
+    @Test
+    public void testKinds() {
+        assertEval(template("{ RNGkind(\"%0\"); set.seed(42); x <- runif(5); set.seed(42); list(RNGkind()[[1]], x, identical(x, runif(5))) }",
+                        new String[]{"Wichmann-Hill", "Marsaglia-Multicarry", "Super-Duper", "Mersenne-Twister", "Knuth-TAOCP", "Knuth-TAOCP-2002", "L'Ecuyer-CMRG"}));
+        assertEval("{ RNGkind(\"L'Ecuyer-CMRG\"); set.seed(123); s <- .Random.seed[1:7]; list(s, parallel::nextRNGStream(s), parallel::nextRNGSubStream(s)) }");
+        assertEval("{ RNGkind(\"L'Ecuyer-CMRG\"); set.seed(1); s <- parallel::nextRNGStream(.Random.seed[1:7]); assign('.Random.seed', s, envir=globalenv()); runif(3) }");
+    }
 }
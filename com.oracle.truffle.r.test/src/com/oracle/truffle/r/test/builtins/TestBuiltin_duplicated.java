@@ -141,6 +141,12 @@ public class TestBuiltin_duplicated extends TestBase {
 
         assertEval("{ duplicated(NULL, 0); }");
 
+        assertEval("{ duplicated(c(NA, NaN, NA, NaN, 0, -0)) }");
+        assertEval("{ duplicated(c(NA, NaN, NA, NaN, 0, -0), fromLast=TRUE) }");
+        assertEval("{ duplicated(c(NA, 'NA', NA, 'NA')) }");
+        assertEval("{ anyDuplicated(c(NA, NaN, 1)) }");
+        assertEval("{ anyDuplicated(c(NaN, NA, 1, NaN)) }");
+
         assertEval("{ x<-quote(f(7, 42)); duplicated(x) }");
         assertEval("{ x<-function() 42; duplicated(x) }");
         assertEval(Output.IgnoreErrorContext, "{ duplicated(c(1,2,1), incomparables=function() 42) }");
@@ -409,6 +409,19 @@ public class TestBuiltin_match extends TestBase {
         assertEval("{ match(c('1+0i', '0+0i'), c(1+0i, 0+0i)) }");
     }
 
+    @Test
+    public void testMatchSpecialValues() {
+        assertEval("{ match(c(NA, NaN, 0, -0, 1), c(1, -0, NaN, NA)) }");
+        assertEval("{ match(c(NA, 1L, 2L), c(NaN, 2, NA)) }");
+        assertEval("{ match(c(NaN, NA, 2), c(2L, NA)) }");
+        assertEval("{ match(c(complex(real=NaN, imaginary=0), NA, 1+1i), c(1+1i, complex(real=NA, imaginary=1), complex(real=NaN, imaginary=0))) }");
+        assertEval("{ match(c(NA, 'NA', 'b'), c('b', 'NA', NA)) }");
+        assertEval("{ x <- c(1:3, NA); match(x, rep(c(3:1, NA), 100)) }");
+        assertEval("{ x <- c(NaN, 2.5); match(x, c(rep(1.5, 100), NaN, 2.5)) }");
+        assertEval("{ x <- as.character(1:20000); match(c('17', '20000', 'x', NA), x) }");
+        assertEval("{ set.seed(1); t <- sample(1e4); x <- sample(2e4, 1e4); sum(match(x, t), na.rm=TRUE) }");
+    }
+
     @Test
     public void testMatchInSequence() {
         assertEval("{ match(c(-2L, -1L, 0L, 1L, 10L, 11L), seq.int(from=-1L, to=10L, by=1L)) }");
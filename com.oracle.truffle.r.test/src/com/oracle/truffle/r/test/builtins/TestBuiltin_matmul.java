@@ -41,4 +41,13 @@ public class TestBuiltin_matmul extends TestBase {
         assertEval("c(NA+2i) %*% c(3,4,5,6)");
         assertEval("c(1+2i) %*% c(3,4,5,6)");
     }
+
+    @Test
+    public void testMatmulLarge() {
+        // large enough to be computed in parallel
+        assertEval("a <- matrix(seq(0.5, by=0.25, length.out=150*120), 150, 120); b <- matrix(seq(-3, by=0.5, length.out=120*130), 120, 130); r <- a %*% b; dim(r); r[c(1,77,150), c(1,65,130)]; identical(r[42,], colSums(a[42,] * b))");
+        assertEval("a <- matrix(seq(0.5, by=0.25, length.out=150*120), 150, 120); b <- matrix(seq(-3, by=0.5, length.out=120*130), 120, 130); a[3,7] <- NA; b[5,9] <- NaN; r <- a %*% b; r[3, 1:3]; r[1:3, 9]; sum(is.na(r))");
+        assertEval("a <- matrix(seq(0.5, by=0.25, length.out=150*120), 150, 120); r <- crossprod(a); isSymmetric(r); r[c(1,120), c(1,120)]; identical(r, t(a) %*% a)");
+        assertEval("a <- matrix(seq(0.5, by=0.25, length.out=150*120), 150, 120); r <- tcrossprod(a); dim(r); r[c(1,150), c(1,150)]");
+    }
 }
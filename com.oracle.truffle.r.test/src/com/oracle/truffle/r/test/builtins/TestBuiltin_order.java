@@ -180,4 +180,24 @@ public class TestBuiltin_order extends TestBase {
         assertEval("order(NULL)");
         assertEval("order(c(NULL, c(1,2,0)))");
     }
+
+    @Test
+    public void testOrderLarge() {
+        // long enough for the radix/merge sorts, the 100000 element vectors are sorted in parallel
+        assertEval("{ x <- (1:1000 * 7919L) %% 101L; x[c(5, 500)] <- NA; o <- order(x); list(o[1:10], o[995:1000], sum(as.numeric(o) * 1:1000)) }");
+        assertEval("{ x <- (1:1000 * 7919L) %% 101L; x[c(5, 500)] <- NA; o <- order(x, decreasing=TRUE, na.last=FALSE); list(o[1:10], sum(as.numeric(o) * 1:1000)) }");
+        assertEval("{ x <- (1:1000 * 7919L) %% 101L; x[c(5, 500)] <- NA; o <- order(x, na.last=NA); list(length(o), sum(as.numeric(o) * seq_along(o))) }");
+        assertEval("{ x <- ((1:1000 * 7919) %% 101) - 50.5; x[c(3, 7)] <- c(-0, 0); x[c(10, 11)] <- NA; o <- order(x); list(o[1:10], o[990:1000], sum(as.numeric(o) * 1:1000)) }");
+        assertEval("{ x <- ((1:1000 * 7919) %% 101) / 7; o <- order(x, decreasing=TRUE); list(o[1:10], sum(as.numeric(o) * 1:1000)) }");
+        assertEval("{ x <- as.character((1:1000 * 7919L) %% 101L); x[42] <- NA; o <- order(x); list(o[1:10], sum(as.numeric(o) * 1:1000)) }");
+        assertEval("{ x <- (1:1000 * 7919L) %% 13L; y <- as.character((1:1000 * 31L) %% 7L); o <- order(x, y, decreasing=TRUE); list(o[1:10], sum(as.numeric(o) * 1:1000)) }");
+        assertEval("{ x <- (1:100000 * 7919L) %% 1009L; o <- order(x); list(o[1:10], sum(as.numeric(o) * 1:100000)) }");
+        assertEval("{ x <- (1:100000 * 7919) %% 1009 - 0.5; o <- order(x, decreasing=TRUE); list(o[1:10], sum(as.numeric(o) * 1:100000)) }");
+        assertEval("{ x <- (1:100000 * 7919L) %% 1009L; y <- (1:100000 * 31L) %% 17L; o <- order(x, y); list(o[1:10], sum(as.numeric(o) * 1:100000)) }");
+        assertEval("{ x <- (1:1000 * 7919L) %% 13L; y <- (1:1000 * 31L) %% 7L; o <- order(x, y, decreasing=c(TRUE, FALSE), method='radix'); list(o[1:10], sum(as.numeric(o) * 1:1000)) }");
+        // NAs stay at the na.last end for every key whatever its decreasing
+        assertEval("{ x <- (1:1000 * 7919L) %% 13L; y <- (1:1000 * 31L) %% 7L; x[c(3, 50, 700)] <- NA; y[c(10, 11, 50)] <- NA; o <- order(x, y, decreasing=c(TRUE, FALSE), method='radix'); list(o[1:10], o[990:1000], sum(as.numeric(o) * 1:1000)) }");
+        assertEval("{ x <- (1:1000 * 7919L) %% 13L; y <- (1:1000 * 31L) %% 7L; x[c(3, 50, 700)] <- NA; y[c(10, 11, 50)] <- NA; o <- order(x, y, decreasing=c(FALSE, TRUE), na.last=FALSE, method='radix'); list(o[1:10], o[990:1000], sum(as.numeric(o) * 1:1000)) }");
+        assertEval("order(c(1, NA, 3, 2, NA, 3), c(NA, 1, 2, 3, 2, 1), decreasing=c(TRUE, FALSE), method='radix')");
+    }
 }
@@ -265,4 +265,19 @@ public class TestBuiltin_rep extends TestBase {
 
         assertEval("rep(NULL)");
     }
+
+    @Test
+    public void testRepLong() {
+        // long results are represented compactly
+        assertEval("{ x <- rep(NA, 2e6); c(length(x), sum(is.na(x)), anyNA(x)) }");
+        assertEval("{ x <- rep(c(1L, NA, 3L), 1e6); c(length(x), sum(x, na.rm=TRUE), x[2999999:3000000]) }");
+        assertEval("{ x <- rep(2.5, 2e6); sum(x * 2) }");
+        assertEval("{ x <- rep(c('a', 'b'), length.out=2e6+1); c(x[1:3], x[2e6+1], table(x)) }");
+        assertEval("{ x <- rep(c(TRUE, FALSE), 1e6); x[5] <- NA; c(sum(x, na.rm=TRUE), x[4:6]) }");
+        assertEval("{ x <- rep(1:2, 1e6); y <- x; y[1] <- 42L; c(x[1], y[1], typeof(y)) }");
+        assertEval("{ x <- rep(1:3, 1e6); names(x) <- NULL; dim(x) <- c(3, 1e6); x[, 1e6] }");
+        assertEval("{ x <- as.character(rep(c(1L, NA), 1e6)); c(length(x), x[1:4], sum(is.na(x))) }");
+        assertEval("{ x <- as.character(rep(0.1, 2e6)); c(length(x), x[2e6]) }");
+        assertEval("{ x <- rep(c(a=1, b=2), 1e6); names(x)[1:4] }");
+    }
 }
@@ -112,4 +112,12 @@ public class TestBuiltin_rowSums extends TestBase {
 
         assertEval("{x<-matrix(c(\"1\",\"2\",\"3\",\"4\"),ncol=2);rowSums(x)}");
     }
+
+    @Test
+    public void testLargeMatrix() {
+        // large enough to be processed in parallel
+        assertEval("{ m <- matrix(rep(c(0.5, 1, -2, 4, 0.25), length.out=1203401), nrow=3001); m[1] <- 0.5; r <- list(rowSums(m), rowMeans(m), colSums(m), colMeans(m)); list(lengths(r), sapply(r, sum), r[[1]][c(1, 1500, 3001)], r[[3]][c(1, 401)]) }");
+        assertEval("{ m <- matrix(rep(c(0.5, 1, -2, 4, 0.25), length.out=1203401), nrow=3001); m[5, 7] <- NA; m[6, 8] <- NaN; m[7, 9] <- Inf; " +
+                        "r <- list(rowSums(m), rowMeans(m), colSums(m), colMeans(m), rowSums(m, na.rm=TRUE), rowMeans(m, na.rm=TRUE), colSums(m, na.rm=TRUE), colMeans(m, na.rm=TRUE)); lapply(r, function(x) x[4:10]) }");
+    }
 }
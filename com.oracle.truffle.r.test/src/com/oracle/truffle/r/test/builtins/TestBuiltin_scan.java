@@ -99,6 +99,17 @@ public class TestBuiltin_scan extends TestBase {
         assertEval("{ con<-textConnection(c(\"1.5 2.89 3\", \"4 5 6\")); .Internal(scan(con, 1.2, 2, ' ', NULL, '\"', 0, 3, \"NA\", F, F, F, T, T, '', '#', T, 'utf8', F)) }");
     }
 
+    @Test
+    public void testScanBlocks() {
+        assertEval("{ n <- 200000; con <- textConnection(paste(1:n, n:1 / 4, paste0('s', 1:n %% 7), c('TRUE', 'FALSE', 'NA'), sep=',')); l <- scan(con, what=list(0L, 0, '', NA), sep=',', quiet=TRUE); list(lengths(l), sum(as.numeric(l[[1]])), sum(l[[2]]), table(l[[3]]), sum(l[[4]], na.rm=TRUE), anyNA(l[[4]])) }");
+        assertEval("{ n <- 100000; con <- textConnection(paste(1:n, 1:n)); x <- scan(con, what=list(0L, 0L), nmax=10, quiet=TRUE); list(x, readLines(con, 2)) }");
+        assertEval("{ n <- 100000; con <- textConnection(paste(1:n, c(1:50000, 'x', 50002:n), c(1:10, 'y', 12:n))); scan(con, what=list(0L, 0L, 0L), quiet=TRUE) }");
+        assertEval("{ n <- 100000; con <- textConnection(paste(1:n, c(1:(n-1), ''))); x <- scan(con, what=list(0L, 0L), fill=TRUE, quiet=TRUE); list(lengths(x), x[[2]][(n-1):n]) }");
+        assertEval("{ n <- 1000; con <- textConnection(c(paste(1:n, c(1:10, 'x', 12:n)), '1 \\'2')); scan(con, what=list(0L, 0L), quiet=TRUE) }");
+        // an open connection is read on after scan, also by readBin
+        assertEval("{ f <- tempfile(); writeLines(c('1 2', '3 4', 'abc'), f); con <- file(f, 'rb'); x <- scan(con, nlines=1, quiet=TRUE); y <- rawToChar(readBin(con, 'raw', 3)); close(con); unlink(f); list(x, y) }");
+    }
+
     @Test
     public void testPooling() {
         assertEvalFastR("s <- scan(textConnection(paste0(rep('asdf\\n', 1000))), character(0), quiet=T); all(sapply(s, function(x) .fastr.identity(x) == .fastr.identity(s[[1]])))", "TRUE");
@@ -121,4 +121,12 @@ public class TestBuiltin_serialize extends TestBase {
         assertEval("{ f <- function(...) serialize(mget('...'),NULL); length(unserialize(f(a=3,b=2,c=1))[[1]]); }");
         assertEval("{ f <- function(...) serialize(environment()[['...']],NULL); x <- unserialize(f(a=3,b=2,c=1)); typeof(x) }");
     }
+
+    @Test
+    public void testSerializeLargeVectors() {
+        String x = "x <- list(as.numeric(1:300000) / 7, c(1:200000, NA), as.raw(rep(0:255, 2000)), strrep('a', 300000), c(TRUE, NA, FALSE)); x[[1]][5] <- NA; ";
+        assertEval("{ " + x + "s <- serialize(x, NULL); list(length(s), sum(as.integer(s[1:1000])), identical(unserialize(s), x)) }");
+        assertEval("{ " + x + "f <- tempfile(); saveRDS(x, f); y <- readRDS(f); unlink(f); identical(x, y) }");
+        assertEval("{ " + x + "f <- tempfile(); con <- file(f, 'wb'); serialize(x, con); close(con); con <- file(f, 'rb'); y <- unserialize(con); close(con); s <- file.size(f); unlink(f); list(s, identical(x, y)) }");
+    }
 }
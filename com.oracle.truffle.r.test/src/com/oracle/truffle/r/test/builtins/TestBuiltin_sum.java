@@ -208,4 +208,13 @@ public class TestBuiltin_sum extends TestBase {
         assertEval("sum(c(2147483647L), 1)");
         assertEval("sum(c(-2147483647L), -1)");
     }
+
+    @Test
+    public void testLargeVectors() {
+        // long enough to be reduced in parallel chunks, the assignment materializes the rep result
+        assertEval("{ x <- rep(c(0.25, 1, 2.5, -3), 500000); x[1] <- 0.25; y <- rep(c(2, 0.5), 1e6); y[1] <- 2; list(sum(x), mean(x), max(x), min(x), range(x), prod(y)) }");
+        assertEval("{ x <- rep(c(0.25, 1, 2.5, -3), 500000); x[1500000] <- NA; list(sum(x), sum(x, na.rm=TRUE), mean(x), max(x), max(x, na.rm=TRUE), range(x, na.rm=TRUE), prod(x), prod(x, na.rm=TRUE)) }");
+        assertEval("{ x <- rep(c(0.25, 1, 2.5, -3), 500000); x[10] <- NaN; x[1500000] <- NA; x[5] <- Inf; list(sum(x), max(x), min(x, na.rm=TRUE), range(x, finite=TRUE)) }");
+        assertEval("{ x <- rep(NA_real_, 2e6); x[1] <- NA; list(max(x, na.rm=TRUE), sum(x, na.rm=TRUE)) }");
+    }
 }
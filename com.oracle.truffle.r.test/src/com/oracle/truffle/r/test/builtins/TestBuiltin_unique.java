@@ -206,6 +206,11 @@ public class TestBuiltin_unique extends TestBase {
 
         assertEval("unique(c(1, NA, NA))");
         assertEval("unique(c(1+1i, NA, NA))");
+        assertEval("unique(c(NA, NaN, NA, NaN, 0, -0))");
+        assertEval("unique(rep(c(NA, NaN, 0, -0, 1, 2), 20))");
+        assertEval("unique(rep(c(NA, 1L, 2L, 0L), 20))");
+        assertEval("unique(rep(c(NA, 'NA', 'a'), 20))");
+        assertEval("unique(rep(c(NA, complex(real=NaN, imaginary=1), complex(real=1, imaginary=NA), 1+1i), 20))");
 
     }
 }
@@ -101,4 +101,13 @@ public class TestBuiltin_unserialize extends TestBase {
         assertEval(Output.ContainsReferences, "options(keep.source=FALSE); val <- new.env(hash=FALSE); val$e <- 5+9i; unserialize(serialize(val, connection=NULL))");
         assertEval(Output.ContainsReferences, "options(keep.source=FALSE); val <- new.env(hash=FALSE); val$f <- NA; unserialize(serialize(val, connection=NULL))");
     }
+
+    @Test
+    public void testUnserializeLargeVectors() {
+        String x = "x <- list(sin(1:300000), c(1:200000, NA), c(rep(c(TRUE, FALSE), 100000), NA), complex(real=cos(1:100000), imaginary=1:100000), as.raw(rep(0:255, 2000))); x[[1]][7] <- NA; x[[4]][3] <- NA; ";
+        assertEval("{ " + x + "y <- unserialize(serialize(x, NULL)); list(identical(x, y), sapply(y, anyNA)) }");
+        assertEval("{ " + x + "f <- tempfile(); saveRDS(x, f); y <- readRDS(f); unlink(f); list(identical(x, y), sapply(y, anyNA)) }");
+        assertEval("{ " + x + "f <- tempfile(); saveRDS(x, f, compress='xz'); y <- readRDS(f); unlink(f); identical(x, y) }");
+        assertEval("{ " + x + "f <- tempfile(); saveRDS(x, f, compress=FALSE); y <- readRDS(f); unlink(f); identical(x, y) }");
+    }
 }
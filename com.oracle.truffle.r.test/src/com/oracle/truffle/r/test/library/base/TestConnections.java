@@ -214,6 +214,26 @@ public class TestConnections extends TestRBase {
         assertEval(template("readLines(textConnection(\"foo%0%1\"))", endings, text));
     }
 
+    @Test
+    public void testReadLinesBlocks() {
+        // lines longer than the read cache and line endings split across blocks
+        assertEval("{ f <- tempfile(); x <- c(strrep('a', 40000), '', strrep('b', 16383), 'c'); writeLines(x, f); y <- readLines(f); unlink(f); c(identical(x, y), nchar(y)) }");
+        assertEval("{ f <- tempfile(); writeBin(charToRaw(paste0(strrep('x', 16383), '\\r\\nz\\r\\rw')), f); y <- readLines(f); unlink(f); nchar(y) }");
+        assertEval("{ f <- tempfile(); writeLines(as.character(1:10000), f); con <- file(f, 'r'); a <- readLines(con, 4999); b <- readLines(con); close(con); unlink(f); c(length(a), a[4999], length(b), b[1], b[5001]) }");
+        assertEval("{ f <- tempfile(); writeBin(as.raw(c(rep(97, 20000), 0, 98, 10, 99)), f); y <- readLines(f, skipNul=TRUE, warn=FALSE); unlink(f); nchar(y) }");
+    }
+
+    @Test
+    public void testCompressedBlocks() {
+        // output spanning many compressed blocks, written in pieces and appended
+        assertEval("{ f <- tempfile(); con <- gzfile(f, 'wb'); for (i in 1:20) writeBin(sin(((i - 1) * 10000 + 1):(i * 10000)), con); close(con); con <- gzfile(f, 'rb'); y <- readBin(con, 'double', 300000); close(con); unlink(f); identical(y, sin(1:200000)) }");
+        assertEval("{ f <- tempfile(); x <- as.character(1:200000); writeLines(x[1:100000], gzfile(f, 'w')); con <- gzfile(f, 'a'); writeLines(x[100001:200000], con); close(con); y <- readLines(gzfile(f)); unlink(f); identical(x, y) }");
+        assertEval("{ f <- tempfile(); x <- list(sin(1:1000000), as.character(1:100000)); save(x, file=f, compress='xz'); e <- new.env(); load(f, envir=e); unlink(f); identical(x, e$x) }");
+        assertEval("{ f <- tempfile(); x <- sin(1:1000000); saveRDS(x, f); y <- readRDS(f); unlink(f); identical(x, y) }");
+        // more than one 24MB xz block
+        assertEval("{ f <- tempfile(); x <- as.raw((1:26000000 * 7L) %% 251L); con <- xzfile(f, 'wb'); writeBin(x, con); close(con); con <- xzfile(f, 'rb'); y <- readBin(con, 'raw', 30000000); close(con); unlink(f); identical(x, y) }");
+    }
+
     @Test
     public void testRawReadAppendText() {
 
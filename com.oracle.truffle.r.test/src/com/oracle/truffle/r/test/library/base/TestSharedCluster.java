@@ -41,4 +41,29 @@ public class TestSharedCluster extends TestBase {
                         "library(parallel); fun <- function(data) { cl <- makeCluster(%0, ifelse(exists('engine', where=R.version),'SHARED','PSOCK')); parLapply(cl, data, function(x) x+1); stopCluster(cl) }; fun(1:100)",
                         "123456789".split("")));
     }
+
+    @Test
+    public void testWorkerPool() {
+        assertEvalFastR("library(parallel); r <- lapply(1:5, function(i) unlist(mclapply(1:10, function(x) x * i, mc.cores=2))); identical(r, lapply(1:5, function(i) (1:10) * i))", "TRUE");
+        // pooled nodes share the global environment with the master, which is not reset
+        assertEvalFastR("library(parallel); x <- 1; invisible(mclapply(1:2, identity)); exists('x')", "TRUE");
+        assertEvalFastR("library(parallel); set.seed(1); invisible(mclapply(1:2, identity)); exists('.Random.seed')", "TRUE");
+        // more pooled nodes than mc.cores, and a larger cluster after a smaller one
+        assertEvalFastR("library(parallel); r <- list(mclapply(1:8, function(x) x + 1, mc.cores=4), mclapply(1:8, function(x) x + 2, mc.cores=2), mclapply(1:8, function(x) x + 3, mc.cores=4)); " +
+                        "identical(lapply(r, unlist), list(2:9, 3:10, 4:11))", "TRUE");
+        // a node still running a task is not pooled and does not block stopCluster
+        assertEvalFastR("library(parallel); cl <- makeForkCluster(2); invisible(parallel:::sendCall(cl[[1]], function() { Sys.sleep(1); 1 }, list())); stopCluster(cl); unlist(mclapply(1:4, function(x) x * 2, mc.cores=2))", "c(2, 4, 6, 8)");
+    }
+
+    @Test
+    public void testStreams() {
+        assertEval("library(parallel); RNGkind(\"L'Ecuyer-CMRG\"); f <- function() { set.seed(42); unlist(mclapply(1:8, function(i) runif(1), mc.cores=2)) }; x <- f(); c(identical(x, f()), length(unique(x)))");
+    }
+
+    @Test
+    public void testGuidedScheduling() {
+        assertEval("library(parallel); x <- setNames(1:50, paste0('e', 1:50)); cl <- makeCluster(3, ifelse(exists('engine', where=R.version),'SHARED','PSOCK')); r <- parLapply(cl, x, function(i) { if (i %% 10 == 0) Sys.sleep(0.1); i * 2 }); stopCluster(cl); r");
+        assertEval("library(parallel); r <- mclapply(1:20, function(i) { if (i == 7) stop('seven'); sqrt(i) }, mc.cores=2, mc.preschedule=FALSE); c(sum(sapply(r, is.numeric)), class(r[[7]]))");
+        assertEval("library(parallel); cl <- makeCluster(2, ifelse(exists('engine', where=R.version),'SHARED','PSOCK')); r <- tryCatch(parLapply(cl, 1:10, function(i) if (i == 3) stop('three') else i), error=function(e) 'failed'); r2 <- parLapply(cl, 1:4, function(i) i); stopCluster(cl); list(r, r2)");
+    }
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.fastr;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+public class TestMmap extends TestBase {
+
+    @Test
+    public void testMmap() {
+        assertEvalFastR("{ f <- tempfile(); writeBin(c(1.5, NA, -3), f); x <- .fastr.mmap(f); unlink(f); list(x, sum(x, na.rm=TRUE), x * 2) }",
+                        "list(c(1.5, NA, -3), -1.5, c(3, NA, -6))");
+        assertEvalFastR("{ f <- tempfile(); writeBin(1:10, f); x <- .fastr.mmap(f, 'integer', offset=8, n=3); unlink(f); x }", "3:5");
+        assertEvalFastR("{ f <- tempfile(); writeBin(as.raw(1:4), f); x <- .fastr.mmap(f, 'raw'); y <- x; y[1] <- as.raw(9); list(x, y, readBin(f, 'raw', 4)) }",
+                        "list(as.raw(1:4), as.raw(c(9, 2:4)), as.raw(1:4))");
+        assertEvalFastR("{ f <- tempfile(); writeBin(c(1, 2), f); x <- .fastr.mmap(f, mode='copyonwrite'); x[2] <- 42; list(x, readBin(f, 'double', 2)) }",
+                        "list(c(1, 42), c(1, 2))");
+        assertEvalFastR("{ f <- tempfile(); writeBin(1:2, f); tryCatch(.fastr.mmap(f, 'integer', n=3), error=function(e) 'error') }", "'error'");
+    }
+}
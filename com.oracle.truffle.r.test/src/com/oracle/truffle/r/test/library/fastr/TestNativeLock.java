@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.fastr;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+public class TestNativeLock extends TestBase {
+
+    @Test
+    public void testNativeLock() {
+        assertEvalFastR("{ names(.fastr.native.lock()) }", "c('name', 'locked', 'calls', 'contended', 'wait')");
+        assertEvalFastR("{ l <- .fastr.native.lock('stats', TRUE); x <- l$locked[l$name == 'stats']; l <- .fastr.native.lock('stats', FALSE); list('stats' %in% l$name, length(x) > 0 && all(x), any(l$locked[l$name == 'stats'])) }",
+                        "list(TRUE, TRUE, FALSE)");
+        // filter is implemented by a .Call into the native code of stats
+        assertEvalFastR("{ invisible(.fastr.native.lock('stats', TRUE, reset=TRUE)); y <- stats::filter(1:10, rep(1, 3)); l <- .fastr.native.lock('stats', FALSE); list(as.vector(y[2:9]), sum(l$calls[l$name == 'stats']) > 0) }",
+                        "list(c(6, 9, 12, 15, 18, 21, 24, 27), TRUE)");
+        assertEvalFastR("{ l <- .fastr.native.lock(reset=TRUE); l <- .fastr.native.lock(); list(all(l$calls == 0), all(l$wait == 0), any(l$locked)) }", "list(TRUE, TRUE, FALSE)");
+        assertEvalFastR("{ l <- .fastr.native.lock('notLoadedPackage', TRUE); l <- .fastr.native.lock('notLoadedPackage', FALSE); 'notLoadedPackage' %in% l$name }", "FALSE");
+    }
+}
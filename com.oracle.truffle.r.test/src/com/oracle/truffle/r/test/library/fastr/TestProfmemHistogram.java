@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.fastr;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+public class TestProfmemHistogram extends TestBase {
+
+    @Test
+    public void testHistogram() {
+        String alloc = "f <- function(n) { for (i in 1:n) x <- rep(i + 0.5, 1000); x }; ";
+        assertEvalFastR("{ " + alloc + ".fastr.profmem(TRUE, 1L); invisible(.fastr.profmem.histogram(reset=TRUE)); f(100); h <- .fastr.profmem.histogram(); .fastr.profmem(FALSE); " +
+                        "i <- which(grepl('^f', h$fun) & h$type == 'double'); list(names(h), length(i), h$count[i] >= 100, h$bytes[i] >= 800000) }",
+                        "list(c('fun', 'type', 'count', 'bytes', 'copies', 'copied'), 1L, TRUE, TRUE)");
+        assertEvalFastR("{ " + alloc + ".fastr.profmem(TRUE, 10L); f(10000); .fastr.profmem(FALSE); h <- .fastr.profmem.histogram(reset=TRUE); " +
+                        "list(any(grepl('^f', h$fun) & h$count > 0), all(h$count %% 10 == 0), length(.fastr.profmem.histogram()$fun)) }", "list(TRUE, TRUE, 0L)");
+        assertEvalFastR("{ " + alloc + ".fastr.profmem(TRUE, 1L); tf <- tempfile(); f(10); .fastr.profmem.histogram(file=tf); .fastr.profmem(FALSE); l <- readLines(tf); unlink(tf); l[1:2] }",
+                        "c('sampling=1', 'bytes\\tcount\\tcopied\\tcopies\\ttype\\tfunction')");
+        assertEvalFastR("{ " + alloc + ".fastr.profmem(TRUE); tf <- tempfile(); f(10000); .fastr.profmem.histogram(file=tf); h <- .fastr.profmem.histogram(reset=TRUE); .fastr.profmem(FALSE); l <- readLines(tf); unlink(tf); " +
+                        "list(l[1], all(h$count %% 100 == 0)) }", "list('sampling=100', TRUE)");
+        // ending a memory profiling Rprof session does not stop recording the copies
+        assertEvalFastR("{ g <- function(i) { x <- (1:1000) + i; y <- x; y[1] <- 0; y }; .fastr.profmem(TRUE, 1L); invisible(.fastr.profmem.histogram(reset=TRUE)); " +
+                        "tf <- tempfile(); Rprof(tf, memory.profiling=TRUE); Rprof(NULL); unlink(tf); for (i in 1:10) g(i); h <- .fastr.profmem.histogram(); .fastr.profmem(FALSE); " +
+                        "sum(h$copies[grepl('^g', h$fun)]) > 0 }", "TRUE");
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.fastr;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+public class TestRegExpCache extends TestBase {
+
+    @Test
+    public void testCache() {
+        assertEvalFastR("{ invisible(.fastr.regexp.cache(TRUE)); x <- gsub('a+', 'b', c('aa', 'caat', 'a')); s <- .fastr.regexp.cache(); list(x, s[['hits']] > 0) }",
+                        "list(c('b', 'cbt', 'b'), TRUE)");
+        assertEvalFastR("{ invisible(.fastr.regexp.cache(TRUE)); for (i in 1:3) x <- grepl('^[[:digit:]]+$', c('12', 'a1')); s <- .fastr.regexp.cache(TRUE); list(x, s[['hits']] >= 2, .fastr.regexp.cache()[['hits']]) }",
+                        "list(c(TRUE, FALSE), TRUE, 0)");
+        assertEvalFastR("{ x <- strsplit(c('a1b22c', 'd333e'), '[0-9]+', perl=TRUE); y <- strsplit(c('a1b22c', 'd333e'), '[0-9]+', perl=TRUE); identical(x, y) }", "TRUE");
+        assertEvalFastR("{ invisible(grepl('a+', 'aa', perl=TRUE)); invisible(Sys.setlocale('LC_CTYPE', Sys.getlocale('LC_CTYPE'))); invisible(.fastr.regexp.cache(TRUE)); x <- grepl('a+', 'aa', perl=TRUE); list(x, .fastr.regexp.cache()[['misses']]) }",
+                        "list(TRUE, 1)");
+        assertEvalFastR("{ names(.fastr.regexp.cache()) }", "c('hits', 'misses', 'size', 'capacity')");
+    }
+}
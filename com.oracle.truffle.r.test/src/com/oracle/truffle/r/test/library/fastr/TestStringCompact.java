@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.fastr;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+public class TestStringCompact extends TestBase {
+
+    @Test
+    public void testCompact() {
+        assertEvalFastR("{ x <- c(a='x', b=NA, c='NA', d='x'); y <- .fastr.string.compact(x); list(identical(x, y), is.na(y)) }",
+                        "list(TRUE, c(a=FALSE, b=TRUE, c=FALSE, d=FALSE))");
+        assertEvalFastR("{ x <- matrix(paste0('v', rep(1:3, 4)), 3); y <- .fastr.string.compact(x); list(identical(x, y), dim(y)) }", "list(TRUE, c(3L, 4L))");
+        assertEvalFastR("{ .fastr.string.compact(character(0)) }", "character(0)");
+        // equal elements are one instance, within a vector and across vectors
+        assertEvalFastR("{ x <- paste0('v', c(1, 2, 1)); y <- .fastr.string.compact(x); z <- .fastr.string.compact(paste0('v', 1)); id <- function(s) .fastr.identity(s); list(id(x[[1]]) == id(x[[3]]), id(y[[1]]) == id(y[[3]]), id(y[[1]]) == id(z[[1]])) }",
+                        "list(FALSE, TRUE, TRUE)");
+    }
+}
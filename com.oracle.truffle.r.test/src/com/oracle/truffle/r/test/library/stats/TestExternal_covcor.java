@@ -51,4 +51,17 @@ public class TestExternal_covcor extends TestBase {
         assertEval(template("cov(mtcars[,1:4], use='%0', method='%1')", useCov, methods));
         assertEval(template("cov(1:4, c(1,7,1,-4), use='%0', method='%1')", useCov, methods));
     }
+
+    @Test
+    public void testLargeMatrices() {
+        // large enough to be processed in parallel
+        String x = "x <- matrix(sin(1:120000) * 1:120000 %% 17, 2000); x[3, 5] <- NA; x[7, 9] <- NaN; y <- x[, 1:25] + cos(1:50000); ";
+        assertEval(template("{ " + x + "r <- %0(x, use='%1'); list(dim(r), round(sum(r, na.rm=TRUE), 6), sum(is.na(r)), round(r[c(1, 4, 5, 10), c(2, 5, 9, 60)], 8)) }", new String[]{"cor", "cov"},
+                        new String[]{"e", "c", "p"}));
+        assertEval(template("{ " + x + "r <- %0(x, y, use='%1'); list(dim(r), round(sum(r, na.rm=TRUE), 6), sum(is.na(r)), round(r[c(1, 4, 5, 10), c(2, 5, 9, 25)], 8)) }", new String[]{"cor", "cov"},
+                        new String[]{"e", "c", "p"}));
+        assertEval("{ x <- matrix(sin(1:9000) * 1:9000 %% 7, 300); x[3, 5] <- NA; r <- cor(x, method='kendall', use='p'); list(round(sum(r, na.rm=TRUE), 6), round(r[1:3, 4:6], 8)) }");
+        assertEval(template("{ x <- matrix(sin(1:6000) * 1:6000 %% 11, 600); x[3, 5] <- NA; d <- dist(x, method='%0'); list(length(d), round(sum(d), 4), round(d[c(1, 599, 1000, 179700)], 8)) }",
+                        new String[]{"euclidean", "maximum", "manhattan", "canberra", "binary", "minkowski"}));
+    }
 }
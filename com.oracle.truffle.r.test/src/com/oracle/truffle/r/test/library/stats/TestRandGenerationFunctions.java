@@ -102,6 +102,15 @@ public class TestRandGenerationFunctions extends TestBase {
         assertEval("for(gen in c(\"Buggy Kinderman-Ramage\", \"Ahrens-Dieter\", \"Box-Muller\", \"Inversion\", \"Kinderman-Ramage\", \"default\")) { print(paste0(gen, \":\")); RNGkind(NULL,gen); set.seed(42); print(rnorm(30)); }");
     }
 
+    @Test
+    public void testBulkGeneration() {
+        // scalar parameters are generated in bulk, recycled vectors one by one, the streams must match
+        assertEval(template("{ RNGkind(NULL, '%0'); n <- 5000; set.seed(7); x <- list(rnorm(n, 1, 2), runif(n, -1, 3), rexp(n, 2), rpois(n, 4), rpois(n, 50), rbinom(n, 20, 0.3), rbinom(n, 2000, 0.7)); " +
+                        "set.seed(7); y <- list(rnorm(n, c(1, 1), 2), runif(n, c(-1, -1), 3), rexp(n, c(2, 2)), rpois(n, c(4, 4)), rpois(n, c(50, 50)), rbinom(n, 20, c(0.3, 0.3)), rbinom(n, c(2000, 2000), 0.7)); identical(x, y) }",
+                        new String[]{"Inversion", "Kinderman-Ramage", "Box-Muller"}));
+        assertEval("{ set.seed(3); x <- c(sample(10000, 9000), sample(5, 10000, replace=TRUE), sample(3, 5000, replace=TRUE, prob=c(0.2, 0.5, 0.3))); list(sum(x), x[c(1, 9000, 14000, 24000)], runif(1)) }");
+    }
+
     @Test
     public void testDotRandomSeed() {
         assertEval(Output.IgnoreErrorContext, "{ .Random.seed }");
@@ -44,6 +44,14 @@ public class TestUtils extends TestBase {
         assertEval("methods(plot)");
     }
 
+    @Test
+    public void testRprof() {
+        String run = "g <- function(n) { s <- 0; for (i in 1:n) s <- s + sqrt(i); s }; x <- 0; while (x < 50) x <- x + g(20000) / g(20000); Rprof(NULL); l <- readLines(f); unlink(f); ";
+        assertEval("{ f <- tempfile(); Rprof(f, interval=0.005); " + run + "list(l[1], any(grepl('\"g\"', l[-1]))) }");
+        assertEval("{ f <- tempfile(); Rprof(f, interval=0.005, line.profiling=TRUE); " + run + "list(l[1], any(grepl('\"g\"', l[-1]))) }");
+        assertEvalFastR("{ f <- tempfile(fileext='.collapsed'); Rprof(f, interval=0.005); " + run + "any(grepl('(^|;)g [0-9]+$', l)) }", "TRUE");
+    }
+
     private static final String[] TEST_OCTSIZE_PARAMS = {"1L", "1.0", Integer.toString(Integer.MAX_VALUE), "NA", "NULL"};
 
     @Test